@@ -187,6 +187,16 @@ export const getFriendAnalyticsSeries = async (friendId: number, left: string, r
     return response.json();
 };
 
+// Batch variant — FriendAnalyticsController.getAnalyticsSeriesBatch. One request for every
+// friend's series (keyed by friend id), e.g. to draw all trend lines on a dashboard.
+export const getFriendAnalyticsSeriesBatch = async (friendIds: number[], left: string, right: string): Promise<Record<number, AnalyticsSeries>> => {
+    const response = await fetch(`${API_URL}/analyticsSeries/batch?friendIds=${friendIds.join(',')}&left=${left}&right=${right}`);
+    if (!response.ok) {
+        throw new Error(`Error: ${response.statusText}`);
+    }
+    return response.json();
+};
+
 // Added for the social.html SPA port. SocialController's full CRUD already
 // existed. IMPORTANT: despite the Java field being named `URL`
 // (Social.java/SocialDTO.java) and the legacy JS sending an "URL" key,
@@ -21,8 +21,8 @@ export interface Friend {
     averageDuration?: number;
     averageExcitement?: number;
     averageProximity?: number;
-    // Only populated by GET /api/friend/thisWeek (FriendController.getWeekFriends) —
-    // computed server-side against the current week's Mon-Sun window, not a stored field.
+    // Only populated by GET /api/friend/thisWeek (FriendRepository.findThisWeekRows) —
+    // computed in the query against the current week's Mon-Sun window, not a stored field.
     isBirthdayThisWeek?: boolean;
     // Contact-expectation role -> desiredRetention preset (RoleProperties).
     // Defaults server-side to "Casual" when never set.
@@ -151,7 +151,7 @@ def calculate_friend_moving_averages(friend_id: int, days_back: int = 30) -> str
         - intensity: Quality/experience rating of meetings  
         - duration: Average time spent per meeting
         
-    Note: The averages are pre-calculated daily by the chrono service for optimal performance.
+    Note: The averages are pre-calculated by the friend service (decayed to today on read).
     This function returns the latest cached values plus optional raw analytics data.
     """
     try:
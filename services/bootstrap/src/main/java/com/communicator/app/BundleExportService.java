@@ -20,9 +20,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.communicator.meeting.dtos.MeetingExportRow;
 import com.communicator.meeting.service.MeetingQueryService;
 
-import communicate.Friend.DTOs.FriendDTO;
-import communicate.Friend.FriendEntities.Friend;
-import communicate.Friend.FriendEntities.SchedulingRolePreset;
 import communicate.Friend.FriendRepositories.SchedulingRolePresetRepository;
 import communicate.Friend.FriendService.FriendService;
 import communicate.backup.crypto.EncryptionService;
@@ -164,8 +161,10 @@ public class BundleExportService {
     private OfflineBundle gather() {
         String exportedAt = Instant.now().toString();
 
-        List<BundleRow> friends = friendService.getAllFriends().stream()
-            .map(f -> new BundleRow(f.getId(), toFriendDTO(f), exportedAt))
+        // Same column-only FriendDTO projection the /allFriends endpoint serves
+        // (FriendRepository.FRIEND_ROW), averages decayed to the export date.
+        List<BundleRow> friends = friendService.getAllFriendDTOs().stream()
+            .map(f -> new BundleRow(f.id(), f, exportedAt))
             .toList();
 
         List<BundleRow> groups = groupService.getAllGroups().stream()
@@ -194,16 +193,6 @@ public class BundleExportService {
         return new OfflineBundle(BUNDLE_VERSION, exportedAt, entities);
     }
 
-    // Same field-by-field mapping FriendController.getAllFriends() uses (isBirthdayThisWeek
-    // hardcoded false there too — a derived/computed field, not stored data, out of scope for
-    // a snapshot bundle). Kept in sync manually; no shared Friend->FriendDTO mapper exists yet.
-    private static FriendDTO toFriendDTO(Friend f) {
-        return new FriendDTO(f.getId(), f.getName(), f.getExperience(), f.getDateOfBirth(),
-            f.getPlannedSpeakingTime(), f.getAverageFrequency(), f.getAverageDuration(),
-            f.getAverageExcitement(), f.getAverageProximity(), false, f.getRole(),
-            f.getSchedulingExplanation(), f.getLeech(), f.getFlashcardsEnabled());
-    }
-
     private static GroupDTO toGroupDTO(SocialGroup g) {
         return new GroupDTO(g.getId(), g.getName(), g.getDescription());
     }
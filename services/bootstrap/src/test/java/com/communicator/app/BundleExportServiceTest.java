@@ -18,7 +18,7 @@ import com.communicator.meeting.entities.MeetingStatus;
 import com.communicator.meeting.entities.MeetingType;
 import com.communicator.meeting.service.MeetingQueryService;
 
-import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.DTOs.FriendDTO;
 import communicate.Friend.FriendEntities.SchedulingRolePreset;
 import communicate.Friend.FriendRepositories.SchedulingRolePresetRepository;
 import communicate.Friend.FriendService.FriendService;
@@ -64,11 +64,8 @@ class BundleExportServiceTest {
         when(encryptionService.isConfigured()).thenReturn(true);
     }
 
-    private Friend friend(int id) {
-        Friend f = new Friend();
-        f.setId(id);
-        f.setName("Alice");
-        return f;
+    private FriendDTO friend(int id) {
+        return new FriendDTO(id, "Alice", "**", null, null, 0.0, 0.0, 0.0, 0.0, false, "Casual", null, false, false, null);
     }
 
     private SocialGroup group(int id) {
@@ -97,7 +94,7 @@ class BundleExportServiceTest {
     @Test
     void allQueriesSucceed_uploadsEncryptedBundleWithAllFiveEntityTypes() throws Exception {
         configured();
-        when(friendService.getAllFriends()).thenReturn(List.of(friend(1)));
+        when(friendService.getAllFriendDTOs()).thenReturn(List.of(friend(1)));
         when(groupService.getAllGroups()).thenReturn(List.of(group(2)));
         when(connectionService.getAll()).thenReturn(List.of(connection(1L, 3L)));
         when(meetingQueryService.allForExport()).thenReturn(List.of(meetingRow(9L)));
@@ -119,6 +116,7 @@ class BundleExportServiceTest {
         assertThat(json.get("exportedAt").asText()).isNotBlank();
         var entities = json.get("entities");
         assertThat(entities.get("friends")).hasSize(1);
+        assertThat(entities.get("friends").get(0).get("data").get("name").asText()).isEqualTo("Alice");
         assertThat(entities.get("groups")).hasSize(1);
         assertThat(entities.get("connections")).hasSize(1);
         assertThat(entities.get("meetings")).hasSize(1);
@@ -142,7 +140,7 @@ class BundleExportServiceTest {
     @Test
     void oneEntityQueryThrows_abortsRun_neverUploads() throws Exception {
         configured();
-        when(friendService.getAllFriends()).thenReturn(List.of(friend(1)));
+        when(friendService.getAllFriendDTOs()).thenReturn(List.of(friend(1)));
         when(groupService.getAllGroups()).thenThrow(new RuntimeException("DB hiccup"));
 
         boolean result = service().exportNow();
@@ -155,7 +153,7 @@ class BundleExportServiceTest {
     @Test
     void encryptionThrows_neverUploads() throws Exception {
         configured();
-        when(friendService.getAllFriends()).thenReturn(List.of());
+        when(friendService.getAllFriendDTOs()).thenReturn(List.of());
         when(groupService.getAllGroups()).thenReturn(List.of());
         when(connectionService.getAll()).thenReturn(List.of());
         when(meetingQueryService.allForExport()).thenReturn(List.of());
@@ -186,7 +184,7 @@ class BundleExportServiceTest {
     @Test
     void runResetsGuard_soASubsequentCallCanProceed() throws Exception {
         configured();
-        when(friendService.getAllFriends()).thenReturn(List.of());
+        when(friendService.getAllFriendDTOs()).thenReturn(List.of());
         when(groupService.getAllGroups()).thenReturn(List.of());
         when(connectionService.getAll()).thenReturn(List.of());
         when(meetingQueryService.allForExport()).thenReturn(List.of());
@@ -204,7 +202,7 @@ class BundleExportServiceTest {
     @Test
     void failedRun_alsoResetsGuard() throws Exception {
         configured();
-        when(friendService.getAllFriends()).thenThrow(new RuntimeException("boom"));
+        when(friendService.getAllFriendDTOs()).thenThrow(new RuntimeException("boom"));
         BundleExportService svc = service();
 
         svc.exportNow();
@@ -23,6 +23,5 @@ public class ChronoProperties {
     @Data
     public static class FriendService {
         private int batchSize = 200; // Default batch size for interaction checks
-        private int friendPageSize = 500; // Default page size for friend pagination
     }
 }
@@ -1,16 +1,10 @@
 package com.communicator.chrono.service;
 
-import com.communicator.chrono.config.ChronoProperties;
 import com.communicator.knowledgecore.event.KnowledgeChunkTriggerEvent;
 import com.communicator.knowledgecore.service.KnowledgeChunkTriggerClient;
-import communicate.Friend.Config.EmaProperties;
-import communicate.Friend.DTOs.ShortFriendDTO;
-import communicate.Friend.FriendService.AnalyticsService;
-import communicate.Friend.FriendService.EmaMathService;
 import communicate.Friend.FriendService.FlashcardBankruptcyService;
 import communicate.Friend.FriendService.FlashcardReviewSettingsService;
 import communicate.Friend.FriendService.FlashcardSpreadService;
-import communicate.Friend.FriendService.FriendService;
 import communicate.Friend.FriendService.FsrsNeglectService;
 import communicate.Friend.FriendEntities.FlashcardReviewSettings;
 import lombok.RequiredArgsConstructor;
@@ -19,10 +13,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,11 +23,6 @@ public class ChronoJobService {
 
     // Same JVM as friend now (see PathPrefixConfig) — called as plain Spring
     // beans instead of over HTTP, which used to round-trip through nginx.
-    private final FriendService friendService;
-    private final AnalyticsService analyticsService;
-    private final ChronoProperties chronoProperties;
-    private final EmaMathService emaMathService;
-    private final EmaProperties emaProperties;
     private final FsrsNeglectService fsrsNeglectService;
     private final FlashcardBankruptcyService flashcardBankruptcyService;
     private final FlashcardSpreadService flashcardSpreadService;
@@ -50,68 +37,17 @@ public class ChronoJobService {
     private final KnowledgeChunkTriggerClient knowledgeChunkTriggerClient;
 
     /**
-     * Runs every day at midnight to apply decay for friends who didn't have interactions yesterday
+     * Runs every day at midnight. The visualization EMAs no longer decay here —
+     * that's computed on read from Friend.emaAsOf (EmaDecayService), so a
+     * missed run can't leave them stale. What's left is scheduling/flashcard
+     * maintenance.
      */
     @Scheduled(cron = "0 0 0 * * ?")
     public void applyDailyDecay() {
-        log.info("Starting daily decay process");
-        LocalDate yesterday = LocalDate.now().minusDays(1);
-        
-        try {
-            // Get total friend count to calculate total pages
-            long totalFriends = friendService.getFriendsCount();
-            int pageSize = chronoProperties.getFriendService().getFriendPageSize();
-            int totalPages = (int) Math.ceil((double) totalFriends / pageSize);
-
-            log.info("Processing {} friends across {} pages (page size: {})",
-                    totalFriends, totalPages, pageSize);
-
-            int processedFriends = 0;
-            int decayedFriends = 0;
-
-            // Process each page of friends
-            for (int page = 0; page < totalPages; page++) {
-                log.debug("Processing page {} of {}", page + 1, totalPages);
-
-                // Get this page of friends
-                List<ShortFriendDTO> friends = friendService.getFriendsPaginatedForChrono(page, pageSize);
-
-                if (friends.isEmpty()) {
-                    log.debug("No friends found on page {}, ending pagination", page);
-                    break;
-                }
+        log.info("Starting nightly maintenance run");
 
-                // Extract friend IDs for batch interaction check
-                List<Integer> friendIds = friends.stream()
-                        .map(ShortFriendDTO::id)
-                        .collect(Collectors.toList());
-
-                // Batch check: which friends had interactions yesterday
-                List<Integer> friendsWithInteractions = analyticsService
-                        .getFriendsWithInteractionsOnDate(friendIds, yesterday);
-
-                // Apply decay to friends who didn't have interactions
-                for (ShortFriendDTO friend : friends) {
-                    if (!friendsWithInteractions.contains(friend.id())) {
-                        applyDecayToFriend(friend, yesterday);
-                        decayedFriends++;
-                    }
-                    processedFriends++;
-                }
-
-                log.debug("Page {} complete: {} friends processed", page + 1, friends.size());
-            }
-            
-            log.info("Daily decay process completed: {} friends processed, {} decayed",
-                    processedFriends, decayedFriends);
-
-        } catch (Exception e) {
-            log.error("Error during daily decay process", e);
-        }
-
-        // Same nightly cron slot, separate concern (design doc Next Steps #8):
-        // FSRS/bandit scheduling state's chronic-neglect lapse, independent of
-        // the EMA visualization decay above.
+        // Design doc Next Steps #8: FSRS/bandit scheduling state's
+        // chronic-neglect lapse.
         try {
             fsrsNeglectService.applyNightlyLapse();
         } catch (Exception e) {
@@ -119,7 +55,7 @@ public class ChronoJobService {
         }
 
         // Flashcard-review (design doc "Feature D") nightly lapse + daily-cap
-        // spread — same slot, independent of the two concerns above. Order
+        // spread — same slot, independent of the lapse above. Order
         // matters: bankruptcy/neglect lapses first (they redistribute their
         // own overdue rows via least-loaded-day), then a global spread pass
         // enforces maxDailyReviews across the WHOLE pool (including rows
@@ -208,33 +144,6 @@ public class ChronoJobService {
         }
     }
 
-    private void applyDecayToFriend(ShortFriendDTO friend, LocalDate decayDate) {
-        // Get current EMA values
-        double currentFrequency = friend.averageFrequency() != null ? friend.averageFrequency() : 0.0;
-        double currentDuration = friend.averageDuration() != null ? friend.averageDuration() : 0.0;
-        double currentExcitement = friend.averageExcitement() != null ? friend.averageExcitement() : 0.0;
-        double currentProximity = friend.averageProximity() != null ? friend.averageProximity() : 0.0;
-
-        // Decay rate depends on this friend's last logged experience rating (see
-        // EmaProperties.getDecayAlpha) — previously this was hardcoded to "good"
-        // for every friend regardless of rating.
-        double decayAlpha = emaProperties.getDecayAlpha(friend.experience());
-
-        double newFrequency = emaMathService.applyDecay(currentFrequency, decayAlpha);
-        double newDuration = emaMathService.applyDecay(currentDuration, decayAlpha);
-        double newExcitement = emaMathService.applyDecay(currentExcitement, decayAlpha);
-        double newProximity = emaMathService.applyDecay(currentProximity, decayAlpha);
-
-        try {
-            friendService.updateMovingAverages(friend.id(), newFrequency, newDuration, newExcitement, newProximity);
-            log.debug("Applied decay to friend {}: freq {:.3f}→{:.3f}, dur {:.3f}→{:.3f}, exc {:.3f}→{:.3f}, prox {:.3f}→{:.3f}",
-                    friend.id(), currentFrequency, newFrequency,
-                    currentDuration, newDuration, currentExcitement, newExcitement, currentProximity, newProximity);
-        } catch (Exception e) {
-            log.warn("Failed to apply decay to friend {}", friend.id(), e);
-        }
-    }
-
     /**
      * Manual trigger for testing purposes
      */
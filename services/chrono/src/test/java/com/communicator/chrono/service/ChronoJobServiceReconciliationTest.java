@@ -11,17 +11,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 
-import com.communicator.chrono.config.ChronoProperties;
 import com.communicator.knowledgecore.event.KnowledgeChunkTriggerEvent;
 import com.communicator.knowledgecore.service.KnowledgeChunkTriggerClient;
 
-import communicate.Friend.Config.EmaProperties;
-import communicate.Friend.FriendService.AnalyticsService;
-import communicate.Friend.FriendService.EmaMathService;
 import communicate.Friend.FriendService.FlashcardBankruptcyService;
 import communicate.Friend.FriendService.FlashcardReviewSettingsService;
 import communicate.Friend.FriendService.FlashcardSpreadService;
-import communicate.Friend.FriendService.FriendService;
 import communicate.Friend.FriendService.FsrsNeglectService;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -46,11 +41,6 @@ class ChronoJobServiceReconciliationTest {
 
     private ChronoJobService newService() {
         return new ChronoJobService(
-                mock(FriendService.class),
-                mock(AnalyticsService.class),
-                mock(ChronoProperties.class),
-                mock(EmaMathService.class),
-                mock(EmaProperties.class),
                 mock(FsrsNeglectService.class),
                 mock(FlashcardBankruptcyService.class),
                 mock(FlashcardSpreadService.class),
@@ -1,5 +1,6 @@
 package coommunicator.connections.Connections.ConnectionsRepositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,4 +19,10 @@ public interface ConnectionRepository extends JpaRepository<Connection, Connecti
     List<Connection> findByFriendId(@Param("friendId") Long friendId);
 
     List<Connection> findByType(ConnectionType type);
+
+    // Every tracked pair with both ends in the given set (ids are stored
+    // normalized, friend1Id < friend2Id) — one statement for all the pairs of
+    // a group, instead of a lookup per pair.
+    @Query("SELECT c.id FROM Connection c WHERE c.id.friend1Id IN :friendIds AND c.id.friend2Id IN :friendIds")
+    List<ConnectionId> findIdsAmong(@Param("friendIds") Collection<Long> friendIds);
 }
@@ -0,0 +1,35 @@
+package communicate.Friend.Config;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * host-wrapper.* — where the local LLM gateway lives and how hard
+ * HostWrapperClient leans on it. Defaults match what ExplanationService and
+ * OutreachService used inline before they shared the client.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "host-wrapper")
+public class HostWrapperProperties {
+
+    private String url = "http://host-wrapper:5011";
+
+    /** Per-call deadline for a /complete round trip. */
+    private Duration timeout = Duration.ofSeconds(8);
+
+    /** Bulkhead: simultaneous calls in flight, across every caller. */
+    private int maxConcurrent = 4;
+
+    /** How long a call waits for a bulkhead slot before it's rejected. */
+    private Duration bulkheadWait = Duration.ofSeconds(1);
+
+    /** Consecutive failed calls that open the circuit. */
+    private int failureThreshold = 3;
+
+    /** How long an open circuit fails fast before letting one probe through. */
+    private Duration openDuration = Duration.ofSeconds(30);
+}
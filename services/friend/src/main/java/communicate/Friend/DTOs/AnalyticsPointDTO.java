@@ -0,0 +1,8 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+// Column-only view of one Analytics row — everything the EMA series walk
+// reads (AnalyticsSeriesEngine), without loading the entity or its friend.
+public record AnalyticsPointDTO(Integer friendId, LocalDate date, Double hours, String experience, Boolean inPerson) {
+}
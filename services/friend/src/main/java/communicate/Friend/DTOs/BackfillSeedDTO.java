@@ -0,0 +1,20 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/**
+ * One unseeded friend's history summary for FsrsBackfillService, aggregated
+ * in SQL: interaction count, distinct interaction days and the first/last
+ * date (which between them give the mean gap between consecutive days),
+ * plus the EMA columns its difficulty estimate reads.
+ */
+public record BackfillSeedDTO(
+        Integer friendId,
+        String experience,
+        Double averageExcitement,
+        LocalDate emaAsOf,
+        Long interactions,
+        Long distinctDays,
+        LocalDate firstDate,
+        LocalDate lastDate) {
+}
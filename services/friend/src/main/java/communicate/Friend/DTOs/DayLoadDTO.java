@@ -0,0 +1,7 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/** How many rows are due on one calendar day — seed for DayLoadIndex. */
+public record DayLoadDTO(LocalDate date, Long count) {
+}
@@ -0,0 +1,4 @@
+package communicate.Friend.DTOs;
+
+public record DurationCountDTO(Double hours, Long count) {
+}
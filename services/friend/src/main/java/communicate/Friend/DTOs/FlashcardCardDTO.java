@@ -2,11 +2,13 @@ package communicate.Friend.DTOs;
 
 import java.time.LocalDate;
 
+import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
+
 /**
  * One flashcard shown to the review UI — resolves the underlying
  * FriendKnowledge/GroupKnowledge fact text server-side so the frontend
- * never needs to know about the two source tables. See
- * FlashcardReviewService.toDto.
+ * never needs to know about the two source tables. Built straight from
+ * FriendKnowledgeReviewRepository.CARD's join.
  */
 public record FlashcardCardDTO(
     Integer reviewId,
@@ -21,4 +23,13 @@ public record FlashcardCardDTO(
     LocalDate lastReviewedDate,
     LocalDate dueDate
 ) {
+
+    /** CARD's constructor: the left-joined fact columns are null once the source fact is deleted. */
+    public FlashcardCardDTO(Integer reviewId, Integer friendId, String friendName, SourceType sourceType,
+                            Integer sourceKnowledgeId, String fact, Long importance, Double fsrsStability,
+                            Double fsrsDifficulty, LocalDate lastReviewedDate, LocalDate dueDate) {
+        this(reviewId, friendId, friendName, sourceType.name(), sourceKnowledgeId,
+            fact != null ? fact : "(deleted fact)", importance,
+            fsrsStability, fsrsDifficulty, lastReviewedDate, dueDate);
+    }
 }
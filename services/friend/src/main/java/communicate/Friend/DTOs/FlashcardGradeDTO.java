@@ -0,0 +1,12 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/**
+ * One self-grade in a review-session batch (POST /flashcards/session/grades).
+ * reviewedAt is the day the card was actually graded on the device, so a
+ * batch flushed after a stretch offline still measures elapsed time from the
+ * real review; null means today.
+ */
+public record FlashcardGradeDTO(Integer reviewId, Integer grade, LocalDate reviewedAt) {
+}
@@ -0,0 +1,17 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/**
+ * A card's FSRS state after a session batch was applied — just the fields
+ * grading changes, for the client to patch onto the FlashcardCardDTO it
+ * already holds instead of re-reading the card.
+ */
+public record FlashcardGradedDTO(
+    Integer reviewId,
+    Double fsrsStability,
+    Double fsrsDifficulty,
+    LocalDate lastReviewedDate,
+    LocalDate dueDate
+) {
+}
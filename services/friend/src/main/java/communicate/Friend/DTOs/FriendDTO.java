@@ -1,10 +1,11 @@
 package communicate.Friend.DTOs;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public record FriendDTO(Integer id, String name, String experience, LocalDate dateOfBirth, LocalDate plannedSpeakingTime,
                        Double averageFrequency, Double averageDuration, Double averageExcitement, Double averageProximity,
                        Boolean isBirthdayThisWeek, String role, String schedulingExplanation, Boolean leech,
-                       Boolean flashcardsEnabled) {
+                       Boolean flashcardsEnabled, LocalDateTime deletedAt) {
 
 }
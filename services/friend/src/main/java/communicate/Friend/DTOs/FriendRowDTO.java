@@ -0,0 +1,14 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Column-only read of a friend list row (FriendRepository.FRIEND_ROW): FriendDTO's
+// fields with the averages as stored, plus emaAsOf so EmaDecayService can decay
+// them to today. Never touches the entity, so none of its collections load.
+// isBirthdayThisWeek is last so each query supplies it after the shared prefix.
+public record FriendRowDTO(Integer id, String name, String experience, LocalDate dateOfBirth, LocalDate plannedSpeakingTime,
+                           Double averageFrequency, Double averageDuration, Double averageExcitement, Double averageProximity,
+                           String role, String schedulingExplanation, Boolean leech, Boolean flashcardsEnabled,
+                           LocalDateTime deletedAt, LocalDate emaAsOf, Boolean isBirthdayThisWeek) {
+}
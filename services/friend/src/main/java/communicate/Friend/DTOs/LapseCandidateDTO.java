@@ -0,0 +1,18 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/**
+ * The columns FsrsNeglectService's nightly lapse reads from a chronically
+ * overdue friend — FSRS state, elapsed-time anchor, due date, role (for
+ * desiredRetention) and the leech counter — instead of the whole entity.
+ */
+public record LapseCandidateDTO(
+        Integer id,
+        Double fsrsStability,
+        Double fsrsDifficulty,
+        LocalDate lastInteractionDate,
+        LocalDate plannedSpeakingTime,
+        String role,
+        Integer missedDueCount) {
+}
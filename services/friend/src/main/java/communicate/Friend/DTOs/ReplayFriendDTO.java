@@ -0,0 +1,18 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/**
+ * What FsrsReplayService needs per active friend before replaying its
+ * history: role (desiredRetention/maxIntervalDays), name (explanation
+ * template), and the current scheduling state the dry-run diffs against.
+ */
+public record ReplayFriendDTO(
+        Integer id,
+        String name,
+        String role,
+        Double fsrsStability,
+        Double fsrsDifficulty,
+        LocalDate lastInteractionDate,
+        LocalDate plannedSpeakingTime) {
+}
@@ -1,5 +1,9 @@
 package communicate.Friend.DTOs;
 
+import java.time.LocalDate;
+
+// emaAsOf: date the averages are current through (see Friend.emaAsOf).
 public record ShortFriendDTO(Integer id, String name, Double averageFrequency,
-                           Double averageDuration, Double averageExcitement, Double averageProximity, String experience) {
+                           Double averageDuration, Double averageExcitement, Double averageProximity, String experience,
+                           LocalDate emaAsOf) {
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package communicate.Friend.DTOs;
+
+import java.time.LocalDate;
+
+/** The three columns FlashcardSpreadService needs per review row. */
+public record SpreadRowDTO(Integer id, LocalDate dueDate, Double fsrsDifficulty) {
+}
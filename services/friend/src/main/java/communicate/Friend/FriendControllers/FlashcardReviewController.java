@@ -13,10 +13,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import communicate.Friend.DTOs.FlashcardCardDTO;
 import communicate.Friend.DTOs.FlashcardFolderDTO;
+import communicate.Friend.DTOs.FlashcardGradeDTO;
 import communicate.Friend.FriendEntities.FlashcardReviewSettings;
 import communicate.Friend.FriendEntities.Friend;
 import communicate.Friend.FriendService.FlashcardEnrollmentService;
@@ -37,6 +39,8 @@ import lombok.RequiredArgsConstructor;
 @CrossOrigin(origins = "http://nginx", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT})
 public class FlashcardReviewController {
 
+    private static final int MAX_SESSION_CARDS = 100;
+
     private final FlashcardEnrollmentService enrollmentService;
     private final FlashcardReviewService reviewService;
     private final FlashcardReviewSettingsService settingsService;
@@ -83,6 +87,25 @@ public class FlashcardReviewController {
         }
     }
 
+    // Review session: prefetch the next `limit` due cards, grade them on the
+    // device, post every grade back in one request.
+    @GetMapping("/session")
+    public List<FlashcardCardDTO> getSessionCards(@RequestParam(defaultValue = "20") int limit) {
+        return reviewService.getSessionCards(Math.max(1, Math.min(limit, MAX_SESSION_CARDS)));
+    }
+
+    @PostMapping("/session/grades")
+    public ResponseEntity<?> gradeSession(@RequestBody List<FlashcardGradeDTO> grades) {
+        for (FlashcardGradeDTO g : grades) {
+            if (g.reviewId() == null || g.grade() == null
+                    || g.grade() < FsrsService.GRADE_HARD || g.grade() > FsrsService.GRADE_EASY) {
+                return ResponseEntity.badRequest().body(Map.of("message",
+                    "Every grade needs a \"reviewId\" and a \"grade\" of 2 (Hard), 3 (Good) or 4 (Easy)."));
+            }
+        }
+        return ResponseEntity.ok(reviewService.gradeSession(grades));
+    }
+
     @GetMapping("/settings")
     public FlashcardReviewSettings getSettings() {
         return settingsService.get();
@@ -8,6 +8,9 @@ import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
 
 //import org.bson.Document;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -20,6 +23,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequiredArgsConstructor
 @CrossOrigin(origins = "http://nginx", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
 public class FriendAnalyticsController {
+
+    private static final int MAX_BATCH_FRIENDS = 100;
+
     private final AnalyticsService analyticsService;
 
     @GetMapping("analyticsList")
@@ -34,4 +40,18 @@ public class FriendAnalyticsController {
     public AnalyticsSeriesDTO getAnalyticsSeries(@RequestParam Integer friendId, @RequestParam LocalDate left, @RequestParam LocalDate right){
         return analyticsService.computeSeries(friendId, left, right);
     }
+
+    // Same series for many friends in one round trip (dashboard trend lines):
+    // one query for all their rows, per-friend walks computed in parallel.
+    // friendIds accepts either repeated params or a comma-separated list, at
+    // most MAX_BATCH_FRIENDS distinct ids — one request can't pull every
+    // friend's rows into memory at once.
+    @GetMapping("analyticsSeries/batch")
+    public ResponseEntity<?> getAnalyticsSeriesBatch(@RequestParam List<Integer> friendIds, @RequestParam LocalDate left, @RequestParam LocalDate right){
+        if (friendIds.stream().distinct().count() > MAX_BATCH_FRIENDS) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                "At most " + MAX_BATCH_FRIENDS + " friendIds per request."));
+        }
+        return ResponseEntity.ok(analyticsService.computeSeriesBatch(friendIds, left, right));
+    }
 }
@@ -9,6 +9,7 @@ import communicate.Friend.DTOs.MCP_Friend_DTO;
 import communicate.Friend.DTOs.ShortFriendDTO;
 import communicate.Friend.FriendEntities.Friend;
 import communicate.Friend.FriendEntities.Photos;
+import communicate.Friend.FriendService.EmaDecayService;
 import communicate.Friend.FriendService.FileMetaDataReadService;
 import communicate.Friend.FriendService.FriendService;
 import communicate.Friend.FriendService.OutboxWriteService;
@@ -18,7 +19,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,18 +51,13 @@ public class FriendController {
     private final FileMetaDataReadService fileMetaDataReadService;
     private final OutreachService outreachService;
     private final OutboxWriteService outboxWriteService;
+    private final EmaDecayService emaDecayService;
 
     //private static final Logger logger = LoggerFactory.getLogger(MyController.class);
     
     @GetMapping("allFriends")
     public List<FriendDTO> getAllFriends() {
-        List<Friend> friends = friendService.getAllFriends();
-        List<FriendDTO> result = new ArrayList<>();
-        for(Friend f: friends){
-            result.add( new FriendDTO(f.getId(), f.getName(), f.getExperience(), f.getDateOfBirth(), f.getPlannedSpeakingTime(),
-                                    f.getAverageFrequency(), f.getAverageDuration(), f.getAverageExcitement(), f.getAverageProximity(), false, f.getRole(), f.getSchedulingExplanation(), f.getLeech(), f.getFlashcardsEnabled()) );
-        }
-        return result;
+        return friendService.getAllFriendDTOs();
     }
 
     // Added for the talkedForm SPA port — the Thymeleaf /talked/{id} page
@@ -79,9 +74,7 @@ public class FriendController {
         if (friend.getId() == null) {
             return ResponseEntity.notFound().build();
         }
-        FriendDTO dto = new FriendDTO(friend.getId(), friend.getName(), friend.getExperience(), friend.getDateOfBirth(),
-                friend.getPlannedSpeakingTime(), friend.getAverageFrequency(), friend.getAverageDuration(),
-                friend.getAverageExcitement(), friend.getAverageProximity(), false, friend.getRole(), friend.getSchedulingExplanation(), friend.getLeech(), friend.getFlashcardsEnabled());
+        FriendDTO dto = toFriendDTO(friend, LocalDate.now());
         return ResponseEntity.ok(dto);
     }
 
@@ -135,28 +128,7 @@ public class FriendController {
 
     @GetMapping("thisWeek")
     public List<FriendDTO> getWeekFriends() {
-        List<Friend> friends = friendService.findThisWeek();
-        List<FriendDTO> result = new ArrayList<>();
-        
-        // Get current week boundaries to check for birthdays
-        LocalDate now = LocalDate.now();
-        LocalDate monday = now.minusDays(now.getDayOfWeek().getValue() - 1);
-        LocalDate sunday = monday.plusDays(6);
-        int currentYear = now.getYear();
-        
-        for(Friend f: friends){
-            boolean isBirthdayThisWeek = false;
-            
-            // Check if friend has a birthday this week
-            if (f.getDateOfBirth() != null) {
-                LocalDate birthdayThisYear = f.getDateOfBirth().withYear(currentYear);
-                isBirthdayThisWeek = !birthdayThisYear.isBefore(monday) && !birthdayThisYear.isAfter(sunday);
-            }
-            
-            result.add( new FriendDTO(f.getId(), f.getName(), f.getExperience(), f.getDateOfBirth(), f.getPlannedSpeakingTime(),
-                                    f.getAverageFrequency(), f.getAverageDuration(), f.getAverageExcitement(), f.getAverageProximity(), isBirthdayThisWeek, f.getRole(), f.getSchedulingExplanation(), f.getLeech(), f.getFlashcardsEnabled()) );
-        }
-        return result;
+        return friendService.findThisWeek();
     }
 
     @PostMapping("addFriend")
@@ -202,7 +174,7 @@ public class FriendController {
     }
 
     @GetMapping("/deletedFriends")
-    public ResponseEntity<List<Friend>> getDeletedFriends() {
+    public ResponseEntity<List<FriendDTO>> getDeletedFriends() {
         return ResponseEntity.ok(friendService.getDeletedFriends());
     }
 
@@ -300,12 +272,7 @@ public class FriendController {
             @PathVariable int page, 
             @PathVariable int size) {
         try {
-            Page<Friend> friendsPage = friendService.getFriendsPagedForUI(page, size);
-            List<FriendDTO> friends = friendsPage.getContent().stream()
-                .map(f -> new FriendDTO(f.getId(), f.getName(), f.getExperience(), f.getDateOfBirth(), f.getPlannedSpeakingTime(),
-                                        f.getAverageFrequency(), f.getAverageDuration(), f.getAverageExcitement(), f.getAverageProximity(), false, f.getRole(), f.getSchedulingExplanation(), f.getLeech(), f.getFlashcardsEnabled()))
-                .toList();
-            return ResponseEntity.ok(friends);
+            return ResponseEntity.ok(friendService.getFriendsPagedForUI(page, size));
         } catch (Exception e) {
             System.err.println("Error retrieving paginated friends for UI: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
@@ -352,4 +319,15 @@ public class FriendController {
             return null;
         }
     }
+
+    // Single-friend read, which has the entity loaded anyway; the list
+    // endpoints use FriendRepository.FRIEND_ROW instead. Averages go out
+    // decayed to today (stored values are only current as of Friend.emaAsOf
+    // — see EmaDecayService).
+    private FriendDTO toFriendDTO(Friend f, LocalDate today) {
+        EmaDecayService.Averages ema = emaDecayService.asOf(f, today);
+        return new FriendDTO(f.getId(), f.getName(), f.getExperience(), f.getDateOfBirth(), f.getPlannedSpeakingTime(),
+                ema.frequency(), ema.duration(), ema.excitement(), ema.proximity(), false,
+                f.getRole(), f.getSchedulingExplanation(), f.getLeech(), f.getFlashcardsEnabled(), f.getDeletedAt());
+    }
 }
@@ -0,0 +1,30 @@
+package communicate.Friend.FriendControllers;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import communicate.Friend.FriendService.HostWrapperClient;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Read-only view of the shared host-wrapper client (circuit state, bulkhead
+ * occupancy, outcome counters, latency histograms) — covers both the
+ * explanation polish and outreach drafts. No auth, same as every other
+ * friend/** endpoint.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/host-wrapper")
+@CrossOrigin(origins = "http://nginx", allowedHeaders = "*", methods = {RequestMethod.GET})
+public class HostWrapperController {
+
+    private final HostWrapperClient hostWrapperClient;
+
+    @GetMapping("/stats")
+    public HostWrapperClient.HostWrapperStats stats() {
+        return hostWrapperClient.stats();
+    }
+}
@@ -0,0 +1,37 @@
+package communicate.Friend.FriendControllers;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import communicate.Friend.FriendService.ExplanationCache;
+import communicate.Friend.FriendService.ExplanationPolishService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Read-only view of the async explanation-polish pipeline (queue depth,
+ * in-flight LLM calls, outcome counters, latency) and of the polished-shape
+ * cache in front of it (size, hit rate) — the same poll-a-status
+ * shape backup's /status uses. No auth, same as every other friend/** endpoint.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/scheduling/explanations")
+@CrossOrigin(origins = "http://nginx", allowedHeaders = "*", methods = {RequestMethod.GET})
+public class SchedulingExplanationController {
+
+    private final ExplanationPolishService polishService;
+    private final ExplanationCache explanationCache;
+
+    @GetMapping("/stats")
+    public ExplanationPolishService.PolishStats stats() {
+        return polishService.stats();
+    }
+
+    @GetMapping("/cache")
+    public ExplanationCache.CacheStats cacheStats() {
+        return explanationCache.stats();
+    }
+}
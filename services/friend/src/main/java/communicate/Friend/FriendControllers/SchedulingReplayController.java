@@ -0,0 +1,31 @@
+package communicate.Friend.FriendControllers;
+
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import communicate.Friend.FriendService.FsrsReplayService;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Full FSRS state replay from analytics history — run after changing a
+ * role preset, the grade cutoffs or the FSRS weights. Defaults to a dry run
+ * (old vs new per friend, nothing written); pass dryRun=false to apply.
+ * No auth, same as every other friend/** endpoint.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/scheduling/replay")
+@CrossOrigin(origins = "http://nginx", allowedHeaders = "*", methods = {RequestMethod.POST})
+public class SchedulingReplayController {
+
+    private final FsrsReplayService replayService;
+
+    @PostMapping
+    public FsrsReplayService.ReplayReport replay(@RequestParam(defaultValue = "true") boolean dryRun) {
+        return replayService.replay(dryRun);
+    }
+}
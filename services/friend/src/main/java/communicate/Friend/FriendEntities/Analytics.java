@@ -4,12 +4,16 @@ import java.time.LocalDate;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import communicate.Friend.FriendService.AnalyticsDurationListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,6 +21,9 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
+// (friend_id, date) backs every per-friend date-range/history read.
+@Table(indexes = @Index(name = "idx_analytics_friend_date", columnList = "friend_id, date"))
+@EntityListeners(AnalyticsDurationListener.class)
 @Data
 @Builder
 @AllArgsConstructor
@@ -10,6 +10,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
@@ -18,7 +19,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Size;
@@ -27,6 +32,12 @@ import jakarta.validation.constraints.Size;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+// Both back FriendRepository.findThisWeekRows: due/overdue by planned date,
+// birthdays by month-day key.
+@Table(indexes = {
+        @Index(name = "idx_friend_planned_speaking_time", columnList = "planned_speaking_time"),
+        @Index(name = "idx_friend_birthday_md", columnList = "birthday_md")
+})
 @Data
 @Builder
 public class Friend {
@@ -59,6 +70,15 @@ public class Friend {
     @Column(name = "date_of_birth")
     private LocalDate dateOfBirth;
 
+    // dateOfBirth's month * 100 + day (e.g. 1231), kept in step on every
+    // write so "birthday this week" is an indexed range check in SQL rather
+    // than a withYear() per row in Java. Month-day rather than day-of-year:
+    // DOY shifts by one after Feb 28 in leap years. Null when dateOfBirth is;
+    // rows that predate the column are stamped by BirthdayKeyRunner at boot.
+    @JsonIgnore
+    @Column(name = "birthday_md")
+    private Integer birthdayMd;
+
     @OneToMany(mappedBy = "friend",cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<FriendKnowledge> knowledge;
@@ -91,7 +111,8 @@ public class Friend {
     @JsonManagedReference
     private List<PersonalResource> resources;
 
-    // Exponential Moving Averages - calculated by chrono service
+    // Exponential Moving Averages - raised by EmaUpdateService on each logged
+    // interaction, decayed lazily on read (EmaDecayService) from emaAsOf below
     @Builder.Default
     @Column(name = "average_frequency")
     private Double averageFrequency = 0.0;
@@ -108,6 +129,15 @@ public class Friend {
     @Column(name = "average_proximity")
     private Double averageProximity = 0.0;
 
+    // Watermark for the averages above: every day up to and including this
+    // one has had its no-interaction decay applied (or skipped, for a day
+    // with a logged interaction). Days after it and before today are still
+    // owed and get applied in closed form, (1 - alpha)^n, by EmaDecayService
+    // on read — nothing rewrites these columns nightly. Null only on rows
+    // that predate the column, until EmaWatermarkRunner stamps them at boot.
+    @Column(name = "ema_as_of")
+    private LocalDate emaAsOf;
+
     // FSRS scheduling state (ReviewService) — null until this friend's first
     // reviewed interaction (see design doc's cold-start/backfill step). Kept
     // separate from the average_* EMA columns above: those are visualization-
@@ -153,6 +183,15 @@ public class Friend {
     @Column(name = "scheduling_explanation", columnDefinition = "TEXT")
     private String schedulingExplanation;
 
+    // True while schedulingExplanation still holds the raw template text
+    // ReviewService wrote at reschedule time, waiting on ExplanationPolishService's
+    // async LLM pass. Cleared when the polished sentence lands; left set if
+    // host-wrapper was unreachable so the next boot's resume sweep retries it.
+    // Null on legacy rows (pre-async), treated the same as false.
+    @Builder.Default
+    @Column(name = "scheduling_explanation_pending")
+    private Boolean schedulingExplanationPending = false;
+
     // Leech-flagging (design doc's "coolest unconsidered version" — Anki's
     // leech flag for cards you keep failing despite review, applied to
     // relationships): consecutive count of predicted due dates this friend's
@@ -182,6 +221,12 @@ public class Friend {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
 
+    @PrePersist
+    @PreUpdate
+    void syncBirthdayMd() {
+        birthdayMd = dateOfBirth == null ? null : dateOfBirth.getMonthValue() * 100 + dateOfBirth.getDayOfMonth();
+    }
+
     public Friend(String name, LocalDate lastTimeSpoken, String experience, LocalDate dateOfBirth) {
         setName(name);
         setPlannedSpeakingTime(lastTimeSpoken);
@@ -11,6 +11,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -38,7 +39,13 @@ import org.hibernate.annotations.OnDeleteAction;
  * trivia (design doc, explicit call-out).
  */
 @Entity
-@Table(name = "friend_knowledge_review")
+@Table(name = "friend_knowledge_review", indexes = {
+    // Nightly day-load seed (DayLoadIndex) and the today/overdue queue range scans.
+    @Index(name = "idx_friend_knowledge_review_due_date", columnList = "due_date"),
+    // One review row per (folder, source fact): the NOT EXISTS probe of every
+    // set-based enrollment insert, and the backstop if two enrollments race.
+    @Index(name = "uk_friend_knowledge_review_source", columnList = "friend_id, source_type, source_knowledge_id", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
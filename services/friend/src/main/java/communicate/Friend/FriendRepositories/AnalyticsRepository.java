@@ -1,38 +1,75 @@
 package communicate.Friend.FriendRepositories;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.DTOs.BackfillSeedDTO;
+import communicate.Friend.DTOs.DurationCountDTO;
 import communicate.Friend.FriendEntities.Analytics;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AnalyticsRepository extends JpaRepository<Analytics, Integer> {
     List<Analytics> findByFriendIdAndDateBetween(Integer friendId, LocalDate leftDateBoundary, LocalDate rightDateBoundary);
     
     /**
-     * Batch query: Find which friends from the given list had interactions on a specific date
-     * This avoids N+1 queries by using a single SQL query with IN clause
+     * Duration histogram (one row per distinct logged value) — DurationStatsService's
+     * warm-start seed. Duration is unbounded/continuous, unlike the closed 3-value
+     * star scale, so its normalization range must come from logged data rather than
+     * a fixed constant; this is read once per boot, not once per grade.
      */
-    @Query("SELECT DISTINCT a.friend.id FROM Analytics a WHERE a.friend.id IN :friendIds AND a.date = :date")
-    List<Integer> findFriendIdsWithInteractionsOnDate(@Param("friendIds") List<Integer> friendIds, @Param("date") LocalDate date);
+    @Query("SELECT new communicate.Friend.DTOs.DurationCountDTO(a.hours, COUNT(a)) FROM Analytics a " +
+           "WHERE a.hours IS NOT NULL GROUP BY a.hours")
+    List<DurationCountDTO> findHoursHistogram();
 
     /**
-     * Global bounds for duration minmax normalization (GradeComputationService).
-     * Duration is unbounded/continuous, unlike the closed 3-value star scale,
-     * so its normalization range must come from logged data rather than a
-     * fixed constant.
+     * Series points for one or more friends over [left, right], in insertion
+     * order within a day (a later row's rating wins that day, as it did when
+     * the walk ran over the entities) — AnalyticsSeriesEngine's input.
      */
-    @Query("SELECT MIN(a.hours) FROM Analytics a WHERE a.hours IS NOT NULL")
-    Double findMinHours();
+    @Query("SELECT new communicate.Friend.DTOs.AnalyticsPointDTO(a.friend.id, a.date, a.hours, a.experience, a.inPerson) " +
+           "FROM Analytics a WHERE a.friend.id IN :friendIds AND a.date BETWEEN :left AND :right " +
+           "ORDER BY a.friend.id, a.date, a.id")
+    List<AnalyticsPointDTO> findSeriesPoints(@Param("friendIds") Collection<Integer> friendIds,
+                                             @Param("left") LocalDate left,
+                                             @Param("right") LocalDate right);
+
+    /** Date of the friend's first interaction (null if none) — where a full EMA replay starts. */
+    @Query("SELECT MIN(a.date) FROM Analytics a WHERE a.friend.id = :friendId")
+    LocalDate findFirstDate(@Param("friendId") Integer friendId);
 
-    @Query("SELECT MAX(a.hours) FROM Analytics a WHERE a.hours IS NOT NULL")
-    Double findMaxHours();
+    /**
+     * FsrsBackfillService's source data: one row per active, unseeded friend
+     * with at least two logged interactions — count, distinct days and
+     * first/last date — in a single GROUP BY over idx_analytics_friend_date,
+     * instead of loading each friend's history.
+     */
+    @Query("SELECT new communicate.Friend.DTOs.BackfillSeedDTO(f.id, f.experience, f.averageExcitement, f.emaAsOf, " +
+           "COUNT(a), COUNT(DISTINCT a.date), MIN(a.date), MAX(a.date)) FROM Analytics a JOIN a.friend f " +
+           "WHERE f.fsrsStability IS NULL AND f.deletedAt IS NULL " +
+           "GROUP BY f.id, f.experience, f.averageExcitement, f.emaAsOf HAVING COUNT(a) >= 2")
+    List<BackfillSeedDTO> findBackfillSeeds();
 
-    /** Full interaction history for one friend, oldest first — FsrsBackfillService's source data. */
-    List<Analytics> findByFriendIdOrderByDateAsc(Integer friendId);
-}
\ No newline at end of file
+    /**
+     * FsrsReplayService's single pass: every active friend's interactions up
+     * to :today, ordered (friend, date, id) so each friend's history arrives
+     * contiguous and in the order ReviewService originally saw it. Streamed
+     * in fetch-size chunks rather than materialized; needs an open transaction.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new communicate.Friend.DTOs.AnalyticsPointDTO(a.friend.id, a.date, a.hours, a.experience, a.inPerson) " +
+           "FROM Analytics a WHERE a.friend.deletedAt IS NULL AND a.date <= :today " +
+           "ORDER BY a.friend.id, a.date, a.id")
+    Stream<AnalyticsPointDTO> streamReplayPoints(@Param("today") LocalDate today);
+}
@@ -3,7 +3,11 @@ package communicate.Friend.FriendRepositories;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import communicate.Friend.FriendEntities.BanditArm;
 import communicate.Friend.FriendEntities.BanditArmId;
@@ -11,4 +15,38 @@ import communicate.Friend.FriendEntities.BanditArmId;
 @Repository
 public interface BanditArmRepository extends JpaRepository<BanditArm, BanditArmId> {
     List<BanditArm> findByIdContextBucket(String contextBucket);
+
+    // BanditService.reward's write-through: the discounted Beta update done
+    // in place, so concurrent rewards on one cell serialize on the row lock
+    // instead of overwriting each other. 0 = the cell has no row yet.
+    @Transactional
+    @Modifying
+    @Query("UPDATE BanditArm b SET b.alpha = 1 + :discount * (b.alpha - 1) + :reward, " +
+           "b.beta = 1 + :discount * (b.beta - 1) + (1 - :reward) " +
+           "WHERE b.id.contextBucket = :bucket AND b.id.arm = :arm")
+    int discountAndReward(@Param("bucket") String bucket, @Param("arm") double arm,
+                          @Param("discount") double discount, @Param("reward") double reward);
+
+    // BanditService.rewardAll's write-through: k rewards on one cell folded
+    // into one relative update (scale = DISCOUNT^k, plus the discounted sums
+    // of the rewards) — discountAndReward is the k = 1 case. 0 = no row yet.
+    @Transactional
+    @Modifying
+    @Query("UPDATE BanditArm b SET b.alpha = 1 + :scale * (b.alpha - 1) + :addAlpha, " +
+           "b.beta = 1 + :scale * (b.beta - 1) + :addBeta " +
+           "WHERE b.id.contextBucket = :bucket AND b.id.arm = :arm")
+    int discountAndAdd(@Param("bucket") String bucket, @Param("arm") double arm, @Param("scale") double scale,
+                       @Param("addAlpha") double addAlpha, @Param("addBeta") double addBeta);
+
+    // First reward on a cell: both relative updates above matched no row, so
+    // seed the (1,1) prior and let the caller re-run its update. DO NOTHING
+    // makes two transactions seeding the same cell safe — the loser's insert
+    // is a no-op instead of a PK violation that would roll its whole
+    // transaction back.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO bandit_arms (context_bucket, arm, alpha, beta) VALUES (:bucket, :arm, 1, 1) " +
+                   "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int seedPrior(@Param("bucket") String bucket, @Param("arm") double arm);
 }
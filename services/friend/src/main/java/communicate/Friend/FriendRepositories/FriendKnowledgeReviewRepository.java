@@ -2,31 +2,140 @@ package communicate.Friend.FriendRepositories;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import communicate.Friend.DTOs.DayLoadDTO;
+import communicate.Friend.DTOs.FlashcardCardDTO;
+import communicate.Friend.DTOs.FlashcardFolderDTO;
+import communicate.Friend.DTOs.SpreadRowDTO;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview;
-import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
 
 @Repository
 public interface FriendKnowledgeReviewRepository extends JpaRepository<FriendKnowledgeReview, Integer> {
 
+    /**
+     * Review row + friend name + source fact in one statement: the fact is
+     * left-joined from whichever of FriendKnowledge/GroupKnowledge the row's
+     * sourceType names (null when it's been deleted). Append a WHERE.
+     */
+    String CARD = "SELECT new communicate.Friend.DTOs.FlashcardCardDTO(r.id, f.id, f.name, r.sourceType, " +
+        "r.sourceKnowledgeId, COALESCE(ff.text, gf.text), COALESCE(ff.priority, gf.priority), " +
+        "r.fsrsStability, r.fsrsDifficulty, r.lastReviewedDate, r.dueDate) " +
+        "FROM FriendKnowledgeReview r JOIN r.friend f " +
+        "LEFT JOIN FriendKnowledge ff ON r.sourceType = communicate.Friend.FriendEntities.FriendKnowledgeReview$SourceType.FRIEND " +
+        "AND ff.id = r.sourceKnowledgeId " +
+        "LEFT JOIN GroupKnowledge gf ON r.sourceType = communicate.Friend.FriendEntities.FriendKnowledgeReview$SourceType.GROUP " +
+        "AND gf.id = r.sourceKnowledgeId ";
+
+    // Today's capped/spread queue — only rows belonging to a currently
+    // starred friend, due today or earlier. Spread/bankruptcy jobs already
+    // wrote dueDate forward for anything over the cap, so no extra
+    // in-request capping is needed here.
+    @Query(CARD + "WHERE f.flashcardsEnabled = true AND r.dueDate <= :today ORDER BY r.dueDate, r.id")
+    List<FlashcardCardDTO> findDueCards(@Param("today") LocalDate today);
+
+    // The first page of the same queue — a review session's prefetch.
+    @Query(CARD + "WHERE f.flashcardsEnabled = true AND r.dueDate <= :today ORDER BY r.dueDate, r.id")
+    List<FlashcardCardDTO> findDueCards(@Param("today") LocalDate today, Pageable page);
+
     // Folder browsing (Friend.java's flashcardsEnabled star) — every card for
     // one friend regardless of due date, not subject to the daily cap.
-    List<FriendKnowledgeReview> findByFriendIdOrderByDueDateAsc(Integer friendId);
+    @Query(CARD + "WHERE f.id = :friendId ORDER BY r.dueDate, r.id")
+    List<FlashcardCardDTO> findCardsByFriendId(@Param("friendId") Integer friendId);
+
+    @Query(CARD + "WHERE r.id = :id")
+    Optional<FlashcardCardDTO> findCard(@Param("id") Integer id);
+
+    // Every starred friend with due/total card counts, one GROUP BY — the
+    // review page's folder list (friends with no cards yet included).
+    @Query("SELECT new communicate.Friend.DTOs.FlashcardFolderDTO(f.id, f.name, " +
+           "COALESCE(SUM(CASE WHEN r.dueDate <= :today THEN 1 ELSE 0 END), 0), COUNT(r)) " +
+           "FROM Friend f LEFT JOIN FriendKnowledgeReview r ON r.friend = f " +
+           "WHERE f.flashcardsEnabled = true AND f.deletedAt IS NULL GROUP BY f.id, f.name ORDER BY f.name")
+    List<FlashcardFolderDTO> findFolders(@Param("today") LocalDate today);
 
     List<FriendKnowledgeReview> findByFriendId(Integer friendId);
 
-    boolean existsByFriendIdAndSourceTypeAndSourceKnowledgeId(Integer friendId, SourceType sourceType, Integer sourceKnowledgeId);
+    // Set-based enrollment (FlashcardEnrollmentService): each is one
+    // INSERT ... SELECT ... WHERE NOT EXISTS, so starring a friend costs the
+    // same handful of statements however many facts they have. New rows are
+    // immediately due (:today), like a brand-new Anki card. Native because
+    // Hibernate routes an HQL insert-select into a pooled-sequence entity
+    // through a temp table; taking ids straight off the sequence can't
+    // collide with Hibernate's pooled blocks, it just skips ahead.
+    String ENROLL = "INSERT INTO friend_knowledge_review (id, friend_id, source_type, source_knowledge_id, due_date) ";
+    String NOT_ENROLLED = "NOT EXISTS (SELECT 1 FROM friend_knowledge_review r WHERE r.friend_id = :friendId " +
+        "AND r.source_type = :type AND r.source_knowledge_id = k.id)";
 
-    // Today's capped/spread queue — only rows belonging to a currently
-    // starred friend, due today or earlier. Spread/bankruptcy jobs already
-    // wrote dueDate forward for anything over the cap, so no extra
-    // in-request capping is needed here.
-    List<FriendKnowledgeReview> findByFriend_FlashcardsEnabledTrueAndDueDateLessThanEqual(LocalDate date);
+    @Modifying
+    @Query(value = ENROLL +
+           "SELECT nextval('friend_knowledge_review_seq'), k.friend_id, :type, k.id, :today FROM friend_knowledge k " +
+           "WHERE k.friend_id = :friendId AND " + NOT_ENROLLED,
+           nativeQuery = true)
+    int enrollFriendFacts(@Param("friendId") Integer friendId, @Param("type") String type,
+                          @Param("today") LocalDate today);
+
+    // Fast path for facts just logged through applyAddKnowledge — only those ids.
+    @Modifying
+    @Query(value = ENROLL +
+           "SELECT nextval('friend_knowledge_review_seq'), k.friend_id, :type, k.id, :today FROM friend_knowledge k " +
+           "WHERE k.friend_id = :friendId AND k.id IN (:ids) AND " + NOT_ENROLLED,
+           nativeQuery = true)
+    int enrollFriendFacts(@Param("friendId") Integer friendId, @Param("ids") List<Integer> ids,
+                          @Param("type") String type, @Param("today") LocalDate today);
+
+    // Inherited facts of every group the friend belongs to (members is
+    // unique per group/friend, so each fact comes through once).
+    @Modifying
+    @Query(value = ENROLL +
+           "SELECT nextval('friend_knowledge_review_seq'), gm.friend_id, :type, k.id, :today " +
+           "FROM members gm JOIN group_knowledge k ON k.group_id = gm.group_id " +
+           "WHERE gm.friend_id = :friendId AND " + NOT_ENROLLED,
+           nativeQuery = true)
+    int enrollGroupFacts(@Param("friendId") Integer friendId, @Param("type") String type,
+                         @Param("today") LocalDate today);
+
+    // New facts on one group, fanned out to every starred member of it in one
+    // statement (GroupKnowledgeAddedEvent) — cost scales with the members, not
+    // with the group's whole fact history.
+    @Modifying
+    @Query(value = ENROLL +
+           "SELECT nextval('friend_knowledge_review_seq'), gm.friend_id, :type, k.id, :today " +
+           "FROM members gm JOIN friend f ON f.id = gm.friend_id JOIN group_knowledge k ON k.group_id = gm.group_id " +
+           "WHERE gm.group_id = :groupId AND k.id IN (:ids) AND f.flashcards_enabled = true " +
+           "AND NOT EXISTS (SELECT 1 FROM friend_knowledge_review r WHERE r.friend_id = gm.friend_id " +
+           "AND r.source_type = :type AND r.source_knowledge_id = k.id)",
+           nativeQuery = true)
+    int enrollGroupFactsForStarredMembers(@Param("groupId") Integer groupId, @Param("ids") List<Integer> ids,
+                                          @Param("type") String type, @Param("today") LocalDate today);
 
     // Whole pool across every starred friend — input to the nightly
     // spread/bankruptcy jobs (FlashcardSpreadService/FlashcardBankruptcyService).
     List<FriendKnowledgeReview> findByFriend_FlashcardsEnabledTrue();
+
+    // Cards already due on each future day across every starred friend —
+    // seeds FlashcardBankruptcyService's DayLoadIndex in one GROUP BY.
+    @Query("SELECT new communicate.Friend.DTOs.DayLoadDTO(r.dueDate, COUNT(r)) FROM FriendKnowledgeReview r " +
+           "WHERE r.friend.flashcardsEnabled = true AND r.dueDate > :today GROUP BY r.dueDate")
+    List<DayLoadDTO> countDueAfter(@Param("today") LocalDate today);
+
+    // FlashcardSpreadService's single pass: every starred card as
+    // (id, due_date, difficulty), oldest due first, streamed in fetch-size
+    // chunks rather than materialized. Needs an open transaction.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new communicate.Friend.DTOs.SpreadRowDTO(r.id, r.dueDate, r.fsrsDifficulty) FROM FriendKnowledgeReview r " +
+           "WHERE r.friend.flashcardsEnabled = true ORDER BY r.dueDate, r.id")
+    Stream<SpreadRowDTO> streamSpreadRows();
 }
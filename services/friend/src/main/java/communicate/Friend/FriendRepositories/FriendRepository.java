@@ -3,12 +3,20 @@ package communicate.Friend.FriendRepositories;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import communicate.Friend.DTOs.DayLoadDTO;
+import communicate.Friend.DTOs.FriendRowDTO;
+import communicate.Friend.DTOs.LapseCandidateDTO;
+import communicate.Friend.DTOs.ReplayFriendDTO;
 import communicate.Friend.DTOs.ShortFriendDTO;
 import communicate.Friend.FriendEntities.Friend;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,10 +32,50 @@ public interface FriendRepository extends JpaRepository<Friend, Integer> {
     // of bin state. Only LIST/SEARCH queries below exclude deleted_at.
     Optional<Friend> findById(Integer id);
 
-    // Custom query to select id, name, and moving averages
-    @Query("SELECT new communicate.Friend.DTOs.ShortFriendDTO(f.id, f.name, f.averageFrequency, f.averageDuration, f.averageExcitement, f.averageProximity, f.experience) FROM Friend f WHERE f.deletedAt IS NULL")
+    // Custom query to select id, name, and moving averages (as stored — decayed
+    // forward from emaAsOf by EmaDecayService before leaving FriendService)
+    @Query("SELECT new communicate.Friend.DTOs.ShortFriendDTO(f.id, f.name, f.averageFrequency, f.averageDuration, f.averageExcitement, f.averageProximity, f.experience, f.emaAsOf) FROM Friend f WHERE f.deletedAt IS NULL")
     List<ShortFriendDTO> findAllShortFriendDTOs();
 
+    // Shared column list for every friend list endpoint (and the offline
+    // bundle): FriendRowDTO's constructor up to its last argument,
+    // isBirthdayThisWeek, which each query supplies before ") FROM Friend f".
+    // One statement per list, however many collections Friend grows.
+    String FRIEND_ROW = "SELECT new communicate.Friend.DTOs.FriendRowDTO(f.id, f.name, f.experience, f.dateOfBirth, " +
+            "f.plannedSpeakingTime, f.averageFrequency, f.averageDuration, f.averageExcitement, f.averageProximity, " +
+            "f.role, f.schedulingExplanation, f.leech, f.flashcardsEnabled, f.deletedAt, f.emaAsOf, ";
+
+    @Query(FRIEND_ROW + "false) FROM Friend f WHERE f.deletedAt IS NULL")
+    List<FriendRowDTO> findAllRows();
+
+    // Paged UI list — a List rather than a Page, the caller never needed the count.
+    @Query(FRIEND_ROW + "false) FROM Friend f WHERE f.deletedAt IS NULL")
+    List<FriendRowDTO> findRows(Pageable pageable);
+
+    // Bin view.
+    @Query(FRIEND_ROW + "false) FROM Friend f WHERE f.deletedAt IS NOT NULL")
+    List<FriendRowDTO> findDeletedRows();
+
+    // "This week" list: due/overdue (plannedSpeakingTime <= :sunday, on
+    // idx_friend_planned_speaking_time) or a birthday inside the week's
+    // month-day range(s) (idx_friend_birthday_md). A week spanning New Year
+    // is two ranges, [mdFrom1, mdTo1] and [mdFrom2, mdTo2]; otherwise the
+    // second is passed empty. isBirthdayThisWeek comes back already computed.
+    @Query(FRIEND_ROW +
+           "CASE WHEN f.birthdayMd BETWEEN :mdFrom1 AND :mdTo1 OR f.birthdayMd BETWEEN :mdFrom2 AND :mdTo2 THEN true ELSE false END) " +
+           "FROM Friend f WHERE f.deletedAt IS NULL AND (f.plannedSpeakingTime <= :sunday " +
+           "OR f.birthdayMd BETWEEN :mdFrom1 AND :mdTo1 OR f.birthdayMd BETWEEN :mdFrom2 AND :mdTo2)")
+    List<FriendRowDTO> findThisWeekRows(@Param("sunday") LocalDate sunday,
+                                        @Param("mdFrom1") int mdFrom1, @Param("mdTo1") int mdTo1,
+                                        @Param("mdFrom2") int mdFrom2, @Param("mdTo2") int mdTo2);
+
+    // BirthdayKeyRunner: rows written before birthday_md existed.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Friend f SET f.birthdayMd = EXTRACT(MONTH FROM f.dateOfBirth) * 100 + EXTRACT(DAY FROM f.dateOfBirth) " +
+           "WHERE f.dateOfBirth IS NOT NULL AND f.birthdayMd IS NULL")
+    int stampMissingBirthdayMd();
+
     // Paginated queries
     @Query("SELECT f FROM Friend f WHERE f.deletedAt IS NULL")
     Page<Friend> findAll(Pageable pageable);
@@ -35,20 +83,64 @@ public interface FriendRepository extends JpaRepository<Friend, Integer> {
     @Query("SELECT new communicate.Friend.DTOs.MCP_Friend_DTO(f.id, f.name, f.dateOfBirth) FROM Friend f WHERE f.deletedAt IS NULL")
     Page<communicate.Friend.DTOs.MCP_Friend_DTO> findAllMCPFriendDTOs(Pageable pageable);
 
-    // Flashcard-review folder list (ReviewPage's default view) — every
-    // currently-starred friend.
-    List<Friend> findByFlashcardsEnabledTrueAndDeletedAtIsNull();
-
     // Default (non-paginated) listing — excludes bin.
     List<Friend> findByDeletedAtIsNull();
 
-    // Bin view.
-    List<Friend> findByDeletedAtIsNotNull();
-
     // FriendService.getFriendsCount() — plain count() includes the bin.
     long countByDeletedAtIsNull();
 
     // PurgeService: everything soft-deleted more than 7 days ago.
     List<Friend> findByDeletedAtBefore(LocalDateTime cutoff);
 
+    // Active friends already planned for each future day — seeds
+    // FsrsNeglectService's DayLoadIndex in one GROUP BY over the
+    // planned_speaking_time index.
+    @Query("SELECT new communicate.Friend.DTOs.DayLoadDTO(f.plannedSpeakingTime, COUNT(f)) FROM Friend f " +
+           "WHERE f.deletedAt IS NULL AND f.plannedSpeakingTime > :today GROUP BY f.plannedSpeakingTime")
+    List<DayLoadDTO> countPlannedAfter(@Param("today") LocalDate today);
+
+    // FsrsNeglectService: active friends with FSRS state whose planned date
+    // is before the cutoff (today - CHRONIC_NEGLECT_DAYS), as a range scan
+    // on the planned_speaking_time index — only the overdue few are read.
+    @Query("SELECT new communicate.Friend.DTOs.LapseCandidateDTO(f.id, f.fsrsStability, f.fsrsDifficulty, " +
+           "f.lastInteractionDate, f.plannedSpeakingTime, f.role, f.missedDueCount) FROM Friend f " +
+           "WHERE f.plannedSpeakingTime < :cutoff AND f.deletedAt IS NULL " +
+           "AND f.fsrsStability IS NOT NULL AND f.fsrsDifficulty IS NOT NULL")
+    List<LapseCandidateDTO> findLapseCandidates(@Param("cutoff") LocalDate cutoff);
+
+    // FsrsReplayService: every active friend's role and current scheduling
+    // state, read once up front so the history stream stays column-only.
+    @Query("SELECT new communicate.Friend.DTOs.ReplayFriendDTO(f.id, f.name, f.role, f.fsrsStability, " +
+           "f.fsrsDifficulty, f.lastInteractionDate, f.plannedSpeakingTime) FROM Friend f WHERE f.deletedAt IS NULL")
+    List<ReplayFriendDTO> findReplayFriends();
+
+    // ExplanationPolishService: the raw template still waiting on its async
+    // LLM polish (empty once polished, or if the friend was rescheduled again
+    // and a newer template superseded it mid-flight).
+    @Query("SELECT f.schedulingExplanation FROM Friend f WHERE f.id = :id AND f.schedulingExplanationPending = true")
+    Optional<String> findPendingSchedulingExplanation(@Param("id") Integer id);
+
+    // ExplanationPolishService's boot-time resume sweep.
+    @Query("SELECT f.id FROM Friend f WHERE f.schedulingExplanationPending = true AND f.deletedAt IS NULL")
+    List<Integer> findIdsWithPendingSchedulingExplanation();
+
+    // Conditional write-back: only lands if the row still holds the exact
+    // template that was polished, so a reschedule that committed while the
+    // LLM call was in flight is never overwritten with a stale sentence.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Friend f SET f.schedulingExplanation = :polished, f.schedulingExplanationPending = false " +
+           "WHERE f.id = :id AND f.schedulingExplanationPending = true AND f.schedulingExplanation = :template")
+    int completeSchedulingExplanationPolish(@Param("id") Integer id,
+                                            @Param("template") String template,
+                                            @Param("polished") String polished);
+
+    // EmaWatermarkRunner: rows that predate the ema_as_of column were kept
+    // current by the old nightly decay job, so they're stamped as current
+    // through the given day rather than decayed from some unknown start.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Friend f SET f.emaAsOf = :asOf WHERE f.emaAsOf IS NULL")
+    int stampMissingEmaAsOf(@Param("asOf") LocalDate asOf);
+
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package communicate.Friend.FriendService;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import communicate.Friend.FriendEntities.Analytics;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+
+/**
+ * JPA entity listener on Analytics that keeps DurationStatsService in step
+ * with the table. Hooked at the entity level rather than in AnalyticsService
+ * so it also sees rows persisted through Friend's cascade (applyAddFriend)
+ * and rows removed by BinPurgeService's cascading hard delete. Bulk JPQL,
+ * native or JdbcTemplate writes never reach it — those call
+ * DurationStatsService.reseed() instead.
+ *
+ * Resolved through Hibernate's Spring bean container; the stats service is
+ * looked up lazily because the entity manager factory (and so this listener)
+ * is built before the repositories DurationStatsService depends on.
+ */
+@Component
+public class AnalyticsDurationListener {
+
+    private final ObjectProvider<DurationStatsService> durationStats;
+
+    public AnalyticsDurationListener(ObjectProvider<DurationStatsService> durationStats) {
+        this.durationStats = durationStats;
+    }
+
+    @PostPersist
+    void afterInsert(Analytics analytics) {
+        durationStats.ifAvailable(stats -> stats.onInserted(analytics.getHours()));
+    }
+
+    @PostRemove
+    void afterDelete(Analytics analytics) {
+        durationStats.ifAvailable(stats -> stats.onDeleted(analytics.getHours()));
+    }
+}
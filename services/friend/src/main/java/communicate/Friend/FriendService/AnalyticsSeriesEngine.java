@@ -0,0 +1,178 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.stereotype.Service;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.DTOs.AnalyticsSeriesDTO;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The day-by-day EMA walk behind the analytics charts, over primitive arrays
+ * indexed by epoch-day offset from {@code left}. Logged rows are bucketed
+ * straight into per-day double[] slots (no LocalDate-keyed maps, no boxed
+ * lists), then one fused pass walks all four EMAs and picks each day's alpha
+ * together, overwriting the raw slot with the smoothed value in place.
+ *
+ * Same arithmetic, in the same order, as the map-based walk it replaced:
+ * per-day duration summed, frequency counted, intensity/proximity/rating
+ * taken from the day's last row; a logged day uses the rating's new-data
+ * alpha, a silent day the last rating's decay alpha (starting from "*"), and
+ * every series is seeded with its own first raw value.
+ *
+ * Stateless, so the multi-friend variant just fans the per-friend walks out
+ * over the fork-join common pool — the labels array is built once and shared.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalyticsSeriesEngine {
+
+    private final EmaMathService emaMathService;
+    private final EmaProperties emaProperties;
+
+    /** Series for a single friend; {@code points} must all fall in [left, right] (others are ignored). */
+    public AnalyticsSeriesDTO compute(List<AnalyticsPointDTO> points, LocalDate left, LocalDate right) {
+        return walk(points, left, labels(left, right));
+    }
+
+    /**
+     * Series for every friend in {@code friendIds}, in that order, computed in
+     * parallel. Friends with no points still get a (flat-zero) series.
+     */
+    public Map<Integer, AnalyticsSeriesDTO> computeAll(List<Integer> friendIds, List<AnalyticsPointDTO> points,
+                                                       LocalDate left, LocalDate right) {
+        Map<Integer, List<AnalyticsPointDTO>> byFriend = points.stream()
+                .collect(Collectors.groupingBy(AnalyticsPointDTO::friendId));
+        String[] labels = labels(left, right);
+
+        AnalyticsSeriesDTO[] series = new AnalyticsSeriesDTO[friendIds.size()];
+        IntStream.range(0, series.length).parallel().forEach(i ->
+                series[i] = walk(byFriend.getOrDefault(friendIds.get(i), List.of()), left, labels));
+
+        Map<Integer, AnalyticsSeriesDTO> result = new LinkedHashMap<>();
+        for (int i = 0; i < series.length; i++) {
+            result.put(friendIds.get(i), series[i]);
+        }
+        return result;
+    }
+
+    private static String[] labels(LocalDate left, LocalDate right) {
+        long origin = left.toEpochDay();
+        int days = (int) Math.max(0, right.toEpochDay() - origin + 1);
+        String[] labels = new String[days];
+        for (int i = 0; i < days; i++) {
+            labels[i] = LocalDate.ofEpochDay(origin + i).toString();
+        }
+        return labels;
+    }
+
+    private AnalyticsSeriesDTO walk(List<AnalyticsPointDTO> points, LocalDate left, String[] labels) {
+        Days days = bucket(points, left, labels.length);
+        fold(days, seed(days), null);
+        return new AnalyticsSeriesDTO(labels, days.duration, days.frequency, days.intensity, days.proximity);
+    }
+
+    /**
+     * Continues the walk across [from, to] from {@code start}, the state at
+     * the end of {@code from - 1} — or, if {@code start} is null, seeds it
+     * from the first day exactly like {@link #compute} does, so resuming from
+     * a state this method returned lands where one long compute() would have.
+     * {@code onMonthEnd} (nullable) sees the state after every month's last day.
+     *
+     * @return state at the end of {@code to} ({@code start} if the range is empty)
+     */
+    public EmaState resume(EmaState start, List<AnalyticsPointDTO> points, LocalDate from, LocalDate to,
+                           BiConsumer<LocalDate, EmaState> onMonthEnd) {
+        Days days = bucket(points, from, (int) Math.max(0, to.toEpochDay() - from.toEpochDay() + 1));
+        if (days.length == 0) return start;
+        return fold(days, start != null ? start : seed(days), onMonthEnd);
+    }
+
+    /** The walk's carried state after some day: the four EMAs plus the rating silent days decay at. */
+    public record EmaState(double duration, double frequency, double intensity, double proximity,
+                           String lastExperience) {
+    }
+
+    /** Per-day raw values, indexed by epoch-day offset from {@code origin}. */
+    private static final class Days {
+        final long origin;
+        final int length;
+        final double[] duration, frequency, intensity, proximity;
+        final String[] experience;
+        final boolean[] logged;
+
+        Days(long origin, int length) {
+            this.origin = origin;
+            this.length = length;
+            duration = new double[length];
+            frequency = new double[length];
+            intensity = new double[length];
+            proximity = new double[length];
+            experience = new String[length];
+            logged = new boolean[length];
+        }
+    }
+
+    private Days bucket(List<AnalyticsPointDTO> points, LocalDate left, int length) {
+        Days days = new Days(left.toEpochDay(), length);
+        for (AnalyticsPointDTO p : points) {
+            long offset = p.date().toEpochDay() - days.origin;
+            if (offset < 0 || offset >= length) continue;
+            int i = (int) offset;
+            days.duration[i] += p.hours() != null ? p.hours() : 0.0;
+            days.frequency[i] += 1;
+            days.intensity[i] = emaMathService.experienceToNumber(p.experience());
+            days.proximity[i] = emaMathService.proximityToNumber(p.inPerson());
+            days.experience[i] = p.experience();
+            days.logged[i] = true;
+        }
+        return days;
+    }
+
+    // Every series starts from its own first raw value, with "*" as the
+    // rating a leading silent stretch decays at.
+    private static EmaState seed(Days days) {
+        if (days.length == 0) return null;
+        return new EmaState(days.duration[0], days.frequency[0], days.intensity[0], days.proximity[0], "*");
+    }
+
+    /** The fused pass: overwrites each day's raw slots with the smoothed values, returns the final state. */
+    private EmaState fold(Days days, EmaState start, BiConsumer<LocalDate, EmaState> onMonthEnd) {
+        if (days.length == 0) return start;
+        double d = start.duration(), f = start.frequency(), x = start.intensity(), q = start.proximity();
+        String lastExperience = start.lastExperience();
+        // Offset of the first month-end in range; only tracked when someone's listening.
+        long nextMonthEnd = onMonthEnd == null ? Long.MAX_VALUE : monthEndOffset(days.origin, 0);
+        for (int i = 0; i < days.length; i++) {
+            double alpha;
+            if (days.logged[i]) {
+                lastExperience = days.experience[i];
+                alpha = emaProperties.getNewDataAlpha(lastExperience);
+            } else {
+                alpha = emaProperties.getDecayAlpha(lastExperience);
+            }
+            d = days.duration[i] = emaMathService.applyNewValue(d, alpha, days.duration[i]);
+            f = days.frequency[i] = emaMathService.applyNewValue(f, alpha, days.frequency[i]);
+            x = days.intensity[i] = emaMathService.applyNewValue(x, alpha, days.intensity[i]);
+            q = days.proximity[i] = emaMathService.applyNewValue(q, alpha, days.proximity[i]);
+            if (i == nextMonthEnd) {
+                onMonthEnd.accept(LocalDate.ofEpochDay(days.origin + i), new EmaState(d, f, x, q, lastExperience));
+                nextMonthEnd = monthEndOffset(days.origin, i + 1);
+            }
+        }
+        return new EmaState(d, f, x, q, lastExperience);
+    }
+
+    private static long monthEndOffset(long origin, int fromOffset) {
+        LocalDate day = LocalDate.ofEpochDay(origin + fromOffset);
+        return day.withDayOfMonth(day.lengthOfMonth()).toEpochDay() - origin;
+    }
+}
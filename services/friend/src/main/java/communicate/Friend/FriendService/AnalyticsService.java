@@ -2,13 +2,13 @@ package communicate.Friend.FriendService;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.stereotype.Service;
 
-import communicate.Friend.Config.EmaProperties;
 import communicate.Friend.DTOs.AnalyticsSeriesDTO;
 import communicate.Friend.FriendEntities.Analytics;
 import communicate.Friend.FriendEntities.Friend;
@@ -22,8 +22,7 @@ public class AnalyticsService {
 
     private final AnalyticsRepository analyticsRepository;
     private final EmaUpdateService emaUpdateService;
-    private final EmaMathService emaMathService;
-    private final EmaProperties emaProperties;
+    private final AnalyticsSeriesEngine analyticsSeriesEngine;
 
     @Transactional
     public void save(Analytics analytics){
@@ -32,52 +31,65 @@ public class AnalyticsService {
             
             // Update EMA values in real-time when analytics is created
             if (analytics.getFriend() != null && analytics.getFriend().getId() != null) {
-                emaUpdateService.updateEmaOnNewAnalytics(
-                    analytics.getFriend().getId(),
-                    analytics.getExperience(),
-                    analytics.getHours(),
-                    analytics.getDate(),
-                    analytics.getInPerson()
-                );
+                emaUpdateService.updateEmaOnNewAnalytics(analytics.getFriend().getId(), List.of(analytics));
             }
         } catch (Exception e) {
            System.out.print("Error saving analytics " + e.toString());
         }
     }
+    /**
+     * Batched ingest for one friend's rows (talkedToFriend, mailbox replays,
+     * bulk imports): sorted oldest first, inserted in JDBC batches
+     * (hibernate.jdbc.batch_size), then one EMA replay from the oldest row's
+     * date and the friend written once — instead of an insert + findById +
+     * save per row.
+     */
     @Transactional
     public void saveAll(List<Analytics> analytics, Integer friendId){
+        if (analytics == null || analytics.isEmpty()) {
+            return;
+        }
         try {
-            for(Analytics a :analytics){
-                Friend f = new Friend();
-                f.setId(friendId);
+            Friend f = new Friend();
+            f.setId(friendId);
+            List<Analytics> sorted = sortedByDate(analytics);
+            for (Analytics a : sorted) {
                 a.setFriend(f);
-                analyticsRepository.save(a);
-                
-                // Update EMA values for each analytics entry
-                emaUpdateService.updateEmaOnNewAnalytics(friendId, a.getExperience(), a.getHours(), a.getDate(), a.getInPerson());
             }
+            analyticsRepository.saveAll(sorted);
+            emaUpdateService.updateEmaOnNewAnalytics(friendId, sorted);
         } catch (Exception e) {
            System.out.print("Error saving analytics " + e.toString());
         }
     }
     @Transactional
     public void saveAll(Friend friend){
+        List<Analytics> analytics = friend.getAnalytics();
+        if (analytics == null || analytics.isEmpty()) {
+            return;
+        }
         try {
-            List<Analytics> analytics = friend.getAnalytics();
-            for(Analytics a :analytics){
+            List<Analytics> sorted = sortedByDate(analytics);
+            for (Analytics a : sorted) {
                 a.setFriend(friend);
-                analyticsRepository.save(a);
-                
-                // Update EMA values for each analytics entry
-                if (friend.getId() != null) {
-                    emaUpdateService.updateEmaOnNewAnalytics(friend.getId(), a.getExperience(), a.getHours(), a.getDate(), a.getInPerson());
-                }
+            }
+            analyticsRepository.saveAll(sorted);
+            if (friend.getId() != null) {
+                emaUpdateService.updateEmaOnNewAnalytics(friend.getId(), sorted);
             }
         } catch (Exception e) {
            System.out.print("Error saving analytics " + e.toString());
         }
     }
 
+    // Oldest first, so the EMA fold sees interactions in the order they
+    // happened regardless of how the client listed them. Stable for same-day rows.
+    private static List<Analytics> sortedByDate(List<Analytics> analytics) {
+        List<Analytics> sorted = new ArrayList<>(analytics);
+        sorted.sort(Comparator.comparing(Analytics::getDate, Comparator.nullsLast(Comparator.naturalOrder())));
+        return sorted;
+    }
+
     @Transactional
     public List<Analytics> getFriendDateAnalytics(Integer friendId, LocalDate left, LocalDate right){
         try {
@@ -88,89 +100,32 @@ public class AnalyticsService {
         return new ArrayList<Analytics>();
     }
 
-    /**
-     * Batch check: Get list of friend IDs who had interactions on a specific date
-     * This is optimized for the chrono service to avoid N+1 queries
-     */
-    @Transactional
-    public List<Integer> getFriendsWithInteractionsOnDate(List<Integer> friendIds, LocalDate date) {
-        try {
-            return analyticsRepository.findFriendIdsWithInteractionsOnDate(friendIds, date);
-        } catch (Exception e) {
-            System.out.print("Error checking batch interactions " + e.toString());
-            return new ArrayList<Integer>();
-        }
-    }
-
     /**
      * Day-by-day EMA walk over [left, right] for one friend, computed with the
      * same shared step formula (EmaMathService) and alpha tables (EmaProperties)
-     * as the immediate-update and nightly-decay paths. Ported 1:1 from
+     * as the immediate-update and lazy-decay paths. Ported 1:1 from
      * react/src/utils/analyticsMath.ts's computeAnalyticsSeries, which used to
      * run this same walk independently in the browser — this is now the one
-     * place it happens, extended with proximity as a 4th tracked signal.
+     * place it happens, extended with proximity as a 4th tracked signal. The
+     * walk itself lives in AnalyticsSeriesEngine.
      */
     @Transactional
     public AnalyticsSeriesDTO computeSeries(Integer friendId, LocalDate left, LocalDate right) {
-        List<Analytics> records = getFriendDateAnalytics(friendId, left, right);
-
-        Map<LocalDate, Double> totalDurationByDate = new HashMap<>();
-        Map<LocalDate, Integer> frequencyByDate = new HashMap<>();
-        Map<LocalDate, Double> lastIntensityByDate = new HashMap<>();
-        Map<LocalDate, Double> lastProximityByDate = new HashMap<>();
-        Map<LocalDate, String> experienceByDate = new HashMap<>();
-
-        for (Analytics a : records) {
-            LocalDate date = a.getDate();
-            totalDurationByDate.merge(date, a.getHours() != null ? a.getHours() : 0.0, Double::sum);
-            frequencyByDate.merge(date, 1, Integer::sum);
-            lastIntensityByDate.put(date, emaMathService.experienceToNumber(a.getExperience()));
-            lastProximityByDate.put(date, emaMathService.proximityToNumber(a.getInPerson()));
-            experienceByDate.put(date, a.getExperience());
-        }
-
-        List<String> labels = new ArrayList<>();
-        List<Double> durationRaw = new ArrayList<>();
-        List<Double> frequencyRaw = new ArrayList<>();
-        List<Double> intensityRaw = new ArrayList<>();
-        List<Double> proximityRaw = new ArrayList<>();
-        List<Double> alphas = new ArrayList<>();
-
-        String lastExperience = "*";
-        for (LocalDate date = left; !date.isAfter(right); date = date.plusDays(1)) {
-            labels.add(date.toString());
-            frequencyRaw.add(frequencyByDate.getOrDefault(date, 0).doubleValue());
-            intensityRaw.add(lastIntensityByDate.getOrDefault(date, 0.0));
-            durationRaw.add(totalDurationByDate.getOrDefault(date, 0.0));
-            proximityRaw.add(lastProximityByDate.getOrDefault(date, 0.0));
-
-            double alpha;
-            if (experienceByDate.containsKey(date)) {
-                lastExperience = experienceByDate.get(date);
-                alpha = emaProperties.getNewDataAlpha(lastExperience);
-            } else {
-                alpha = emaProperties.getDecayAlpha(lastExperience);
-            }
-            alphas.add(alpha);
-        }
-
-        return new AnalyticsSeriesDTO(
-                labels,
-                emaWalk(durationRaw, alphas),
-                emaWalk(frequencyRaw, alphas),
-                emaWalk(intensityRaw, alphas),
-                emaWalk(proximityRaw, alphas)
-        );
+        return analyticsSeriesEngine.compute(
+                analyticsRepository.findSeriesPoints(List.of(friendId), left, right), left, right);
     }
 
-    private List<Double> emaWalk(List<Double> raw, List<Double> alphas) {
-        List<Double> result = new ArrayList<>(raw.size());
-        if (raw.isEmpty()) return result;
-        double previous = raw.get(0);
-        for (int i = 0; i < raw.size(); i++) {
-            previous = emaMathService.applyNewValue(previous, alphas.get(i), raw.get(i));
-            result.add(previous);
+    /**
+     * computeSeries for many friends at once — one query for every friend's
+     * rows, then the per-friend walks in parallel. Keyed by friend id in
+     * request order (duplicates collapsed).
+     */
+    @Transactional
+    public Map<Integer, AnalyticsSeriesDTO> computeSeriesBatch(List<Integer> friendIds, LocalDate left, LocalDate right) {
+        List<Integer> ids = List.copyOf(new LinkedHashSet<>(friendIds));
+        if (ids.isEmpty()) {
+            return Map.of();
         }
-        return result;
+        return analyticsSeriesEngine.computeAll(ids, analyticsRepository.findSeriesPoints(ids, left, right), left, right);
     }
 }
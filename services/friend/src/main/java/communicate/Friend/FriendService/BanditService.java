@@ -1,15 +1,17 @@
 package communicate.Friend.FriendService;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import communicate.Friend.FriendEntities.BanditArm;
-import communicate.Friend.FriendEntities.BanditArmId;
 import communicate.Friend.FriendRepositories.BanditArmRepository;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Thompson Sampling over interval multipliers — ported from ObsidianOptimizer's
@@ -23,7 +25,29 @@ import communicate.Friend.FriendRepositories.BanditArmRepository;
  *
  * Bankruptcy/chronic-neglect lapses are deliberately NOT fed here — exogenous
  * (the user didn't reach out), not a memory signal. Same exclusion as OO.
+ *
+ * The whole table is 4 buckets x 5 arms, so it lives in memory as two
+ * primitive arrays, each bucket loaded from bandit_arms on first use and
+ * guarded by its own lock (chooseArm no longer queries per decision).
+ * reward() updates the cell under that lock and writes through with one
+ * relative UPDATE (BanditArmRepository.discountAndReward) — the arithmetic
+ * runs in the database, so two transactions rewarding the same cell can't
+ * lose an update, and no DB call happens while a bucket lock is held (a
+ * group meeting rewarding several attendees in one transaction would
+ * otherwise deadlock against a concurrent one waiting on the row lock).
+ * That includes the cold load: the bucket's rows are read with the lock
+ * released and installed under it only if nobody else got there first. A
+ * cell's first reward seeds its prior row with an ON CONFLICT DO NOTHING
+ * insert and re-runs the UPDATE, so two transactions racing to create it
+ * both land. A rolled-back reward drops its bucket so the next use re-reads
+ * the committed rows. Postgres is the source of truth; the arrays are a cache.
+ *
+ * rewardAll() is the same update for a whole batch of rewards (a group
+ * meeting's attendees): each bucket's lock is taken once, and the rewards
+ * that land on one cell are folded into a single relative UPDATE
+ * (BanditArmRepository.discountAndAdd) instead of one per reward.
  */
+@Slf4j
 @Service
 public class BanditService {
 
@@ -36,6 +60,9 @@ public class BanditService {
     /** Beta discount per update (relax toward prior). Effective memory ~ 1/(1-y) ~ 33 obs. */
     static final double DISCOUNT = 0.97;
 
+    /** Every bucket() value, in the index order the in-memory table uses. */
+    static final String[] BUCKETS = {"dEasy:sShort", "dEasy:sLong", "dHard:sShort", "dHard:sLong"};
+
     // Relationship-scale cutpoint (design doc premise 7): OO's flashcard
     // bands (<7d/7-30d/>30d) treat "long-term" as starting at a month, which
     // is too short here — a 35-day gap and a 6-month gap would land in the
@@ -50,10 +77,21 @@ public class BanditService {
     private static final double DIFFICULTY_CUTOFF = 5.5;
 
     private final BanditArmRepository banditArmRepository;
-    private Random random = new Random();
+
+    // Cell (bucket b, arm a) is index b * ARMS.length + a; each bucket's
+    // slice and loaded flag are guarded by locks[b].
+    private final double[] alpha = new double[BUCKETS.length * ARMS.length];
+    private final double[] beta = new double[BUCKETS.length * ARMS.length];
+    private final boolean[] loaded = new boolean[BUCKETS.length];
+    private final Object[] locks = new Object[BUCKETS.length];
+
+    private RandomGenerator random; // null: ThreadLocalRandom, uncontended per thread
 
     public BanditService(BanditArmRepository banditArmRepository) {
         this.banditArmRepository = banditArmRepository;
+        for (int b = 0; b < locks.length; b++) {
+            locks[b] = new Object();
+        }
     }
 
     /** 2 difficulty tiers x 2 stability tiers — 4 cells (design doc premise 6). */
@@ -65,14 +103,26 @@ public class BanditService {
 
     /** Sample every arm's Beta for this bucket, return the argmax multiplier. */
     public double chooseArm(String bucket) {
-        Map<Double, double[]> params = loadParams(bucket);
+        int b = bucketIndex(bucket);
+        double[] ab = new double[2 * ARMS.length];
+        if (b < 0) {
+            // Not one of the 4 cells — sample the (1,1) prior, as an empty bucket would.
+            log.warn("[Bandit] Choosing from the prior for unknown bucket {}", bucket);
+            Arrays.fill(ab, 1.0);
+        } else {
+            ensureLoaded(b);
+            synchronized (locks[b]) {
+                System.arraycopy(alpha, b * ARMS.length, ab, 0, ARMS.length);
+                System.arraycopy(beta, b * ARMS.length, ab, ARMS.length, ARMS.length);
+            }
+        }
+        RandomGenerator rng = random();
         double bestArm = 1.0, bestSample = -1;
-        for (double arm : ARMS) {
-            double[] ab = params.getOrDefault(arm, new double[]{1, 1});
-            double sample = sampleBeta(ab[0], ab[1]);
+        for (int a = 0; a < ARMS.length; a++) {
+            double sample = sampleBeta(ab[a], ab[ARMS.length + a], rng);
             if (sample > bestSample) {
                 bestSample = sample;
-                bestArm = arm;
+                bestArm = ARMS[a];
             }
         }
         return bestArm;
@@ -80,13 +130,7 @@ public class BanditService {
 
     /** Snap a raw realised multiplier to the nearest arm; clamps above MAX_ARM. */
     public double snapArm(double rawMultiplier) {
-        double best = ARMS[0];
-        double bestDist = Math.abs(rawMultiplier - best);
-        for (double arm : ARMS) {
-            double dist = Math.abs(rawMultiplier - arm);
-            if (dist < bestDist) { bestDist = dist; best = arm; }
-        }
-        return best;
+        return ARMS[snapIndex(rawMultiplier)];
     }
 
     /**
@@ -97,37 +141,190 @@ public class BanditService {
      * reward.
      */
     public void reward(String bucket, double rawEffectiveMultiplier, boolean recalled) {
-        double arm = snapArm(rawEffectiveMultiplier);
+        int b = bucketIndex(bucket);
+        if (b < 0) {
+            // A pendingBanditBucket from before the 4-cell grid — nothing to credit.
+            log.warn("[Bandit] Skipping reward for unknown bucket {}", bucket);
+            return;
+        }
+        int a = snapIndex(rawEffectiveMultiplier);
+        double arm = ARMS[a];
         double r = recalled ? arm / MAX_ARM : 0.0;
 
-        double[] ab = loadParams(bucket).getOrDefault(arm, new double[]{1, 1});
-        double alpha = 1 + DISCOUNT * (ab[0] - 1) + r;
-        double beta  = 1 + DISCOUNT * (ab[1] - 1) + (1 - r);
+        int cell = b * ARMS.length + a;
+        ensureLoaded(b);
+        synchronized (locks[b]) {
+            alpha[cell] = 1 + DISCOUNT * (alpha[cell] - 1) + r;
+            beta[cell] = 1 + DISCOUNT * (beta[cell] - 1) + (1 - r);
+        }
 
-        banditArmRepository.save(new BanditArm(new BanditArmId(bucket, arm), alpha, beta));
+        onRollback(() -> invalidate(b));
+        try {
+            if (banditArmRepository.discountAndReward(bucket, arm, DISCOUNT, r) == 0) {
+                // First reward this cell has ever had: seed the prior, then apply this update to it.
+                banditArmRepository.seedPrior(bucket, arm);
+                banditArmRepository.discountAndReward(bucket, arm, DISCOUNT, r);
+            }
+        } catch (RuntimeException e) {
+            invalidate(b);
+            throw e;
+        }
     }
 
-    private Map<Double, double[]> loadParams(String bucket) {
-        List<BanditArm> rows = banditArmRepository.findByIdContextBucket(bucket);
-        Map<Double, double[]> params = new HashMap<>();
-        for (BanditArm row : rows) {
-            params.put(row.getId().getArm(), new double[]{row.getAlpha(), row.getBeta()});
+    /** One delayed reward for {@link #rewardAll} — the arguments {@link #reward} takes. */
+    public record Reward(String bucket, double rawEffectiveMultiplier, boolean recalled) {}
+
+    /**
+     * {@link #reward} for many rewards at once, applied in list order. Per
+     * touched cell, k rewards compose to alpha' = 1 + DISCOUNT^k (alpha - 1)
+     * + sum DISCOUNT^(k-1-j) r_j (beta likewise with 1 - r_j), which is what
+     * goes to the database: one UPDATE per cell, however many rewards hit it.
+     */
+    public void rewardAll(List<Reward> rewards) {
+        for (int b = 0; b < BUCKETS.length; b++) {
+            int touched = 0;
+            double[] scale = new double[ARMS.length], addAlpha = new double[ARMS.length], addBeta = new double[ARMS.length];
+            Arrays.fill(scale, 1.0);
+            for (Reward reward : rewards) {
+                if (!BUCKETS[b].equals(reward.bucket())) continue;
+                int a = snapIndex(reward.rawEffectiveMultiplier());
+                double r = reward.recalled() ? ARMS[a] / MAX_ARM : 0.0;
+                scale[a] *= DISCOUNT;
+                addAlpha[a] = DISCOUNT * addAlpha[a] + r;
+                addBeta[a] = DISCOUNT * addBeta[a] + (1 - r);
+                touched |= 1 << a;
+            }
+            if (touched != 0) {
+                writeThrough(b, touched, scale, addAlpha, addBeta);
+            }
+        }
+        for (Reward reward : rewards) {
+            if (bucketIndex(reward.bucket()) < 0) {
+                log.warn("[Bandit] Skipping reward for unknown bucket {}", reward.bucket());
+            }
+        }
+    }
+
+    // Applies the folded update to the touched cells of bucket b in memory
+    // (under its lock), then writes each through outside the lock.
+    private void writeThrough(int b, int touched, double[] scale, double[] addAlpha, double[] addBeta) {
+        ensureLoaded(b);
+        synchronized (locks[b]) {
+            for (int a = 0; a < ARMS.length; a++) {
+                if ((touched & (1 << a)) == 0) continue;
+                int cell = b * ARMS.length + a;
+                alpha[cell] = 1 + scale[a] * (alpha[cell] - 1) + addAlpha[a];
+                beta[cell] = 1 + scale[a] * (beta[cell] - 1) + addBeta[a];
+            }
+        }
+
+        onRollback(() -> invalidate(b));
+        try {
+            for (int a = 0; a < ARMS.length; a++) {
+                if ((touched & (1 << a)) == 0) continue;
+                if (banditArmRepository.discountAndAdd(BUCKETS[b], ARMS[a], scale[a], addAlpha[a], addBeta[a]) == 0) {
+                    banditArmRepository.seedPrior(BUCKETS[b], ARMS[a]);
+                    banditArmRepository.discountAndAdd(BUCKETS[b], ARMS[a], scale[a], addAlpha[a], addBeta[a]);
+                }
+            }
+        } catch (RuntimeException e) {
+            invalidate(b);
+            throw e;
+        }
+    }
+
+    /** Current in-memory (alpha, beta) of one cell — test/diagnostic hook. */
+    double[] cell(String bucket, double arm) {
+        int b = bucketIndex(bucket), cell = b * ARMS.length + snapIndex(arm);
+        ensureLoaded(b);
+        synchronized (locks[b]) {
+            return new double[]{alpha[cell], beta[cell]};
+        }
+    }
+
+    private static int bucketIndex(String bucket) {
+        for (int b = 0; b < BUCKETS.length; b++) {
+            if (BUCKETS[b].equals(bucket)) return b;
+        }
+        return -1;
+    }
+
+    private static int snapIndex(double rawMultiplier) {
+        int best = 0;
+        double bestDist = Math.abs(rawMultiplier - ARMS[0]);
+        for (int a = 1; a < ARMS.length; a++) {
+            double dist = Math.abs(rawMultiplier - ARMS[a]);
+            if (dist < bestDist) { bestDist = dist; best = a; }
+        }
+        return best;
+    }
+
+    // Caller must NOT hold locks[b]: the rows are read with the lock released
+    // and installed under it only if no other thread loaded the bucket in the
+    // meantime. Cells with no row yet sit at the (1,1) prior.
+    private void ensureLoaded(int b) {
+        synchronized (locks[b]) {
+            if (loaded[b]) return;
+        }
+        List<BanditArm> rows = banditArmRepository.findByIdContextBucket(BUCKETS[b]);
+        synchronized (locks[b]) {
+            if (loaded[b]) return;
+            int base = b * ARMS.length;
+            for (int a = 0; a < ARMS.length; a++) {
+                alpha[base + a] = 1;
+                beta[base + a] = 1;
+            }
+            for (BanditArm row : rows) {
+                int a = armIndex(row.getId().getArm());
+                if (a >= 0) {
+                    alpha[base + a] = row.getAlpha();
+                    beta[base + a] = row.getBeta();
+                }
+            }
+            loaded[b] = true;
+        }
+    }
+
+    private static int armIndex(Double arm) {
+        for (int a = 0; a < ARMS.length; a++) {
+            if (arm != null && ARMS[a] == arm) return a;
+        }
+        return -1;
+    }
+
+    private void invalidate(int b) {
+        synchronized (locks[b]) {
+            loaded[b] = false;
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) action.run();
+                }
+            });
         }
-        return params;
     }
 
     // ── Beta sampling via two Gammas (Marsaglia-Tsang), no extra dependency ──
 
     double sampleBeta(double alpha, double beta) {
-        double x = sampleGamma(alpha);
-        double y = sampleGamma(beta);
+        return sampleBeta(alpha, beta, random());
+    }
+
+    private static double sampleBeta(double alpha, double beta, RandomGenerator random) {
+        double x = sampleGamma(alpha, random);
+        double y = sampleGamma(beta, random);
         return x / (x + y);
     }
 
-    private double sampleGamma(double shape) {
+    private static double sampleGamma(double shape, RandomGenerator random) {
         if (shape < 1) {
             // Johnk boost: Gamma(a) = Gamma(a+1) * U^(1/a)
-            return sampleGamma(shape + 1) * Math.pow(random.nextDouble(), 1.0 / shape);
+            return sampleGamma(shape + 1, random) * Math.pow(random.nextDouble(), 1.0 / shape);
         }
         double d = shape - 1.0 / 3.0;
         double c = 1.0 / Math.sqrt(9.0 * d);
@@ -142,8 +339,12 @@ public class BanditService {
         }
     }
 
-    /** Test hook — deterministic sampling. */
-    void setRandom(Random random) {
+    private RandomGenerator random() {
+        return random != null ? random : ThreadLocalRandom.current();
+    }
+
+    /** Test hook — deterministic sampling (e.g. a seeded SplittableRandom). */
+    void setRandom(RandomGenerator random) {
         this.random = random;
     }
 }
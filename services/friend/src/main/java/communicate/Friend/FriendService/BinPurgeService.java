@@ -20,6 +20,10 @@ import java.util.List;
  * with DB-level ON DELETE CASCADE (see @OnDelete on those entities'
  * friend/meeting fields); everything else already cascades via Friend's own
  * @OneToMany(orphanRemoval = true) fields.
+ *
+ * A purge is the one bulk delete of analytics rows, so it also asks
+ * DurationStatsService to re-seed once it commits rather than relying on
+ * every cascaded row reaching AnalyticsDurationListener.
  */
 @Service
 @RequiredArgsConstructor
@@ -29,6 +33,7 @@ public class BinPurgeService {
     private static final int RETENTION_DAYS = 7;
 
     private final FriendRepository friendRepository;
+    private final DurationStatsService durationStatsService;
 
     @Scheduled(cron = "${friend.bin.purge.cron:0 0 3 * * *}", zone = "UTC")
     @Transactional
@@ -40,5 +45,6 @@ public class BinPurgeService {
         }
         log.info("[BinPurge] purging {} friend(s) deleted before {}", expired.size(), cutoff);
         friendRepository.deleteAll(expired);
+        durationStatsService.reseed();
     }
 }
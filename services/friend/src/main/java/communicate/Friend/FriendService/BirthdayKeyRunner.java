@@ -0,0 +1,31 @@
+package communicate.Friend.FriendService;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import communicate.Friend.FriendRepositories.FriendRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills Friend.birthdayMd on rows that predate it, once per boot, so the
+ * "this week" query's birthday range sees them. Every later write keeps the
+ * column in step itself (Friend's @PrePersist/@PreUpdate). Idempotent (only
+ * touches NULLs), same permanent-runner reasoning as EmaWatermarkRunner.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BirthdayKeyRunner implements ApplicationRunner {
+
+    private final FriendRepository friendRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int stamped = friendRepository.stampMissingBirthdayMd();
+        if (stamped > 0) {
+            log.info("[Friend] stamped birthday_md on {} friend(s) that predate it", stamped);
+        }
+    }
+}
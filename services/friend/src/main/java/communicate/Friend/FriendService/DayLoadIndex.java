@@ -0,0 +1,143 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import communicate.Friend.DTOs.DayLoadDTO;
+
+/**
+ * How many rows are due on each of the next {@link FsrsService#MAX_INTERVAL_DAYS}
+ * days, for the nightly lapse jobs' least-loaded-day rescheduling
+ * (FsrsNeglectService, FlashcardBankruptcyService).
+ *
+ * Seeded from one GROUP BY over the real due dates, so a lapsed row is
+ * balanced against everything already on the calendar, not just the rows
+ * rescheduled earlier in the same run. A segment tree keeps, per node, the
+ * minimum load in its span and how many days share it: the least-loaded day
+ * in [today+1, today+interval] — ties broken uniformly at random, same
+ * policy as the linear scan it replaced — and every load change are both
+ * O(log n).
+ *
+ * Built per run and not thread-safe; days outside the window are ignored.
+ */
+final class DayLoadIndex {
+
+    private final long firstDay; // epoch day of today + 1, leaf 0
+    private final int horizon;
+    private final int size;      // leaf count, power of two
+    private final int[] min;
+    private final int[] count;
+
+    DayLoadIndex(LocalDate today, int horizon, List<DayLoadDTO> load) {
+        this.firstDay = today.toEpochDay() + 1;
+        this.horizon = horizon;
+        this.size = Integer.highestOneBit(Math.max(1, horizon - 1)) << 1;
+        this.min = new int[2 * size];
+        this.count = new int[2 * size];
+        // Padding leaves past the horizon can never be the minimum.
+        Arrays.fill(min, size + horizon, 2 * size, Integer.MAX_VALUE);
+        Arrays.fill(count, size, size + horizon, 1);
+        for (DayLoadDTO day : load) {
+            int leaf = leaf(day.date());
+            if (leaf >= 0) {
+                min[size + leaf] += day.count().intValue();
+            }
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            pull(node);
+        }
+    }
+
+    /** Index over the next MAX_INTERVAL_DAYS days, loaded from a GROUP BY of due dates. */
+    static DayLoadIndex seeded(LocalDate today, List<DayLoadDTO> load) {
+        return new DayLoadIndex(today, FsrsService.MAX_INTERVAL_DAYS, load);
+    }
+
+    /**
+     * Least-loaded day within [today+1, today+interval] (interval clamped to
+     * [1, horizon]); ties broken uniformly at random. Doesn't book it — see
+     * {@link #move}.
+     */
+    LocalDate leastLoaded(int interval, Random random) {
+        int limit = Math.max(1, Math.min(interval, horizon));
+
+        // Range minimum and its multiplicity over leaves [0, limit).
+        int best = Integer.MAX_VALUE, ties = 0;
+        for (int l = size, r = size + limit; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                if (min[l] < best) { best = min[l]; ties = count[l]; }
+                else if (min[l] == best) ties += count[l];
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                if (min[r] < best) { best = min[r]; ties = count[r]; }
+                else if (min[r] == best) ties += count[r];
+            }
+        }
+
+        // Walk down to the rank-th minimal leaf inside the prefix.
+        int rank = random.nextInt(ties);
+        int node = 1, lo = 0, span = size;
+        while (node < size) {
+            span >>= 1;
+            int left = 2 * node;
+            if (lo + span >= limit) {
+                node = left; // right child lies entirely past the window
+                continue;
+            }
+            int leftTies = min[left] == best ? count[left] : 0;
+            if (rank < leftTies) {
+                node = left;
+            } else {
+                rank -= leftTies;
+                node = left + 1;
+                lo += span;
+            }
+        }
+        return LocalDate.ofEpochDay(firstDay + lo);
+    }
+
+    /** A row's due date changed: one less on {@code from} (if tracked), one more on {@code to}. */
+    void move(LocalDate from, LocalDate to) {
+        add(from, -1);
+        add(to, 1);
+    }
+
+    void add(LocalDate day, int delta) {
+        int leaf = leaf(day);
+        if (leaf < 0) return;
+        int node = size + leaf;
+        min[node] += delta;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    int load(LocalDate day) {
+        int leaf = leaf(day);
+        return leaf < 0 ? 0 : min[size + leaf];
+    }
+
+    private int leaf(LocalDate day) {
+        if (day == null) return -1;
+        long offset = day.toEpochDay() - firstDay;
+        return offset < 0 || offset >= horizon ? -1 : (int) offset;
+    }
+
+    private void pull(int node) {
+        int l = 2 * node, r = l + 1;
+        if (min[l] < min[r]) {
+            min[node] = min[l];
+            count[node] = count[l];
+        } else if (min[r] < min[l]) {
+            min[node] = min[r];
+            count[node] = count[r];
+        } else {
+            min[node] = min[l];
+            count[node] = count[l] + count[r];
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package communicate.Friend.FriendService;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import communicate.Friend.DTOs.DurationCountDTO;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory distribution of every logged interaction duration — the data-
+ * dependent half of GradeComputationService's normalization, which used to
+ * run a full-table MIN and MAX over analytics on every single grade (every
+ * attendee of a group-meeting completion included).
+ *
+ * Kept as an exact counted multiset of distinct hour values rather than a
+ * streaming sketch like t-digest: durations are typed in by hand at coarse
+ * granularity (0.5, 1, 1.5, ...), so the distinct-value count stays tiny,
+ * and unlike a t-digest a multiset supports exact removal when a purged
+ * friend's analytics rows cascade away. Normalization bounds are recomputed
+ * once per mutation and published as an immutable snapshot, so a grade is a
+ * single volatile read — O(1), zero queries.
+ *
+ * Warm start: the analytics table itself is the persisted form. The first
+ * read after boot seeds the multiset from one GROUP BY (findHoursHistogram);
+ * after that, AnalyticsDurationListener feeds every committed insert/delete.
+ * Reseeding from the source rows rather than a separate snapshot table means
+ * a pg_restore (backup module) or any out-of-band edit self-heals on the
+ * next restart instead of drifting.
+ *
+ * Limitation: the listener only sees rows that go through the JPA entity
+ * lifecycle. Analytics rows inserted or deleted by bulk JPQL, native SQL or
+ * JdbcTemplate (or a DB-level ON DELETE CASCADE) fire no callback, so the
+ * bounds stay stale until restart — any such path must call reseed() in
+ * the same transaction. BinPurgeService does, after its hard delete.
+ *
+ * Two normalization modes ({@code grade.duration-normalization.mode}):
+ * {@code minmax} (default, the original behavior) and {@code percentile},
+ * which stretches the range between two quantiles instead so one 10-hour
+ * outlier stops compressing every future grade — values past either bound
+ * simply saturate at 0 or 1.
+ */
+@Service
+@Slf4j
+public class DurationStatsService {
+
+    /** Lower/upper duration bounds the grade normalizes between. */
+    public record Bounds(double lower, double upper) {
+    }
+
+    private final AnalyticsRepository analyticsRepository;
+    private final boolean percentileMode;
+    private final double lowerPercentile;
+    private final double upperPercentile;
+
+    // Guarded by `this`. Null until the lazy warm-start seed runs.
+    private TreeMap<Double, Long> counts;
+    private long total;
+
+    // Published snapshot; null = degenerate range (no data, or a single
+    // distinct value), which GradeComputationService treats as neutral.
+    private volatile Bounds bounds;
+    private volatile boolean seeded;
+
+    public DurationStatsService(AnalyticsRepository analyticsRepository,
+                                @Value("${grade.duration-normalization.mode:minmax}") String mode,
+                                @Value("${grade.duration-normalization.lower-percentile:0.05}") double lowerPercentile,
+                                @Value("${grade.duration-normalization.upper-percentile:0.95}") double upperPercentile) {
+        this.analyticsRepository = analyticsRepository;
+        this.percentileMode = "percentile".equalsIgnoreCase(mode);
+        this.lowerPercentile = lowerPercentile;
+        this.upperPercentile = upperPercentile;
+    }
+
+    /** @return current bounds, or null while the range is still degenerate. */
+    public Bounds normalizationBounds() {
+        if (!seeded) {
+            seed();
+        }
+        return bounds;
+    }
+
+    /** Called (via AnalyticsDurationListener) for every persisted Analytics row; applied on commit. */
+    public void onInserted(Double hours) {
+        afterCommit(() -> adjust(hours, 1));
+    }
+
+    /** Called (via AnalyticsDurationListener) for every removed Analytics row; applied on commit. */
+    public void onDeleted(Double hours) {
+        afterCommit(() -> adjust(hours, -1));
+    }
+
+    /**
+     * Drops the in-memory multiset once the current transaction commits, so
+     * the next read re-seeds from the GROUP BY. For bulk writes to analytics
+     * that bypass AnalyticsDurationListener.
+     */
+    public void reseed() {
+        afterCommit(() -> {
+            synchronized (this) {
+                seeded = false;
+                counts = null;
+                total = 0;
+            }
+        });
+    }
+
+    private synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+        counts = new TreeMap<>();
+        total = 0;
+        for (DurationCountDTO row : analyticsRepository.findHoursHistogram()) {
+            if (row.hours() != null && row.count() != null && row.count() > 0) {
+                counts.merge(row.hours(), row.count(), Long::sum);
+                total += row.count();
+            }
+        }
+        republish();
+        seeded = true;
+        log.info("[DurationStats] seeded from {} logged duration(s), {} distinct value(s)", total, counts.size());
+    }
+
+    private synchronized void adjust(Double hours, long delta) {
+        // Before the seed, the GROUP BY will pick this row up itself.
+        if (!seeded || hours == null) {
+            return;
+        }
+        long next = counts.getOrDefault(hours, 0L) + delta;
+        if (next > 0) {
+            counts.put(hours, next);
+        } else {
+            counts.remove(hours);
+        }
+        total = Math.max(0, total + delta);
+        republish();
+    }
+
+    private void republish() {
+        if (counts.size() < 2) {
+            bounds = null;
+            return;
+        }
+        double lower = percentileMode ? quantile(lowerPercentile) : counts.firstKey();
+        double upper = percentileMode ? quantile(upperPercentile) : counts.lastKey();
+        bounds = upper > lower ? new Bounds(lower, upper) : null;
+    }
+
+    /** Nearest-rank quantile over the counted multiset. */
+    private double quantile(double q) {
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1.0, Math.max(0.0, q)) * total));
+        long seen = 0;
+        for (Map.Entry<Double, Long> entry : counts.entrySet()) {
+            seen += entry.getValue();
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+        return counts.lastKey();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
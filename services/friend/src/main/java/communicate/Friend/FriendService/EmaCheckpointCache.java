@@ -0,0 +1,104 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import communicate.Friend.FriendService.AnalyticsSeriesEngine.EmaState;
+
+/**
+ * Per-friend EMA walk state at month ends, so a backdated analytics insert
+ * only has to replay from the last month boundary before it instead of from
+ * the friend's first interaction (EmaUpdateService's suffix replay).
+ *
+ * A checkpoint at day D is the walk's state after D over every row dated
+ * on or before D, so it stays valid until a row dated on or before D shows
+ * up. Every insert therefore drops the friend's checkpoints from its date on
+ * twice — straight away (beginReplay) and again when it commits (publish),
+ * which catches checkpoints a concurrent replay computed before this row was
+ * visible. The checkpoints a replay produced are only stored on commit (same
+ * afterCommit pattern as DurationStatsService), and only if no other insert
+ * for the same friend began or committed in between; losing that race just
+ * costs the next backdated insert a longer replay. The generation is kept per
+ * friend, so a transaction that writes several friends' rows (batched ingest,
+ * group-meeting completion) still stores every friend's checkpoints.
+ *
+ * In-memory and best-effort: a cold or evicted friend pays one full replay,
+ * which re-seeds it. Bounded to the most recently used friends.
+ */
+@Component
+public class EmaCheckpointCache {
+
+    private final Map<Integer, NavigableMap<LocalDate, EmaState>> byFriend;
+    /** Per-friend insert counter; one long per friend ever written, never evicted so a token can't be reused. */
+    private final Map<Integer, Long> generations = new HashMap<>();
+
+    public EmaCheckpointCache(@Value("${ema.checkpoint-cache.max-friends:1000}") int maxFriends) {
+        this.byFriend = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, NavigableMap<LocalDate, EmaState>> eldest) {
+                return size() > maxFriends;
+            }
+        };
+    }
+
+    /**
+     * Drops the friend's checkpoints dated {@code from} or later before a
+     * replay reads anything, and returns the token publish() checks.
+     */
+    public synchronized long beginReplay(Integer friendId, LocalDate from) {
+        dropFrom(friendId, from);
+        return generations.merge(friendId, 1L, Long::sum);
+    }
+
+    /** Latest checkpoint strictly before {@code date}, or null if there's none to resume from. */
+    public synchronized Map.Entry<LocalDate, EmaState> latestBefore(Integer friendId, LocalDate date) {
+        NavigableMap<LocalDate, EmaState> checkpoints = byFriend.get(friendId);
+        return checkpoints == null ? null : checkpoints.lowerEntry(date);
+    }
+
+    /**
+     * On commit: drops checkpoints from {@code from} on again, then stores the
+     * replay's own ones if no other insert for this friend began or committed
+     * since beginReplay.
+     */
+    public void publish(Integer friendId, LocalDate from, long token, Map<LocalDate, EmaState> checkpoints) {
+        afterCommit(() -> {
+            synchronized (this) {
+                dropFrom(friendId, from);
+                if (token == generations.getOrDefault(friendId, 0L) && !checkpoints.isEmpty()) {
+                    byFriend.computeIfAbsent(friendId, id -> new TreeMap<>()).putAll(checkpoints);
+                }
+                generations.merge(friendId, 1L, Long::sum);
+            }
+        });
+    }
+
+    private void dropFrom(Integer friendId, LocalDate from) {
+        NavigableMap<LocalDate, EmaState> checkpoints = byFriend.get(friendId);
+        if (checkpoints != null) {
+            checkpoints.tailMap(from, true).clear();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
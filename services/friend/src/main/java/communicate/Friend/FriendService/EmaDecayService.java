@@ -0,0 +1,115 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.stereotype.Service;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.BackfillSeedDTO;
+import communicate.Friend.DTOs.FriendDTO;
+import communicate.Friend.DTOs.FriendRowDTO;
+import communicate.Friend.DTOs.ShortFriendDTO;
+import communicate.Friend.FriendEntities.Friend;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * No-interaction EMA decay, computed on read instead of written nightly.
+ *
+ * The average_* columns on Friend are stored as of Friend.emaAsOf; every day
+ * strictly between that watermark and today is a midnight that passed with
+ * no interaction logged, so each owes one EmaMathService.applyDecay step at
+ * the friend's current rating's alpha. Those steps are folded into one
+ * (1 - alpha)^n in closed form (EmaMathService.applyDecay(current, alpha, n))
+ * — same per-step formula chrono's nightly job used to apply one row at a
+ * time, just without the O(friends) write storm, and a box that was switched
+ * off for a week comes back with exactly the decay it missed.
+ *
+ * Readers call asOf(...) and never write; writers that are about to change
+ * the averages or the rating that picks the alpha call catchUp(...) first so
+ * the owed days are settled at the alpha that was actually in effect.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmaDecayService {
+
+    /** Decayed view of a friend's four visualization EMAs. */
+    public record Averages(double frequency, double duration, double excitement, double proximity) {
+    }
+
+    private final EmaProperties emaProperties;
+    private final EmaMathService emaMathService;
+
+    /**
+     * Number of decay steps owed: days strictly after {@code emaAsOf} and
+     * strictly before {@code today} (today's own decay is only due once its
+     * midnight passes). Null watermark = nothing owed.
+     */
+    public static long pendingDecayDays(LocalDate emaAsOf, LocalDate today) {
+        if (emaAsOf == null) return 0;
+        return Math.max(0, ChronoUnit.DAYS.between(emaAsOf, today) - 1);
+    }
+
+    public Averages asOf(Friend friend, LocalDate today) {
+        long days = pendingDecayDays(friend.getEmaAsOf(), today);
+        double alpha = emaProperties.getDecayAlpha(friend.getExperience());
+        return new Averages(
+                decay(friend.getAverageFrequency(), alpha, days),
+                decay(friend.getAverageDuration(), alpha, days),
+                decay(friend.getAverageExcitement(), alpha, days),
+                decay(friend.getAverageProximity(), alpha, days));
+    }
+
+    /** Same as {@link #asOf(Friend, LocalDate)}, for the column-only shortList projection. */
+    public ShortFriendDTO asOf(ShortFriendDTO dto, LocalDate today) {
+        long days = pendingDecayDays(dto.emaAsOf(), today);
+        if (days == 0) return dto;
+        double alpha = emaProperties.getDecayAlpha(dto.experience());
+        return new ShortFriendDTO(dto.id(), dto.name(),
+                decay(dto.averageFrequency(), alpha, days),
+                decay(dto.averageDuration(), alpha, days),
+                decay(dto.averageExcitement(), alpha, days),
+                decay(dto.averageProximity(), alpha, days),
+                dto.experience(), today.minusDays(1));
+    }
+
+    /** Decayed excitement only, for FsrsBackfillService's aggregated seed rows. */
+    public double excitementAsOf(BackfillSeedDTO seed, LocalDate today) {
+        long days = pendingDecayDays(seed.emaAsOf(), today);
+        return decay(seed.averageExcitement(), emaProperties.getDecayAlpha(seed.experience()), days);
+    }
+
+    /** Same again for a FriendRowDTO projection, finishing it into the FriendDTO it feeds. */
+    public FriendDTO asOf(FriendRowDTO row, LocalDate today) {
+        long days = pendingDecayDays(row.emaAsOf(), today);
+        double alpha = emaProperties.getDecayAlpha(row.experience());
+        return new FriendDTO(row.id(), row.name(), row.experience(), row.dateOfBirth(), row.plannedSpeakingTime(),
+                decay(row.averageFrequency(), alpha, days),
+                decay(row.averageDuration(), alpha, days),
+                decay(row.averageExcitement(), alpha, days),
+                decay(row.averageProximity(), alpha, days),
+                row.isBirthdayThisWeek(), row.role(), row.schedulingExplanation(), row.leech(),
+                row.flashcardsEnabled(), row.deletedAt());
+    }
+
+    /**
+     * Materializes the owed decay into the entity and advances its watermark
+     * to yesterday. Caller saves. No-op when nothing is owed, so it's safe to
+     * call on every write path.
+     */
+    public void catchUp(Friend friend, LocalDate today) {
+        Averages current = asOf(friend, today);
+        friend.setAverageFrequency(current.frequency());
+        friend.setAverageDuration(current.duration());
+        friend.setAverageExcitement(current.excitement());
+        friend.setAverageProximity(current.proximity());
+        LocalDate yesterday = today.minusDays(1);
+        if (friend.getEmaAsOf() == null || friend.getEmaAsOf().isBefore(yesterday)) {
+            friend.setEmaAsOf(yesterday);
+        }
+    }
+
+    private double decay(Double value, double alpha, long days) {
+        return emaMathService.applyDecay(value != null ? value : 0.0, alpha, days);
+    }
+}
@@ -4,7 +4,7 @@ import org.springframework.stereotype.Service;
 
 /**
  * Single arithmetic primitive shared by every EMA call site (immediate
- * per-interaction update, nightly no-interaction decay, and the historical
+ * per-interaction update, lazy no-interaction decay, and the historical
  * day-by-day series used for charts). Each site still decides its own alpha
  * and raw value — this only owns the one formula shape, so the three call
  * sites can never independently drift on how the math itself works.
@@ -22,6 +22,16 @@ public class EmaMathService {
         return current * (1 - decayAlpha);
     }
 
+    /**
+     * {@code days} consecutive applyDecay steps in closed form:
+     * current * (1 - decayAlpha)^days. The per-step factor comes from the
+     * single-step formula above so the two can't drift apart.
+     */
+    public double applyDecay(double current, double decayAlpha, long days) {
+        if (days <= 0) return current;
+        return current * Math.pow(applyDecay(1.0, decayAlpha), days);
+    }
+
     /** Star-rating -> numeric value, shared by the excitement/intensity signal. */
     public double experienceToNumber(String experience) {
         if (experience == null) return 2.0;
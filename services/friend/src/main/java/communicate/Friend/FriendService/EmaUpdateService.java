@@ -1,98 +1,119 @@
 package communicate.Friend.FriendService;
 
-import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.FriendEntities.Analytics;
 import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
 import communicate.Friend.FriendRepositories.FriendRepository;
+import communicate.Friend.FriendService.AnalyticsSeriesEngine.EmaState;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Keeps Friend's stored EMAs in step with its analytics rows, using the same
+ * day-by-day walk as the analytics charts (AnalyticsSeriesEngine) rather
+ * than a separate per-row formula.
+ *
+ * Rows dated after the stored watermark (emaAsOf) just continue the walk
+ * from the stored averages — silent days in between decay at the friend's
+ * rating, exactly what EmaDecayService was already showing readers. A
+ * backdated row changes every day from its date on, so the walk is replayed
+ * from the last month-end checkpoint before it (EmaCheckpointCache) up to
+ * today; with no checkpoint, from the friend's first interaction, which
+ * records the checkpoints the next backdated insert resumes from. Nothing
+ * is dropped for being old any more.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmaUpdateService {
 
     private final FriendRepository friendRepository;
-    private final EmaProperties emaProperties;
-    private final EmaMathService emaMathService;
+    private final AnalyticsRepository analyticsRepository;
+    private final AnalyticsSeriesEngine analyticsSeriesEngine;
+    private final EmaCheckpointCache emaCheckpointCache;
 
     /**
-     * Update friend's exponential moving averages when new analytics is created
-     * Handles historical data by applying time-based decay
+     * Folds freshly inserted rows of one friend into its stored EMAs: one
+     * findById, one read of the affected stretch of analytics, one save.
+     * The rows must already be persisted (flushed by the series query);
+     * future-dated ones are left for the walk to pick up once they're due.
      *
-     * @param friendId The ID of the friend
-     * @param experience The experience rating ("*", "**", "***")
-     * @param hours The duration spent
-     * @param date The date when the interaction occurred
-     * @param inPerson Whether the interaction was in-person (null = unknown)
      * @throws RuntimeException if update fails to ensure transaction rollback
      */
     @Transactional
-    public void updateEmaOnNewAnalytics(Integer friendId, String experience, Double hours, LocalDate date, Boolean inPerson) {
+    public void updateEmaOnNewAnalytics(Integer friendId, List<Analytics> rows) {
+        LocalDate today = LocalDate.now();
+        LocalDate from = rows.stream()
+                .map(Analytics::getDate)
+                .filter(Objects::nonNull)
+                .filter(date -> !date.isAfter(today))
+                .min(LocalDate::compareTo)
+                .orElse(null);
+        if (from == null) {
+            return;
+        }
         try {
             Friend friend = friendRepository.findById(friendId)
                     .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException("Friend not found: " + friendId));
 
-            LocalDate today = LocalDate.now();
-            long daysDifference = java.time.temporal.ChronoUnit.DAYS.between(date, today);
-
-            // Skip if date is in the future
-            if (daysDifference < 0) {
-                log.debug("Skipping EMA update for friend {} - date {} is in the future", friendId, date);
-                return;
+            long token = emaCheckpointCache.beginReplay(friendId, from);
+            Map<LocalDate, EmaState> checkpoints = new TreeMap<>();
+
+            LocalDate walkFrom;
+            EmaState start;
+            boolean canonical = true; // start is a walk state, so the month ends it passes are checkpoints
+            LocalDate emaAsOf = friend.getEmaAsOf();
+            if (emaAsOf != null && from.isAfter(emaAsOf)) {
+                // Nothing stored depends on these rows yet: pick up where the
+                // stored averages left off.
+                walkFrom = emaAsOf.plusDays(1);
+                start = stored(friend);
+                canonical = false;
+            } else {
+                Map.Entry<LocalDate, EmaState> checkpoint = emaCheckpointCache.latestBefore(friendId, from);
+                if (checkpoint != null) {
+                    walkFrom = checkpoint.getKey().plusDays(1);
+                    start = checkpoint.getValue();
+                } else {
+                    walkFrom = analyticsRepository.findFirstDate(friendId);
+                    start = null; // seeded from the first day, like the charts
+                    if (walkFrom == null) {
+                        return;
+                    }
+                }
             }
 
-            // Skip if data is too old (more than 12 days)
-            if (daysDifference > 12) {
-                log.debug("Skipping EMA update for friend {} - date {} is too old ({} days)",
-                         friendId, date, daysDifference);
+            List<AnalyticsPointDTO> points = analyticsRepository.findSeriesPoints(List.of(friendId), walkFrom, today);
+            // Today's own decay is only owed once its midnight passes (see
+            // EmaDecayService), so the walk stops at yesterday unless today
+            // has an interaction.
+            LocalDate end = points.stream().anyMatch(p -> today.equals(p.date())) ? today : today.minusDays(1);
+            if (end.isBefore(walkFrom)) {
                 return;
             }
-
-            // Get current EMA values (default to 0 if null)
-            double currentFrequency = friend.getAverageFrequency() != null ? friend.getAverageFrequency() : 0.0;
-            double currentDuration = friend.getAverageDuration() != null ? friend.getAverageDuration() : 0.0;
-            double currentExcitement = friend.getAverageExcitement() != null ? friend.getAverageExcitement() : 0.0;
-            double currentProximity = friend.getAverageProximity() != null ? friend.getAverageProximity() : 0.0;
-
-            // Get base alpha coefficient based on experience rating
-            double baseAlpha = emaProperties.getNewDataAlpha(experience);
-
-            // Convert experience to numeric value
-            double experienceValue = emaMathService.experienceToNumber(experience);
-            double proximityValue = emaMathService.proximityToNumber(inPerson);
-
-            // Calculate time-decayed alpha and values
-            double timeDecayFactor = calculateTimeDecayFactor(daysDifference);
-            double effectiveAlpha = baseAlpha * timeDecayFactor;
-
-            // For historical data, we decay the new values but not the current EMA values
-            double decayedFrequency = 1.0 * timeDecayFactor;  // 1.0 = we had a meeting
-            double decayedDuration = hours * timeDecayFactor;
-            double decayedExperience = experienceValue * timeDecayFactor;
-            double decayedProximity = proximityValue * timeDecayFactor;
-
-            // Calculate new EMA values via the shared step formula (applyNewValue
-            // already encodes EMA = alpha * decayed_new_value + (1 - alpha) * previous_EMA)
-            double newFrequency = emaMathService.applyNewValue(currentFrequency, effectiveAlpha, decayedFrequency);
-            double newDuration = emaMathService.applyNewValue(currentDuration, effectiveAlpha, decayedDuration);
-            double newExcitement = emaMathService.applyNewValue(currentExcitement, effectiveAlpha, decayedExperience);
-            double newProximity = emaMathService.applyNewValue(currentProximity, effectiveAlpha, decayedProximity);
-
-            // Update friend's EMA values
-            friend.setAverageFrequency(newFrequency);
-            friend.setAverageDuration(newDuration);
-            friend.setAverageExcitement(newExcitement);
-            friend.setAverageProximity(newProximity);
-
+            EmaState state = analyticsSeriesEngine.resume(start, points, walkFrom, end,
+                    canonical ? checkpoints::put : null);
+
+            friend.setAverageFrequency(state.frequency());
+            friend.setAverageDuration(state.duration());
+            friend.setAverageExcitement(state.intensity());
+            friend.setAverageProximity(state.proximity());
+            friend.setEmaAsOf(end);
             friendRepository.save(friend);
+            emaCheckpointCache.publish(friendId, from, token, checkpoints);
 
-            log.debug("Updated EMAs for friend {} ({}): freq={:.3f}, dur={:.3f}, exc={:.3f}, prox={:.3f} (date: {}, days ago: {})",
-                     friend.getName(), friendId, newFrequency, newDuration, newExcitement, newProximity, date, daysDifference);
-
+            log.debug("Replayed EMAs for friend {} ({}) over {}..{}: freq={}, dur={}, exc={}, prox={}",
+                    friend.getName(), friend.getId(), walkFrom, end,
+                    state.frequency(), state.duration(), state.intensity(), state.proximity());
         } catch (Exception e) {
             log.error("Error updating EMA for friend {}", friendId, e);
             // Throw runtime exception to trigger transaction rollback
@@ -100,22 +121,18 @@ public class EmaUpdateService {
         }
     }
 
-    /**
-     * Calculate time decay factor based on how many days ago the event occurred
-     * Uses exponential decay: decay_factor = e^(-k * days) where k is the decay constant
-     * 
-     * @param daysDifference Number of days between the event date and today
-     * @return Decay factor between 0 and 1
-     */
-    private double calculateTimeDecayFactor(long daysDifference) {
-        if (daysDifference == 0) {
-            return 1.0; // No decay for today's data
-        }
-        
-        // Decay constant - adjust this to control how quickly historical data loses importance
-        // 0.1 means after ~7 days the impact is roughly halved
-        double decayConstant = 0.1;
-        
-        return Math.exp(-decayConstant * daysDifference);
+    // The walk's state as of emaAsOf, read back off the entity: silent days
+    // from here decay at the friend's rating, as EmaDecayService assumes.
+    private static EmaState stored(Friend friend) {
+        return new EmaState(
+                orZero(friend.getAverageDuration()),
+                orZero(friend.getAverageFrequency()),
+                orZero(friend.getAverageExcitement()),
+                orZero(friend.getAverageProximity()),
+                friend.getExperience());
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
     }
 }
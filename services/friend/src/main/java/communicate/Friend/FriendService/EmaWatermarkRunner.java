@@ -0,0 +1,34 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import communicate.Friend.FriendRepositories.FriendRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stamps Friend.emaAsOf on rows that predate it, once per boot. Those rows'
+ * averages were kept current by the old nightly decay job, so they're taken
+ * as current through yesterday; EmaDecayService decays them forward from
+ * there. Idempotent (only touches NULLs), same permanent-runner reasoning as
+ * FsrsBackfillRunner.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmaWatermarkRunner implements ApplicationRunner {
+
+    private final FriendRepository friendRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int stamped = friendRepository.stampMissingEmaAsOf(LocalDate.now().minusDays(1));
+        if (stamped > 0) {
+            log.info("[EMA] stamped ema_as_of on {} friend(s) that predate lazy decay", stamped);
+        }
+    }
+}
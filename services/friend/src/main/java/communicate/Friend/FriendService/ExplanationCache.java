@@ -0,0 +1,170 @@
+package communicate.Friend.FriendService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polished explanation shapes, keyed by the name- and date-free signature
+ * ExplanationService derives from a template ("Suggesting {date} for {name}
+ * — your last chat went well..."). There are only a few dozen distinct
+ * signatures (grade x in-person x arm clause), so after warm-up nearly every
+ * polish is a lookup plus a substitution instead of a host-wrapper call.
+ *
+ * Bounded LRU (access order) of {@code explanation.cache.max-entries};
+ * entries older than {@code explanation.cache.ttl} are dropped on read, so a
+ * prompt or model change on host-wrapper's side ages out instead of sticking
+ * forever. With {@code explanation.cache.file} set, the table is read at
+ * startup and written back (temp file + atomic move) at shutdown; empty
+ * means memory only. A missing or unreadable file just starts cold.
+ *
+ * One lock around the map — every operation is a few pointer moves, next to
+ * the LLM round trip it saves.
+ */
+@Component
+@Slf4j
+public class ExplanationCache {
+
+    /** Hit/miss counters since startup, surfaced at GET /scheduling/explanations/cache. */
+    public record CacheStats(int size, int maxEntries, long hits, long misses, long expired, long evicted,
+                             double hitRate) {
+    }
+
+    // On-disk row: the signature, its polished shape, and when it was polished.
+    record Entry(String signature, String text, long createdAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path file;
+    private final LongSupplier clock;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxEntries) {
+                evicted.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    @Autowired
+    public ExplanationCache(@Value("${explanation.cache.max-entries:512}") int maxEntries,
+                            @Value("${explanation.cache.ttl:P7D}") Duration ttl,
+                            @Value("${explanation.cache.file:}") String file) {
+        this(maxEntries, ttl, file, System::currentTimeMillis);
+    }
+
+    ExplanationCache(int maxEntries, Duration ttl, String file, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttl.toMillis();
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        this.clock = clock;
+    }
+
+    public Optional<String> get(String signature) {
+        synchronized (entries) {
+            Entry entry = entries.get(signature);
+            if (entry != null && isExpired(entry, clock.getAsLong())) {
+                entries.remove(signature);
+                expired.increment();
+                entry = null;
+            }
+            (entry == null ? misses : hits).increment();
+            return entry == null ? Optional.empty() : Optional.of(entry.text());
+        }
+    }
+
+    public void put(String signature, String text) {
+        synchronized (entries) {
+            entries.put(signature, new Entry(signature, text, clock.getAsLong()));
+        }
+    }
+
+    public CacheStats stats() {
+        long h = hits.sum(), m = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(size, maxEntries, h, m, expired.sum(), evicted.sum(),
+            h + m == 0 ? 0.0 : (double) h / (h + m));
+    }
+
+    @PostConstruct
+    void load() {
+        if (file == null || !Files.isReadable(file)) {
+            return;
+        }
+        try {
+            List<Entry> stored = mapper.readValue(file.toFile(), new TypeReference<List<Entry>>() { });
+            long now = clock.getAsLong();
+            int kept;
+            synchronized (entries) {
+                // Stored least recently used first, so replaying keeps the LRU order.
+                for (Entry entry : stored) {
+                    if (!isExpired(entry, now)) {
+                        entries.put(entry.signature(), entry);
+                    }
+                }
+                kept = entries.size();
+            }
+            log.info("[ExplanationCache] loaded {} of {} cached explanation(s) from {}", kept, stored.size(), file);
+        } catch (IOException e) {
+            log.warn("[ExplanationCache] could not read {}, starting cold: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void persist() {
+        if (file == null) {
+            return;
+        }
+        List<Entry> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.values());
+        }
+        long now = clock.getAsLong();
+        snapshot.removeIf(entry -> isExpired(entry, now));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            mapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("[ExplanationCache] could not write {}: {}", file, e.getMessage());
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAtMillis() >= ttlMillis;
+    }
+}
@@ -0,0 +1,189 @@
+package communicate.Friend.FriendService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import communicate.Friend.FriendRepositories.FriendRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Async half of the "why this due date" surface. ReviewService only writes
+ * the deterministic template (plus Friend.schedulingExplanationPending) inside
+ * the caller's transaction; this picks the reschedule up AFTER_COMMIT and
+ * runs ExplanationService.explainViaLlm on a small bounded pool, so a logged
+ * chat never holds a DB connection or request thread for the up-to-8s
+ * host-wrapper round trip.
+ *
+ * Virtual-thread-per-task executor, capped by a semaphore at
+ * {@code explanation.polish.concurrency} concurrent LLM calls — host-wrapper
+ * is a single local gateway, not something to fan out at. Work waiting for a
+ * permit counts towards {@code queueDepth}; past {@code queue-capacity} new
+ * work is dropped rather than queued (the row stays pending, see below).
+ *
+ * Durable by construction, not by the in-memory queue: the pending flag is
+ * on the Friend row, so anything lost to a restart, a full queue, or an
+ * unreachable host-wrapper is re-enqueued by {@link #resumePending()} on the
+ * next boot. The write-back is a conditional UPDATE on the exact template
+ * text (FriendRepository.completeSchedulingExplanationPolish), so a newer
+ * reschedule committed mid-flight always wins over a stale polish.
+ */
+@Service
+@Slf4j
+public class ExplanationPolishService {
+
+    private final FriendRepository friendRepository;
+    private final ExplanationService explanationService;
+    private final int queueCapacity;
+    private final Semaphore permits;
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("explanation-polish-", 0).factory());
+
+    // Friend ids enqueued but not yet started — a second reschedule of the
+    // same friend before its first polish starts collapses into one task
+    // (which will read the newest template anyway).
+    private final Set<Integer> waiting = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder polished = new LongAdder();
+    private final LongAdder fellBack = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final LongAdder latencyTotalMillis = new LongAdder();
+    private final AtomicLong latencyMaxMillis = new AtomicLong();
+
+    public ExplanationPolishService(FriendRepository friendRepository,
+                                    ExplanationService explanationService,
+                                    @Value("${explanation.polish.concurrency:2}") int concurrency,
+                                    @Value("${explanation.polish.queue-capacity:1000}") int queueCapacity) {
+        this.friendRepository = friendRepository;
+        this.explanationService = explanationService;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(Math.max(1, concurrency));
+    }
+
+    /** Point-in-time pipeline counters, surfaced at GET /scheduling/explanations/stats. */
+    public record PolishStats(int queueDepth, int inFlight, long polished, long fellBack,
+                              long superseded, long dropped, double meanLatencyMillis, long maxLatencyMillis) {
+    }
+
+    /**
+     * fallbackExecution so a publisher outside a transaction still gets its
+     * polish — there is nothing to wait for in that case, the save already
+     * committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFriendRescheduled(FriendRescheduledEvent event) {
+        enqueue(event.friendId());
+    }
+
+    /** Restart recovery: anything still holding its raw template gets another pass. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        List<Integer> pending = friendRepository.findIdsWithPendingSchedulingExplanation();
+        if (!pending.isEmpty()) {
+            log.info("[ExplanationPolish] resuming {} pending explanation(s) from before restart", pending.size());
+        }
+        pending.forEach(this::enqueue);
+    }
+
+    /** @return false if the friend was already waiting or the queue is full (row stays pending either way). */
+    public boolean enqueue(Integer friendId) {
+        if (friendId == null || !waiting.add(friendId)) {
+            return false;
+        }
+        if (queueDepth.incrementAndGet() > queueCapacity) {
+            queueDepth.decrementAndGet();
+            waiting.remove(friendId);
+            dropped.increment();
+            log.warn("[ExplanationPolish] queue full ({}), friend {} left pending for the next resume sweep",
+                queueCapacity, friendId);
+            return false;
+        }
+        workers.submit(() -> runWhenPermitted(friendId));
+        return true;
+    }
+
+    public PolishStats stats() {
+        long count = latencyCount.sum();
+        double mean = count == 0 ? 0.0 : (double) latencyTotalMillis.sum() / count;
+        return new PolishStats(queueDepth.get(), inFlight.get(), polished.sum(), fellBack.sum(),
+            superseded.sum(), dropped.sum(), mean, latencyMaxMillis.get());
+    }
+
+    private void runWhenPermitted(Integer friendId) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queueDepth.decrementAndGet();
+            waiting.remove(friendId);
+            return;
+        }
+        waiting.remove(friendId);
+        queueDepth.decrementAndGet();
+        inFlight.incrementAndGet();
+        try {
+            polish(friendId);
+        } catch (Exception e) {
+            log.warn("[ExplanationPolish] polish failed for friend {}: {}", friendId, e.getMessage());
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private void polish(Integer friendId) {
+        Optional<String> pending = friendRepository.findPendingSchedulingExplanation(friendId);
+        if (pending.isEmpty() || pending.get() == null) {
+            return; // already polished, or superseded by a newer reschedule that will enqueue itself
+        }
+        String template = pending.get();
+
+        long start = System.nanoTime();
+        String result = explanationService.explainViaLlm(template);
+        recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (result.equals(template)) {
+            // explainViaLlm's own fallback — host-wrapper unreachable. The
+            // template is already what's stored; leaving the flag set is what
+            // lets resumePending() retry it on the next boot.
+            fellBack.increment();
+            return;
+        }
+        if (friendRepository.completeSchedulingExplanationPolish(friendId, template, result) > 0) {
+            polished.increment();
+        } else {
+            superseded.increment();
+        }
+    }
+
+    private void recordLatency(long millis) {
+        latencyCount.increment();
+        latencyTotalMillis.add(millis);
+        latencyMaxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
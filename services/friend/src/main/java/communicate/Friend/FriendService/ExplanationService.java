@@ -1,17 +1,14 @@
 package communicate.Friend.FriendService;
 
-import java.time.Duration;
 import java.time.LocalDate;
-import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import communicate.Friend.FriendEntities.Friend;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
 /**
  * "Why this due date" explanation surfaced next to plannedSpeakingTime
@@ -22,20 +19,34 @@ import lombok.extern.slf4j.Slf4j;
  * sentence when the gateway is reachable. Never blocks scheduling on the
  * LLM call failing — see explainViaLlm's catch-and-fallback.
  *
- * Calls host-wrapper directly (same /complete contract ai_agent's
- * HostWrapperChatModel uses) rather than routing through ai_agent — this is
+ * Calls host-wrapper directly through HostWrapperClient (same /complete
+ * contract ai_agent's HostWrapperChatModel uses; breaker, bulkhead and
+ * request coalescing live there) rather than routing through ai_agent — this is
  * a single "small controlled" completion (the user's own words), not
  * agentic/tool-using work, so ai_agent's extra hop buys nothing here.
+ *
+ * Templates differ per friend only in the name and the date, so the LLM is
+ * asked to polish the shape ("Suggesting {date} for {name} — ...") once per
+ * signature; ExplanationCache keeps the result and every later friend with
+ * the same grade/in-person/arm clause gets it with their own name and date
+ * filled in — no host-wrapper call.
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class ExplanationService {
 
-    private final WebClient webTemplate;
+    private static final String SYSTEM_PROMPT = "You rewrite short scheduling explanations for a personal "
+        + "relationship-tracking app. Reply with exactly one warm, concise sentence. Do not invent facts that "
+        + "aren't already in the given text.";
+    private static final String SHAPE_SYSTEM_PROMPT = SYSTEM_PROMPT
+        + " Keep the placeholders {name} and {date} exactly as written, each once.";
+
+    // explainTemplate's own format: date and name first, everything after the dash is the signature.
+    private static final Pattern TEMPLATE = Pattern.compile("Suggesting (\\S+) for (.+?)( — .*)", Pattern.DOTALL);
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(name|date)\\}");
 
-    @Value("${host-wrapper.url:http://host-wrapper:5011}")
-    private String hostWrapperUrl;
+    private final HostWrapperClient hostWrapper;
+    private final ExplanationCache cache;
 
     /** Deterministic, no external call — always available, always the fallback. */
     public String explainTemplate(Friend friend, LocalDate due, int grade, double banditArm, Boolean inPerson) {
@@ -49,32 +60,44 @@ public class ExplanationService {
         return sb.toString();
     }
 
-    /** Best-effort rewrite of the template through host-wrapper; returns the template unchanged on any failure. */
+    /**
+     * Best-effort rewrite of the template through host-wrapper; returns the
+     * template unchanged on any failure. A cached shape for the template's
+     * signature skips the call; a reply that drops a placeholder isn't
+     * cached, and the template is then polished as-is instead.
+     */
     public String explainViaLlm(String templateExplanation) {
-        try {
-            Map<String, Object> body = Map.of(
-                "system", "You rewrite short scheduling explanations for a personal relationship-tracking "
-                    + "app. Reply with exactly one warm, concise sentence. Do not invent facts that aren't "
-                    + "already in the given text.",
-                "prompt", templateExplanation,
-                "priority", "low"
-            );
-            @SuppressWarnings("unchecked")
-            Map<String, Object> response = webTemplate.post()
-                .uri(hostWrapperUrl + "/complete")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(body)
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block(Duration.ofSeconds(8));
+        Matcher template = TEMPLATE.matcher(templateExplanation);
+        if (!template.matches()) {
+            return Optional.ofNullable(complete(SYSTEM_PROMPT, templateExplanation)).orElse(templateExplanation);
+        }
+        String name = template.group(2), date = template.group(1);
+        String signature = "Suggesting {date} for {name}" + template.group(3);
 
-            if (response != null && response.get("text") instanceof String text && !text.isBlank()) {
-                return text.trim();
-            }
-        } catch (Exception e) {
-            log.warn("[Explanation] host-wrapper call failed, using template explanation: {}", e.getMessage());
+        Optional<String> cached = cache.get(signature);
+        if (cached.isPresent()) {
+            return fill(cached.get(), name, date);
+        }
+        String shape = complete(SHAPE_SYSTEM_PROMPT, signature);
+        if (shape == null) {
+            return templateExplanation; // host-wrapper unreachable — no point in a second attempt
+        }
+        if (shape.contains("{name}") && shape.contains("{date}")) {
+            cache.put(signature, shape);
+            return fill(shape, name, date);
         }
-        return templateExplanation;
+        return Optional.ofNullable(complete(SYSTEM_PROMPT, templateExplanation)).orElse(templateExplanation);
+    }
+
+    // One pass, so a name that itself contains "{date}" is left alone.
+    private static String fill(String shape, String name, String date) {
+        return PLACEHOLDER.matcher(shape)
+            .replaceAll(m -> Matcher.quoteReplacement(m.group(1).equals("name") ? name : date));
+    }
+
+    /** One host-wrapper /complete call; null on failure or an empty reply. */
+    private String complete(String system, String prompt) {
+        return hostWrapper.complete(system, prompt).orElse(null);
     }
 
     private static String gradeReason(int grade) {
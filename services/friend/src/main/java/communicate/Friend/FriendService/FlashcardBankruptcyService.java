@@ -3,9 +3,7 @@ package communicate.Friend.FriendService;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
 import org.springframework.stereotype.Service;
@@ -45,6 +43,10 @@ import lombok.extern.slf4j.Slf4j;
  * Hard grade, rather than skipping it (which would let long-neglected new
  * cards drift with a stale due date forever, the exact bug this job exists
  * to prevent).
+ *
+ * Lapsed rows land on the least-loaded day of their new interval, balanced
+ * against every starred card already due in that window (DayLoadIndex, same
+ * policy as FsrsNeglectService).
  */
 @Service
 @RequiredArgsConstructor
@@ -74,7 +76,7 @@ public class FlashcardBankruptcyService {
         }
 
         int totalOverdue = chronic.size() + standard.size();
-        Map<LocalDate, Integer> dayLoad = new HashMap<>();
+        DayLoadIndex dayLoad = DayLoadIndex.seeded(today, reviewRepository.countDueAfter(today));
 
         int chronicNeglected = 0;
         for (FriendKnowledgeReview row : chronic) {
@@ -99,7 +101,7 @@ public class FlashcardBankruptcyService {
         return new BankruptcyResult(totalOverdue, chronicNeglected, true, rescheduled);
     }
 
-    private void lapseAndReschedule(FriendKnowledgeReview row, LocalDate today, Map<LocalDate, Integer> dayLoad) {
+    private void lapseAndReschedule(FriendKnowledgeReview row, LocalDate today, DayLoadIndex dayLoad) {
         FsrsService.FsrsState prior = (row.getFsrsStability() != null && row.getFsrsDifficulty() != null)
             ? new FsrsService.FsrsState(row.getFsrsStability(), row.getFsrsDifficulty())
             : fsrs.initialState(FsrsService.GRADE_HARD);
@@ -109,7 +111,8 @@ public class FlashcardBankruptcyService {
 
         FsrsService.FsrsState lapsed = fsrs.forget(prior, elapsedDays);
         int newIntervalDays = fsrs.intervalDays(lapsed.stability(), FlashcardEnrollmentService.DESIRED_RETENTION);
-        LocalDate newDue = leastLoadedDate(today, newIntervalDays, dayLoad);
+        LocalDate newDue = dayLoad.leastLoaded(newIntervalDays, random);
+        dayLoad.move(row.getDueDate(), newDue);
 
         row.setFsrsStability(lapsed.stability());
         row.setFsrsDifficulty(lapsed.difficulty());
@@ -121,24 +124,4 @@ public class FlashcardBankruptcyService {
         row.setDueDate(newDue);
         reviewRepository.save(row);
     }
-
-    /** Pick the least-loaded day within [today+1, today+interval]; ties broken randomly — same policy as FsrsNeglectService. */
-    private LocalDate leastLoadedDate(LocalDate today, int interval, Map<LocalDate, Integer> dayLoad) {
-        int minLoad = Integer.MAX_VALUE;
-        List<LocalDate> candidates = new ArrayList<>();
-        for (int d = 1; d <= Math.max(1, interval); d++) {
-            LocalDate candidate = today.plusDays(d);
-            int load = dayLoad.getOrDefault(candidate, 0);
-            if (load < minLoad) {
-                minLoad = load;
-                candidates.clear();
-                candidates.add(candidate);
-            } else if (load == minLoad) {
-                candidates.add(candidate);
-            }
-        }
-        LocalDate chosen = candidates.get(random.nextInt(candidates.size()));
-        dayLoad.merge(chosen, 1, Integer::sum);
-        return chosen;
-    }
 }
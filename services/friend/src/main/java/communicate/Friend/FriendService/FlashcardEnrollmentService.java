@@ -6,19 +6,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import com.example.demo.Group.GroupEntities.GroupKnowledge;
-import com.example.demo.Group.GroupRepositories.GroupKnowledgeRepository;
+import com.example.demo.Group.GroupServices.GroupKnowledgeAddedEvent;
 
 import communicate.Friend.FriendEntities.Friend;
-import communicate.Friend.FriendEntities.FriendKnowledge;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
-import communicate.Friend.FriendRepositories.FriendKnowledgeRepository;
 import communicate.Friend.FriendRepositories.FriendKnowledgeReviewRepository;
 import communicate.Friend.FriendRepositories.FriendRepository;
-import communicate.Friend.FriendRepositories.GroupMemberRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,20 +26,20 @@ import lombok.extern.slf4j.Slf4j;
  * Star-toggle + enrollment for the flashcard-review feature (design doc
  * "Feature D"). A starred friend's reviewable deck = their own
  * FriendKnowledge rows UNION GroupKnowledge rows for every group they
- * belong to (join via GroupMemberRepository — group facts are pulled
- * through group's own repository, not a cross-module JPA join: friend now
- * depends on group at the Maven level (see friend/pom.xml) since both share
- * one datasource in this monolith, same "same JVM, plain bean call" pattern
- * chrono already uses for its own friend-module dependency).
+ * belong to (join via GroupMember — friend depends on group at the Maven
+ * level (see friend/pom.xml) and both share one datasource and persistence
+ * unit in this monolith, so the group side is a plain SQL join in the
+ * enrollment insert, same "same JVM" footing chrono already uses for its own
+ * friend-module dependency). Enrollment is set-based: INSERT ... SELECT ...
+ * WHERE NOT EXISTS per source (FriendKnowledgeReviewRepository), backed by
+ * the unique (friend_id, source_type, source_knowledge_id) index.
  *
- * Known gap (documented, not fixed here — see task report): a NEW
- * GroupKnowledge fact added to a group after a member is already starred
- * does not auto-enroll into that member's folder, only personal
- * FriendKnowledge does (hooked in OutboxWriteService.applyAddKnowledge).
- * Hooking group-side creation would require group depending back on friend,
- * which would create a module cycle given friend already depends on group
- * for enrollment reads. It re-syncs on the next re-star (enrollFriend runs
- * again) or could be added later via a scheduled reconciliation pass.
+ * New facts keep arriving after the star: personal ones through
+ * OutboxWriteService.applyAddKnowledge (enrollNewKnowledge), group ones
+ * through GroupKnowledgeService's GroupKnowledgeAddedEvent — group can't
+ * call back into friend without a module cycle, so it publishes and
+ * onGroupKnowledgeAdded fans the new facts out to the group's starred
+ * members after the save commits.
  */
 @Service
 @RequiredArgsConstructor
@@ -57,9 +56,6 @@ public class FlashcardEnrollmentService {
     static final double DESIRED_RETENTION = 0.9;
 
     private final FriendRepository friendRepository;
-    private final FriendKnowledgeRepository friendKnowledgeRepository;
-    private final GroupMemberRepository groupMemberRepository;
-    private final GroupKnowledgeRepository groupKnowledgeRepository;
     private final FriendKnowledgeReviewRepository reviewRepository;
     private final FsrsService fsrs;
 
@@ -68,35 +64,57 @@ public class FlashcardEnrollmentService {
      * already have a review row for this friend. Safe to call repeatedly
      * (idempotent — skips anything already enrolled), so it's reused both
      * for the initial star and for picking up facts added while un-starred.
+     * Two set-based inserts, whatever the deck size.
      */
     @Transactional
     public int enrollFriend(Integer friendId) {
-        int enrolled = 0;
-        List<FriendKnowledgeReview> toSave = new ArrayList<>();
         LocalDate today = LocalDate.now();
-
-        for (FriendKnowledge k : friendKnowledgeRepository.findByFriendId(friendId)) {
-            if (k.getId() == null) continue;
-            if (reviewRepository.existsByFriendIdAndSourceTypeAndSourceKnowledgeId(friendId, SourceType.FRIEND, k.getId())) continue;
-            toSave.add(newReviewRow(friendId, SourceType.FRIEND, k.getId(), today));
-        }
-
-        for (Integer groupId : groupMemberRepository.findGroupIdsByFriendId(friendId)) {
-            for (GroupKnowledge k : groupKnowledgeRepository.findByGroupIdOrderByDateDesc(groupId)) {
-                if (k.getId() == null) continue;
-                if (reviewRepository.existsByFriendIdAndSourceTypeAndSourceKnowledgeId(friendId, SourceType.GROUP, k.getId())) continue;
-                toSave.add(newReviewRow(friendId, SourceType.GROUP, k.getId(), today));
-            }
+        int enrolled = reviewRepository.enrollFriendFacts(friendId, SourceType.FRIEND.name(), today)
+            + reviewRepository.enrollGroupFacts(friendId, SourceType.GROUP.name(), today);
+        if (enrolled > 0) {
+            log.info("[flashcards] Enrolled {} new review row(s) for friend {}", enrolled, friendId);
         }
+        return enrolled;
+    }
 
-        if (!toSave.isEmpty()) {
-            reviewRepository.saveAll(toSave);
-            enrolled = toSave.size();
+    /**
+     * Fast path for OutboxWriteService.applyAddKnowledge: enrolls just the
+     * facts that call logged (already flushed by the insert's auto-flush),
+     * instead of re-syncing the friend's whole deck. Still idempotent, so a
+     * replayed request can't double-enroll.
+     */
+    @Transactional
+    public int enrollNewKnowledge(Integer friendId, List<Integer> knowledgeIds) {
+        if (knowledgeIds.isEmpty()) return 0;
+        int enrolled = reviewRepository.enrollFriendFacts(friendId, knowledgeIds, SourceType.FRIEND.name(), LocalDate.now());
+        if (enrolled > 0) {
             log.info("[flashcards] Enrolled {} new review row(s) for friend {}", enrolled, friendId);
         }
         return enrolled;
     }
 
+    /**
+     * AFTER_COMMIT so the facts are visible to the insert and a failure here
+     * can't roll back the group save — same footing as knowledge-core's
+     * KnowledgeChunkTriggerListener. A miss is only logged: the member's next
+     * re-star (enrollFriend) picks it up.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onGroupKnowledgeAdded(GroupKnowledgeAddedEvent event) {
+        if (event.groupId() == null || event.knowledgeIds().isEmpty()) return;
+        try {
+            int enrolled = reviewRepository.enrollGroupFactsForStarredMembers(
+                event.groupId(), event.knowledgeIds(), SourceType.GROUP.name(), LocalDate.now());
+            if (enrolled > 0) {
+                log.info("[flashcards] Enrolled {} new review row(s) from group {}", enrolled, event.groupId());
+            }
+        } catch (Exception e) {
+            log.warn("[flashcards] Couldn't enroll new facts of group {} for its starred members: {}",
+                event.groupId(), e.getMessage());
+        }
+    }
+
     /** Hook for FlashcardReviewController's star toggle — see class javadoc for the enroll/re-star contract. */
     @Transactional
     public Friend setFlashcardsEnabled(Integer friendId, boolean enabled) {
@@ -154,15 +172,4 @@ public class FlashcardEnrollmentService {
             reviewRepository.saveAll(toSave);
         }
     }
-
-    private static FriendKnowledgeReview newReviewRow(Integer friendId, SourceType type, Integer sourceId, LocalDate today) {
-        Friend friendRef = new Friend();
-        friendRef.setId(friendId);
-        return FriendKnowledgeReview.builder()
-            .friend(friendRef)
-            .sourceType(type)
-            .sourceKnowledgeId(sourceId)
-            .dueDate(today)
-            .build();
-    }
 }
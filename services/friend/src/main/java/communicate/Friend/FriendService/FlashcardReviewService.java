@@ -2,25 +2,22 @@ package communicate.Friend.FriendService;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.demo.Group.GroupEntities.GroupKnowledge;
-import com.example.demo.Group.GroupRepositories.GroupKnowledgeRepository;
-
 import communicate.Friend.DTOs.FlashcardCardDTO;
 import communicate.Friend.DTOs.FlashcardFolderDTO;
-import communicate.Friend.FriendEntities.Friend;
-import communicate.Friend.FriendEntities.FriendKnowledge;
+import communicate.Friend.DTOs.FlashcardGradeDTO;
+import communicate.Friend.DTOs.FlashcardGradedDTO;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview;
-import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
-import communicate.Friend.FriendRepositories.FriendKnowledgeRepository;
 import communicate.Friend.FriendRepositories.FriendKnowledgeReviewRepository;
-import communicate.Friend.FriendRepositories.FriendRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 
@@ -30,42 +27,53 @@ import lombok.RequiredArgsConstructor;
  * exactly like ReviewService does for contact scheduling, but against
  * FriendKnowledgeReview's own independent stability/difficulty — see that
  * entity's javadoc for why the two states are kept separate.
+ *
+ * Every read is a single statement: cards come straight out of
+ * FriendKnowledgeReviewRepository.CARD's join (row + friend + source fact),
+ * folders out of one GROUP BY with a conditional due count.
+ *
+ * The session API (getSessionCards/gradeSession) is the mobile-friendly
+ * path: fetch K cards, grade them offline, post the grades back in one
+ * request. gradeCard stays for the one-card-per-request web page.
  */
 @Service
 @RequiredArgsConstructor
 public class FlashcardReviewService {
 
+    private static final String GRADE_UPDATE =
+        "UPDATE friend_knowledge_review SET fsrs_stability = ?, fsrs_difficulty = ?, last_reviewed_date = ?, " +
+        "due_date = ? WHERE id = ?";
+
     private final FriendKnowledgeReviewRepository reviewRepository;
-    private final FriendRepository friendRepository;
-    private final FriendKnowledgeRepository friendKnowledgeRepository;
-    private final GroupKnowledgeRepository groupKnowledgeRepository;
     private final FsrsService fsrs;
+    private final JdbcTemplate jdbcTemplate;
 
     /** Today's capped/spread queue across every starred friend (FlashcardSpreadService already enforces the daily cap by writing dueDate forward). */
     @Transactional
     public List<FlashcardCardDTO> getTodayQueue() {
-        List<FriendKnowledgeReview> due = reviewRepository.findByFriend_FlashcardsEnabledTrueAndDueDateLessThanEqual(LocalDate.now());
-        return toDtos(due);
+        return reviewRepository.findDueCards(LocalDate.now());
     }
 
     /** One friend's whole deck, due or not — browsing a folder directly bypasses the daily cap (design doc, like Anki's Browse). */
     @Transactional
     public List<FlashcardCardDTO> getFolder(Integer friendId) {
-        List<FriendKnowledgeReview> rows = reviewRepository.findByFriendIdOrderByDueDateAsc(friendId);
-        return toDtos(rows);
+        return reviewRepository.findCardsByFriendId(friendId);
     }
 
     /** Every starred friend, with due/total counts — the review page's folder list + empty-state driver. */
     @Transactional
     public List<FlashcardFolderDTO> getFolders() {
-        LocalDate today = LocalDate.now();
-        return friendRepository.findByFlashcardsEnabledTrueAndDeletedAtIsNull().stream()
-            .map(f -> {
-                List<FriendKnowledgeReview> rows = reviewRepository.findByFriendId(f.getId());
-                long due = rows.stream().filter(r -> !r.getDueDate().isAfter(today)).count();
-                return new FlashcardFolderDTO(f.getId(), f.getName(), due, rows.size());
-            })
-            .toList();
+        return reviewRepository.findFolders(LocalDate.now());
+    }
+
+    /**
+     * A review session's next {@code limit} due cards, oldest first, facts
+     * already resolved — one statement, so the client can grade a whole
+     * stretch without a round trip per card.
+     */
+    @Transactional
+    public List<FlashcardCardDTO> getSessionCards(int limit) {
+        return reviewRepository.findDueCards(LocalDate.now(), PageRequest.of(0, limit));
     }
 
     /**
@@ -78,73 +86,81 @@ public class FlashcardReviewService {
         FriendKnowledgeReview row = reviewRepository.findById(reviewId)
             .orElseThrow(() -> new EntityNotFoundException("Review row " + reviewId + " not found."));
 
+        FlashcardGradedDTO graded = grade(reviewId, row.getFsrsStability(), row.getFsrsDifficulty(),
+            row.getLastReviewedDate(), grade, LocalDate.now());
+        row.setFsrsStability(graded.fsrsStability());
+        row.setFsrsDifficulty(graded.fsrsDifficulty());
+        row.setLastReviewedDate(graded.lastReviewedDate());
+        row.setDueDate(graded.dueDate());
+        reviewRepository.save(row);
+
+        // The query flushes the grade first, so the card reflects it.
+        return reviewRepository.findCard(reviewId).orElseThrow();
+    }
+
+    /**
+     * A session's grades in one transaction: one read of every touched row,
+     * the same FSRS step gradeCard takes applied per grade in reviewedAt
+     * order (a card graded twice in the batch chains its two reviews), then
+     * one JDBC batch of updates. A reviewedAt in the future is taken as
+     * today, and one before the card's stored lastReviewedDate (a stale or
+     * backdated grade) as that date, so a grade never moves a card's review
+     * history backwards. Ids with no row — fact deleted mid-session — are
+     * skipped rather than failing the rest; the result has one entry per
+     * card actually written, in its final state.
+     */
+    @Transactional
+    public List<FlashcardGradedDTO> gradeSession(List<FlashcardGradeDTO> grades) {
         LocalDate today = LocalDate.now();
+        Map<Integer, FlashcardGradedDTO> state = new LinkedHashMap<>();
+        for (FriendKnowledgeReview row : reviewRepository.findAllById(grades.stream().map(FlashcardGradeDTO::reviewId).toList())) {
+            state.put(row.getId(), new FlashcardGradedDTO(row.getId(), row.getFsrsStability(), row.getFsrsDifficulty(),
+                row.getLastReviewedDate(), row.getDueDate()));
+        }
+
+        Map<Integer, FlashcardGradedDTO> graded = new LinkedHashMap<>();
+        grades.stream()
+            .sorted(Comparator.comparing((FlashcardGradeDTO g) -> reviewedOn(g, today)))
+            .filter(g -> state.containsKey(g.reviewId()))
+            .forEach(g -> {
+                FlashcardGradedDTO before = state.get(g.reviewId());
+                LocalDate on = reviewedOn(g, today);
+                if (before.lastReviewedDate() != null && on.isBefore(before.lastReviewedDate())) {
+                    on = before.lastReviewedDate();
+                }
+                FlashcardGradedDTO after = grade(g.reviewId(), before.fsrsStability(), before.fsrsDifficulty(),
+                    before.lastReviewedDate(), g.grade(), on);
+                state.put(g.reviewId(), after);
+                graded.put(g.reviewId(), after);
+            });
+
+        List<Object[]> updates = graded.values().stream()
+            .map(g -> new Object[] {g.fsrsStability(), g.fsrsDifficulty(), g.lastReviewedDate(), g.dueDate(), g.reviewId()})
+            .toList();
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(GRADE_UPDATE, updates);
+        }
+        return List.copyOf(graded.values());
+    }
+
+    // A device clock ahead of ours can't grade in the future.
+    private static LocalDate reviewedOn(FlashcardGradeDTO grade, LocalDate today) {
+        return grade.reviewedAt() == null || grade.reviewedAt().isAfter(today) ? today : grade.reviewedAt();
+    }
+
+    private FlashcardGradedDTO grade(Integer reviewId, Double stability, Double difficulty,
+                                     LocalDate lastReviewed, int grade, LocalDate on) {
         FsrsService.FsrsState state;
-        if (row.getFsrsStability() == null || row.getFsrsDifficulty() == null) {
+        if (stability == null || difficulty == null) {
             state = fsrs.initialState(grade);
         } else {
-            double elapsedDays = row.getLastReviewedDate() == null
+            double elapsedDays = lastReviewed == null
                 ? 0
-                : Math.max(0, ChronoUnit.DAYS.between(row.getLastReviewedDate(), today));
-            state = fsrs.review(new FsrsService.FsrsState(row.getFsrsStability(), row.getFsrsDifficulty()), grade, elapsedDays);
+                : Math.max(0, ChronoUnit.DAYS.between(lastReviewed, on));
+            state = fsrs.review(new FsrsService.FsrsState(stability, difficulty), grade, elapsedDays);
         }
 
         int intervalDays = fsrs.intervalDays(state.stability(), FlashcardEnrollmentService.DESIRED_RETENTION);
-
-        row.setFsrsStability(state.stability());
-        row.setFsrsDifficulty(state.difficulty());
-        row.setLastReviewedDate(today);
-        row.setDueDate(today.plusDays(intervalDays));
-        reviewRepository.save(row);
-
-        return toDto(row);
-    }
-
-    private List<FlashcardCardDTO> toDtos(List<FriendKnowledgeReview> rows) {
-        if (rows.isEmpty()) return List.of();
-
-        Map<Integer, Friend> friendsById = friendRepository.findAllById(
-                rows.stream().map(r -> r.getFriend().getId()).distinct().toList())
-            .stream().collect(Collectors.toMap(Friend::getId, f -> f));
-
-        Map<Integer, FriendKnowledge> friendKnowledgeById = friendKnowledgeRepository.findAllById(
-                rows.stream().filter(r -> r.getSourceType() == SourceType.FRIEND).map(FriendKnowledgeReview::getSourceKnowledgeId).distinct().toList())
-            .stream().collect(Collectors.toMap(FriendKnowledge::getId, k -> k));
-
-        Map<Integer, GroupKnowledge> groupKnowledgeById = groupKnowledgeRepository.findAllById(
-                rows.stream().filter(r -> r.getSourceType() == SourceType.GROUP).map(FriendKnowledgeReview::getSourceKnowledgeId).distinct().toList())
-            .stream().collect(Collectors.toMap(GroupKnowledge::getId, k -> k));
-
-        return rows.stream().map(row -> {
-            Friend friend = friendsById.get(row.getFriend().getId());
-            String fact;
-            Long importance;
-            if (row.getSourceType() == SourceType.FRIEND) {
-                FriendKnowledge k = friendKnowledgeById.get(row.getSourceKnowledgeId());
-                fact = k != null ? k.getText() : "(deleted fact)";
-                importance = k != null ? k.getPriority() : null;
-            } else {
-                GroupKnowledge k = groupKnowledgeById.get(row.getSourceKnowledgeId());
-                fact = k != null ? k.getText() : "(deleted fact)";
-                importance = k != null ? k.getPriority() : null;
-            }
-            return new FlashcardCardDTO(
-                row.getId(),
-                row.getFriend().getId(),
-                friend != null ? friend.getName() : null,
-                row.getSourceType().name(),
-                row.getSourceKnowledgeId(),
-                fact,
-                importance,
-                row.getFsrsStability(),
-                row.getFsrsDifficulty(),
-                row.getLastReviewedDate(),
-                row.getDueDate()
-            );
-        }).toList();
-    }
-
-    private FlashcardCardDTO toDto(FriendKnowledgeReview row) {
-        return toDtos(List.of(row)).get(0);
+        return new FlashcardGradedDTO(reviewId, state.stability(), state.difficulty(), on, on.plusDays(intervalDays));
     }
 }
@@ -1,17 +1,17 @@
 package communicate.Friend.FriendService;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.stream.Stream;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import communicate.Friend.FriendEntities.FriendKnowledgeReview;
+import communicate.Friend.DTOs.SpreadRowDTO;
 import communicate.Friend.FriendRepositories.FriendKnowledgeReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +27,13 @@ import lombok.extern.slf4j.Slf4j;
  * HARDEST rows (highest fsrsDifficulty) stay put; the easiest spill to the
  * next day. A never-reviewed row (null difficulty) sorts as mid-difficulty
  * (5.0 of the 1-10 scale) — neither protected nor sacrificed first.
+ *
+ * One streaming pass over (id, due_date, difficulty) tuples, oldest due
+ * first: only the day being settled plus whatever is still cascading forward
+ * is ever held, and the rows that actually moved go back as one batched
+ * due_date UPDATE — no managed entities, no dirty checking. Within a day the
+ * carried-in overflow queues behind that day's own rows before the stable
+ * hardest-first sort, exactly as the map-per-day version did.
  */
 @Service
 @RequiredArgsConstructor
@@ -34,59 +41,99 @@ import lombok.extern.slf4j.Slf4j;
 public class FlashcardSpreadService {
 
     private static final double UNREVIEWED_DIFFICULTY = 5.0;
+    private static final String MOVE_UPDATE = "UPDATE friend_knowledge_review SET due_date = ? WHERE id = ?";
 
     private final FriendKnowledgeReviewRepository reviewRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     public record SpreadResult(int total, int moved) {}
 
+    private record Card(int id, long due, double difficulty) {}
+
+    private static final Comparator<Card> HARDEST_FIRST = Comparator.comparingDouble(Card::difficulty).reversed();
+
     @Transactional
     public SpreadResult run(int maxDailyReviews) {
-        LocalDate today = LocalDate.now();
-        List<FriendKnowledgeReview> rows = reviewRepository.findByFriend_FlashcardsEnabledTrue();
-        if (rows.isEmpty()) {
+        if (maxDailyReviews <= 0) {
+            // Nothing could ever fit: cascading would never terminate.
+            log.warn("[flashcard spread] Skipped — max {}/day leaves no room.", maxDailyReviews);
             return new SpreadResult(0, 0);
         }
+        Spread spread = new Spread(maxDailyReviews);
+        try (Stream<SpreadRowDTO> rows = reviewRepository.streamSpreadRows()) {
+            Iterator<SpreadRowDTO> it = rows.iterator();
+            while (it.hasNext()) {
+                SpreadRowDTO row = it.next();
+                double difficulty = row.fsrsDifficulty() != null ? row.fsrsDifficulty() : UNREVIEWED_DIFFICULTY;
+                spread.add(new Card(row.id(), row.dueDate().toEpochDay(), difficulty));
+            }
+        }
+        spread.finish();
 
-        TreeMap<Integer, List<FriendKnowledgeReview>> byDay = new TreeMap<>();
-        Map<FriendKnowledgeReview, LocalDate> originalDue = new java.util.HashMap<>();
-        for (FriendKnowledgeReview row : rows) {
-            int delta = (int) ChronoUnit.DAYS.between(today, row.getDueDate());
-            byDay.computeIfAbsent(delta, k -> new ArrayList<>()).add(row);
-            originalDue.put(row, row.getDueDate());
+        if (!spread.moves.isEmpty()) {
+            jdbcTemplate.batchUpdate(MOVE_UPDATE, spread.moves);
         }
+        log.info("[flashcard spread] {} row(s) across {} day(s), shifted {} to enforce max {}/day.",
+            spread.total, spread.days, spread.moves.size(), maxDailyReviews);
+        return new SpreadResult(spread.total, spread.moves.size());
+    }
+
+    /** The cascade over a due-date-ordered stream; settles each day as soon as the stream passes it. */
+    private static final class Spread {
+        final int cap;
+        final List<Object[]> moves = new ArrayList<>();
+        int total;
+        int days;
 
-        int total = rows.size();
-
-        int maxDay = byDay.lastKey();
-        for (int delta = byDay.firstKey(); delta <= maxDay; delta++) {
-            List<FriendKnowledgeReview> dayRows = byDay.get(delta);
-            if (dayRows == null || dayRows.size() <= maxDailyReviews) continue;
-            // Hardest first -> the top maxDailyReviews stay; the easiest overflow.
-            dayRows.sort(Comparator.comparingDouble(
-                (FriendKnowledgeReview r) -> r.getFsrsDifficulty() != null ? r.getFsrsDifficulty() : UNREVIEWED_DIFFICULTY).reversed());
-            List<FriendKnowledgeReview> overflow = new ArrayList<>(dayRows.subList(maxDailyReviews, dayRows.size()));
-            dayRows.subList(maxDailyReviews, dayRows.size()).clear();
-            byDay.computeIfAbsent(delta + 1, k -> new ArrayList<>()).addAll(overflow);
-            maxDay = byDay.lastKey();
+        long day;                           // epoch day being filled, valid while open()
+        List<Card> own = new ArrayList<>(); // rows originally due on `day`, stream order
+        List<Card> carry = List.of();       // overflow cascaded in from day - 1, hardest first
+
+        Spread(int cap) {
+            this.cap = cap;
         }
 
-        int moved = 0;
-        List<FriendKnowledgeReview> toSave = new ArrayList<>();
-        for (Map.Entry<Integer, List<FriendKnowledgeReview>> entry : byDay.entrySet()) {
-            LocalDate assignedDate = today.plusDays(entry.getKey());
-            for (FriendKnowledgeReview row : entry.getValue()) {
-                if (assignedDate.equals(originalDue.get(row))) continue;
-                row.setDueDate(assignedDate);
-                toSave.add(row);
-                moved++;
+        void add(Card card) {
+            total++;
+            while (open() && card.due() > day) {
+                settle();
+            }
+            if (!open()) {
+                day = card.due();
             }
+            own.add(card);
         }
-        if (!toSave.isEmpty()) {
-            reviewRepository.saveAll(toSave);
+
+        void finish() {
+            while (open()) {
+                settle();
+            }
         }
 
-        log.info("[flashcard spread] {} row(s) across {} day(s), shifted {} to enforce max {}/day.",
-            total, byDay.size(), moved, maxDailyReviews);
-        return new SpreadResult(total, moved);
+        private boolean open() {
+            return !own.isEmpty() || !carry.isEmpty();
+        }
+
+        // Keeps the hardest `cap` rows on `day`, cascades the rest to day + 1.
+        private void settle() {
+            List<Card> cards = own;
+            cards.addAll(carry);
+            List<Card> overflow = List.of();
+            if (cards.size() > cap) {
+                cards.sort(HARDEST_FIRST); // stable: ties keep own-then-carried order
+                overflow = new ArrayList<>(cards.subList(cap, cards.size()));
+                cards.subList(cap, cards.size()).clear();
+            }
+            LocalDate assigned = LocalDate.ofEpochDay(day);
+            for (Card card : cards) {
+                if (card.due() != day) {
+                    moves.add(new Object[] {assigned, card.id()});
+                }
+            }
+            days++;
+            own = new ArrayList<>();
+            carry = overflow;
+            day++;
+        }
     }
 }
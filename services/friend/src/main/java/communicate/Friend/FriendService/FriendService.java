@@ -13,6 +13,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import communicate.Friend.DTOs.FriendDTO;
+import communicate.Friend.DTOs.FriendRowDTO;
 import communicate.Friend.DTOs.MCP_Friend_DTO;
 import communicate.Friend.DTOs.ShortFriendDTO;
 import communicate.Friend.FriendEntities.Friend;
@@ -25,6 +27,17 @@ import lombok.RequiredArgsConstructor;
 public class FriendService {
 
     private final FriendRepository friendRepository;
+    private final EmaDecayService emaDecayService;
+
+    /**
+     * Every active friend as a FriendDTO — one column-only query
+     * (FriendRepository.FRIEND_ROW). A failed query propagates rather than
+     * reading as "no friends".
+     */
+    @Transactional
+    public List<FriendDTO> getAllFriendDTOs(){
+        return decayed(friendRepository.findAllRows());
+    }
 
     @Transactional
     public List<Friend> getAllFriends(){
@@ -37,46 +50,50 @@ public class FriendService {
 
     }
 
+    /**
+     * Home "this week" list: due/overdue friends plus anyone whose birthday
+     * falls in the current Mon..Sun, filtered and flagged in SQL
+     * (FriendRepository.findThisWeekRows) instead of loading every friend.
+     * Averages decayed to today, as everywhere else.
+     */
     @Transactional
-    public List<Friend> findThisWeek(){
+    public List<FriendDTO> findThisWeek(){
         try {
-            LocalDate mondayDate = getMonday(LocalDate.now());
-            LocalDate sundayDate = getSunday(LocalDate.now());
-            int currentYear = LocalDate.now().getYear();
-
-            System.out.print("\n \n \n");
-
-            System.out.println(mondayDate.toString());
-            System.out.println(sundayDate.toString());
-
-            System.out.print("\n \n \n");
-
-            List<Friend> friends = friendRepository.findByDeletedAtIsNull();
-            List<Friend> result = new ArrayList<Friend>();
-            for(Friend friend:friends){
-
-                LocalDate dateOfBirth = friend.getDateOfBirth();
-                if(dateOfBirth!= null){
-                    dateOfBirth = dateOfBirth.withYear(currentYear);
-                }
-                LocalDate lastTimeSpoken = friend.getPlannedSpeakingTime();
-
-                //System.out.println(friend);
-
-                System.out.print("\n \n");
-
-                if( isBetween(dateOfBirth, mondayDate, sundayDate) || isBefore(lastTimeSpoken, sundayDate)){
-                    result.add(friend);
-                }
-            }
-            return result;
-
+            LocalDate today = LocalDate.now();
+            LocalDate monday = getMonday(today);
+            int[] md = birthdayRanges(monday);
+            return decayed(friendRepository.findThisWeekRows(getSunday(today), md[0], md[1], md[2], md[3]));
         } catch (Exception e) {
            System.out.print("Error retrieving friends " + e.toString());
         }
         return new ArrayList<>();
     }
 
+    /**
+     * Month-day (month * 100 + day) ranges covering Mon..Sun starting at
+     * {@code monday}, as {from1, to1, from2, to2}: one range, with an empty
+     * second (0, -1), unless the week runs over New Year, where it's
+     * [Mon, 1231] and [101, Sun]. In a non-leap year a Feb 29 birthday is
+     * celebrated on the 28th (LocalDate.withYear's rule), so a range ending
+     * on 228 is stretched to 229.
+     */
+    static int[] birthdayRanges(LocalDate monday) {
+        LocalDate sunday = monday.plusDays(6);
+        int from = monthDay(monday);
+        int to = monthDay(sunday);
+        if (to == 228 && !sunday.isLeapYear()) {
+            to = 229;
+        }
+        if (sunday.getYear() != monday.getYear()) {
+            return new int[] {from, 1231, 101, to};
+        }
+        return new int[] {from, to, 0, -1};
+    }
+
+    private static int monthDay(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
     @Transactional
     public void save(Friend friend){
         try {
@@ -86,6 +103,16 @@ public class FriendService {
         }
     }
 
+    /**
+     * Several friends written in one flush — the UPDATEs go out as one JDBC
+     * batch (hibernate.jdbc.batch_size / order_updates) instead of a round
+     * trip each. Unlike save(), failures propagate to the caller's transaction.
+     */
+    @Transactional
+    public void saveAll(List<Friend> friends) {
+        friendRepository.saveAll(friends);
+    }
+
     // Soft delete (Bin feature): marks deleted_at instead of removing the
     // row. PurgeService hard-deletes it 7 days later. Kept as
     // "deleteFriendById" rather than renamed, since the controller's
@@ -122,9 +149,9 @@ public class FriendService {
     }
 
     @Transactional
-    public List<Friend> getDeletedFriends(){
+    public List<FriendDTO> getDeletedFriends(){
         try {
-            return friendRepository.findByDeletedAtIsNotNull();
+            return decayed(friendRepository.findDeletedRows());
         } catch (Exception e) {
            System.out.print("Error retrieving deleted friends " + e.toString());
         }
@@ -161,6 +188,9 @@ public class FriendService {
             }
 
             if (friend.getExperience() != null || friendDB.getExperience() == null) {
+                // The rating picks the decay alpha — settle the days owed at
+                // the old rating before it changes (see EmaDecayService).
+                emaDecayService.catchUp(friendDB, LocalDate.now());
                 friendDB.setExperience(friend.getExperience());
                 updated = true;
             }
@@ -207,7 +237,10 @@ public class FriendService {
     @Transactional
     public List<ShortFriendDTO> getCompressedList(){
         try {
-            return friendRepository.findAllShortFriendDTOs();
+            LocalDate today = LocalDate.now();
+            return friendRepository.findAllShortFriendDTOs().stream()
+                    .map(dto -> emaDecayService.asOf(dto, today))
+                    .toList();
         } catch (Exception e) {
             System.out.print("Error retrieving friends " + e.toString());
         }
@@ -215,27 +248,6 @@ public class FriendService {
     }
 
 
-    private boolean isBetween(LocalDate date, LocalDate left, LocalDate right) {
-        if(date == null){
-            return false;
-        }
-        boolean equalsLeft = date.isEqual(left);
-        boolean equalsRight = date.isEqual(right);
-        boolean between = date.isAfter(left) && date.isBefore(right);
-        boolean result = equalsLeft || equalsRight || between;
-        //System.out.println(result + "\n \n " );
-        //result = date.isBefore(right); // update for forgetting / laziness
-        return result;
-    }
-
-    private Boolean isBefore(LocalDate date, LocalDate right){
-        if(date == null){
-            return false;
-        }
-        return date.isBefore(right) || date.isEqual(right);
-    }
-
-    
     public LocalDate getMonday(LocalDate date) {
         while (date.getDayOfWeek() != DayOfWeek.MONDAY) {
             date = date.minusDays(1);
@@ -280,54 +292,24 @@ public class FriendService {
         return friendRepository.findAll(pageable);
     }
 
-    // Update friend's moving averages (called by chrono service)
-    @Transactional
-    public void updateMovingAverages(Integer friendId, Double averageFrequency,
-                                   Double averageDuration, Double averageExcitement, Double averageProximity) {
-        Optional<Friend> friendOpt = friendRepository.findById(friendId);
-        if (friendOpt.isPresent()) {
-            Friend friend = friendOpt.get();
-            friend.setAverageFrequency(averageFrequency);
-            friend.setAverageDuration(averageDuration);
-            friend.setAverageExcitement(averageExcitement);
-            friend.setAverageProximity(averageProximity);
-            friendRepository.save(friend);
-        } else {
-            throw new jakarta.persistence.EntityNotFoundException("Friend with id " + friendId + " not found");
-        }
-    }
-
-    // Paginated friends with EMA data for chrono service
-    @Transactional
-    public List<ShortFriendDTO> getFriendsPaginatedForChrono(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
-        Page<Friend> friendsPage = friendRepository.findAll(pageable);
-        
-        // Convert to ShortFriendDTO with EMA data
-        return friendsPage.getContent().stream()
-                .map(friend -> new ShortFriendDTO(
-                    friend.getId(),
-                    friend.getName(),
-                    friend.getAverageFrequency(),
-                    friend.getAverageDuration(),
-                    friend.getAverageExcitement(),
-                    friend.getAverageProximity(),
-                    friend.getExperience()
-                ))
-                .toList();
-    }
-
     // Get total count of friends
     @Transactional
     public long getFriendsCount() {
         return friendRepository.countByDeletedAtIsNull();
     }
 
-    // Paginated friends for UI (returns full Friend entities)
+    // Paginated friends for UI, by name
     @Transactional
-    public Page<Friend> getFriendsPagedForUI(int page, int size) {
+    public List<FriendDTO> getFriendsPagedForUI(int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "name"));
-        return friendRepository.findAll(pageable);
+        return decayed(friendRepository.findRows(pageable));
+    }
+
+    // Rows leave FriendService with their averages decayed to today, like
+    // every other read of them (EmaDecayService).
+    private List<FriendDTO> decayed(List<FriendRowDTO> rows) {
+        LocalDate today = LocalDate.now();
+        return rows.stream().map(row -> emaDecayService.asOf(row, today)).toList();
     }
 
 
@@ -2,15 +2,15 @@ package communicate.Friend.FriendService;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import communicate.Friend.FriendEntities.Analytics;
-import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.DTOs.BackfillSeedDTO;
 import communicate.Friend.FriendRepositories.AnalyticsRepository;
-import communicate.Friend.FriendRepositories.FriendRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,50 +30,61 @@ import lombok.extern.slf4j.Slf4j;
  * rather than a one-shot migration flag — consistent with this codebase's
  * ddl-auto: update convention of reconciling schema/state on every boot
  * rather than tracking migrations explicitly.
+ *
+ * Two statements per boot whatever the history size: one GROUP BY
+ * (AnalyticsRepository.findBackfillSeeds) summarizes every unseeded friend's
+ * history, and the seeds go back as one JDBC batch UPDATE. Once everyone
+ * with history is seeded, the aggregate only touches friends that still
+ * have fewer than two interactions.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FsrsBackfillService {
 
-    private final FriendRepository friendRepository;
+    // Guarded on fsrs_stability IS NULL: a live review that seeded the
+    // friend since the aggregate ran wins.
+    private static final String SEED_UPDATE =
+        "UPDATE friend SET fsrs_stability = ?, fsrs_difficulty = ?, last_interaction_date = ? " +
+        "WHERE id = ? AND fsrs_stability IS NULL";
+
     private final AnalyticsRepository analyticsRepository;
+    private final EmaDecayService emaDecayService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Transactional
     public int backfillAll() {
-        int seeded = 0;
-        for (Friend friend : friendRepository.findByDeletedAtIsNull()) {
-            if (friend.getFsrsStability() != null) continue; // already seeded or already active
-            List<Analytics> history = analyticsRepository.findByFriendIdOrderByDateAsc(friend.getId());
-            if (history.size() < 2) continue; // no interval to derive stability from
-
-            friend.setFsrsStability(Math.max(1.0, averageGapDays(history)));
-            friend.setFsrsDifficulty(difficultyFromExcitement(friend.getAverageExcitement()));
-            friend.setLastInteractionDate(history.get(history.size() - 1).getDate());
-            friendRepository.save(friend);
-            seeded++;
+        LocalDate today = LocalDate.now();
+        List<Object[]> seeds = new ArrayList<>();
+        for (BackfillSeedDTO seed : analyticsRepository.findBackfillSeeds()) {
+            seeds.add(new Object[] {
+                Math.max(1.0, averageGapDays(seed)),
+                difficultyFromExcitement(emaDecayService.excitementAsOf(seed, today)),
+                seed.lastDate(),
+                seed.friendId()});
         }
-        if (seeded > 0) {
-            log.info("[FSRS backfill] seeded {} existing friends' FSRS state from legacy history", seeded);
+        if (seeds.isEmpty()) {
+            return 0;
         }
+        int seeded = 0;
+        for (int updated : jdbcTemplate.batchUpdate(SEED_UPDATE, seeds)) {
+            seeded += Math.max(0, updated); // SUCCESS_NO_INFO (-2) from drivers that don't report counts
+        }
+        log.info("[FSRS backfill] seeded {} existing friends' FSRS state from legacy history", seeded);
         return seeded;
     }
 
-    /** Mean gap between consecutive logged interactions — the closest available analog to OO's sr-interval. */
-    private static double averageGapDays(List<Analytics> history) {
-        long totalDays = 0;
-        int gaps = 0;
-        for (int i = 1; i < history.size(); i++) {
-            LocalDate prev = history.get(i - 1).getDate();
-            LocalDate curr = history.get(i).getDate();
-            if (prev == null || curr == null) continue;
-            long gap = ChronoUnit.DAYS.between(prev, curr);
-            if (gap > 0) {
-                totalDays += gap;
-                gaps++;
-            }
+    /**
+     * Mean gap between consecutive distinct interaction days — the closest
+     * available analog to OO's sr-interval. Over the sorted days the gaps
+     * telescope, so their sum is just last - first: no per-row walk needed.
+     */
+    static double averageGapDays(BackfillSeedDTO seed) {
+        long gaps = seed.distinctDays() - 1;
+        if (gaps <= 0 || seed.firstDate() == null) {
+            return 1.0;
         }
-        return gaps == 0 ? 1.0 : (double) totalDays / gaps;
+        return (double) ChronoUnit.DAYS.between(seed.firstDate(), seed.lastDate()) / gaps;
     }
 
     /**
@@ -3,16 +3,15 @@ package communicate.Friend.FriendService;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import communicate.Friend.Config.RoleProperties;
-import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.DTOs.LapseCandidateDTO;
 import communicate.Friend.FriendRepositories.FriendRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,9 +27,15 @@ import lombok.extern.slf4j.Slf4j;
  * A friend overdue by more than {@link #CHRONIC_NEGLECT_DAYS} gets their
  * FSRS state individually lapsed via FsrsService.forget() and rescheduled,
  * instead of drifting forgotten indefinitely with a stale due date.
+ * Only the chronically overdue are read — a range scan on the
+ * planned_speaking_time index into a column projection — and their new
+ * state goes back in one JDBC batch UPDATE, so the nightly cost follows the
+ * overdue count, not the friend count.
+ *
  * Rescheduling spreads lapsed friends across the new interval window
  * (least-loaded day, same as OO) so a lapse sweep doesn't dump everyone onto
- * the same due date.
+ * the same due date — balanced against every active friend's planned date,
+ * not just tonight's lapses (DayLoadIndex, seeded by one GROUP BY).
  *
  * Deliberately NO bandit reward here, and pendingBanditArm/pendingBanditBucket
  * are left untouched — a neglect lapse is exogenous (the user didn't reach
@@ -50,81 +55,69 @@ public class FsrsNeglectService {
      */
     private static final int CHRONIC_NEGLECT_DAYS = 7;
 
+    // Guarded on the planned date that was read, so a friend rescheduled by a
+    // real interaction while the job ran keeps that newer schedule.
+    private static final String LAPSE_UPDATE =
+        "UPDATE friend SET fsrs_stability = ?, fsrs_difficulty = ?, last_interaction_date = ?, " +
+        "planned_speaking_time = ?, missed_due_count = ?, leech = ? " +
+        "WHERE id = ? AND planned_speaking_time = ?";
+
     private final FriendRepository friendRepository;
     private final FsrsService fsrs;
     private final RoleProperties roleProperties;
     private final LeechService leechService;
+    private final JdbcTemplate jdbcTemplate;
     private final Random random = new Random();
 
     @Transactional
     public int applyNightlyLapse() {
         LocalDate today = LocalDate.now();
-        Map<LocalDate, Integer> dayLoad = new HashMap<>();
-        int lapsedCount = 0;
-
-        for (Friend friend : friendRepository.findByDeletedAtIsNull()) {
-            // No FSRS state yet (never reviewed, or cold-start pending) —
-            // nothing to lapse.
-            if (friend.getFsrsStability() == null || friend.getFsrsDifficulty() == null
-                    || friend.getPlannedSpeakingTime() == null) {
-                continue;
-            }
-            long daysOverdue = ChronoUnit.DAYS.between(friend.getPlannedSpeakingTime(), today);
-            if (daysOverdue <= CHRONIC_NEGLECT_DAYS) continue;
+        List<LapseCandidateDTO> candidates = friendRepository.findLapseCandidates(today.minusDays(CHRONIC_NEGLECT_DAYS));
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        DayLoadIndex dayLoad = DayLoadIndex.seeded(today, friendRepository.countPlannedAfter(today));
 
+        List<Object[]> updates = new ArrayList<>(candidates.size());
+        for (LapseCandidateDTO friend : candidates) {
             try {
-                lapseAndReschedule(friend, today, dayLoad);
-                lapsedCount++;
+                updates.add(lapseAndReschedule(friend, today, dayLoad));
             } catch (Exception e) {
-                log.warn("[FSRS neglect] Failed to lapse friend {}", friend.getId(), e);
+                log.warn("[FSRS neglect] Failed to lapse friend {}", friend.id(), e);
             }
         }
 
+        int lapsedCount = 0;
+        for (int rows : jdbcTemplate.batchUpdate(LAPSE_UPDATE, updates)) {
+            if (rows != 0) lapsedCount++; // 0: the friend moved since it was read, left as is
+        }
         if (lapsedCount > 0) {
             log.info("[FSRS neglect] Lapsed {} chronically overdue friend(s).", lapsedCount);
         }
         return lapsedCount;
     }
 
-    private void lapseAndReschedule(Friend friend, LocalDate today, Map<LocalDate, Integer> dayLoad) {
-        double elapsedDays = friend.getLastInteractionDate() == null
+    /** Lapses one friend and returns its {@link #LAPSE_UPDATE} parameters. */
+    private Object[] lapseAndReschedule(LapseCandidateDTO friend, LocalDate today, DayLoadIndex dayLoad) {
+        double elapsedDays = friend.lastInteractionDate() == null
             ? 0
-            : Math.max(0, ChronoUnit.DAYS.between(friend.getLastInteractionDate(), today));
+            : Math.max(0, ChronoUnit.DAYS.between(friend.lastInteractionDate(), today));
 
         FsrsService.FsrsState lapsed = fsrs.forget(
-            new FsrsService.FsrsState(friend.getFsrsStability(), friend.getFsrsDifficulty()), elapsedDays);
+            new FsrsService.FsrsState(friend.fsrsStability(), friend.fsrsDifficulty()), elapsedDays);
 
-        double desiredRetention = roleProperties.getDesiredRetention(friend.getRole());
+        double desiredRetention = roleProperties.getDesiredRetention(friend.role());
         int newIntervalDays = fsrs.intervalDays(lapsed.stability(), desiredRetention);
-        LocalDate newDue = leastLoadedDate(today, newIntervalDays, dayLoad);
+        LocalDate newDue = dayLoad.leastLoaded(newIntervalDays, random);
+        dayLoad.move(friend.plannedSpeakingTime(), newDue);
 
-        friend.setFsrsStability(lapsed.stability());
-        friend.setFsrsDifficulty(lapsed.difficulty());
-        friend.setLastInteractionDate(today);
-        friend.setPlannedSpeakingTime(newDue);
         // A neglect lapse only fires because the predicted due date already
         // passed unmet — always a miss for leech-flagging purposes.
-        leechService.recordMiss(friend);
-        friendRepository.save(friend);
-    }
-
-    /** Pick the least-loaded day within [today+1, today+interval]; ties broken randomly. */
-    private LocalDate leastLoadedDate(LocalDate today, int interval, Map<LocalDate, Integer> dayLoad) {
-        int minLoad = Integer.MAX_VALUE;
-        List<LocalDate> candidates = new ArrayList<>();
-        for (int d = 1; d <= Math.max(1, interval); d++) {
-            LocalDate candidate = today.plusDays(d);
-            int load = dayLoad.getOrDefault(candidate, 0);
-            if (load < minLoad) {
-                minLoad = load;
-                candidates.clear();
-                candidates.add(candidate);
-            } else if (load == minLoad) {
-                candidates.add(candidate);
-            }
-        }
-        LocalDate chosen = candidates.get(random.nextInt(candidates.size()));
-        dayLoad.merge(chosen, 1, Integer::sum);
-        return chosen;
+        int missedDueCount = leechService.missedAfterMiss(friend.missedDueCount());
+        return new Object[] {
+            lapsed.stability(), lapsed.difficulty(), today, newDue,
+            missedDueCount, leechService.isLeech(missedDueCount),
+            friend.id(), friend.plannedSpeakingTime()
+        };
     }
 }
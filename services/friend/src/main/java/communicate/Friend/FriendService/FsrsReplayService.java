@@ -0,0 +1,309 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import communicate.Friend.Config.RoleProperties;
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.DTOs.ReplayFriendDTO;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import communicate.Friend.FriendRepositories.FriendRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds every active friend's scheduling state (fsrsStability/
+ * fsrsDifficulty/lastInteractionDate/plannedSpeakingTime) from scratch by
+ * replaying its whole analytics history through GradeComputationService and
+ * FsrsService — what a changed SchedulingRolePreset, grade cutoff or FSRS
+ * weight needs to reach friends that were scheduled under the old values.
+ * FsrsBackfillService only seeds friends with no state at all, from a
+ * heuristic; this recomputes, and overwrites.
+ *
+ * Same chain as ReviewService.reviewInteraction, interaction by interaction:
+ * the first row starts from fsrs.initialState, every later one is an
+ * fsrs.review over the days since the previous row, and the final state's
+ * role-capped interval from the last interaction is the new due date. The
+ * bandit is not replayed — its table has its own reward history — so the
+ * replayed due date uses the neutral 1.0 arm, recorded as the pending arm
+ * (with the matching bucket) so the next real interaction's delayed reward
+ * attributes correctly. The explanation template is rewritten for the new
+ * date and left pending, like a live reschedule.
+ *
+ * One cursor over analytics ordered by (friend_id, date, id): each friend's
+ * history arrives contiguous, is packed into primitive columns (grades
+ * computed as it's read) and handed off in chunks of CHUNK_FRIENDS friends
+ * to a fork-join pool, which replays them while the stream reads the next
+ * chunk. Results are written back per chunk as one JDBC batch UPDATE of
+ * just the friends whose state changed, each followed by a
+ * FriendRescheduledEvent (Meeting upsert, explanation polish — both
+ * AFTER_COMMIT). Only the caller's thread touches the connection.
+ *
+ * Dry run computes the same report — per changed friend, old vs new
+ * stability/difficulty/due date — and writes nothing. Friends with no
+ * analytics (nothing to replay) are left as they are.
+ */
+@Service
+@Slf4j
+public class FsrsReplayService {
+
+    /** Friends handed to the pool per fork; also the write-back batch size. */
+    static final int CHUNK_FRIENDS = 512;
+    /** Below this many friends a task replays them itself rather than forking. */
+    static final int LEAF_FRIENDS = 16;
+    /** Replay doesn't sample the bandit — due dates use the neutral arm. */
+    static final double NEUTRAL_ARM = 1.0;
+
+    private static final String REPLAY_UPDATE =
+        "UPDATE friend SET fsrs_stability = ?, fsrs_difficulty = ?, last_interaction_date = ?, " +
+        "planned_speaking_time = ?, pending_bandit_arm = ?, pending_bandit_bucket = ?, " +
+        "scheduling_explanation = ?, scheduling_explanation_pending = true WHERE id = ?";
+
+    private final FriendRepository friendRepository;
+    private final AnalyticsRepository analyticsRepository;
+    private final GradeComputationService gradeComputation;
+    private final FsrsService fsrs;
+    private final BanditService bandit;
+    private final RoleProperties roleProperties;
+    private final ExplanationService explanationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int parallelism;
+
+    public FsrsReplayService(FriendRepository friendRepository,
+                             AnalyticsRepository analyticsRepository,
+                             GradeComputationService gradeComputation,
+                             FsrsService fsrs,
+                             BanditService bandit,
+                             RoleProperties roleProperties,
+                             ExplanationService explanationService,
+                             JdbcTemplate jdbcTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${fsrs.replay.parallelism:0}") int parallelism) {
+        this.friendRepository = friendRepository;
+        this.analyticsRepository = analyticsRepository;
+        this.gradeComputation = gradeComputation;
+        this.fsrs = fsrs;
+        this.bandit = bandit;
+        this.roleProperties = roleProperties;
+        this.explanationService = explanationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** One friend whose replayed state differs from what's stored. */
+    public record FriendDiff(Integer friendId, String name,
+                             Double oldStability, double newStability,
+                             Double oldDifficulty, double newDifficulty,
+                             LocalDate oldPlannedSpeakingTime, LocalDate newPlannedSpeakingTime) {}
+
+    public record ReplayReport(boolean dryRun, int replayed, int changed, List<FriendDiff> diffs) {}
+
+    @Transactional
+    public ReplayReport replay(boolean dryRun) {
+        LocalDate today = LocalDate.now();
+        Map<Integer, ReplayFriendDTO> friends = friendRepository.findReplayFriends().stream()
+            .collect(Collectors.toMap(ReplayFriendDTO::id, Function.identity()));
+
+        Run run = new Run(dryRun);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (Stream<AnalyticsPointDTO> points = analyticsRepository.streamReplayPoints(today)) {
+            Iterator<AnalyticsPointDTO> it = points.iterator();
+            List<History> chunk = new ArrayList<>(CHUNK_FRIENDS);
+            History current = null;
+            while (it.hasNext()) {
+                AnalyticsPointDTO point = it.next();
+                if (current == null || !current.friend.id().equals(point.friendId())) {
+                    ReplayFriendDTO friend = friends.get(point.friendId());
+                    if (friend == null) { // binned since the friend read
+                        current = null;
+                        continue;
+                    }
+                    if (chunk.size() == CHUNK_FRIENDS) {
+                        run.handOff(pool, chunk);
+                        chunk = new ArrayList<>(CHUNK_FRIENDS);
+                    }
+                    current = start(friend);
+                    chunk.add(current);
+                }
+                current.add(point.date(), gradeComputation.computeGrade(
+                    point.hours() != null ? point.hours() : 0.0, point.experience(), point.inPerson()),
+                    point.inPerson());
+            }
+            run.handOff(pool, chunk);
+            run.finish();
+        } finally {
+            pool.shutdown();
+        }
+
+        log.info("[FSRS replay] {} {} of {} replayed friend(s){}", dryRun ? "would change" : "changed",
+            run.diffs.size(), run.replayed, dryRun ? " (dry run, nothing written)" : "");
+        return new ReplayReport(dryRun, run.replayed, run.diffs.size(), run.diffs);
+    }
+
+    // Role lookups stay on the caller's thread: RoleProperties may load its
+    // cache from the DB, which the pool's threads have no transaction for.
+    private History start(ReplayFriendDTO friend) {
+        return new History(friend,
+            roleProperties.getDesiredRetention(friend.role()),
+            roleProperties.getMaxIntervalDays(friend.role()));
+    }
+
+    /** ReviewService's chain over one friend's packed history; runs on a pool thread. */
+    private void replayOne(History h) {
+        FsrsService.FsrsState state = fsrs.initialState(h.grades[0]);
+        for (int i = 1; i < h.size; i++) {
+            state = fsrs.review(state, h.grades[i], Math.max(0, h.days[i] - h.days[i - 1]));
+        }
+        int baseIntervalDays = fsrs.intervalDays(state.stability(), h.desiredRetention);
+        long scheduledDays = Math.max(1, Math.round(baseIntervalDays * NEUTRAL_ARM));
+        scheduledDays = Math.min(scheduledDays, h.maxIntervalDays);
+
+        h.stability = state.stability();
+        h.difficulty = state.difficulty();
+        h.lastInteraction = LocalDate.ofEpochDay(h.days[h.size - 1]);
+        h.due = h.lastInteraction.plusDays(scheduledDays);
+        h.bucket = bandit.bucket(h.difficulty, h.stability);
+        h.explanation = explanationService.explainTemplate(Friend.builder().name(h.friend.name()).build(),
+            h.due, h.grades[h.size - 1], NEUTRAL_ARM, h.lastInPerson);
+    }
+
+    /** One friend's history as primitive columns, plus the replay's output once a pool thread has run it. */
+    private static final class History {
+        final ReplayFriendDTO friend;
+        final double desiredRetention;
+        final int maxIntervalDays;
+        long[] days = new long[8]; // epoch days
+        int[] grades = new int[8];
+        Boolean lastInPerson;
+        int size;
+
+        double stability;
+        double difficulty;
+        LocalDate lastInteraction;
+        LocalDate due;
+        String bucket;
+        String explanation;
+
+        History(ReplayFriendDTO friend, double desiredRetention, int maxIntervalDays) {
+            this.friend = friend;
+            this.desiredRetention = desiredRetention;
+            this.maxIntervalDays = maxIntervalDays;
+        }
+
+        void add(LocalDate date, int grade, Boolean inPerson) {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                grades = Arrays.copyOf(grades, size * 2);
+            }
+            days[size] = date.toEpochDay();
+            grades[size] = grade;
+            lastInPerson = inPerson;
+            size++;
+        }
+
+        boolean changed() {
+            return !Objects.equals(friend.fsrsStability(), stability)
+                || !Objects.equals(friend.fsrsDifficulty(), difficulty)
+                || !Objects.equals(friend.lastInteractionDate(), lastInteraction)
+                || !Objects.equals(friend.plannedSpeakingTime(), due);
+        }
+    }
+
+    /** Splits a chunk in halves until LEAF_FRIENDS or fewer remain. */
+    private final class ReplayTask extends RecursiveAction {
+        private final List<History> histories;
+        private final int from;
+        private final int to;
+
+        ReplayTask(List<History> histories, int from, int to) {
+            this.histories = histories;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_FRIENDS) {
+                for (int i = from; i < to; i++) {
+                    replayOne(histories.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ReplayTask(histories, from, mid), new ReplayTask(histories, mid, to));
+        }
+    }
+
+    /** At most one chunk in the pool while the stream reads the next; results applied in stream order. */
+    private final class Run {
+        final boolean dryRun;
+        final List<FriendDiff> diffs = new ArrayList<>();
+        int replayed;
+
+        ForkJoinTask<?> inFlight;
+        List<History> inFlightChunk;
+
+        Run(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        void handOff(ForkJoinPool pool, List<History> chunk) {
+            finish();
+            if (!chunk.isEmpty()) {
+                inFlightChunk = chunk;
+                inFlight = pool.submit(new ReplayTask(chunk, 0, chunk.size()));
+            }
+        }
+
+        void finish() {
+            if (inFlight == null) {
+                return;
+            }
+            inFlight.join(); // rethrows a replay failure, rolling the whole run back
+            apply(inFlightChunk);
+            inFlight = null;
+            inFlightChunk = null;
+        }
+
+        private void apply(List<History> chunk) {
+            List<Object[]> rows = new ArrayList<>();
+            for (History h : chunk) {
+                replayed++;
+                if (!h.changed()) {
+                    continue;
+                }
+                ReplayFriendDTO f = h.friend;
+                diffs.add(new FriendDiff(f.id(), f.name(), f.fsrsStability(), h.stability,
+                    f.fsrsDifficulty(), h.difficulty, f.plannedSpeakingTime(), h.due));
+                rows.add(new Object[] {h.stability, h.difficulty, h.lastInteraction, h.due,
+                    NEUTRAL_ARM, h.bucket, h.explanation, f.id()});
+            }
+            if (dryRun || rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(REPLAY_UPDATE, rows);
+            for (Object[] row : rows) {
+                eventPublisher.publishEvent(new FriendRescheduledEvent((Integer) row[7], (LocalDate) row[3]));
+            }
+        }
+    }
+}
@@ -15,6 +15,13 @@ import org.springframework.stereotype.Service;
  * Subtlety preserved from py-fsrs: difficulty mean-reversion uses the RAW
  * (unclamped) initial difficulty of Easy, which is negative with default
  * weights — clamping it would shift every difficulty update.
+ *
+ * Bulk jobs get struct-of-arrays overloads of review/forget/retrievability/
+ * intervalDays: parallel double[] columns in, caller-owned arrays out, no
+ * per-row allocation. Everything the fixed weights make constant (exp(w8),
+ * the per-grade penalty/bonus and difficulty step, the Easy mean-reversion
+ * target, a batch's retention pow) is computed once. Scalar and batch paths
+ * run the same kernels, so they agree bit for bit (FsrsBatchBenchmark).
  */
 @Service
 public class FsrsService {
@@ -36,7 +43,25 @@ public class FsrsService {
     public static final int GRADE_EASY = 4;
 
     private static final double STABILITY_MIN = 0.001;
-    private static final int    MAX_INTERVAL_DAYS = 36500;
+    static final int            MAX_INTERVAL_DAYS = 36500;
+
+    // Constants of the fixed weights, hoisted out of the per-row math. Each
+    // holds exactly the value the inline expression produced (multiplying by
+    // the 1.0 of a grade without penalty/bonus is exact), so results are
+    // unchanged.
+    private static final double EXP_W8 = Math.exp(W[8]);
+    private static final double INV_DECAY = 1.0 / DECAY;
+    private static final double REVERSION_TARGET = W[7] * rawInitialDifficulty(GRADE_EASY);
+    private static final double REVERSION_KEEP = 1.0 - W[7];
+    /** Indexed by grade: hard penalty x easy bonus, and the difficulty step. */
+    private static final double[] GRADE_FACTOR = new double[GRADE_EASY + 1];
+    private static final double[] DELTA_D = new double[GRADE_EASY + 1];
+    static {
+        for (int grade = GRADE_AGAIN; grade <= GRADE_EASY; grade++) {
+            GRADE_FACTOR[grade] = (grade == GRADE_HARD ? W[15] : 1.0) * (grade == GRADE_EASY ? W[16] : 1.0);
+            DELTA_D[grade] = -W[6] * (grade - 3);
+        }
+    }
 
     public record FsrsState(double stability, double difficulty) {}
 
@@ -51,12 +76,31 @@ public class FsrsService {
 
     public FsrsState review(FsrsState state, int grade, double elapsedDays) {
         requireGrade(grade);
-        double r = retrievability(elapsedDays, state.stability());
+        double r = retrievabilityOf(elapsedDays, state.stability());
         double newStability  = recallStability(state.difficulty(), state.stability(), r, grade);
         double newDifficulty = nextDifficulty(state.difficulty(), grade);
         return new FsrsState(clampStability(newStability), newDifficulty);
     }
 
+    /**
+     * {@link #review} over the first {@code n} rows of parallel columns.
+     * Outputs may be the input arrays (updated in place). Every grade is
+     * checked before anything is written.
+     */
+    public void review(double[] stability, double[] difficulty, double[] elapsedDays, int[] grades,
+                       double[] outStability, double[] outDifficulty, int n) {
+        for (int i = 0; i < n; i++) {
+            requireGrade(grades[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            double s = stability[i], d = difficulty[i];
+            double r = retrievabilityOf(elapsedDays[i], s);
+            double newStability = recallStability(d, s, r, grades[i]);
+            outDifficulty[i] = nextDifficulty(d, grades[i]);
+            outStability[i] = clampStability(newStability);
+        }
+    }
+
     /**
      * Lapse / forget path (py-fsrs {@code _next_forget_stability} + Again-grade
      * difficulty). Reached only when a note is reviewed >7 days late or swept by
@@ -64,18 +108,33 @@ public class FsrsService {
      * collapses toward a short post-lapse value; difficulty jumps (grade Again).
      */
     public FsrsState forget(FsrsState state, double elapsedDays) {
-        double r = retrievability(elapsedDays, state.stability());
-        double sf = W[11]
-            * Math.pow(state.difficulty(), -W[12])
-            * (Math.pow(state.stability() + 1.0, W[13]) - 1.0)
-            * Math.exp(W[14] * (1.0 - r));
+        double r = retrievabilityOf(elapsedDays, state.stability());
+        double sf = forgetStability(state.difficulty(), state.stability(), r);
         double newDifficulty = nextDifficulty(state.difficulty(), GRADE_AGAIN);
         return new FsrsState(clampStability(sf), newDifficulty);
     }
 
+    /** {@link #forget} over the first {@code n} rows; outputs may alias the inputs. */
+    public void forget(double[] stability, double[] difficulty, double[] elapsedDays,
+                       double[] outStability, double[] outDifficulty, int n) {
+        for (int i = 0; i < n; i++) {
+            double s = stability[i], d = difficulty[i];
+            double sf = forgetStability(d, s, retrievabilityOf(elapsedDays[i], s));
+            outDifficulty[i] = nextDifficulty(d, GRADE_AGAIN);
+            outStability[i] = clampStability(sf);
+        }
+    }
+
     /** Probability of recall after elapsedDays at the given stability. */
     public double retrievability(double elapsedDays, double stability) {
-        return Math.pow(1.0 + FACTOR * Math.max(0, elapsedDays) / stability, DECAY);
+        return retrievabilityOf(elapsedDays, stability);
+    }
+
+    /** {@link #retrievability} over the first {@code n} rows. */
+    public void retrievability(double[] elapsedDays, double[] stability, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            out[i] = retrievabilityOf(elapsedDays[i], stability[i]);
+        }
     }
 
     /**
@@ -85,23 +144,46 @@ public class FsrsService {
      * single global constant.
      */
     public int intervalDays(double stability, double desiredRetention) {
-        double interval = (stability / FACTOR)
-            * (Math.pow(desiredRetention, 1.0 / DECAY) - 1.0);
-        return (int) Math.min(Math.max(Math.round(interval), 1), MAX_INTERVAL_DAYS);
+        return intervalDaysOf(stability, retentionFactor(desiredRetention));
+    }
+
+    /** {@link #intervalDays} over the first {@code n} rows, one shared retention target (its pow taken once). */
+    public void intervalDays(double[] stability, double desiredRetention, int[] out, int n) {
+        double retentionFactor = retentionFactor(desiredRetention);
+        for (int i = 0; i < n; i++) {
+            out[i] = intervalDaysOf(stability[i], retentionFactor);
+        }
     }
 
     // ── FSRS-6 internals ──────────────────────────────────────────────────────
 
+    private static double retrievabilityOf(double elapsedDays, double stability) {
+        return Math.pow(1.0 + FACTOR * Math.max(0, elapsedDays) / stability, DECAY);
+    }
+
+    private static double retentionFactor(double desiredRetention) {
+        return Math.pow(desiredRetention, INV_DECAY) - 1.0;
+    }
+
+    private static int intervalDaysOf(double stability, double retentionFactor) {
+        double interval = (stability / FACTOR) * retentionFactor;
+        return (int) Math.min(Math.max(Math.round(interval), 1), MAX_INTERVAL_DAYS);
+    }
+
     private static double recallStability(double d, double s, double r, int grade) {
-        double hardPenalty = grade == GRADE_HARD ? W[15] : 1.0;
-        double easyBonus   = grade == GRADE_EASY ? W[16] : 1.0;
         return s * (1.0
-            + Math.exp(W[8])
+            + EXP_W8
             * (11.0 - d)
             * Math.pow(s, -W[9])
             * (Math.exp(W[10] * (1.0 - r)) - 1.0)
-            * hardPenalty
-            * easyBonus);
+            * GRADE_FACTOR[grade]);
+    }
+
+    private static double forgetStability(double d, double s, double r) {
+        return W[11]
+            * Math.pow(d, -W[12])
+            * (Math.pow(s + 1.0, W[13]) - 1.0)
+            * Math.exp(W[14] * (1.0 - r));
     }
 
     private static double rawInitialDifficulty(int grade) {
@@ -109,10 +191,9 @@ public class FsrsService {
     }
 
     private static double nextDifficulty(double d, int grade) {
-        double deltaD = -W[6] * (grade - 3);
-        double damped = d + deltaD * (10.0 - d) / 9.0;
+        double damped = d + DELTA_D[grade] * (10.0 - d) / 9.0;
         // mean reversion toward the UNCLAMPED Easy initial difficulty
-        double reverted = W[7] * rawInitialDifficulty(GRADE_EASY) + (1.0 - W[7]) * damped;
+        double reverted = REVERSION_TARGET + REVERSION_KEEP * damped;
         return clampDifficulty(reverted);
     }
 
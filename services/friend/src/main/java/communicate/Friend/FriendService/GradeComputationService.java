@@ -2,8 +2,6 @@ package communicate.Friend.FriendService;
 
 import org.springframework.stereotype.Service;
 
-import communicate.Friend.FriendRepositories.AnalyticsRepository;
-
 /**
  * Collapses the raw per-interaction signals (duration, intensity, proximity)
  * into one FSRS-shaped grade (GRADE_HARD..GRADE_EASY) — the design doc's
@@ -44,17 +42,18 @@ public class GradeComputationService {
     private static final double HARD_CUTOFF = 0.40;
     private static final double EASY_CUTOFF = 0.70;
 
-    private final AnalyticsRepository analyticsRepository;
+    private final DurationStatsService durationStats;
     private final EmaMathService emaMath;
 
-    public GradeComputationService(AnalyticsRepository analyticsRepository, EmaMathService emaMath) {
-        this.analyticsRepository = analyticsRepository;
+    public GradeComputationService(DurationStatsService durationStats, EmaMathService emaMath) {
+        this.durationStats = durationStats;
         this.emaMath = emaMath;
     }
 
     /** @return one of FsrsService.GRADE_HARD / GRADE_GOOD / GRADE_EASY. */
     public int computeGrade(double durationHours, String experience, Boolean inPerson) {
-        double durationNorm = minmax(durationHours, analyticsRepository.findMinHours(), analyticsRepository.findMaxHours());
+        DurationStatsService.Bounds bounds = durationStats.normalizationBounds();
+        double durationNorm = bounds == null ? 0.5 : minmax(durationHours, bounds.lower(), bounds.upper());
         double intensityNorm = minmax(emaMath.experienceToNumber(experience), INTENSITY_MIN, INTENSITY_MAX);
 
         double baseGradeRaw = DURATION_WEIGHT * durationNorm + INTENSITY_WEIGHT * intensityNorm;
@@ -71,16 +70,14 @@ public class GradeComputationService {
     }
 
     /**
-     * Global minmax, queried fresh per call rather than cached/nightly-
-     * recomputed. The design doc's Open Questions suggest periodic recompute
-     * for cost reasons, but at this project's scale (dozens of friends,
-     * weekly-at-best events — premises 5/6) a single aggregate query per
-     * logged interaction is negligible; add caching only if real volume
-     * shows it's needed.
+     * Global duration range from DurationStatsService's in-memory snapshot
+     * (min/max, or a percentile band in percentile mode) — no query per
+     * grade. A null snapshot (no data yet, or a single distinct value so far)
+     * normalizes to a neutral 0.5; out-of-range values clamp to [0, 1].
      */
-    private static double minmax(double value, Double min, Double max) {
-        if (min == null || max == null || max <= min) {
-            return 0.5; // no data yet, or a single distinct value so far
+    private static double minmax(double value, double min, double max) {
+        if (max <= min) {
+            return 0.5;
         }
         return Math.min(1.0, Math.max(0.0, (value - min) / (max - min)));
     }
@@ -0,0 +1,247 @@
+package communicate.Friend.FriendService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import communicate.Friend.Config.HostWrapperProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The one way the friend module talks to host-wrapper's POST /complete —
+ * ExplanationService (scheduling-explanation polish) and OutreachService
+ * (outreach drafts) both go through here. Every call returns the completion
+ * text or empty; nothing throws, so each caller keeps its own fallback.
+ *
+ * In front of the network, in order:
+ *   single-flight — an identical (system, prompt) already in flight is
+ *     joined instead of sent again (a reschedule burst polishing the same
+ *     explanation shape, a double-clicked outreach button);
+ *   circuit breaker — after {@code failure-threshold} consecutive failures
+ *     calls fail fast for {@code open-duration}, then one probe decides
+ *     whether to close it again; while host-wrapper is down a talkedToFriend
+ *     save or an outreach draft costs nothing instead of the full timeout;
+ *   bulkhead — at most {@code max-concurrent} calls in flight, a caller
+ *     waits up to {@code bulkhead-wait} for a slot and is rejected after.
+ *
+ * Latency of every call that reached the network lands in a fixed-bucket
+ * histogram (success and failure separately), with the outcome counters at
+ * GET /host-wrapper/stats.
+ */
+@Component
+@Slf4j
+public class HostWrapperClient {
+
+    /** Upper bounds of the latency histogram buckets, in ms; the last bucket is unbounded. */
+    static final long[] LATENCY_BOUNDS_MILLIS = {50, 100, 250, 500, 1000, 2000, 4000, 8000};
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    public record LatencyBucket(String le, long count) {
+    }
+
+    /** Point-in-time counters since startup. */
+    public record HostWrapperStats(CircuitState circuit, int inFlight, long calls, long succeeded, long failed,
+                                   long shortCircuited, long rejected, long coalesced,
+                                   List<LatencyBucket> successLatencyMillis, List<LatencyBucket> failureLatencyMillis) {
+    }
+
+    private record Request(String system, String prompt) {
+    }
+
+    private final WebClient webTemplate;
+    private final HostWrapperProperties properties;
+    private final LongSupplier nanoClock;
+    private final Semaphore bulkhead;
+    private final Map<Request, CompletableFuture<Optional<String>>> inFlightRequests = new ConcurrentHashMap<>();
+
+    // Breaker state, guarded by this.
+    private CircuitState circuit = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder[] successLatency = histogram();
+    private final LongAdder[] failureLatency = histogram();
+
+    @Autowired
+    public HostWrapperClient(WebClient webTemplate, HostWrapperProperties properties) {
+        this(webTemplate, properties, System::nanoTime);
+    }
+
+    HostWrapperClient(WebClient webTemplate, HostWrapperProperties properties, LongSupplier nanoClock) {
+        this.webTemplate = webTemplate;
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.bulkhead = new Semaphore(Math.max(1, properties.getMaxConcurrent()));
+    }
+
+    /** host-wrapper's completion for the prompt, or empty when it's unavailable, failed or replied blank. */
+    public Optional<String> complete(String system, String prompt) {
+        Request request = new Request(system, prompt);
+        CompletableFuture<Optional<String>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<String>> leader = inFlightRequests.putIfAbsent(request, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return leader.join();
+        }
+        Optional<String> result = Optional.empty();
+        try {
+            result = guardedCall(request);
+        } finally {
+            inFlightRequests.remove(request, mine);
+            mine.complete(result);
+        }
+        return result;
+    }
+
+    public HostWrapperStats stats() {
+        CircuitState state;
+        synchronized (this) {
+            state = circuit;
+        }
+        return new HostWrapperStats(state, inFlight.get(), calls.sum(), succeeded.sum(), failed.sum(),
+            shortCircuited.sum(), rejected.sum(), coalesced.sum(), snapshot(successLatency), snapshot(failureLatency));
+    }
+
+    private Optional<String> guardedCall(Request request) {
+        boolean probe;
+        synchronized (this) {
+            if (circuit == CircuitState.OPEN
+                    && nanoClock.getAsLong() - openedAtNanos >= properties.getOpenDuration().toNanos()) {
+                circuit = CircuitState.HALF_OPEN; // this call is the probe
+                probe = true;
+            } else if (circuit != CircuitState.CLOSED) {
+                shortCircuited.increment();
+                return Optional.empty();
+            } else {
+                probe = false;
+            }
+        }
+
+        if (!acquireSlot()) {
+            rejected.increment();
+            if (probe) {
+                synchronized (this) {
+                    circuit = CircuitState.OPEN; // probe never ran — let the next call try
+                }
+            }
+            return Optional.empty();
+        }
+        inFlight.incrementAndGet();
+        calls.increment();
+        long start = nanoClock.getAsLong();
+        try {
+            Optional<String> text = send(request);
+            record(successLatency, start);
+            succeeded.increment();
+            onSuccess();
+            return text;
+        } catch (Exception e) {
+            record(failureLatency, start);
+            failed.increment();
+            onFailure();
+            log.warn("[HostWrapper] /complete failed: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            inFlight.decrementAndGet();
+            bulkhead.release();
+        }
+    }
+
+    private Optional<String> send(Request request) {
+        Map<String, Object> body = Map.of(
+            "system", request.system(),
+            "prompt", request.prompt(),
+            "priority", "low"
+        );
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = webTemplate.post()
+            .uri(properties.getUrl() + "/complete")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(body)
+            .retrieve()
+            .bodyToMono(Map.class)
+            .block(properties.getTimeout());
+
+        if (response != null && response.get("text") instanceof String text && !text.isBlank()) {
+            return Optional.of(text.trim());
+        }
+        return Optional.empty();
+    }
+
+    private boolean acquireSlot() {
+        try {
+            return bulkhead.tryAcquire(properties.getBulkheadWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (circuit != CircuitState.CLOSED) {
+            log.info("[HostWrapper] probe succeeded, circuit closed");
+        }
+        circuit = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (circuit == CircuitState.HALF_OPEN
+                || (circuit == CircuitState.CLOSED && consecutiveFailures >= properties.getFailureThreshold())) {
+            if (circuit == CircuitState.CLOSED) {
+                log.warn("[HostWrapper] {} consecutive failures, circuit open for {}",
+                    consecutiveFailures, properties.getOpenDuration());
+            }
+            circuit = CircuitState.OPEN;
+            openedAtNanos = nanoClock.getAsLong();
+        }
+    }
+
+    private void record(LongAdder[] histogram, long startNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BOUNDS_MILLIS.length && millis > LATENCY_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        histogram[bucket].increment();
+    }
+
+    private static LongAdder[] histogram() {
+        LongAdder[] buckets = new LongAdder[LATENCY_BOUNDS_MILLIS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        return buckets;
+    }
+
+    private static List<LatencyBucket> snapshot(LongAdder[] histogram) {
+        List<LatencyBucket> buckets = new ArrayList<>(histogram.length);
+        for (int i = 0; i < histogram.length; i++) {
+            String le = i < LATENCY_BOUNDS_MILLIS.length ? String.valueOf(LATENCY_BOUNDS_MILLIS[i]) : "+Inf";
+            buckets.add(new LatencyBucket(le, histogram[i].sum()));
+        }
+        return buckets;
+    }
+}
@@ -22,9 +22,18 @@ public class LeechService {
     public static final int LEECH_THRESHOLD = 3;
 
     public void recordMiss(Friend friend) {
-        int count = (friend.getMissedDueCount() == null ? 0 : friend.getMissedDueCount()) + 1;
+        int count = missedAfterMiss(friend.getMissedDueCount());
         friend.setMissedDueCount(count);
-        friend.setLeech(count >= LEECH_THRESHOLD);
+        friend.setLeech(isLeech(count));
+    }
+
+    /** The miss counter after one more miss — for writers that hold a projection, not the entity. */
+    public int missedAfterMiss(Integer missedDueCount) {
+        return (missedDueCount == null ? 0 : missedDueCount) + 1;
+    }
+
+    public boolean isLeech(int missedDueCount) {
+        return missedDueCount >= LEECH_THRESHOLD;
     }
 
     public void recordHit(Friend friend) {
@@ -132,8 +132,9 @@ public class OutboxWriteService {
         // New knowledge logged for an already-starred friend auto-enrolls as
         // a flashcard too (design doc "Feature D") — gated on
         // Friend.flashcardsEnabled, same friend object already loaded above.
+        // Only the facts just saved; the rest of the deck is already enrolled.
         if (Boolean.TRUE.equals(friend.getFlashcardsEnabled())) {
-            flashcardEnrollmentService.enrollFriend(friendId);
+            flashcardEnrollmentService.enrollNewKnowledge(friendId, ids);
         }
 
         if (requestId != null) {
@@ -2,6 +2,8 @@ package communicate.Friend.FriendService;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.stereotype.Service;
 
@@ -41,34 +43,18 @@ public class ReviewService {
     private final ExplanationService explanationService;
     private final LeechService leechService;
 
+    /** One friend's logged interaction, for {@link #reviewInteractions}. */
+    public record Interaction(Friend friend, double durationHours, String experience,
+                              Boolean inPerson, LocalDate interactionDate) {}
+
     public LocalDate reviewInteraction(Friend friend, double durationHours, String experience,
                                         Boolean inPerson, LocalDate interactionDate) {
         int grade = gradeComputation.computeGrade(durationHours, experience, inPerson);
-        LocalDate lastInteractionDate = friend.getLastInteractionDate();
 
-        // 1. Delayed reward for the scheduling decision behind THIS
-        //    interaction, credited to the EFFECTIVE arm = the interval the
-        //    friend was really contacted at (realised elapsed / the base
-        //    FSRS interval at that time).
-        if (lastInteractionDate != null
-                && friend.getPendingBanditArm() != null
-                && friend.getPendingBanditBucket() != null
-                && friend.getPlannedSpeakingTime() != null) {
-            boolean recalled = grade != FsrsService.GRADE_HARD;
-            double scheduledDays = Math.max(1,
-                ChronoUnit.DAYS.between(lastInteractionDate, friend.getPlannedSpeakingTime()));
-            double baseInterval = scheduledDays / friend.getPendingBanditArm();
-            double actualElapsed = Math.max(0, ChronoUnit.DAYS.between(lastInteractionDate, interactionDate));
-            double rawEffective = actualElapsed / baseInterval;
-            bandit.reward(friend.getPendingBanditBucket(), rawEffective, recalled);
-
-            // Leech-flagging (design doc's leech signal): did this interaction
-            // arrive on/before the predicted due date, or after it?
-            if (interactionDate.isAfter(friend.getPlannedSpeakingTime())) {
-                leechService.recordMiss(friend);
-            } else {
-                leechService.recordHit(friend);
-            }
+        // 1. Delayed reward for the scheduling decision behind THIS interaction.
+        BanditService.Reward reward = delayedReward(friend, grade, interactionDate);
+        if (reward != null) {
+            bandit.reward(reward.bucket(), reward.rawEffectiveMultiplier(), reward.recalled());
         }
 
         // 2. Pure FSRS state update (the bandit never touches this).
@@ -76,14 +62,115 @@ public class ReviewService {
         if (friend.getFsrsStability() == null || friend.getFsrsDifficulty() == null) {
             state = fsrs.initialState(grade);
         } else {
-            double elapsedDays = lastInteractionDate == null
-                ? 0
-                : Math.max(0, ChronoUnit.DAYS.between(lastInteractionDate, interactionDate));
             state = fsrs.review(
                 new FsrsService.FsrsState(friend.getFsrsStability(), friend.getFsrsDifficulty()),
-                grade, elapsedDays);
+                grade, elapsedDays(friend, interactionDate));
+        }
+
+        // 3-4. Bandit arm, due date, explanation.
+        return schedule(friend, state, grade, inPerson, interactionDate);
+    }
+
+    /**
+     * {@link #reviewInteraction} for several friends at once (a group
+     * meeting's present attendees), one interaction per friend; returns the
+     * due dates in input order. Same per-friend result, but every delayed
+     * reward goes to the bandit in one {@link BanditService#rewardAll} (one
+     * write per touched cell, not per friend) and the FSRS updates run as
+     * one {@link FsrsService} batch call. Rewards all land before any arm is
+     * chosen, so each friend samples from the posterior the whole group
+     * already updated.
+     */
+    public List<LocalDate> reviewInteractions(List<Interaction> interactions) {
+        int n = interactions.size();
+        int[] grades = new int[n];
+        List<BanditService.Reward> rewards = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Interaction it = interactions.get(i);
+            grades[i] = gradeComputation.computeGrade(it.durationHours(), it.experience(), it.inPerson());
+            BanditService.Reward reward = delayedReward(it.friend(), grades[i], it.interactionDate());
+            if (reward != null) {
+                rewards.add(reward);
+            }
+        }
+        if (!rewards.isEmpty()) {
+            bandit.rewardAll(rewards);
         }
 
+        // Friends with state go through the batch review; the rest start cold.
+        FsrsService.FsrsState[] states = new FsrsService.FsrsState[n];
+        int[] rows = new int[n];
+        double[] stability = new double[n], difficulty = new double[n], elapsed = new double[n];
+        int[] reviewGrades = new int[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            Friend friend = interactions.get(i).friend();
+            if (friend.getFsrsStability() == null || friend.getFsrsDifficulty() == null) {
+                states[i] = fsrs.initialState(grades[i]);
+                continue;
+            }
+            rows[m] = i;
+            stability[m] = friend.getFsrsStability();
+            difficulty[m] = friend.getFsrsDifficulty();
+            elapsed[m] = elapsedDays(friend, interactions.get(i).interactionDate());
+            reviewGrades[m] = grades[i];
+            m++;
+        }
+        fsrs.review(stability, difficulty, elapsed, reviewGrades, stability, difficulty, m);
+        for (int j = 0; j < m; j++) {
+            states[rows[j]] = new FsrsService.FsrsState(stability[j], difficulty[j]);
+        }
+
+        List<LocalDate> due = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Interaction it = interactions.get(i);
+            due.add(schedule(it.friend(), states[i], grades[i], it.inPerson(), it.interactionDate()));
+        }
+        return due;
+    }
+
+    /**
+     * The delayed reward for the scheduling decision behind this
+     * interaction, credited to the EFFECTIVE arm = the interval the friend
+     * was really contacted at (realised elapsed / the base FSRS interval at
+     * that time); records the leech hit/miss alongside. Null when there is
+     * no previous decision to credit.
+     */
+    private BanditService.Reward delayedReward(Friend friend, int grade, LocalDate interactionDate) {
+        LocalDate lastInteractionDate = friend.getLastInteractionDate();
+        if (lastInteractionDate == null
+                || friend.getPendingBanditArm() == null
+                || friend.getPendingBanditBucket() == null
+                || friend.getPlannedSpeakingTime() == null) {
+            return null;
+        }
+        boolean recalled = grade != FsrsService.GRADE_HARD;
+        double scheduledDays = Math.max(1,
+            ChronoUnit.DAYS.between(lastInteractionDate, friend.getPlannedSpeakingTime()));
+        double baseInterval = scheduledDays / friend.getPendingBanditArm();
+        double actualElapsed = Math.max(0, ChronoUnit.DAYS.between(lastInteractionDate, interactionDate));
+        double rawEffective = actualElapsed / baseInterval;
+
+        // Leech-flagging (design doc's leech signal): did this interaction
+        // arrive on/before the predicted due date, or after it?
+        if (interactionDate.isAfter(friend.getPlannedSpeakingTime())) {
+            leechService.recordMiss(friend);
+        } else {
+            leechService.recordHit(friend);
+        }
+        return new BanditService.Reward(friend.getPendingBanditBucket(), rawEffective, recalled);
+    }
+
+    private static double elapsedDays(Friend friend, LocalDate interactionDate) {
+        LocalDate lastInteractionDate = friend.getLastInteractionDate();
+        return lastInteractionDate == null
+            ? 0
+            : Math.max(0, ChronoUnit.DAYS.between(lastInteractionDate, interactionDate));
+    }
+
+    /** Steps 3-4: arm for the next interval, due date, and the state written back onto the friend. */
+    private LocalDate schedule(Friend friend, FsrsService.FsrsState state, int grade, Boolean inPerson,
+                               LocalDate interactionDate) {
         // 3. Bandit picks the multiplier for the NEXT interval (applied to
         //    the scheduled date only, never stored FSRS state).
         double desiredRetention = roleProperties.getDesiredRetention(friend.getRole());
@@ -103,9 +190,11 @@ public class ReviewService {
         friend.setPendingBanditBucket(bucket);
 
         // 4. Explanation surface (design doc Next Steps #9) — template
-        //    always, LLM-polished when host-wrapper is reachable.
-        String template = explanationService.explainTemplate(friend, due, grade, arm, inPerson);
-        friend.setSchedulingExplanation(explanationService.explainViaLlm(template));
+        //    saved with this write; the LLM polish runs after commit on
+        //    ExplanationPolishService's worker pool, never inside the
+        //    caller's transaction.
+        friend.setSchedulingExplanation(explanationService.explainTemplate(friend, due, grade, arm, inPerson));
+        friend.setSchedulingExplanationPending(true);
 
         return due;
     }
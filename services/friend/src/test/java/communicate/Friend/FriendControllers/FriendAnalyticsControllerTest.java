@@ -0,0 +1,63 @@
+package communicate.Friend.FriendControllers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import communicate.Friend.DTOs.AnalyticsSeriesDTO;
+import communicate.Friend.FriendService.AnalyticsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET analyticsSeries/batch loads every requested friend's rows in one go,
+ * so the number of distinct ids one request may ask for is capped.
+ */
+class FriendAnalyticsControllerTest {
+
+    private static final LocalDate LEFT = LocalDate.of(2026, 1, 1);
+    private static final LocalDate RIGHT = LocalDate.of(2026, 3, 31);
+
+    private final AnalyticsService analyticsService = mock(AnalyticsService.class);
+    private final FriendAnalyticsController controller = new FriendAnalyticsController(analyticsService);
+
+    private static List<Integer> ids(int count) {
+        return IntStream.rangeClosed(1, count).boxed().toList();
+    }
+
+    @Test
+    void batchAtTheCap_isServed() {
+        Map<Integer, AnalyticsSeriesDTO> series = Map.of();
+        when(analyticsService.computeSeriesBatch(anyList(), any(), any())).thenReturn(series);
+
+        ResponseEntity<?> response = controller.getAnalyticsSeriesBatch(ids(100), LEFT, RIGHT);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(series);
+    }
+
+    @Test
+    void batchOverTheCap_isRejected_beforeAnyRowIsRead() {
+        ResponseEntity<?> response = controller.getAnalyticsSeriesBatch(ids(101), LEFT, RIGHT);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(analyticsService);
+    }
+
+    @Test
+    void duplicateIds_countOnce() {
+        List<Integer> repeated = IntStream.range(0, 300).map(i -> i % 100 + 1).boxed().toList();
+
+        assertThat(controller.getAnalyticsSeriesBatch(repeated, LEFT, RIGHT).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,212 @@
+package communicate.Friend.FriendRepositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.example.demo.Group.GroupEntities.GroupKnowledge;
+import com.example.demo.Group.GroupEntities.SocialGroup;
+import com.example.demo.Group.GroupServices.GroupKnowledgeAddedEvent;
+
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendEntities.FriendKnowledge;
+import communicate.Friend.FriendEntities.FriendKnowledgeReview;
+import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
+import communicate.Friend.FriendEntities.GroupMember;
+import communicate.Friend.FriendService.FlashcardEnrollmentService;
+import communicate.Friend.FriendService.FsrsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Enrollment is two INSERT ... SELECT statements (own facts, inherited group
+ * facts) whatever the deck size, skips facts that already have a row, and
+ * the applyAddKnowledge and new-group-fact paths only touch the ids they're
+ * given. Same H2 + Hibernate statistics harness as FriendListQueryTest.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:enrollment;MODE=PostgreSQL"
+})
+class FlashcardEnrollmentQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Friend.class, GroupKnowledge.class})
+    @EnableJpaRepositories(basePackageClasses = FriendRepository.class)
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired FriendRepository friendRepository;
+    @Autowired FriendKnowledgeReviewRepository reviewRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private FlashcardEnrollmentService service;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        service = new FlashcardEnrollmentService(friendRepository, reviewRepository, new FsrsService());
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Friend friend(String name) {
+        return friend(name, true);
+    }
+
+    private Friend friend(String name, boolean starred) {
+        Friend friend = new Friend(name, today, "**", LocalDate.of(1990, 1, 1));
+        friend.setFlashcardsEnabled(starred);
+        return entityManager.persist(friend);
+    }
+
+    private FriendKnowledge friendFact(Friend friend, String text) {
+        FriendKnowledge fact = new FriendKnowledge();
+        fact.setFriend(friend);
+        fact.setText(text);
+        fact.setPriority(1L);
+        return entityManager.persist(fact);
+    }
+
+    private SocialGroup group(String name, Friend... members) {
+        SocialGroup group = entityManager.persist(SocialGroup.builder().name(name).build());
+        for (Friend member : members) {
+            entityManager.persist(GroupMember.builder().groupId(group.getId()).friend(member).build());
+        }
+        return group;
+    }
+
+    private GroupKnowledge groupFact(SocialGroup group, String text) {
+        GroupKnowledge fact = new GroupKnowledge();
+        fact.setGroup(group);
+        fact.setText(text);
+        fact.setPriority(1L);
+        return entityManager.persist(fact);
+    }
+
+    private List<FriendKnowledgeReview> rowsOf(Friend friend) {
+        entityManager.clear();
+        return reviewRepository.findByFriendId(friend.getId());
+    }
+
+    private long statementsFor(Runnable call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void enrollFriend_insertsOwnAndGroupFacts_dueToday() {
+        Friend ann = friend("Ann");
+        Friend bob = friend("Bob");
+        FriendKnowledge chess = friendFact(ann, "likes chess");
+        friendFact(bob, "not Ann's");
+        SocialGroup club = group("Club", ann, bob);
+        GroupKnowledge venue = groupFact(club, "meets at the library");
+        groupFact(group("Other"), "Ann isn't a member");
+        entityManager.flush();
+
+        assertThat(service.enrollFriend(ann.getId())).isEqualTo(2);
+
+        assertThat(rowsOf(ann))
+                .extracting(FriendKnowledgeReview::getSourceType, FriendKnowledgeReview::getSourceKnowledgeId,
+                        FriendKnowledgeReview::getDueDate, FriendKnowledgeReview::getFsrsStability)
+                .containsExactlyInAnyOrder(
+                        tuple(SourceType.FRIEND, chess.getId(), today, null),
+                        tuple(SourceType.GROUP, venue.getId(), today, null));
+        assertThat(rowsOf(bob)).isEmpty();
+    }
+
+    @Test
+    void enrollFriend_secondRun_addsNothing() {
+        Friend ann = friend("Ann");
+        friendFact(ann, "likes chess");
+        groupFact(group("Club", ann), "meets at the library");
+        entityManager.flush();
+
+        service.enrollFriend(ann.getId());
+        friendFact(ann, "learned since");
+        entityManager.flush();
+
+        assertThat(service.enrollFriend(ann.getId())).isEqualTo(1);
+        assertThat(service.enrollFriend(ann.getId())).isZero();
+        assertThat(rowsOf(ann)).hasSize(3);
+    }
+
+    @Test
+    void enrollFriend_isTwoStatementsAtAnyDeckSize() {
+        Friend small = friend("Small");
+        friendFact(small, "one");
+        Friend large = friend("Large");
+        SocialGroup club = group("Club", large);
+        for (int i = 0; i < 30; i++) {
+            friendFact(large, "fact " + i);
+            groupFact(club, "group fact " + i);
+        }
+
+        long few = statementsFor(() -> service.enrollFriend(small.getId()));
+        long many = statementsFor(() -> service.enrollFriend(large.getId()));
+
+        assertThat(few).isEqualTo(2);
+        assertThat(many).isEqualTo(few);
+        assertThat(rowsOf(large)).hasSize(60);
+    }
+
+    @Test
+    void enrollNewKnowledge_onlyEnrollsTheGivenFacts() {
+        Friend ann = friend("Ann");
+        friendFact(ann, "old, not yet enrolled");
+        FriendKnowledge fresh = friendFact(ann, "just logged");
+        groupFact(group("Club", ann), "inherited");
+        entityManager.flush();
+
+        assertThat(service.enrollNewKnowledge(ann.getId(), List.of(fresh.getId()))).isEqualTo(1);
+        assertThat(service.enrollNewKnowledge(ann.getId(), List.of(fresh.getId()))).isZero();
+
+        assertThat(rowsOf(ann)).extracting(FriendKnowledgeReview::getSourceKnowledgeId)
+                .containsExactly(fresh.getId());
+    }
+
+    @Test
+    void onGroupKnowledgeAdded_enrollsOnlyStarredMembers_andOnlyTheNewFacts() {
+        Friend ann = friend("Ann");
+        Friend bob = friend("Bob");
+        Friend unstarred = friend("Cat", false);
+        Friend outsider = friend("Dan");
+        SocialGroup club = group("Club", ann, bob, unstarred);
+        group("Other", outsider);
+        groupFact(club, "older, left to the next re-star");
+        GroupKnowledge fresh = groupFact(club, "moved to Thursdays");
+        entityManager.flush();
+        review(bob, fresh);
+
+        GroupKnowledgeAddedEvent event = new GroupKnowledgeAddedEvent(club.getId(), List.of(fresh.getId()));
+        long statements = statementsFor(() -> service.onGroupKnowledgeAdded(event));
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(rowsOf(ann)).extracting(FriendKnowledgeReview::getSourceType, FriendKnowledgeReview::getSourceKnowledgeId)
+                .containsExactly(tuple(SourceType.GROUP, fresh.getId()));
+        assertThat(rowsOf(bob)).hasSize(1); // already had it
+        assertThat(rowsOf(unstarred)).isEmpty();
+        assertThat(rowsOf(outsider)).isEmpty();
+    }
+
+    private void review(Friend friend, GroupKnowledge fact) {
+        entityManager.persist(FriendKnowledgeReview.builder().friend(friend)
+                .sourceType(SourceType.GROUP).sourceKnowledgeId(fact.getId()).dueDate(today).build());
+    }
+}
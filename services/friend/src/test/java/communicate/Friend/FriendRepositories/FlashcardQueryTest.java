@@ -0,0 +1,212 @@
+package communicate.Friend.FriendRepositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.Group.GroupEntities.GroupKnowledge;
+
+import communicate.Friend.DTOs.FlashcardCardDTO;
+import communicate.Friend.DTOs.FlashcardFolderDTO;
+import communicate.Friend.DTOs.FlashcardGradeDTO;
+import communicate.Friend.DTOs.FlashcardGradedDTO;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendEntities.FriendKnowledge;
+import communicate.Friend.FriendEntities.FriendKnowledgeReview;
+import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
+import communicate.Friend.FriendService.FlashcardReviewService;
+import communicate.Friend.FriendService.FsrsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The review page's reads — today's queue, a folder, the folder list — are
+ * one statement each whatever the deck size, and the CARD join resolves
+ * each row's fact from the right source table. Same H2 + Hibernate
+ * statistics harness as FriendListQueryTest.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:flashcards;MODE=PostgreSQL"
+})
+class FlashcardQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Friend.class, GroupKnowledge.class})
+    @EnableJpaRepositories(basePackageClasses = FriendRepository.class)
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired FriendKnowledgeReviewRepository reviewRepository;
+    @Autowired DataSource dataSource;
+
+    private final LocalDate today = LocalDate.now();
+    private FlashcardReviewService service;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        service = new FlashcardReviewService(reviewRepository, new FsrsService(), new JdbcTemplate(dataSource));
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Friend friend(String name, boolean starred, boolean deleted) {
+        Friend friend = new Friend(name, today, "**", LocalDate.of(1990, 1, 1));
+        friend.setFlashcardsEnabled(starred);
+        if (deleted) friend.setDeletedAt(LocalDateTime.now());
+        return entityManager.persist(friend);
+    }
+
+    private FriendKnowledge friendFact(Friend friend, String text, long priority) {
+        FriendKnowledge fact = new FriendKnowledge();
+        fact.setFriend(friend);
+        fact.setText(text);
+        fact.setPriority(priority);
+        return entityManager.persist(fact);
+    }
+
+    private GroupKnowledge groupFact(String text, long priority) {
+        GroupKnowledge fact = new GroupKnowledge();
+        fact.setText(text);
+        fact.setPriority(priority);
+        return entityManager.persist(fact);
+    }
+
+    private FriendKnowledgeReview review(Friend friend, SourceType type, Integer sourceId, LocalDate due) {
+        return entityManager.persist(FriendKnowledgeReview.builder()
+                .friend(friend).sourceType(type).sourceKnowledgeId(sourceId).dueDate(due).build());
+    }
+
+    /** {@code count} starred friends, each with a due friend fact, a due group fact and a future card. */
+    private void seed(int count) {
+        GroupKnowledge shared = groupFact("hiked the ridge together", 3);
+        for (int i = 0; i < count; i++) {
+            Friend friend = friend("Friend " + i, true, false);
+            review(friend, SourceType.FRIEND, friendFact(friend, "fact " + i, 5).getId(), today.minusDays(1));
+            review(friend, SourceType.GROUP, shared.getId(), today);
+            review(friend, SourceType.FRIEND, friendFact(friend, "later " + i, 1).getId(), today.plusDays(9));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long statementsFor(Supplier<List<?>> read) {
+        entityManager.clear();
+        statistics.clear();
+        assertThat(read.get()).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void todayQueue_folder_andFolders_areOneStatementAtAnySize() {
+        seed(3);
+        Integer someFriend = reviewRepository.findAll().get(0).getFriend().getId();
+        long[] small = {
+            statementsFor(service::getTodayQueue),
+            statementsFor(() -> service.getFolder(someFriend)),
+            statementsFor(service::getFolders),
+            statementsFor(() -> service.getSessionCards(5))};
+        seed(30);
+        long[] large = {
+            statementsFor(service::getTodayQueue),
+            statementsFor(() -> service.getFolder(someFriend)),
+            statementsFor(service::getFolders),
+            statementsFor(() -> service.getSessionCards(5))};
+
+        assertThat(small).containsOnly(1L);
+        assertThat(large).containsExactly(small);
+    }
+
+    @Test
+    void cards_resolveTheirFactFromTheRightSourceTable() {
+        Friend alex = friend("Alex", true, false);
+        FriendKnowledge coffee = friendFact(alex, "likes coffee", 5);
+        GroupKnowledge ridge = groupFact("hiked the ridge together", 3);
+        review(alex, SourceType.FRIEND, coffee.getId(), today);
+        // Same numeric id in the other table must not leak into a FRIEND card.
+        review(alex, SourceType.GROUP, ridge.getId(), today.minusDays(2));
+        review(alex, SourceType.FRIEND, 999_999, today.minusDays(1));
+        Friend unstarred = friend("Unstarred", false, false);
+        review(unstarred, SourceType.FRIEND, friendFact(unstarred, "hidden", 1).getId(), today);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<FlashcardCardDTO> queue = service.getTodayQueue();
+
+        assertThat(queue).extracting(FlashcardCardDTO::fact)
+                .containsExactly("hiked the ridge together", "(deleted fact)", "likes coffee");
+        assertThat(queue).extracting(FlashcardCardDTO::sourceType).containsExactly("GROUP", "FRIEND", "FRIEND");
+        assertThat(queue).extracting(FlashcardCardDTO::importance).containsExactly(3L, null, 5L);
+        assertThat(queue).allSatisfy(card -> assertThat(card.friendName()).isEqualTo("Alex"));
+    }
+
+    @Test
+    void folders_countDueAndTotal_forStarredActiveFriendsOnly() {
+        Friend alex = friend("Alex", true, false);
+        review(alex, SourceType.FRIEND, friendFact(alex, "a", 1).getId(), today);
+        review(alex, SourceType.FRIEND, friendFact(alex, "b", 1).getId(), today.minusDays(3));
+        review(alex, SourceType.FRIEND, friendFact(alex, "c", 1).getId(), today.plusDays(1));
+        friend("Blake", true, false); // starred, nothing enrolled yet
+        friend("Casey", false, false);
+        friend("Drew", true, true);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(service.getFolders()).containsExactly(
+                new FlashcardFolderDTO(alex.getId(), "Alex", 2, 3),
+                new FlashcardFolderDTO(service.getFolders().get(1).friendId(), "Blake", 0, 0));
+    }
+
+    @Test
+    void sessionCards_areTheHeadOfTodaysQueue() {
+        seed(4);
+
+        assertThat(service.getSessionCards(3)).containsExactlyElementsOf(service.getTodayQueue().subList(0, 3));
+    }
+
+    @Test
+    void gradeSession_writesEveryGrade_andMatchesCardByCardGrading() {
+        Friend alex = friend("Alex", true, false);
+        FriendKnowledgeReview fresh = review(alex, SourceType.FRIEND, friendFact(alex, "a", 1).getId(), today);
+        FriendKnowledgeReview seen = review(alex, SourceType.FRIEND, friendFact(alex, "b", 1).getId(), today);
+        seen.setFsrsStability(4.0);
+        seen.setFsrsDifficulty(5.0);
+        seen.setLastReviewedDate(today.minusDays(6));
+        FriendKnowledgeReview twin = review(alex, SourceType.FRIEND, friendFact(alex, "c", 1).getId(), today);
+        twin.setFsrsStability(4.0);
+        twin.setFsrsDifficulty(5.0);
+        twin.setLastReviewedDate(today.minusDays(6));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<FlashcardGradedDTO> graded = service.gradeSession(List.of(
+                new FlashcardGradeDTO(fresh.getId(), FsrsService.GRADE_GOOD, null),
+                new FlashcardGradeDTO(seen.getId(), FsrsService.GRADE_EASY, today),
+                new FlashcardGradeDTO(999_999, FsrsService.GRADE_GOOD, today)));
+        FlashcardCardDTO single = service.gradeCard(twin.getId(), FsrsService.GRADE_EASY);
+
+        assertThat(graded).extracting(FlashcardGradedDTO::reviewId).containsExactly(fresh.getId(), seen.getId());
+        FlashcardCardDTO written = reviewRepository.findCard(seen.getId()).orElseThrow();
+        assertThat(written.fsrsStability()).isEqualTo(single.fsrsStability()).isEqualTo(graded.get(1).fsrsStability());
+        assertThat(written.fsrsDifficulty()).isEqualTo(single.fsrsDifficulty());
+        assertThat(written.dueDate()).isEqualTo(single.dueDate()).isAfter(today);
+        assertThat(reviewRepository.findCard(fresh.getId()).orElseThrow().lastReviewedDate()).isEqualTo(today);
+    }
+}
@@ -0,0 +1,130 @@
+package communicate.Friend.FriendRepositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.example.demo.Group.GroupEntities.GroupKnowledge;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.FriendDTO;
+import communicate.Friend.FriendEntities.Analytics;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendEntities.Social;
+import communicate.Friend.FriendService.EmaDecayService;
+import communicate.Friend.FriendService.EmaMathService;
+import communicate.Friend.FriendService.FriendService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every friend list endpoint reads through FriendRepository.FRIEND_ROW, so
+ * each costs one SQL statement however many friends there are — no entity
+ * hydration, no lazy collection loads when the result is serialized. Runs
+ * the real JPQL through Hibernate against in-memory H2 (PostgreSQL mode),
+ * counting prepared statements with Hibernate's statistics.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:friendlist;MODE=PostgreSQL"
+})
+class FriendListQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Friend.class, GroupKnowledge.class})
+    @EnableJpaRepositories(basePackageClasses = FriendRepository.class)
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired FriendRepository friendRepository;
+
+    private FriendService friendService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        friendService = new FriendService(friendRepository, new EmaDecayService(new EmaProperties(), new EmaMathService()));
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void seed(int count) {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < count; i++) {
+            Friend friend = new Friend("Friend " + i, today.plusDays(i % 3 == 0 ? 0 : 30), "**",
+                    LocalDate.of(1990, 1 + i % 12, 1 + i % 28));
+            friend.setEmaAsOf(today.minusDays(1));
+            if (i % 4 == 0) {
+                friend.setDeletedAt(LocalDateTime.now());
+            }
+            friend.setAnalytics(List.of(
+                    Analytics.builder().friend(friend).date(today.minusDays(3)).experience("*").hours(1.0).build(),
+                    Analytics.builder().friend(friend).date(today.minusDays(1)).experience("***").hours(2.0).build()));
+            friend.setSocials(List.of(Social.builder().friend(friend).platform("Email").build()));
+            entityManager.persist(friend);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long statementsFor(Supplier<List<FriendDTO>> endpoint) {
+        entityManager.clear();
+        statistics.clear();
+        List<FriendDTO> result = endpoint.get();
+        assertThat(result).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void assertOneStatementAtAnySize(Supplier<List<FriendDTO>> endpoint) {
+        seed(4);
+        long small = statementsFor(endpoint);
+        seed(40);
+        long large = statementsFor(endpoint);
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void allFriends_isOneStatement() {
+        assertOneStatementAtAnySize(friendService::getAllFriendDTOs);
+    }
+
+    @Test
+    void pagedUiList_isOneStatement() {
+        assertOneStatementAtAnySize(() -> friendService.getFriendsPagedForUI(0, 100));
+    }
+
+    @Test
+    void deletedFriends_isOneStatement_andCarriesDeletedAt() {
+        assertOneStatementAtAnySize(friendService::getDeletedFriends);
+        assertThat(friendService.getDeletedFriends()).allSatisfy(dto -> assertThat(dto.deletedAt()).isNotNull());
+    }
+
+    @Test
+    void thisWeek_isOneStatement() {
+        assertOneStatementAtAnySize(friendService::findThisWeek);
+    }
+
+    @Test
+    void pagedUiList_isSortedByNameAndExcludesTheBin() {
+        seed(8);
+
+        List<FriendDTO> page = friendService.getFriendsPagedForUI(0, 3);
+
+        assertThat(page).extracting(FriendDTO::name).containsExactly("Friend 1", "Friend 2", "Friend 3");
+    }
+}
@@ -0,0 +1,174 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.DTOs.AnalyticsSeriesDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The array-based series walk must reproduce the map-based walk it replaced
+ * bit for bit — the reference below is that old AnalyticsService.computeSeries
+ * body, kept verbatim apart from taking points instead of entities.
+ */
+class AnalyticsSeriesEngineTest {
+
+    private static final LocalDate LEFT = LocalDate.parse("2023-01-01");
+    private static final LocalDate RIGHT = LocalDate.parse("2026-08-14");
+    private static final String[] RATINGS = {"*", "**", "***"};
+
+    private final EmaMathService emaMath = new EmaMathService();
+    private final EmaProperties emaProperties = properties();
+    private final AnalyticsSeriesEngine engine = new AnalyticsSeriesEngine(emaMath, emaProperties);
+
+    private static EmaProperties properties() {
+        EmaProperties.Coefficients coefficients = new EmaProperties.Coefficients();
+        coefficients.setNewData(Map.of("excellent", 0.6, "good", 0.7, "poor", 0.8));
+        coefficients.setDecay(Map.of("excellent", 0.07, "good", 0.2, "poor", 0.57));
+        EmaProperties properties = new EmaProperties();
+        properties.setCoefficients(coefficients);
+        return properties;
+    }
+
+    private static List<AnalyticsPointDTO> randomPoints(int friendId, int count, long seed) {
+        Random random = new Random(seed);
+        int span = (int) (RIGHT.toEpochDay() - LEFT.toEpochDay() + 1);
+        List<AnalyticsPointDTO> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new AnalyticsPointDTO(friendId, LEFT.plusDays(random.nextInt(span)),
+                    random.nextInt(5) == 0 ? null : random.nextInt(12) * 0.5,
+                    RATINGS[random.nextInt(3)],
+                    random.nextInt(3) == 0 ? null : random.nextBoolean()));
+        }
+        points.sort((a, b) -> a.date().compareTo(b.date()));
+        return points;
+    }
+
+    @Test
+    void multiYearRange_matchesTheMapBasedWalkExactly() {
+        List<AnalyticsPointDTO> points = randomPoints(1, 400, 42);
+
+        AnalyticsSeriesDTO actual = engine.compute(points, LEFT, RIGHT);
+        Map<String, List<?>> expected = referenceWalk(points, LEFT, RIGHT);
+
+        assertThat(List.of(actual.labels())).isEqualTo(expected.get("labels"));
+        assertThat(boxed(actual.duration())).isEqualTo(expected.get("duration"));
+        assertThat(boxed(actual.frequency())).isEqualTo(expected.get("frequency"));
+        assertThat(boxed(actual.intensity())).isEqualTo(expected.get("intensity"));
+        assertThat(boxed(actual.proximity())).isEqualTo(expected.get("proximity"));
+    }
+
+    @Test
+    void batch_keepsRequestOrder_andMatchesSingleFriendWalks() {
+        List<AnalyticsPointDTO> all = new ArrayList<>();
+        all.addAll(randomPoints(7, 200, 1));
+        all.addAll(randomPoints(3, 200, 2));
+
+        Map<Integer, AnalyticsSeriesDTO> batch = engine.computeAll(List.of(3, 7, 9), all, LEFT, RIGHT);
+
+        assertThat(batch.keySet()).containsExactly(3, 7, 9);
+        assertThat(batch.get(7).frequency()).isEqualTo(engine.compute(randomPoints(7, 200, 1), LEFT, RIGHT).frequency());
+        assertThat(batch.get(3).duration()).isEqualTo(engine.compute(randomPoints(3, 200, 2), LEFT, RIGHT).duration());
+        assertThat(batch.get(9).frequency()).containsOnly(0.0); // no rows, still a series
+        assertThat(batch.get(3).labels()).isSameAs(batch.get(9).labels());
+    }
+
+    @Test
+    void resumingFromMonthEnds_landsOnTheSameValuesAsOneLongWalk() {
+        List<AnalyticsPointDTO> points = randomPoints(1, 400, 7);
+        AnalyticsSeriesDTO whole = engine.compute(points, LEFT, RIGHT);
+
+        Map<LocalDate, AnalyticsSeriesEngine.EmaState> monthEnds = new HashMap<>();
+        AnalyticsSeriesEngine.EmaState end = engine.resume(null, points, LEFT, RIGHT, monthEnds::put);
+        int last = whole.labels().length - 1;
+        assertThat(end.duration()).isEqualTo(whole.duration()[last]);
+        assertThat(monthEnds).hasSize(43).containsKey(LocalDate.parse("2024-02-29"));
+
+        LocalDate checkpoint = LocalDate.parse("2025-06-30");
+        AnalyticsSeriesEngine.EmaState resumed = engine.resume(monthEnds.get(checkpoint), points,
+                checkpoint.plusDays(1), RIGHT, null);
+        assertThat(resumed).isEqualTo(end);
+    }
+
+    @Test
+    void emptyOrInvertedRange_yieldsEmptySeries() {
+        AnalyticsSeriesDTO series = engine.compute(List.of(), RIGHT, LEFT);
+
+        assertThat(series.labels()).isEmpty();
+        assertThat(series.duration()).isEmpty();
+    }
+
+    private static List<Double> boxed(double[] values) {
+        List<Double> list = new ArrayList<>(values.length);
+        for (double v : values) list.add(v);
+        return list;
+    }
+
+    private Map<String, List<?>> referenceWalk(List<AnalyticsPointDTO> records, LocalDate left, LocalDate right) {
+        Map<LocalDate, Double> totalDurationByDate = new HashMap<>();
+        Map<LocalDate, Integer> frequencyByDate = new HashMap<>();
+        Map<LocalDate, Double> lastIntensityByDate = new HashMap<>();
+        Map<LocalDate, Double> lastProximityByDate = new HashMap<>();
+        Map<LocalDate, String> experienceByDate = new HashMap<>();
+
+        for (AnalyticsPointDTO a : records) {
+            LocalDate date = a.date();
+            totalDurationByDate.merge(date, a.hours() != null ? a.hours() : 0.0, Double::sum);
+            frequencyByDate.merge(date, 1, Integer::sum);
+            lastIntensityByDate.put(date, emaMath.experienceToNumber(a.experience()));
+            lastProximityByDate.put(date, emaMath.proximityToNumber(a.inPerson()));
+            experienceByDate.put(date, a.experience());
+        }
+
+        List<String> labels = new ArrayList<>();
+        List<Double> durationRaw = new ArrayList<>();
+        List<Double> frequencyRaw = new ArrayList<>();
+        List<Double> intensityRaw = new ArrayList<>();
+        List<Double> proximityRaw = new ArrayList<>();
+        List<Double> alphas = new ArrayList<>();
+
+        String lastExperience = "*";
+        for (LocalDate date = left; !date.isAfter(right); date = date.plusDays(1)) {
+            labels.add(date.toString());
+            frequencyRaw.add(frequencyByDate.getOrDefault(date, 0).doubleValue());
+            intensityRaw.add(lastIntensityByDate.getOrDefault(date, 0.0));
+            durationRaw.add(totalDurationByDate.getOrDefault(date, 0.0));
+            proximityRaw.add(lastProximityByDate.getOrDefault(date, 0.0));
+
+            double alpha;
+            if (experienceByDate.containsKey(date)) {
+                lastExperience = experienceByDate.get(date);
+                alpha = emaProperties.getNewDataAlpha(lastExperience);
+            } else {
+                alpha = emaProperties.getDecayAlpha(lastExperience);
+            }
+            alphas.add(alpha);
+        }
+
+        return Map.of("labels", labels,
+                "duration", referenceEma(durationRaw, alphas),
+                "frequency", referenceEma(frequencyRaw, alphas),
+                "intensity", referenceEma(intensityRaw, alphas),
+                "proximity", referenceEma(proximityRaw, alphas));
+    }
+
+    private List<Double> referenceEma(List<Double> raw, List<Double> alphas) {
+        List<Double> result = new ArrayList<>(raw.size());
+        if (raw.isEmpty()) return result;
+        double previous = raw.get(0);
+        for (int i = 0; i < raw.size(); i++) {
+            previous = emaMath.applyNewValue(previous, alphas.get(i), raw.get(i));
+            result.add(previous);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import communicate.Friend.FriendEntities.Analytics;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Batched ingest: one saveAll for the rows, one EMA fold for the friend, both
+ * seeing the rows oldest first whatever order the client sent them in.
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock AnalyticsRepository analyticsRepository;
+    @Mock EmaUpdateService emaUpdateService;
+    @Mock AnalyticsSeriesEngine analyticsSeriesEngine;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveAll_insertsOnceAndFoldsOnce_oldestFirst() {
+        Analytics newest = Analytics.builder().date(LocalDate.parse("2026-08-14")).build();
+        Analytics oldest = Analytics.builder().date(LocalDate.parse("2026-08-01")).build();
+        Analytics middle = Analytics.builder().date(LocalDate.parse("2026-08-07")).build();
+
+        new AnalyticsService(analyticsRepository, emaUpdateService, analyticsSeriesEngine)
+                .saveAll(new ArrayList<>(List.of(newest, oldest, middle)), 5);
+
+        ArgumentCaptor<List<Analytics>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(analyticsRepository).saveAll(inserted.capture());
+        assertThat(inserted.getValue()).containsExactly(oldest, middle, newest);
+        assertThat(inserted.getValue()).allSatisfy(a -> assertThat(a.getFriend().getId()).isEqualTo(5));
+        verify(emaUpdateService).updateEmaOnNewAnalytics(5, inserted.getValue());
+        verify(analyticsRepository, never()).save(any());
+    }
+
+    @Test
+    void saveAll_ofNothing_isANoOp() {
+        new AnalyticsService(analyticsRepository, emaUpdateService, analyticsSeriesEngine).saveAll(null, 5);
+
+        verify(analyticsRepository, never()).saveAll(anyList());
+        verify(emaUpdateService, never()).updateEmaOnNewAnalytics(anyInt(), anyList());
+    }
+}
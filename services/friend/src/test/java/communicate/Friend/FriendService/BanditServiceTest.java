@@ -5,25 +5,45 @@ import communicate.Friend.FriendEntities.BanditArmId;
 import communicate.Friend.FriendRepositories.BanditArmRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
  * Math-level tests for Thompson Sampling — ported from OO's BanditServiceTest.
  * Mechanism (Beta sampler, arm snapping, discounted reward) is unchanged from
  * OO; only bucket() and the persistence layer differ (JPA repository instead
- * of raw JdbcTemplate — see BanditArm/BanditArmRepository).
+ * of raw JdbcTemplate — see BanditArm/BanditArmRepository), plus the
+ * in-memory table with its relative write-through UPDATE.
  */
 @ExtendWith(MockitoExtension.class)
 class BanditServiceTest {
@@ -47,7 +67,7 @@ class BanditServiceTest {
         bandit.setRandom(new Random(7));
         double sum = 0;
         for (int i = 0; i < 2000; i++) sum += bandit.sampleBeta(80, 20);
-        assertThat(sum / 2000).isCloseTo(0.8, org.assertj.core.data.Offset.offset(0.01));
+        assertThat(sum / 2000).isCloseTo(0.8, offset(0.01));
     }
 
     @Test
@@ -113,9 +133,7 @@ class BanditServiceTest {
         // alpha = 1 + 0.97*(5-1) + 1 = 5.88 ; beta = 1 + 0.97*(2-1) + 0 = 1.97
         bandit.reward("dHard:sLong", 2.0, true);
 
-        BanditArm saved = captureSave(repository);
-        assertThat(saved.getAlpha()).isCloseTo(5.88, org.assertj.core.data.Offset.offset(1e-9));
-        assertThat(saved.getBeta()).isCloseTo(1.97, org.assertj.core.data.Offset.offset(1e-9));
+        assertThat(bandit.cell("dHard:sLong", 2.0)).containsExactly(new double[]{5.88, 1.97}, offset(1e-9));
     }
 
     @Test
@@ -124,9 +142,9 @@ class BanditServiceTest {
         BanditService bandit = new BanditService(repository);
 
         bandit.reward("dEasy:sShort", 0.85, true); // r = 0.85/2.0 = 0.425
-        double shortAlpha = captureSave(repository).getAlpha();
+        double shortAlpha = bandit.cell("dEasy:sShort", 0.85)[0];
         bandit.reward("dEasy:sShort", 1.5, true);  // r = 1.5/2.0 = 0.75
-        double longAlpha = captureSave(repository).getAlpha();
+        double longAlpha = bandit.cell("dEasy:sShort", 1.5)[0];
 
         // Stretching further is worth more alpha -- anti-"always compress" bias mechanism.
         assertThat(longAlpha).isGreaterThan(shortAlpha);
@@ -138,9 +156,7 @@ class BanditServiceTest {
         BanditService bandit = new BanditService(repository);
 
         bandit.reward("dHard:sLong", 1.5, false); // r = 0
-        BanditArm saved = captureSave(repository);
-        assertThat(saved.getAlpha()).isCloseTo(1.0, org.assertj.core.data.Offset.offset(1e-9));
-        assertThat(saved.getBeta()).isCloseTo(2.0, org.assertj.core.data.Offset.offset(1e-9));
+        assertThat(bandit.cell("dHard:sLong", 1.5)).containsExactly(new double[]{1.0, 2.0}, offset(1e-9));
     }
 
     @Test
@@ -153,9 +169,188 @@ class BanditServiceTest {
         assertThat(BanditService.ARMS).contains(arm);
     }
 
-    private static BanditArm captureSave(BanditArmRepository repository) {
-        ArgumentCaptor<BanditArm> captor = ArgumentCaptor.forClass(BanditArm.class);
-        verify(repository, org.mockito.Mockito.atLeastOnce()).save(captor.capture());
-        return captor.getValue();
+    @Test
+    void chooseArm_unknownLegacyBucket_samplesThePrior() {
+        BanditService bandit = new BanditService(repository);
+        bandit.setRandom(new Random(1));
+
+        double arm = bandit.chooseArm("d1:s2");
+
+        assertThat(BanditService.ARMS).contains(arm);
+        verifyNoInteractions(repository);
+    }
+
+    // ── In-memory table + write-through ──────────────────────────────────────
+
+    @Test
+    void chooseArm_readsEachBucketOnce_notPerDecision() {
+        when(repository.findByIdContextBucket(anyString())).thenReturn(List.of());
+        BanditService bandit = new BanditService(repository);
+        bandit.setRandom(new SplittableRandom(5));
+
+        for (int i = 0; i < 50; i++) {
+            bandit.chooseArm("dEasy:sShort");
+            bandit.chooseArm("dHard:sLong");
+        }
+
+        verify(repository, times(1)).findByIdContextBucket("dEasy:sShort");
+        verify(repository, times(1)).findByIdContextBucket("dHard:sLong");
+    }
+
+    @Test
+    void reward_existingRow_isOneRelativeUpdate_noReadModifyWriteSave() {
+        when(repository.findByIdContextBucket("dHard:sLong")).thenReturn(
+            List.of(new BanditArm(new BanditArmId("dHard:sLong", 2.0), 5.0, 2.0)));
+        when(repository.discountAndReward("dHard:sLong", 2.0, BanditService.DISCOUNT, 1.0)).thenReturn(1);
+        BanditService bandit = new BanditService(repository);
+
+        bandit.reward("dHard:sLong", 2.0, true);
+
+        verify(repository).discountAndReward("dHard:sLong", 2.0, BanditService.DISCOUNT, 1.0);
+        verify(repository, never()).save(any());
+        assertThat(bandit.cell("dHard:sLong", 2.0)).containsExactly(new double[]{5.88, 1.97}, offset(1e-9));
+    }
+
+    @Test
+    void reward_firstOnACell_seedsThePriorRow_thenRerunsTheUpdate() {
+        when(repository.findByIdContextBucket(anyString())).thenReturn(List.of());
+        when(repository.discountAndReward("dHard:sLong", 2.0, BanditService.DISCOUNT, 1.0)).thenReturn(0, 1);
+        BanditService bandit = new BanditService(repository);
+
+        bandit.reward("dHard:sLong", 2.0, true);
+
+        // A concurrent first reward may have seeded the row already; DO NOTHING
+        // keeps that from failing, and the relative UPDATE then stacks on top.
+        InOrder order = inOrder(repository);
+        order.verify(repository).discountAndReward("dHard:sLong", 2.0, BanditService.DISCOUNT, 1.0);
+        order.verify(repository).seedPrior("dHard:sLong", 2.0);
+        order.verify(repository).discountAndReward("dHard:sLong", 2.0, BanditService.DISCOUNT, 1.0);
+        verify(repository, never()).save(any());
+        assertThat(bandit.cell("dHard:sLong", 2.0)).containsExactly(new double[]{2.0, 1.0}, offset(1e-9));
+    }
+
+    @Test
+    void coldLoad_readsTheTable_withoutHoldingTheBucketLock() throws Exception {
+        AtomicReference<BanditService> bandit = new AtomicReference<>();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(repository.findByIdContextBucket("dEasy:sShort")).thenAnswer(inv -> {
+            if (first.getAndSet(false)) {
+                // Another thread touching the same bucket mid-load must not block on it.
+                other.submit(() -> bandit.get().chooseArm("dEasy:sShort")).get(5, TimeUnit.SECONDS);
+            }
+            return List.of(new BanditArm(new BanditArmId("dEasy:sShort", 1.0), 3.0, 2.0));
+        });
+        bandit.set(new BanditService(repository));
+
+        bandit.get().chooseArm("dEasy:sShort");
+        other.shutdown();
+
+        // Whichever load finished first was installed; the other one was dropped.
+        assertThat(bandit.get().cell("dEasy:sShort", 1.0)).containsExactly(3.0, 2.0);
+        verify(repository, times(2)).findByIdContextBucket("dEasy:sShort");
+    }
+
+    @Test
+    void concurrentRewards_onOneCell_loseNothing() throws Exception {
+        when(repository.findByIdContextBucket(anyString())).thenReturn(List.of());
+        when(repository.discountAndReward(anyString(), anyDouble(), anyDouble(), anyDouble())).thenReturn(1);
+        BanditService bandit = new BanditService(repository);
+        int threads = 8, perThread = 200;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) bandit.reward("dEasy:sLong", 1.5, true);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+
+        // Same r every time, so order doesn't matter — only a lost update would.
+        double alpha = 1, beta = 1;
+        for (int i = 0; i < threads * perThread; i++) {
+            alpha = 1 + BanditService.DISCOUNT * (alpha - 1) + 0.75;
+            beta = 1 + BanditService.DISCOUNT * (beta - 1) + 0.25;
+        }
+        assertThat(bandit.cell("dEasy:sLong", 1.5)).containsExactly(new double[]{alpha, beta}, offset(1e-9));
+        verify(repository, times(threads * perThread)).discountAndReward("dEasy:sLong", 1.5, BanditService.DISCOUNT, 0.75);
+    }
+
+    @Test
+    void failedWriteThrough_dropsTheBucket_soItIsReReadFromTheTable() {
+        when(repository.findByIdContextBucket(anyString())).thenReturn(List.of());
+        when(repository.discountAndReward(anyString(), anyDouble(), anyDouble(), anyDouble()))
+            .thenThrow(new IllegalStateException("connection lost"));
+        BanditService bandit = new BanditService(repository);
+        bandit.setRandom(new SplittableRandom(2));
+
+        assertThatThrownBy(() -> bandit.reward("dEasy:sShort", 1.0, true)).isInstanceOf(IllegalStateException.class);
+        bandit.chooseArm("dEasy:sShort");
+
+        verify(repository, times(2)).findByIdContextBucket("dEasy:sShort");
+        assertThat(bandit.cell("dEasy:sShort", 1.0)).containsExactly(1.0, 1.0);
+    }
+
+    @Test
+    void reward_unknownLegacyBucket_isSkipped() {
+        BanditService bandit = new BanditService(repository);
+
+        bandit.reward("d1:s2", 1.0, true);
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void rewardAll_foldsEachCellIntoOneWrite_matchingSequentialRewards() {
+        when(repository.findByIdContextBucket(anyString())).thenReturn(List.of());
+        when(repository.discountAndAdd(anyString(), anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenReturn(1);
+        BanditService batched = new BanditService(repository);
+        BanditService sequential = new BanditService(mock(BanditArmRepository.class));
+        List<BanditService.Reward> rewards = List.of(
+            new BanditService.Reward("dEasy:sShort", 1.5, true),
+            new BanditService.Reward("dEasy:sShort", 1.6, false), // snaps to the same 1.5 cell
+            new BanditService.Reward("dEasy:sShort", 1.5, true),
+            new BanditService.Reward("dEasy:sShort", 0.8, true),
+            new BanditService.Reward("dHard:sLong", 2.0, true),
+            new BanditService.Reward("d1:s2", 1.0, true));      // legacy bucket: skipped
+
+        batched.rewardAll(rewards);
+        rewards.forEach(r -> sequential.reward(r.bucket(), r.rawEffectiveMultiplier(), r.recalled()));
+
+        for (String bucket : new String[] {"dEasy:sShort", "dHard:sLong"}) {
+            for (double arm : BanditService.ARMS) {
+                assertThat(batched.cell(bucket, arm)).containsExactly(sequential.cell(bucket, arm), offset(1e-12));
+            }
+        }
+        double d = BanditService.DISCOUNT;
+        verify(repository).discountAndAdd(eq("dEasy:sShort"), eq(1.5),
+            doubleThat(x -> Math.abs(x - d * d * d) < 1e-12),
+            doubleThat(x -> Math.abs(x - (0.75 * d * d + 0.75)) < 1e-12),
+            doubleThat(x -> Math.abs(x - (0.25 * d * d + d + 0.25)) < 1e-12));
+        verify(repository, times(3)).discountAndAdd(anyString(), anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        verify(repository, times(1)).findByIdContextBucket("dEasy:sShort");
+        verify(repository, never()).discountAndReward(anyString(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void rewardAll_firstRewardsOnACell_seedThePriorRow_thenApplyTheFoldedUpdate() {
+        when(repository.findByIdContextBucket(anyString())).thenReturn(List.of());
+        BanditService bandit = new BanditService(repository);
+
+        bandit.rewardAll(List.of(
+            new BanditService.Reward("dHard:sLong", 2.0, true),
+            new BanditService.Reward("dHard:sLong", 2.0, true)));
+
+        double d = BanditService.DISCOUNT;
+        verify(repository).seedPrior("dHard:sLong", 2.0);
+        verify(repository, times(2)).discountAndAdd("dHard:sLong", 2.0, d * d, d + 1, 0.0);
+        verify(repository, never()).save(any());
+        assertThat(bandit.cell("dHard:sLong", 2.0)).containsExactly(new double[]{1 + d + 1, 1.0}, offset(1e-9));
     }
 }
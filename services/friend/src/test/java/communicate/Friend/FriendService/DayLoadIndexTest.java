@@ -0,0 +1,81 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import communicate.Friend.DTOs.DayLoadDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The segment tree must pick exactly what the old linear scan did — a
+ * minimum-load day inside [today+1, today+interval], any of them with equal
+ * chance — for every interval and after every move.
+ */
+class DayLoadIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+
+    private static LocalDate day(int offset) {
+        return TODAY.plusDays(offset);
+    }
+
+    @Test
+    void seededLoad_isAvoided_andOutOfWindowRowsAreIgnored() {
+        List<DayLoadDTO> load = List.of(
+                new DayLoadDTO(day(1), 3L), new DayLoadDTO(day(2), 1L), new DayLoadDTO(day(3), 2L),
+                new DayLoadDTO(TODAY, 9L), new DayLoadDTO(day(-5), 9L)); // overdue: not on the calendar ahead
+        DayLoadIndex index = new DayLoadIndex(TODAY, 10, load);
+
+        assertThat(index.leastLoaded(3, new Random(1))).isEqualTo(day(2));
+        assertThat(index.leastLoaded(1, new Random(1))).isEqualTo(day(1)); // window of one
+        assertThat(index.leastLoaded(0, new Random(1))).isEqualTo(day(1)); // clamped up to one day
+        assertThat(index.load(TODAY)).isZero();
+    }
+
+    @Test
+    void ties_areSpreadAcrossEveryMinimalDayInTheWindow_andOnlyThose() {
+        // Days 1..6 of a 13-day horizon; 2 and 5 are busy.
+        DayLoadIndex index = new DayLoadIndex(TODAY, 13, List.of(new DayLoadDTO(day(2), 1L), new DayLoadDTO(day(5), 1L)));
+        Random random = new Random(7);
+        Set<LocalDate> picked = new HashSet<>();
+        for (int i = 0; i < 400; i++) {
+            picked.add(index.leastLoaded(6, random));
+        }
+        assertThat(picked).containsExactlyInAnyOrder(day(1), day(3), day(4), day(6));
+    }
+
+    @Test
+    void moves_keepMatchingALinearScan() {
+        int horizon = 37;
+        int[] load = new int[horizon + 1];
+        DayLoadIndex index = new DayLoadIndex(TODAY, horizon, List.of());
+        Random random = new Random(42);
+        List<LocalDate> booked = new ArrayList<>();
+
+        for (int step = 0; step < 500; step++) {
+            int interval = 1 + random.nextInt(horizon + 5);
+            LocalDate chosen = index.leastLoaded(interval, random);
+            int offset = (int) (chosen.toEpochDay() - TODAY.toEpochDay());
+
+            int window = Math.min(interval, horizon);
+            int min = Integer.MAX_VALUE;
+            for (int d = 1; d <= window; d++) min = Math.min(min, load[d]);
+            assertThat(offset).isBetween(1, window);
+            assertThat(load[offset]).isEqualTo(min);
+
+            // Half the time a previously booked row moves off its day.
+            LocalDate from = !booked.isEmpty() && random.nextBoolean() ? booked.remove(random.nextInt(booked.size())) : null;
+            if (from != null) load[(int) (from.toEpochDay() - TODAY.toEpochDay())]--;
+            index.move(from, chosen);
+            load[offset]++;
+            booked.add(chosen);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package communicate.Friend.FriendService;
+
+import communicate.Friend.DTOs.DurationCountDTO;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory duration distribution behind GradeComputationService: seeded once
+ * from the analytics GROUP BY, then maintained by insert/delete callbacks
+ * (no transaction active here, so they apply immediately).
+ */
+@ExtendWith(MockitoExtension.class)
+class DurationStatsServiceTest {
+
+    @Mock AnalyticsRepository analyticsRepository;
+
+    private DurationStatsService minmax() {
+        return new DurationStatsService(analyticsRepository, "minmax", 0.05, 0.95);
+    }
+
+    @Test
+    void seedsOnceFromTheHistogram_thenServesEveryReadFromMemory() {
+        when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(0.5, 2L), new DurationCountDTO(3.0, 1L)));
+        DurationStatsService stats = minmax();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(stats.normalizationBounds()).isEqualTo(new DurationStatsService.Bounds(0.5, 3.0));
+        }
+        verify(analyticsRepository, times(1)).findHoursHistogram();
+    }
+
+    @Test
+    void insertAndDelete_moveTheBounds() {
+        when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(1.0, 1L), new DurationCountDTO(2.0, 1L)));
+        DurationStatsService stats = minmax();
+        stats.normalizationBounds();
+
+        stats.onInserted(6.0);
+        assertThat(stats.normalizationBounds().upper()).isEqualTo(6.0);
+
+        stats.onDeleted(6.0);
+        assertThat(stats.normalizationBounds().upper()).isEqualTo(2.0);
+
+        stats.onDeleted(1.0);
+        assertThat(stats.normalizationBounds()).isNull(); // single distinct value left -> degenerate
+    }
+
+    @Test
+    void duplicateValues_onlyLeaveTheRangeWhenTheLastCopyIsDeleted() {
+        when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(1.0, 1L), new DurationCountDTO(5.0, 2L)));
+        DurationStatsService stats = minmax();
+        stats.normalizationBounds();
+
+        stats.onDeleted(5.0);
+        assertThat(stats.normalizationBounds().upper()).isEqualTo(5.0);
+        stats.onDeleted(5.0);
+        assertThat(stats.normalizationBounds()).isNull();
+    }
+
+    @Test
+    void reseed_afterABulkDelete_rereadsTheHistogram() {
+        when(analyticsRepository.findHoursHistogram())
+            .thenReturn(List.of(new DurationCountDTO(1.0, 1L), new DurationCountDTO(8.0, 1L)))
+            .thenReturn(List.of(new DurationCountDTO(1.0, 1L), new DurationCountDTO(2.0, 3L)));
+        DurationStatsService stats = minmax();
+        assertThat(stats.normalizationBounds().upper()).isEqualTo(8.0);
+
+        // Rows removed behind the listener's back: only the reseed can notice.
+        stats.reseed();
+        stats.onDeleted(8.0); // a callback racing the reseed is left to the GROUP BY
+
+        assertThat(stats.normalizationBounds()).isEqualTo(new DurationStatsService.Bounds(1.0, 2.0));
+        verify(analyticsRepository, times(2)).findHoursHistogram();
+    }
+
+    @Test
+    void mutationsBeforeTheSeed_areLeftToTheGroupBy() {
+        when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(1.0, 1L), new DurationCountDTO(2.0, 1L)));
+        DurationStatsService stats = minmax();
+
+        stats.onInserted(2.0); // already counted by the histogram the seed will read
+
+        assertThat(stats.normalizationBounds()).isEqualTo(new DurationStatsService.Bounds(1.0, 2.0));
+    }
+
+    @Test
+    void percentileMode_ignoresASingleOutlier() {
+        // 19 ordinary chats between 1h and 2h, plus one 12-hour outlier.
+        when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(1.0, 10L), new DurationCountDTO(2.0, 9L), new DurationCountDTO(12.0, 1L)));
+
+        DurationStatsService percentile = new DurationStatsService(analyticsRepository, "percentile", 0.05, 0.95);
+
+        assertThat(minmax().normalizationBounds().upper()).isEqualTo(12.0);
+        assertThat(percentile.normalizationBounds()).isEqualTo(new DurationStatsService.Bounds(1.0, 2.0));
+    }
+
+    @Test
+    void nullHours_areIgnored() {
+        when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(1.0, 1L), new DurationCountDTO(2.0, 1L)));
+        DurationStatsService stats = minmax();
+        stats.normalizationBounds();
+
+        stats.onInserted(null);
+        stats.onDeleted(null);
+
+        assertThat(stats.normalizationBounds()).isEqualTo(new DurationStatsService.Bounds(1.0, 2.0));
+    }
+}
@@ -0,0 +1,72 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import communicate.Friend.FriendService.AnalyticsSeriesEngine.EmaState;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkpoints are published on commit only if no other insert for the same
+ * friend raced the replay; inserts for other friends in the same transaction
+ * must not count as a race.
+ */
+class EmaCheckpointCacheTest {
+
+    private static final LocalDate JAN_31 = LocalDate.of(2026, 1, 31);
+    private static final LocalDate FEB_28 = LocalDate.of(2026, 2, 28);
+    private static final EmaState STATE = new EmaState(1.0, 1.0, 1.0, 1.0, "good");
+
+    private final EmaCheckpointCache cache = new EmaCheckpointCache(10);
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** Runs the registered afterCommit callbacks the way the transaction manager would. */
+    private static void commit() {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    @Test
+    void twoFriendsInOneTransaction_bothKeepTheirCheckpoints() {
+        long first = cache.beginReplay(1, JAN_31);
+        long second = cache.beginReplay(2, JAN_31);
+        cache.publish(1, JAN_31, first, Map.of(JAN_31, STATE, FEB_28, STATE));
+        cache.publish(2, JAN_31, second, Map.of(JAN_31, STATE));
+
+        assertThat(cache.latestBefore(1, FEB_28)).isNull(); // nothing stored before commit
+        commit();
+
+        assertThat(cache.latestBefore(1, LocalDate.of(2026, 3, 1)).getKey()).isEqualTo(FEB_28);
+        assertThat(cache.latestBefore(2, FEB_28).getKey()).isEqualTo(JAN_31);
+    }
+
+    @Test
+    void competingInsertForTheSameFriend_discardsTheStaleReplay() {
+        long stale = cache.beginReplay(1, JAN_31);
+        long fresh = cache.beginReplay(1, FEB_28);
+        cache.publish(1, JAN_31, stale, Map.of(JAN_31, STATE));
+        cache.publish(1, FEB_28, fresh, Map.of(FEB_28, STATE));
+        commit();
+
+        assertThat(cache.latestBefore(1, LocalDate.of(2026, 3, 1))).isNull();
+    }
+}
@@ -0,0 +1,104 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.ShortFriendDTO;
+import communicate.Friend.FriendEntities.Friend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Lazy EMA decay: the closed-form catch-up must land where the old nightly
+ * job's one-step-per-midnight walk would have, from whatever watermark the
+ * friend was left at.
+ */
+class EmaDecayServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.parse("2026-08-14");
+
+    private final EmaMathService emaMath = new EmaMathService();
+    private final EmaDecayService service = new EmaDecayService(properties(), emaMath);
+
+    private static EmaProperties properties() {
+        EmaProperties.Coefficients coefficients = new EmaProperties.Coefficients();
+        coefficients.setDecay(Map.of("excellent", 0.07, "good", 0.2, "poor", 0.57));
+        EmaProperties properties = new EmaProperties();
+        properties.setCoefficients(coefficients);
+        return properties;
+    }
+
+    private static Friend friend(String experience, double value, LocalDate emaAsOf) {
+        Friend friend = new Friend();
+        friend.setExperience(experience);
+        friend.setAverageFrequency(value);
+        friend.setAverageDuration(value);
+        friend.setAverageExcitement(value);
+        friend.setAverageProximity(value);
+        friend.setEmaAsOf(emaAsOf);
+        return friend;
+    }
+
+    @Test
+    void owedDays_areTheMidnightsStrictlyBetweenWatermarkAndToday() {
+        assertThat(EmaDecayService.pendingDecayDays(TODAY, TODAY)).isZero();
+        assertThat(EmaDecayService.pendingDecayDays(TODAY.minusDays(1), TODAY)).isZero();
+        assertThat(EmaDecayService.pendingDecayDays(TODAY.minusDays(8), TODAY)).isEqualTo(7);
+        assertThat(EmaDecayService.pendingDecayDays(TODAY.plusDays(3), TODAY)).isZero();
+        assertThat(EmaDecayService.pendingDecayDays(null, TODAY)).isZero();
+    }
+
+    @Test
+    void weekOffline_matchesTheNightlyWalkItMissed() {
+        Friend friend = friend("*", 3.0, TODAY.minusDays(8));
+
+        double walked = 3.0;
+        for (int night = 0; night < 7; night++) {
+            walked = emaMath.applyDecay(walked, 0.57);
+        }
+
+        EmaDecayService.Averages decayed = service.asOf(friend, TODAY);
+        assertThat(decayed.frequency()).isCloseTo(walked, within(1e-12));
+        assertThat(decayed.proximity()).isCloseTo(walked, within(1e-12));
+        assertThat(friend.getAverageFrequency()).isEqualTo(3.0); // read-only
+    }
+
+    @Test
+    void catchUp_materializesAndAdvancesTheWatermarkToYesterday() {
+        Friend friend = friend("**", 1.0, TODAY.minusDays(3));
+
+        service.catchUp(friend, TODAY);
+
+        assertThat(friend.getAverageDuration()).isCloseTo(0.8 * 0.8, within(1e-12));
+        assertThat(friend.getEmaAsOf()).isEqualTo(TODAY.minusDays(1));
+
+        service.catchUp(friend, TODAY); // nothing owed the second time
+        assertThat(friend.getAverageDuration()).isCloseTo(0.8 * 0.8, within(1e-12));
+    }
+
+    @Test
+    void catchUp_neverMovesAWatermarkBackwards() {
+        Friend friend = friend("**", 1.0, TODAY); // interaction logged today
+
+        service.catchUp(friend, TODAY);
+
+        assertThat(friend.getEmaAsOf()).isEqualTo(TODAY);
+        assertThat(friend.getAverageFrequency()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shortList_isDecayedAndRestampedAsOfYesterday() {
+        ShortFriendDTO stored = new ShortFriendDTO(1, "Alice", 2.0, 2.0, null, 2.0, "***", TODAY.minusDays(2));
+
+        ShortFriendDTO decayed = service.asOf(stored, TODAY);
+
+        assertThat(decayed.averageFrequency()).isCloseTo(2.0 * 0.93, within(1e-12));
+        assertThat(decayed.averageExcitement()).isZero();
+        assertThat(decayed.emaAsOf()).isEqualTo(TODAY.minusDays(1));
+        assertThat(service.asOf(decayed, TODAY)).isSameAs(decayed);
+    }
+}
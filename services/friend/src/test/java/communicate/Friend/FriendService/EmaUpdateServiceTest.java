@@ -0,0 +1,144 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.DTOs.AnalyticsSeriesDTO;
+import communicate.Friend.FriendEntities.Analytics;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Suffix replay: however late a row arrives, the stored averages must land
+ * exactly on the chart walk's last value, and once a friend has month-end
+ * checkpoints a backdated insert only re-reads from the month before it.
+ */
+@ExtendWith(MockitoExtension.class)
+class EmaUpdateServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock FriendRepository friendRepository;
+    @Mock AnalyticsRepository analyticsRepository;
+
+    private final AnalyticsSeriesEngine engine = new AnalyticsSeriesEngine(new EmaMathService(), properties());
+    private final List<AnalyticsPointDTO> table = new ArrayList<>();
+    private EmaUpdateService service;
+    private Friend friend;
+
+    private static EmaProperties properties() {
+        EmaProperties.Coefficients coefficients = new EmaProperties.Coefficients();
+        coefficients.setNewData(Map.of("excellent", 0.6, "good", 0.7, "poor", 0.8));
+        coefficients.setDecay(Map.of("excellent", 0.07, "good", 0.2, "poor", 0.57));
+        EmaProperties properties = new EmaProperties();
+        properties.setCoefficients(coefficients);
+        return properties;
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new EmaUpdateService(friendRepository, analyticsRepository, engine, new EmaCheckpointCache(10));
+        friend = new Friend();
+        friend.setId(1);
+        friend.setExperience("**");
+        lenient().when(friendRepository.findById(1)).thenReturn(Optional.of(friend));
+        // The mocked table answers range queries the way the real one would.
+        lenient().when(analyticsRepository.findSeriesPoints(anyList(), any(), any())).thenAnswer(inv -> {
+            LocalDate left = inv.getArgument(1), right = inv.getArgument(2);
+            return table.stream().filter(p -> !p.date().isBefore(left) && !p.date().isAfter(right)).toList();
+        });
+        lenient().when(analyticsRepository.findFirstDate(1)).thenAnswer(inv ->
+                table.stream().map(AnalyticsPointDTO::date).min(LocalDate::compareTo).orElse(null));
+    }
+
+    /** Persists the row into the mocked table and runs the EMA update for it. */
+    private void insert(int daysAgo, String experience, double hours, Boolean inPerson) {
+        LocalDate date = TODAY.minusDays(daysAgo);
+        table.add(new AnalyticsPointDTO(1, date, hours, experience, inPerson));
+        table.sort((a, b) -> a.date().compareTo(b.date()));
+        service.updateEmaOnNewAnalytics(1, List.of(
+                Analytics.builder().date(date).experience(experience).hours(hours).inPerson(inPerson).build()));
+    }
+
+    private void assertMatchesChartWalkThrough(LocalDate end) {
+        LocalDate first = table.get(0).date();
+        AnalyticsSeriesDTO chart = engine.compute(table, first, end);
+        int last = chart.labels().length - 1;
+        assertThat(friend.getAverageDuration()).isEqualTo(chart.duration()[last]);
+        assertThat(friend.getAverageFrequency()).isEqualTo(chart.frequency()[last]);
+        assertThat(friend.getAverageExcitement()).isEqualTo(chart.intensity()[last]);
+        assertThat(friend.getAverageProximity()).isEqualTo(chart.proximity()[last]);
+        assertThat(friend.getEmaAsOf()).isEqualTo(end);
+    }
+
+    @Test
+    void backdatedInsert_landsExactlyOnTheChartWalk_evenYearsLate() {
+        insert(40, "***", 2.0, true);
+        insert(3, "*", 1.0, false);
+        insert(800, "**", 0.5, null); // would have been dropped by the old 12-day window
+
+        assertMatchesChartWalkThrough(TODAY.minusDays(1));
+    }
+
+    @Test
+    void secondBackdatedInsert_resumesFromTheMonthEndBeforeIt() {
+        insert(400, "**", 1.0, true);
+        insert(300, "***", 2.0, null); // cold cache: full replay, records month ends
+
+        LocalDate backdated = TODAY.minusDays(100);
+        insert(100, "*", 3.0, false);
+
+        LocalDate monthStart = backdated.withDayOfMonth(1);
+        verify(analyticsRepository).findSeriesPoints(anyList(), eq(monthStart), eq(TODAY));
+        assertMatchesChartWalkThrough(TODAY.minusDays(1));
+    }
+
+    @Test
+    void rowAfterTheWatermark_continuesFromTheStoredAverages() {
+        friend.setAverageFrequency(0.5);
+        friend.setAverageDuration(1.0);
+        friend.setAverageExcitement(2.0);
+        friend.setAverageProximity(0.5);
+        friend.setEmaAsOf(TODAY.minusDays(5));
+
+        insert(0, "***", 2.0, true);
+
+        verify(analyticsRepository).findSeriesPoints(anyList(), eq(TODAY.minusDays(4)), eq(TODAY));
+        verify(analyticsRepository, never()).findFirstDate(anyInt());
+        // Four silent days at the friend's "**" decay, then today's row at "***"'s alpha.
+        double decayed = 1.0 * Math.pow(0.8, 4);
+        assertThat(friend.getAverageDuration()).isEqualTo(0.6 * 2.0 + 0.4 * decayed);
+        assertThat(friend.getEmaAsOf()).isEqualTo(TODAY);
+    }
+
+    @Test
+    void futureOnlyOrEmptyBatch_touchesNothing() {
+        service.updateEmaOnNewAnalytics(1, List.of(Analytics.builder().date(TODAY.plusDays(1)).experience("**").build()));
+        service.updateEmaOnNewAnalytics(1, List.of());
+
+        verify(friendRepository, never()).findById(any());
+        verify(friendRepository, never()).save(any(Friend.class));
+    }
+}
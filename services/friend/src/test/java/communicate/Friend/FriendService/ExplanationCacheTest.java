@@ -0,0 +1,91 @@
+package communicate.Friend.FriendService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LRU bound, TTL on read, hit/miss counters, and the optional file the
+ * table survives restarts in. The clock is a settable millisecond counter.
+ */
+class ExplanationCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private ExplanationCache cache(int maxEntries, String file) {
+        return new ExplanationCache(maxEntries, Duration.ofHours(1), file, now::get);
+    }
+
+    @Test
+    void overCapacity_evictsTheLeastRecentlyUsed() {
+        ExplanationCache cache = cache(2, "");
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a"); // b is now the eldest
+        cache.put("c", "C");
+
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("a")).contains("A");
+        assertThat(cache.get("c")).contains("C");
+        assertThat(cache.stats().evicted()).isEqualTo(1);
+    }
+
+    @Test
+    void entryPastItsTtl_isAMiss_andDropped() {
+        ExplanationCache cache = cache(8, "");
+        cache.put("a", "A");
+        now.addAndGet(Duration.ofMinutes(59).toMillis());
+        assertThat(cache.get("a")).contains("A");
+
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.stats()).satisfies(stats -> {
+            assertThat(stats.size()).isZero();
+            assertThat(stats.expired()).isEqualTo(1);
+            assertThat(stats.hits()).isEqualTo(1);
+            assertThat(stats.misses()).isEqualTo(1);
+            assertThat(stats.hitRate()).isEqualTo(0.5);
+        });
+    }
+
+    @Test
+    void persistedTable_isReloaded_inLruOrder_withoutExpiredEntries(@TempDir Path dir) {
+        String file = dir.resolve("explanations.json").toString();
+        ExplanationCache first = cache(2, file);
+        first.put("old", "Old");
+        now.addAndGet(Duration.ofMinutes(30).toMillis());
+        first.put("a", "A");
+        first.put("b", "B"); // evicts "old"
+        first.get("a");
+        first.persist();
+
+        now.addAndGet(Duration.ofMinutes(10).toMillis());
+        ExplanationCache second = cache(2, file);
+        second.load();
+        second.put("c", "C"); // "b" was least recently used when saved
+
+        assertThat(second.get("a")).contains("A");
+        assertThat(second.get("b")).isEmpty();
+        assertThat(second.get("old")).isEmpty();
+    }
+
+    @Test
+    void missingOrCorruptFile_startsCold(@TempDir Path dir) throws Exception {
+        Path corrupt = Files.writeString(dir.resolve("corrupt.json"), "{not json");
+
+        ExplanationCache missing = cache(8, dir.resolve("absent.json").toString());
+        missing.load();
+        ExplanationCache broken = cache(8, corrupt.toString());
+        broken.load();
+
+        assertThat(missing.stats().size()).isZero();
+        assertThat(broken.stats().size()).isZero();
+    }
+}
@@ -0,0 +1,133 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The async explanation pipeline: polish runs off the caller's thread, writes
+ * back conditionally on the template it polished, and leaves the row pending
+ * (for the boot-time resume sweep) whenever host-wrapper falls back. Worker
+ * threads are real, so outcomes are asserted with Mockito's timeout()/after().
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExplanationPolishServiceTest {
+
+    @Mock FriendRepository friendRepository;
+    @Mock ExplanationService explanationService;
+
+    ExplanationPolishService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExplanationPolishService(friendRepository, explanationService, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void committedReschedule_polishesAndWritesBackConditionally() throws InterruptedException {
+        when(friendRepository.findPendingSchedulingExplanation(1)).thenReturn(Optional.of("template"));
+        when(explanationService.explainViaLlm("template")).thenReturn("polished");
+        when(friendRepository.completeSchedulingExplanationPolish(1, "template", "polished")).thenReturn(1);
+
+        service.onFriendRescheduled(new FriendRescheduledEvent(1, LocalDate.parse("2026-08-14")));
+
+        verify(friendRepository, timeout(2000)).completeSchedulingExplanationPolish(1, "template", "polished");
+        awaitIdle();
+        assertThat(service.stats().polished()).isEqualTo(1);
+        assertThat(service.stats().queueDepth()).isZero();
+    }
+
+    @Test
+    void llmFallback_leavesRowPendingForTheResumeSweep() throws InterruptedException {
+        when(friendRepository.findPendingSchedulingExplanation(2)).thenReturn(Optional.of("template"));
+        when(explanationService.explainViaLlm("template")).thenReturn("template");
+
+        service.enqueue(2);
+
+        verify(explanationService, timeout(2000)).explainViaLlm("template");
+        awaitIdle();
+        verify(friendRepository, never()).completeSchedulingExplanationPolish(anyInt(), anyString(), anyString());
+        assertThat(service.stats().fellBack()).isEqualTo(1);
+    }
+
+    @Test
+    void alreadyPolishedOrSuperseded_skipsTheLlmCall() {
+        when(friendRepository.findPendingSchedulingExplanation(3)).thenReturn(Optional.empty());
+
+        service.enqueue(3);
+
+        verify(friendRepository, timeout(2000)).findPendingSchedulingExplanation(3);
+        verify(explanationService, after(200).never()).explainViaLlm(any());
+    }
+
+    @Test
+    void newerRescheduleLandedMidFlight_countsAsSuperseded() throws InterruptedException {
+        when(friendRepository.findPendingSchedulingExplanation(4)).thenReturn(Optional.of("old template"));
+        when(explanationService.explainViaLlm("old template")).thenReturn("polished");
+        when(friendRepository.completeSchedulingExplanationPolish(4, "old template", "polished")).thenReturn(0);
+
+        service.enqueue(4);
+
+        verify(friendRepository, timeout(2000)).completeSchedulingExplanationPolish(4, "old template", "polished");
+        awaitIdle();
+        assertThat(service.stats().superseded()).isEqualTo(1);
+        assertThat(service.stats().polished()).isZero();
+    }
+
+    @Test
+    void boot_resumesEveryRowStillHoldingItsTemplate() {
+        when(friendRepository.findIdsWithPendingSchedulingExplanation()).thenReturn(List.of(5, 6));
+        when(friendRepository.findPendingSchedulingExplanation(anyInt())).thenReturn(Optional.empty());
+
+        service.resumePending();
+
+        verify(friendRepository, timeout(2000)).findPendingSchedulingExplanation(5);
+        verify(friendRepository, timeout(2000)).findPendingSchedulingExplanation(6);
+    }
+
+    /** Counters are bumped before the worker releases its in-flight slot. */
+    private void awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 200 && (service.stats().inFlight() > 0 || service.stats().queueDepth() > 0); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void fullQueue_dropsNewWorkInsteadOfBlocking() {
+        ExplanationPolishService tiny = new ExplanationPolishService(friendRepository, explanationService, 1, 0);
+        try {
+            assertThat(tiny.enqueue(7)).isFalse();
+            assertThat(tiny.stats().dropped()).isEqualTo(1);
+            verify(friendRepository, never()).findPendingSchedulingExplanation(7);
+        } finally {
+            tiny.shutdown();
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package communicate.Friend.FriendService;
 
+import communicate.Friend.Config.HostWrapperProperties;
 import communicate.Friend.FriendEntities.Friend;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class ExplanationServiceTest {
 
-    private final ExplanationService service = new ExplanationService(WebClient.builder().build());
+    private final ExplanationCache cache = new ExplanationCache(512, Duration.ofDays(7), "");
+    private final ExplanationService service = new ExplanationService(
+        new HostWrapperClient(WebClient.builder().build(), new HostWrapperProperties()), cache);
     private final Friend friend = Friend.builder().name("Alice").build();
     private final LocalDate due = LocalDate.parse("2026-08-14");
 
@@ -71,9 +76,77 @@ class ExplanationServiceTest {
 
     @Test
     void hostWrapperUnreachable_fallsBackToTemplateUnchanged() {
-        ReflectionTestUtils.setField(service, "hostWrapperUrl", "http://127.0.0.1:1");
+        HostWrapperProperties unreachable = new HostWrapperProperties();
+        unreachable.setUrl("http://127.0.0.1:1");
+        ExplanationService offline = new ExplanationService(
+            new HostWrapperClient(WebClient.builder().build(), unreachable), cache);
         String template = "Suggesting 2026-08-14 for Alice.";
-        String result = service.explainViaLlm(template);
+        String result = offline.explainViaLlm(template);
         assertThat(result).isEqualTo(template);
     }
+
+    // ── Polished-shape cache ────────────────────────────────────────────────
+
+    private HostWrapperStub stub;
+
+    @AfterEach
+    void stopStub() {
+        if (stub != null) stub.close();
+    }
+
+    private ExplanationService stubbedService() throws IOException {
+        stub = new HostWrapperStub();
+        return new ExplanationService(new HostWrapperClient(WebClient.builder().build(), stub.properties()), cache);
+    }
+
+    @Test
+    void sameSignature_secondFriendIsServedFromTheCache_withTheirOwnNameAndDate() throws IOException {
+        ExplanationService stubbed = stubbedService();
+        stub.reply("Let's see {name} again on {date} — last time was lovely.");
+        String alice = stubbed.explainTemplate(friend, due, FsrsService.GRADE_GOOD, 1.0, true);
+        String bob = stubbed.explainTemplate(Friend.builder().name("Bob").build(), due.plusDays(3),
+            FsrsService.GRADE_GOOD, 1.0, true);
+
+        assertThat(stubbed.explainViaLlm(alice)).isEqualTo("Let's see Alice again on 2026-08-14 — last time was lovely.");
+        assertThat(stubbed.explainViaLlm(bob)).isEqualTo("Let's see Bob again on 2026-08-17 — last time was lovely.");
+        assertThat(stub.requestCount()).isEqualTo(1);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void differentSignature_isASeparateCompletion() throws IOException {
+        ExplanationService stubbed = stubbedService();
+        stub.reply("{name}, {date}: great chat.");
+        stub.reply("{name}, {date}: a short one.");
+
+        stubbed.explainViaLlm(stubbed.explainTemplate(friend, due, FsrsService.GRADE_EASY, 1.0, null));
+        String hard = stubbed.explainViaLlm(stubbed.explainTemplate(friend, due, FsrsService.GRADE_HARD, 1.0, null));
+
+        assertThat(hard).isEqualTo("Alice, 2026-08-14: a short one.");
+        assertThat(stub.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void replyWithoutPlaceholders_isNotCached_andTheTemplateIsPolishedAsIs() throws IOException {
+        ExplanationService stubbed = stubbedService();
+        stub.reply("Catch up with your friend soon.");
+        stub.reply("Catch up with Alice on 2026-08-14.");
+        String template = stubbed.explainTemplate(friend, due, FsrsService.GRADE_GOOD, 1.0, null);
+
+        assertThat(stubbed.explainViaLlm(template)).isEqualTo("Catch up with Alice on 2026-08-14.");
+        assertThat(stub.requestCount()).isEqualTo(2);
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void nameContainingAPlaceholder_isSubstitutedLiterally() throws IOException {
+        ExplanationService stubbed = stubbedService();
+        stub.reply("See {name} on {date}.");
+        Friend odd = Friend.builder().name("{date} $1").build();
+
+        String text = stubbed.explainViaLlm(stubbed.explainTemplate(odd, due, FsrsService.GRADE_GOOD, 1.0, null));
+
+        assertThat(text).isEqualTo("See {date} $1 on 2026-08-14.");
+    }
 }
@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import communicate.Friend.DTOs.DayLoadDTO;
 import communicate.Friend.FriendEntities.Friend;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
@@ -108,4 +109,19 @@ class FlashcardBankruptcyServiceTest {
         assertThat(neverReviewed.getFsrsStability()).isNotNull();
         assertThat(neverReviewed.getDueDate()).isAfter(today);
     }
+
+    @Test
+    void lapsedRows_landOnTheLeastLoadedDayOfTheRealCalendar() {
+        FriendKnowledgeReview chronic = row(1, today.minusDays(10), 10.0, 4.0);
+        when(reviewRepository.findByFriend_FlashcardsEnabledTrue()).thenReturn(List.of(chronic));
+        List<DayLoadDTO> due = new ArrayList<>();
+        for (int d = 2; d <= FsrsService.MAX_INTERVAL_DAYS; d++) {
+            due.add(new DayLoadDTO(today.plusDays(d), 5L));
+        }
+        when(reviewRepository.countDueAfter(today)).thenReturn(due);
+
+        service.run(200, 7);
+
+        assertThat(chronic.getDueDate()).isEqualTo(today.plusDays(1)); // the only empty day
+    }
 }
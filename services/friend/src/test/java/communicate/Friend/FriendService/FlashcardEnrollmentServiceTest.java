@@ -7,28 +7,23 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
-import com.example.demo.Group.GroupEntities.GroupKnowledge;
-import com.example.demo.Group.GroupRepositories.GroupKnowledgeRepository;
+import com.example.demo.Group.GroupServices.GroupKnowledgeAddedEvent;
 
 import communicate.Friend.FriendEntities.Friend;
-import communicate.Friend.FriendEntities.FriendKnowledge;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
-import communicate.Friend.FriendRepositories.FriendKnowledgeRepository;
 import communicate.Friend.FriendRepositories.FriendKnowledgeReviewRepository;
 import communicate.Friend.FriendRepositories.FriendRepository;
-import communicate.Friend.FriendRepositories.GroupMemberRepository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -39,9 +34,6 @@ import static org.mockito.Mockito.when;
 class FlashcardEnrollmentServiceTest {
 
     @Mock FriendRepository friendRepository;
-    @Mock FriendKnowledgeRepository friendKnowledgeRepository;
-    @Mock GroupMemberRepository groupMemberRepository;
-    @Mock GroupKnowledgeRepository groupKnowledgeRepository;
     @Mock FriendKnowledgeReviewRepository reviewRepository;
 
     FlashcardEnrollmentService service;
@@ -50,58 +42,52 @@ class FlashcardEnrollmentServiceTest {
     @BeforeEach
     void setUp() {
         FsrsService fsrs = new FsrsService();
-        service = new FlashcardEnrollmentService(
-            friendRepository, friendKnowledgeRepository, groupMemberRepository, groupKnowledgeRepository, reviewRepository, fsrs);
-    }
-
-    private static FriendKnowledge fact(int id) {
-        FriendKnowledge k = new FriendKnowledge();
-        k.setId(id);
-        k.setText("fact " + id);
-        k.setPriority(5L);
-        return k;
-    }
-
-    private static GroupKnowledge groupFact(int id) {
-        GroupKnowledge k = new GroupKnowledge();
-        k.setId(id);
-        k.setText("group fact " + id);
-        k.setPriority(5L);
-        return k;
+        service = new FlashcardEnrollmentService(friendRepository, reviewRepository, fsrs);
     }
 
     @Test
-    void enrollFriend_countsPersonalPlusInheritedGroupFacts_exactMatch() {
+    void enrollFriend_isOneInsertPerSource_summingWhatEachAdded() {
         int friendId = 1;
-        when(friendKnowledgeRepository.findByFriendId(friendId)).thenReturn(List.of(fact(10), fact(11)));
-        when(groupMemberRepository.findGroupIdsByFriendId(friendId)).thenReturn(List.of(100, 200));
-        when(groupKnowledgeRepository.findByGroupIdOrderByDateDesc(100)).thenReturn(List.of(groupFact(500)));
-        when(groupKnowledgeRepository.findByGroupIdOrderByDateDesc(200)).thenReturn(List.of(groupFact(501), groupFact(502)));
-        when(reviewRepository.existsByFriendIdAndSourceTypeAndSourceKnowledgeId(eq(friendId), any(), anyInt())).thenReturn(false);
+        when(reviewRepository.enrollFriendFacts(friendId, "FRIEND", today)).thenReturn(2);
+        when(reviewRepository.enrollGroupFacts(friendId, "GROUP", today)).thenReturn(3);
 
         int enrolled = service.enrollFriend(friendId);
 
-        // 2 personal + 3 inherited-group facts = 5 total.
+        // 2 personal + 3 inherited-group facts = 5 total, fresh rows due today.
         assertThat(enrolled).isEqualTo(5);
-        ArgumentCaptor<List<FriendKnowledgeReview>> captor = ArgumentCaptor.forClass(List.class);
-        verify(reviewRepository).saveAll(captor.capture());
-        assertThat(captor.getValue()).hasSize(5);
-        assertThat(captor.getValue()).allMatch(r -> r.getDueDate().equals(today)); // freshly enrolled -> immediately due
-        assertThat(captor.getValue()).filteredOn(r -> r.getSourceType() == SourceType.FRIEND).hasSize(2);
-        assertThat(captor.getValue()).filteredOn(r -> r.getSourceType() == SourceType.GROUP).hasSize(3);
     }
 
     @Test
-    void enrollFriend_skipsFactsAlreadyEnrolled() {
-        int friendId = 1;
-        when(friendKnowledgeRepository.findByFriendId(friendId)).thenReturn(List.of(fact(10), fact(11)));
-        when(groupMemberRepository.findGroupIdsByFriendId(friendId)).thenReturn(List.of());
-        when(reviewRepository.existsByFriendIdAndSourceTypeAndSourceKnowledgeId(friendId, SourceType.FRIEND, 10)).thenReturn(true);
-        when(reviewRepository.existsByFriendIdAndSourceTypeAndSourceKnowledgeId(friendId, SourceType.FRIEND, 11)).thenReturn(false);
+    void enrollNewKnowledge_onlyInsertsTheGivenFacts() {
+        when(reviewRepository.enrollFriendFacts(1, List.of(10, 11), "FRIEND", today)).thenReturn(2);
 
-        int enrolled = service.enrollFriend(friendId);
+        assertThat(service.enrollNewKnowledge(1, List.of(10, 11))).isEqualTo(2);
+        verify(reviewRepository, never()).enrollFriendFacts(anyInt(), any(), any());
+        verify(reviewRepository, never()).enrollGroupFacts(anyInt(), any(), any());
+    }
+
+    @Test
+    void enrollNewKnowledge_nothingSaved_touchesNothing() {
+        assertThat(service.enrollNewKnowledge(1, List.of())).isZero();
+        verifyNoInteractions(reviewRepository);
+    }
+
+    @Test
+    void onGroupKnowledgeAdded_fansOutToStarredMembersInOneInsert() {
+        when(reviewRepository.enrollGroupFactsForStarredMembers(4, List.of(10, 11), "GROUP", today)).thenReturn(6);
+
+        service.onGroupKnowledgeAdded(new GroupKnowledgeAddedEvent(4, List.of(10, 11)));
+
+        verify(reviewRepository).enrollGroupFactsForStarredMembers(4, List.of(10, 11), "GROUP", today);
+        verify(reviewRepository, never()).enrollGroupFacts(anyInt(), any(), any());
+    }
+
+    @Test
+    void onGroupKnowledgeAdded_failureIsSwallowed_theGroupSaveAlreadyCommitted() {
+        when(reviewRepository.enrollGroupFactsForStarredMembers(anyInt(), anyList(), any(), any()))
+                .thenThrow(new RuntimeException("db down"));
 
-        assertThat(enrolled).isEqualTo(1);
+        service.onGroupKnowledgeAdded(new GroupKnowledgeAddedEvent(4, List.of(10)));
     }
 
     @Test
@@ -110,8 +96,6 @@ class FlashcardEnrollmentServiceTest {
         Friend friend = Friend.builder().id(friendId).flashcardsEnabled(false).build();
         when(friendRepository.findById(friendId)).thenReturn(Optional.of(friend));
         when(reviewRepository.findByFriendId(friendId)).thenReturn(List.of());
-        when(friendKnowledgeRepository.findByFriendId(friendId)).thenReturn(List.of());
-        when(groupMemberRepository.findGroupIdsByFriendId(friendId)).thenReturn(List.of());
 
         Friend result = service.setFlashcardsEnabled(friendId, true);
 
@@ -138,8 +122,6 @@ class FlashcardEnrollmentServiceTest {
             .dueDate(today.minusDays(5))
             .build();
         when(reviewRepository.findByFriendId(friendId)).thenReturn(List.of(reviewed, neverReviewed));
-        when(friendKnowledgeRepository.findByFriendId(friendId)).thenReturn(List.of());
-        when(groupMemberRepository.findGroupIdsByFriendId(friendId)).thenReturn(List.of());
 
         service.setFlashcardsEnabled(friendId, true);
 
@@ -7,23 +7,27 @@ import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-
-import com.example.demo.Group.GroupRepositories.GroupKnowledgeRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import communicate.Friend.DTOs.FlashcardCardDTO;
+import communicate.Friend.DTOs.FlashcardGradeDTO;
+import communicate.Friend.DTOs.FlashcardGradedDTO;
 import communicate.Friend.FriendEntities.Friend;
-import communicate.Friend.FriendEntities.FriendKnowledge;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview;
 import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
-import communicate.Friend.FriendRepositories.FriendKnowledgeRepository;
 import communicate.Friend.FriendRepositories.FriendKnowledgeReviewRepository;
-import communicate.Friend.FriendRepositories.FriendRepository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,35 +35,31 @@ import static org.mockito.Mockito.when;
 class FlashcardReviewServiceTest {
 
     @Mock FriendKnowledgeReviewRepository reviewRepository;
-    @Mock FriendRepository friendRepository;
-    @Mock FriendKnowledgeRepository friendKnowledgeRepository;
-    @Mock GroupKnowledgeRepository groupKnowledgeRepository;
+    @Mock JdbcTemplate jdbcTemplate;
 
     FlashcardReviewService service;
     final LocalDate today = LocalDate.now();
 
     @BeforeEach
     void setUp() {
-        service = new FlashcardReviewService(reviewRepository, friendRepository, friendKnowledgeRepository, groupKnowledgeRepository, new FsrsService());
+        service = new FlashcardReviewService(reviewRepository, new FsrsService(), jdbcTemplate);
     }
 
     @Test
     void firstGrade_seedsInitialState_notReviewPath() {
-        Friend friend = Friend.builder().id(1).name("Alex").build();
         Friend friendRef = new Friend();
         friendRef.setId(1);
         FriendKnowledgeReview row = FriendKnowledgeReview.builder()
             .id(7).friend(friendRef).sourceType(SourceType.FRIEND).sourceKnowledgeId(10).dueDate(today).build();
         when(reviewRepository.findById(7)).thenReturn(Optional.of(row));
-        when(friendRepository.findAllById(List.of(1))).thenReturn(List.of(friend));
-        FriendKnowledge k = new FriendKnowledge();
-        k.setId(10); k.setText("likes coffee"); k.setPriority(5L);
-        when(friendKnowledgeRepository.findAllById(List.of(10))).thenReturn(List.of(k));
+        FlashcardCardDTO card = new FlashcardCardDTO(7, 1, "Alex", "FRIEND", 10, "likes coffee", 5L,
+            2.3, 5.0, today, today.plusDays(2));
+        when(reviewRepository.findCard(7)).thenReturn(Optional.of(card));
 
         FlashcardCardDTO dto = service.gradeCard(7, FsrsService.GRADE_GOOD);
 
-        assertThat(dto.fact()).isEqualTo("likes coffee");
-        assertThat(dto.friendName()).isEqualTo("Alex");
+        assertThat(dto).isSameAs(card); // re-read through the CARD projection after the save
+        verify(reviewRepository).save(row);
         assertThat(row.getFsrsStability()).isNotNull();
         assertThat(row.getLastReviewedDate()).isEqualTo(today);
         assertThat(row.getDueDate()).isAfter(today);
@@ -73,8 +73,8 @@ class FlashcardReviewServiceTest {
             .id(7).friend(friendRef).sourceType(SourceType.FRIEND).sourceKnowledgeId(10)
             .fsrsStability(5.0).fsrsDifficulty(4.0).lastReviewedDate(today.minusDays(5)).dueDate(today).build();
         when(reviewRepository.findById(7)).thenReturn(Optional.of(row));
-        when(friendRepository.findAllById(List.of(1))).thenReturn(List.of());
-        when(friendKnowledgeRepository.findAllById(List.of(10))).thenReturn(List.of());
+        when(reviewRepository.findCard(7)).thenReturn(Optional.of(
+            new FlashcardCardDTO(7, 1, "Alex", "FRIEND", 10, "likes coffee", 5L, null, null, null, null)));
 
         service.gradeCard(7, FsrsService.GRADE_EASY);
 
@@ -82,4 +82,97 @@ class FlashcardReviewServiceTest {
         // to the small first-review seed value.
         assertThat(row.getFsrsStability()).isGreaterThan(5.0);
     }
+
+    private FriendKnowledgeReview seen(int id, int daysAgo) {
+        return FriendKnowledgeReview.builder().id(id).sourceType(SourceType.FRIEND).sourceKnowledgeId(id)
+            .fsrsStability(5.0).fsrsDifficulty(4.0).lastReviewedDate(today.minusDays(daysAgo)).dueDate(today).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> writtenRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
+    }
+
+    @Test
+    void gradeSession_isOneReadAndOneBatch_withTheSameMathAsGradeCard() {
+        FriendKnowledgeReview a = seen(7, 5), b = seen(8, 5);
+        when(reviewRepository.findAllById(List.of(7, 8))).thenReturn(List.of(a, b));
+        when(reviewRepository.findById(9)).thenReturn(Optional.of(seen(9, 5)));
+        when(reviewRepository.findCard(9)).thenReturn(Optional.of(
+            new FlashcardCardDTO(9, 1, "Alex", "FRIEND", 9, "x", 5L, null, null, null, null)));
+
+        List<FlashcardGradedDTO> graded = service.gradeSession(List.of(
+            new FlashcardGradeDTO(7, FsrsService.GRADE_EASY, null),
+            new FlashcardGradeDTO(8, FsrsService.GRADE_HARD, null)));
+        FriendKnowledgeReview single = seen(9, 5);
+        when(reviewRepository.findById(9)).thenReturn(Optional.of(single));
+        service.gradeCard(9, FsrsService.GRADE_EASY);
+
+        assertThat(graded.get(0).fsrsStability()).isEqualTo(single.getFsrsStability());
+        assertThat(graded.get(0).dueDate()).isEqualTo(single.getDueDate());
+        assertThat(graded.get(1).fsrsStability()).isLessThan(graded.get(0).fsrsStability());
+        List<Object[]> rows = writtenRows();
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsExactly(graded.get(0).fsrsStability(), graded.get(0).fsrsDifficulty(),
+            today, graded.get(0).dueDate(), 7);
+        verify(reviewRepository, never()).save(a);
+    }
+
+    @Test
+    void gradeSession_sameCardTwice_chainsInReviewedAtOrder() {
+        when(reviewRepository.findAllById(anyList())).thenReturn(List.of(seen(7, 10)));
+
+        // Posted out of order: the Hard from 4 days ago happened first.
+        List<FlashcardGradedDTO> graded = service.gradeSession(List.of(
+            new FlashcardGradeDTO(7, FsrsService.GRADE_GOOD, today),
+            new FlashcardGradeDTO(7, FsrsService.GRADE_HARD, today.minusDays(4))));
+
+        FsrsService fsrs = new FsrsService();
+        FsrsService.FsrsState first = fsrs.review(new FsrsService.FsrsState(5.0, 4.0), FsrsService.GRADE_HARD, 6);
+        FsrsService.FsrsState second = fsrs.review(first, FsrsService.GRADE_GOOD, 4);
+        assertThat(graded).singleElement().satisfies(g -> {
+            assertThat(g.fsrsStability()).isEqualTo(second.stability());
+            assertThat(g.lastReviewedDate()).isEqualTo(today);
+        });
+        assertThat(writtenRows()).hasSize(1);
+    }
+
+    @Test
+    void gradeSession_unknownIdsAndFutureDates_areHandled() {
+        when(reviewRepository.findAllById(anyList())).thenReturn(List.of(seen(7, 3)));
+
+        List<FlashcardGradedDTO> graded = service.gradeSession(List.of(
+            new FlashcardGradeDTO(7, FsrsService.GRADE_GOOD, today.plusDays(3)),
+            new FlashcardGradeDTO(404, FsrsService.GRADE_GOOD, today)));
+
+        // A device clock ahead of the server's is clamped to today.
+        assertThat(graded).singleElement().satisfies(g -> assertThat(g.lastReviewedDate()).isEqualTo(today));
+    }
+
+    @Test
+    void gradeSession_gradeBeforeTheLastReview_isClampedToIt() {
+        when(reviewRepository.findAllById(anyList())).thenReturn(List.of(seen(7, 2)));
+
+        // A stale grade from a week ago, posted after the card was reviewed two days ago.
+        List<FlashcardGradedDTO> graded = service.gradeSession(List.of(
+            new FlashcardGradeDTO(7, FsrsService.GRADE_GOOD, today.minusDays(7))));
+
+        FsrsService fsrs = new FsrsService();
+        FsrsService.FsrsState expected = fsrs.review(new FsrsService.FsrsState(5.0, 4.0), FsrsService.GRADE_GOOD, 0);
+        assertThat(graded).singleElement().satisfies(g -> {
+            assertThat(g.lastReviewedDate()).isEqualTo(today.minusDays(2));
+            assertThat(g.fsrsStability()).isEqualTo(expected.stability());
+        });
+        assertThat(writtenRows().get(0)[2]).isEqualTo(today.minusDays(2));
+    }
+
+    @Test
+    void gradeSession_nothingKnown_writesNothing() {
+        when(reviewRepository.findAllById(anyList())).thenReturn(List.of());
+
+        assertThat(service.gradeSession(List.of(new FlashcardGradeDTO(404, FsrsService.GRADE_GOOD, today)))).isEmpty();
+        verifyNoInteractions(jdbcTemplate);
+    }
 }
@@ -1,22 +1,33 @@
 package communicate.Friend.FriendService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
 
-import communicate.Friend.FriendEntities.Friend;
-import communicate.Friend.FriendEntities.FriendKnowledgeReview;
-import communicate.Friend.FriendEntities.FriendKnowledgeReview.SourceType;
+import communicate.Friend.DTOs.SpreadRowDTO;
 import communicate.Friend.FriendRepositories.FriendKnowledgeReviewRepository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /** Ported day-cap mechanism from OO's chrono/SpreadService.java — see FlashcardSpreadService class doc. */
@@ -25,55 +36,121 @@ import static org.mockito.Mockito.when;
 class FlashcardSpreadServiceTest {
 
     @Mock FriendKnowledgeReviewRepository reviewRepository;
+    @Mock JdbcTemplate jdbcTemplate;
 
     FlashcardSpreadService service;
     final LocalDate today = LocalDate.now();
 
     @BeforeEach
     void setUp() {
-        service = new FlashcardSpreadService(reviewRepository);
+        service = new FlashcardSpreadService(reviewRepository, jdbcTemplate);
     }
 
-    private FriendKnowledgeReview row(int id, double difficulty, LocalDate due) {
-        Friend friendRef = new Friend();
-        friendRef.setId(1);
-        return FriendKnowledgeReview.builder()
-            .id(id).friend(friendRef).sourceType(SourceType.FRIEND).sourceKnowledgeId(id)
-            .fsrsStability(5.0).fsrsDifficulty(difficulty).dueDate(due)
-            .build();
+    private SpreadRowDTO row(int id, Double difficulty, LocalDate due) {
+        return new SpreadRowDTO(id, due, difficulty);
+    }
+
+    /** Streams the rows the way the query does (due date, then id) and returns id -> new due date. */
+    @SuppressWarnings("unchecked")
+    private Map<Integer, LocalDate> spread(List<SpreadRowDTO> rows, int cap) {
+        List<SpreadRowDTO> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing(SpreadRowDTO::dueDate).thenComparing(SpreadRowDTO::id));
+        when(reviewRepository.streamSpreadRows()).thenReturn(ordered.stream());
+
+        FlashcardSpreadService.SpreadResult result = service.run(cap);
+
+        Map<Integer, LocalDate> moved = new HashMap<>();
+        if (result.moved() > 0) {
+            ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate).batchUpdate(anyString(), updates.capture());
+            for (Object[] update : updates.getValue()) {
+                moved.put((Integer) update[1], (LocalDate) update[0]);
+            }
+        } else {
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        }
+        assertThat(result.total()).isEqualTo(rows.size());
+        assertThat(moved).hasSize(result.moved());
+        return moved;
     }
 
     @Test
     void overloadedDay_hardestStay_easiestSpillToNextDay() {
         // 5 rows due today, cap of 3 -> the 2 easiest (lowest difficulty) spill to today+1.
-        List<FriendKnowledgeReview> rows = List.of(
+        Map<Integer, LocalDate> moved = spread(List.of(
             row(1, 9.0, today), // hardest -> stays
             row(2, 8.0, today), // stays
             row(3, 7.0, today), // stays
             row(4, 3.0, today), // easiest -> spills
             row(5, 2.0, today)  // easiest -> spills
-        );
-        when(reviewRepository.findByFriend_FlashcardsEnabledTrue()).thenReturn(rows);
-
-        FlashcardSpreadService.SpreadResult result = service.run(3);
-
-        assertThat(result.total()).isEqualTo(5);
-        assertThat(result.moved()).isEqualTo(2);
-        assertThat(rows.get(0).getDueDate()).isEqualTo(today); // difficulty 9
-        assertThat(rows.get(1).getDueDate()).isEqualTo(today); // difficulty 8
-        assertThat(rows.get(2).getDueDate()).isEqualTo(today); // difficulty 7
-        assertThat(rows.get(3).getDueDate()).isEqualTo(today.plusDays(1)); // difficulty 3
-        assertThat(rows.get(4).getDueDate()).isEqualTo(today.plusDays(1)); // difficulty 2
+        ), 3);
+
+        assertThat(moved).containsOnly(
+            Map.entry(4, today.plusDays(1)),
+            Map.entry(5, today.plusDays(1)));
     }
 
     @Test
     void underCap_leftAlone() {
-        List<FriendKnowledgeReview> rows = List.of(row(1, 5.0, today), row(2, 5.0, today));
-        when(reviewRepository.findByFriend_FlashcardsEnabledTrue()).thenReturn(rows);
+        Map<Integer, LocalDate> moved = spread(List.of(row(1, 5.0, today), row(2, 5.0, today)), 30);
+
+        assertThat(moved).isEmpty();
+    }
 
-        FlashcardSpreadService.SpreadResult result = service.run(30);
+    @Test
+    void overflow_cascadesThroughEmptyDays_andCompetesWithTheNextDaysOwnRows() {
+        // Cap 1: four cards today ripple forward one per day; a hard card already
+        // due on day 2 keeps its slot, pushing the carried ones past it.
+        Map<Integer, LocalDate> moved = spread(List.of(
+            row(1, 9.0, today), row(2, 6.0, today), row(3, null, today), row(4, 1.0, today),
+            row(5, 9.5, today.plusDays(2))), 1);
+
+        assertThat(moved).containsOnly(
+            Map.entry(2, today.plusDays(1)),
+            Map.entry(3, today.plusDays(3)),  // unreviewed sorts as 5.0
+            Map.entry(4, today.plusDays(4)));
+    }
+
+    @Test
+    void matchesTheMapPerDayCascade_onRandomDecks() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            List<SpreadRowDTO> rows = new ArrayList<>();
+            int size = 1 + random.nextInt(120);
+            for (int id = 1; id <= size; id++) {
+                Double difficulty = random.nextInt(5) == 0 ? null : (double) (1 + random.nextInt(10));
+                rows.add(row(id, difficulty, today.plusDays(random.nextInt(30) - 10)));
+            }
+            int cap = 1 + random.nextInt(8);
+
+            reset(reviewRepository, jdbcTemplate);
+            assertThat(spread(rows, cap)).isEqualTo(mapPerDayCascade(rows, cap));
+        }
+    }
 
-        assertThat(result.moved()).isEqualTo(0);
-        assertThat(rows).allMatch(r -> r.getDueDate().equals(today));
+    /** The pre-streaming algorithm (TreeMap of day -> rows, overflow appended to the next day). */
+    private static Map<Integer, LocalDate> mapPerDayCascade(List<SpreadRowDTO> rows, int cap) {
+        List<SpreadRowDTO> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparing(SpreadRowDTO::dueDate).thenComparing(SpreadRowDTO::id));
+        TreeMap<Long, List<SpreadRowDTO>> byDay = new TreeMap<>();
+        for (SpreadRowDTO row : ordered) {
+            byDay.computeIfAbsent(row.dueDate().toEpochDay(), k -> new ArrayList<>()).add(row);
+        }
+        long maxDay = byDay.lastKey();
+        for (long day = byDay.firstKey(); day <= maxDay; day++) {
+            List<SpreadRowDTO> dayRows = byDay.get(day);
+            if (dayRows == null || dayRows.size() <= cap) continue;
+            dayRows.sort(Comparator.comparingDouble(
+                (SpreadRowDTO r) -> r.fsrsDifficulty() != null ? r.fsrsDifficulty() : 5.0).reversed());
+            List<SpreadRowDTO> overflow = new ArrayList<>(dayRows.subList(cap, dayRows.size()));
+            dayRows.subList(cap, dayRows.size()).clear();
+            byDay.computeIfAbsent(day + 1, k -> new ArrayList<>()).addAll(overflow);
+            maxDay = byDay.lastKey();
+        }
+        Map<Integer, LocalDate> moved = new HashMap<>();
+        byDay.forEach((day, dayRows) -> dayRows.forEach(row -> {
+            if (row.dueDate().toEpochDay() != day) moved.put(row.id(), LocalDate.ofEpochDay(day));
+        }));
+        return moved;
     }
 }
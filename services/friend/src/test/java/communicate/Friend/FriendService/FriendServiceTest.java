@@ -0,0 +1,82 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.DTOs.FriendDTO;
+import communicate.Friend.DTOs.FriendRowDTO;
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * "This week" is filtered and flagged in SQL now, so what's left to get right
+ * here is the month-day window handed to the query — New Year and Feb 29
+ * included — and that the rows come back decayed like every other list.
+ */
+@ExtendWith(MockitoExtension.class)
+class FriendServiceTest {
+
+    @Mock FriendRepository friendRepository;
+
+    private FriendService service() {
+        EmaProperties.Coefficients coefficients = new EmaProperties.Coefficients();
+        coefficients.setDecay(Map.of("excellent", 0.07, "good", 0.2, "poor", 0.57));
+        EmaProperties properties = new EmaProperties();
+        properties.setCoefficients(coefficients);
+        return new FriendService(friendRepository, new EmaDecayService(properties, new EmaMathService()));
+    }
+
+    @Test
+    void ordinaryWeek_isOneRange() {
+        assertThat(FriendService.birthdayRanges(LocalDate.parse("2026-08-10")))
+                .containsExactly(810, 816, 0, -1);
+    }
+
+    @Test
+    void weekOverNewYear_isTwoRanges() {
+        assertThat(FriendService.birthdayRanges(LocalDate.parse("2025-12-29")))
+                .containsExactly(1229, 1231, 101, 104);
+    }
+
+    @Test
+    void feb29Birthday_countsInTheWeekEndingFeb28_ofANonLeapYear() {
+        assertThat(FriendService.birthdayRanges(LocalDate.parse("2027-02-22")))
+                .containsExactly(222, 229, 0, -1);
+        assertThat(FriendService.birthdayRanges(LocalDate.parse("2032-02-22"))) // leap: the 29th is its own day
+                .containsExactly(222, 228, 0, -1);
+    }
+
+    @Test
+    void findThisWeek_returnsTheQueryRowsDecayedToToday() {
+        LocalDate today = LocalDate.now();
+        FriendRowDTO row = new FriendRowDTO(1, "Alice", "**", null, today, 1.0, 1.0, 1.0, 1.0,
+                "Casual", null, false, false, null, today.minusDays(3), true);
+        when(friendRepository.findThisWeekRows(any(), anyInt(), anyInt(), anyInt(), anyInt())).thenReturn(List.of(row));
+
+        List<FriendDTO> week = service().findThisWeek();
+
+        assertThat(week).singleElement().satisfies(dto -> {
+            assertThat(dto.isBirthdayThisWeek()).isTrue();
+            assertThat(dto.averageFrequency()).isEqualTo(1.0 * Math.pow(0.8, 2));
+        });
+    }
+
+    @Test
+    void getAllFriendDTOs_failedQuery_propagates_insteadOfReadingAsNoFriends() {
+        when(friendRepository.findAllRows()).thenThrow(new IllegalStateException("connection lost"));
+
+        assertThatThrownBy(() -> service().getAllFriendDTOs()).isInstanceOf(IllegalStateException.class);
+    }
+}
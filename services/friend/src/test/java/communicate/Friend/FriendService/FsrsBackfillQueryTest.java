@@ -0,0 +1,112 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.Group.GroupEntities.GroupKnowledge;
+
+import communicate.Friend.Config.EmaProperties;
+import communicate.Friend.FriendEntities.Analytics;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The boot-time backfill against in-memory H2 (PostgreSQL mode): one
+ * aggregate read for every unseeded friend at once, the mean gap over
+ * distinct interaction days the per-friend walk used to compute, and the
+ * batch UPDATE only landing on active friends that still have no state.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:fsrsbackfill;MODE=PostgreSQL"
+})
+class FsrsBackfillQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Friend.class, GroupKnowledge.class})
+    @EnableJpaRepositories(basePackageClasses = FriendRepository.class)
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired AnalyticsRepository analyticsRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    private FsrsBackfillService service() {
+        return new FsrsBackfillService(analyticsRepository,
+                new EmaDecayService(new EmaProperties(), new EmaMathService()), jdbcTemplate);
+    }
+
+    private Friend persist(String name, Double stability, boolean deleted, int... daysAgo) {
+        Friend friend = new Friend(name, today.plusDays(7), "**", LocalDate.of(1990, 5, 5));
+        friend.setFsrsStability(stability);
+        friend.setAverageExcitement(3.0);
+        friend.setEmaAsOf(today.minusDays(1));
+        if (deleted) friend.setDeletedAt(LocalDateTime.now());
+        friend.setAnalytics(Arrays.stream(daysAgo).mapToObj(d ->
+                Analytics.builder().friend(friend).date(today.minusDays(d)).experience("**").hours(1.0).build())
+                .toList());
+        return entityManager.persist(friend);
+    }
+
+    private Friend reload(Friend friend) {
+        return entityManager.find(Friend.class, friend.getId());
+    }
+
+    @Test
+    void seedsUnseededFriendsWithHistory_fromOneAggregate() {
+        Friend legacy = persist("Legacy", null, false, 10, 40, 10, 70); // same-day repeat adds no gap
+        Friend daily = persist("Daily", null, false, 2, 2);            // no distinct gap: stability floor
+        Friend alreadySeeded = persist("Seeded", 12.0, false, 5, 50);
+        Friend once = persist("Once", null, false, 3);
+        Friend binned = persist("Binned", null, true, 5, 50);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        int seeded = service().backfillAll();
+
+        assertThat(seeded).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1); // the aggregate; the UPDATE is one JDBC batch
+        entityManager.clear();
+        Friend seededLegacy = reload(legacy);
+        assertThat(seededLegacy.getFsrsStability()).isEqualTo(30.0); // gaps 30 and 30 days
+        assertThat(seededLegacy.getFsrsDifficulty()).isCloseTo(1.0, within(1e-9)); // full excitement, no decay owed
+        assertThat(seededLegacy.getLastInteractionDate()).isEqualTo(today.minusDays(10));
+        assertThat(reload(daily).getFsrsStability()).isEqualTo(1.0);
+        assertThat(reload(daily).getLastInteractionDate()).isEqualTo(today.minusDays(2));
+        assertThat(reload(alreadySeeded).getFsrsStability()).isEqualTo(12.0);
+        assertThat(reload(once).getFsrsStability()).isNull();
+        assertThat(reload(binned).getFsrsStability()).isNull();
+    }
+
+    @Test
+    void secondRun_seedsNothing() {
+        persist("Legacy", null, false, 10, 40);
+        entityManager.flush();
+
+        assertThat(service().backfillAll()).isEqualTo(1);
+        entityManager.clear();
+        assertThat(service().backfillAll()).isZero();
+    }
+}
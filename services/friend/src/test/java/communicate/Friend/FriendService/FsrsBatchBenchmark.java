@@ -0,0 +1,129 @@
+package communicate.Friend.FriendService;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import communicate.Friend.FriendService.FsrsService.FsrsState;
+
+/**
+ * Scalar (record per row) vs struct-of-arrays FsrsService paths over the
+ * row counts the bulk jobs see — review, forget and intervalDays, the three
+ * the nightly/replay jobs call per row. Setup refuses to run unless both
+ * paths agree bit for bit on the generated rows (FsrsServiceTest pins the
+ * batch path to the py-fsrs reference values), so a faster batch path
+ * can't quietly drift.
+ *
+ * Not part of the surefire run. From the repo root:
+ *   mvn -q -pl services/friend -am test-compile dependency:build-classpath -Dmdep.outputFile=/tmp/cp.txt
+ *   java -cp "services/friend/target/test-classes:services/friend/target/classes:$(cat /tmp/cp.txt)" \
+ *        org.openjdk.jmh.Main FsrsBatchBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FsrsBatchBenchmark {
+
+    private static final double DESIRED_RETENTION = 0.9;
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    private final FsrsService fsrs = new FsrsService();
+    private double[] stability, difficulty, elapsed, outStability, outDifficulty;
+    private int[] grades, days;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        stability = new double[rows];
+        difficulty = new double[rows];
+        elapsed = new double[rows];
+        grades = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            stability[i] = Math.exp(random.nextDouble(-2, 7));
+            difficulty[i] = random.nextDouble(1, 10);
+            elapsed[i] = random.nextInt(0, 400);
+            grades[i] = random.nextInt(FsrsService.GRADE_HARD, FsrsService.GRADE_EASY + 1);
+        }
+        outStability = new double[rows];
+        outDifficulty = new double[rows];
+        days = new int[rows];
+        verifyIdentical();
+    }
+
+    private void verifyIdentical() {
+        fsrs.review(stability, difficulty, elapsed, grades, outStability, outDifficulty, rows);
+        fsrs.intervalDays(outStability, DESIRED_RETENTION, days, rows);
+        for (int i = 0; i < rows; i++) {
+            FsrsState scalar = fsrs.review(new FsrsState(stability[i], difficulty[i]), grades[i], elapsed[i]);
+            if (Double.doubleToRawLongBits(scalar.stability()) != Double.doubleToRawLongBits(outStability[i])
+                    || Double.doubleToRawLongBits(scalar.difficulty()) != Double.doubleToRawLongBits(outDifficulty[i])
+                    || fsrs.intervalDays(scalar.stability(), DESIRED_RETENTION) != days[i]) {
+                throw new IllegalStateException("Batch review diverged from scalar at row " + i);
+            }
+        }
+        fsrs.forget(stability, difficulty, elapsed, outStability, outDifficulty, rows);
+        for (int i = 0; i < rows; i++) {
+            FsrsState scalar = fsrs.forget(new FsrsState(stability[i], difficulty[i]), elapsed[i]);
+            if (Double.doubleToRawLongBits(scalar.stability()) != Double.doubleToRawLongBits(outStability[i])
+                    || Double.doubleToRawLongBits(scalar.difficulty()) != Double.doubleToRawLongBits(outDifficulty[i])) {
+                throw new IllegalStateException("Batch forget diverged from scalar at row " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void reviewScalar(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            FsrsState next = fsrs.review(new FsrsState(stability[i], difficulty[i]), grades[i], elapsed[i]);
+            bh.consume(fsrs.intervalDays(next.stability(), DESIRED_RETENTION));
+            bh.consume(next.difficulty());
+        }
+    }
+
+    @Benchmark
+    public void reviewBatch(Blackhole bh) {
+        fsrs.review(stability, difficulty, elapsed, grades, outStability, outDifficulty, rows);
+        fsrs.intervalDays(outStability, DESIRED_RETENTION, days, rows);
+        bh.consume(days);
+        bh.consume(outDifficulty);
+    }
+
+    @Benchmark
+    public void forgetScalar(Blackhole bh) {
+        for (int i = 0; i < rows; i++) {
+            bh.consume(fsrs.forget(new FsrsState(stability[i], difficulty[i]), elapsed[i]));
+        }
+    }
+
+    @Benchmark
+    public void forgetBatch(Blackhole bh) {
+        fsrs.forget(stability, difficulty, elapsed, outStability, outDifficulty, rows);
+        bh.consume(outStability);
+        bh.consume(outDifficulty);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FsrsBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
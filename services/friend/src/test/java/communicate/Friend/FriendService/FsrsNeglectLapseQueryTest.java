@@ -0,0 +1,88 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.Group.GroupEntities.GroupKnowledge;
+
+import communicate.Friend.Config.RoleProperties;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The nightly lapse end to end against in-memory H2 (PostgreSQL mode): the
+ * indexed candidate query picks exactly the chronically overdue friends with
+ * FSRS state, and the batch UPDATE's raw column names land on the entity.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:neglectlapse;MODE=PostgreSQL")
+class FsrsNeglectLapseQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Friend.class, GroupKnowledge.class})
+    @EnableJpaRepositories(basePackageClasses = FriendRepository.class)
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired FriendRepository friendRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+
+    private Friend persist(String name, int daysOverdue, Double stability, boolean deleted) {
+        Friend friend = new Friend(name, today.minusDays(daysOverdue), "**", LocalDate.of(1990, 5, 5));
+        friend.setFsrsStability(stability);
+        friend.setFsrsDifficulty(stability != null ? 4.0 : null);
+        friend.setLastInteractionDate(today.minusDays(40));
+        friend.setMissedDueCount(0);
+        friend.setLeech(false);
+        friend.setPendingBanditArm(1.25);
+        if (deleted) friend.setDeletedAt(LocalDateTime.now());
+        return entityManager.persist(friend);
+    }
+
+    @Test
+    void onlyChronicallyOverdueActiveFriendsWithFsrsState_areLapsed() {
+        Friend chronic = persist("Chronic", 10, 10.0, false);
+        Friend inGrace = persist("In grace", 7, 10.0, false);      // > 7 triggers, not >=
+        Friend notDue = persist("Not due", -2, 10.0, false);
+        Friend neverReviewed = persist("Never reviewed", 30, null, false);
+        Friend binned = persist("Binned", 30, 10.0, true);
+        entityManager.flush();
+        entityManager.clear();
+
+        RoleProperties roleProperties = mock(RoleProperties.class);
+        when(roleProperties.getDesiredRetention(any())).thenReturn(0.9);
+        FsrsNeglectService service = new FsrsNeglectService(friendRepository, new FsrsService(), roleProperties,
+                new LeechService(), jdbcTemplate);
+
+        assertThat(service.applyNightlyLapse()).isEqualTo(1);
+
+        entityManager.clear();
+        Friend lapsed = entityManager.find(Friend.class, chronic.getId());
+        assertThat(lapsed.getFsrsStability()).isLessThan(10.0);
+        assertThat(lapsed.getPlannedSpeakingTime()).isAfter(today);
+        assertThat(lapsed.getLastInteractionDate()).isEqualTo(today);
+        assertThat(lapsed.getMissedDueCount()).isEqualTo(1);
+        assertThat(lapsed.getLeech()).isFalse();
+        assertThat(lapsed.getPendingBanditArm()).isEqualTo(1.25);
+        for (Friend untouched : new Friend[] {inGrace, notDue, neverReviewed, binned}) {
+            assertThat(entityManager.find(Friend.class, untouched.getId()).getLastInteractionDate())
+                    .isEqualTo(today.minusDays(40));
+        }
+    }
+}
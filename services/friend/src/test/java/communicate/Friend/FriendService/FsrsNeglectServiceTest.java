@@ -1,30 +1,38 @@
 package communicate.Friend.FriendService;
 
 import communicate.Friend.Config.RoleProperties;
-import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.DTOs.DayLoadDTO;
+import communicate.Friend.DTOs.LapseCandidateDTO;
 import communicate.Friend.FriendRepositories.FriendRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
  * Ported from OO's BankruptcyService test intent, minus the mass-bankruptcy
- * threshold pass (dropped — see FsrsNeglectService class doc). Covers: which
- * friends get lapsed, that pendingBanditArm/Bucket survive untouched (no
- * bandit reward for an exogenous lapse), and least-loaded-day spreading.
+ * threshold pass (dropped — see FsrsNeglectService class doc). Covers: the
+ * lapse written for each overdue candidate (leech miss included, bandit
+ * columns never touched), and least-loaded-day spreading. Which friends are
+ * candidates at all is the query's job — see FsrsNeglectLapseQueryTest.
  */
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -32,7 +40,7 @@ class FsrsNeglectServiceTest {
 
     @Mock FriendRepository friendRepository;
     @Mock RoleProperties roleProperties;
-    @Mock LeechService leechService;
+    @Mock JdbcTemplate jdbcTemplate;
 
     FsrsNeglectService service;
     // FsrsNeglectService calls LocalDate.now() internally (not clock-injectable),
@@ -43,82 +51,96 @@ class FsrsNeglectServiceTest {
     void setUp() {
         FsrsService fsrs = new FsrsService();
         when(roleProperties.getDesiredRetention(any())).thenReturn(0.9);
-        service = new FsrsNeglectService(friendRepository, fsrs, roleProperties, leechService);
+        // Every guarded UPDATE finds its row unless a test says otherwise.
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            int[] rows = new int[inv.<List<?>>getArgument(1).size()];
+            Arrays.fill(rows, 1);
+            return rows;
+        });
+        service = new FsrsNeglectService(friendRepository, fsrs, roleProperties, new LeechService(), jdbcTemplate);
     }
 
-    @Test
-    void notYetOverdue_isLeftAlone() {
-        Friend friend = Friend.builder().id(1).fsrsStability(5.0).fsrsDifficulty(3.0)
-            .plannedSpeakingTime(today.plusDays(2)).build();
-        when(friendRepository.findByDeletedAtIsNull()).thenReturn(List.of(friend));
-
-        int lapsed = service.applyNightlyLapse();
-
-        assertThat(lapsed).isEqualTo(0);
-        verify(friendRepository, never()).save(any());
-        verify(leechService, never()).recordMiss(any());
+    private LapseCandidateDTO overdue(int id, int daysOverdue, double stability, Integer missedDueCount) {
+        return new LapseCandidateDTO(id, stability, 4.0, today.minusDays(40),
+                today.minusDays(daysOverdue), "Casual", missedDueCount);
     }
 
-    @Test
-    void overdueWithinGracePeriod_isLeftAlone() {
-        // 7 days overdue is still within the grace window (> 7 triggers, not >=).
-        Friend friend = Friend.builder().id(1).fsrsStability(5.0).fsrsDifficulty(3.0)
-            .plannedSpeakingTime(today.minusDays(7)).build();
-        when(friendRepository.findByDeletedAtIsNull()).thenReturn(List.of(friend));
-
-        int lapsed = service.applyNightlyLapse();
-
-        assertThat(lapsed).isEqualTo(0);
+    @SuppressWarnings("unchecked")
+    private List<Object[]> writtenRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
     }
 
     @Test
-    void neverReviewed_hasNoFsrsState_isSkipped() {
-        Friend friend = Friend.builder().id(1).plannedSpeakingTime(today.minusDays(30)).build();
-        when(friendRepository.findByDeletedAtIsNull()).thenReturn(List.of(friend));
-
+    void candidatesAreOverdueByMoreThanTheGraceWindow_andNoneMeansNoWrite() {
         int lapsed = service.applyNightlyLapse();
 
         assertThat(lapsed).isEqualTo(0);
-        verify(friendRepository, never()).save(any());
+        // > 7 days overdue == planned before today - 7.
+        verify(friendRepository).findLapseCandidates(today.minusDays(7));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
     }
 
     @Test
     void chronicallyOverdue_getsLapsed_leechMissRecorded_banditStateUntouched() {
-        Friend friend = Friend.builder().id(1)
-            .fsrsStability(10.0).fsrsDifficulty(4.0)
-            .lastInteractionDate(today.minusDays(40))
-            .plannedSpeakingTime(today.minusDays(10)) // 10 days overdue > 7-day grace
-            .pendingBanditArm(1.25).pendingBanditBucket("dEasy:sShort")
-            .build();
-        when(friendRepository.findByDeletedAtIsNull()).thenReturn(List.of(friend));
+        when(friendRepository.findLapseCandidates(today.minusDays(7))).thenReturn(List.of(overdue(1, 10, 10.0, 2)));
 
         int lapsed = service.applyNightlyLapse();
 
+        List<Object[]> rows = writtenRows();
         assertThat(lapsed).isEqualTo(1);
-        assertThat(friend.getPlannedSpeakingTime()).isAfter(today); // rescheduled into the future
-        assertThat(friend.getLastInteractionDate()).isEqualTo(today);
+        assertThat(rows).hasSize(1);
+        Object[] row = rows.get(0);
         // forget() collapses stability below its prior value (lapse signature).
-        assertThat(friend.getFsrsStability()).isLessThan(10.0);
-        // Bandit's pending decision is exogenously voided, not rewarded -- left as-is.
-        assertThat(friend.getPendingBanditArm()).isEqualTo(1.25);
-        assertThat(friend.getPendingBanditBucket()).isEqualTo("dEasy:sShort");
-        verify(leechService).recordMiss(friend);
-        verify(friendRepository).save(friend);
+        assertThat((Double) row[0]).isLessThan(10.0);
+        assertThat(row[2]).isEqualTo(today);                       // lastInteractionDate anchor reset
+        assertThat((LocalDate) row[3]).isAfter(today);             // rescheduled into the future
+        assertThat(row[4]).isEqualTo(3);                           // third consecutive miss...
+        assertThat(row[5]).isEqualTo(true);                        // ...flags the leech
+        assertThat(row[6]).isEqualTo(1);
+        assertThat(row[7]).isEqualTo(today.minusDays(10));         // guarded on the date read
+        // Bandit's pending decision is exogenously voided, not rewarded -- never written.
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), anyList());
+        assertThat(sql.getValue()).doesNotContain("bandit");
+    }
+
+    @Test
+    void friendRescheduledMeanwhile_isNotCounted() {
+        when(friendRepository.findLapseCandidates(today.minusDays(7)))
+            .thenReturn(List.of(overdue(1, 10, 10.0, 0), overdue(2, 10, 10.0, 0)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1, 0});
+
+        assertThat(service.applyNightlyLapse()).isEqualTo(1);
     }
 
     @Test
     void multipleOverdueFriends_spreadAcrossDifferentDays() {
-        Friend a = Friend.builder().id(1).fsrsStability(30.0).fsrsDifficulty(4.0)
-            .plannedSpeakingTime(today.minusDays(10)).build();
-        Friend b = Friend.builder().id(2).fsrsStability(30.0).fsrsDifficulty(4.0)
-            .plannedSpeakingTime(today.minusDays(10)).build();
-        when(friendRepository.findByDeletedAtIsNull()).thenReturn(List.of(a, b));
+        when(friendRepository.findLapseCandidates(today.minusDays(7)))
+            .thenReturn(List.of(overdue(1, 10, 30.0, 0), overdue(2, 10, 30.0, 0)));
 
         int lapsed = service.applyNightlyLapse();
 
+        List<Object[]> rows = writtenRows();
         assertThat(lapsed).isEqualTo(2);
         // Same starting stability/difficulty -> same new interval window; the
         // least-loaded-day balancer should not stack both on the same date.
-        assertThat(a.getPlannedSpeakingTime()).isNotEqualTo(b.getPlannedSpeakingTime());
+        assertThat(rows.get(0)[3]).isNotEqualTo(rows.get(1)[3]);
+    }
+
+    @Test
+    void reschedule_balancesAgainstFriendsAlreadyPlanned_notJustTonightsLapses() {
+        when(friendRepository.findLapseCandidates(today.minusDays(7))).thenReturn(List.of(overdue(1, 10, 30.0, 0)));
+        // Every day in the schedulable horizon already has someone except tomorrow + 1.
+        List<DayLoadDTO> planned = new ArrayList<>();
+        for (int d = 1; d <= FsrsService.MAX_INTERVAL_DAYS; d++) {
+            if (d != 2) planned.add(new DayLoadDTO(today.plusDays(d), 1L));
+        }
+        when(friendRepository.countPlannedAfter(today)).thenReturn(planned);
+
+        service.applyNightlyLapse();
+
+        assertThat(writtenRows().get(0)[3]).isEqualTo(today.plusDays(2));
     }
 }
@@ -0,0 +1,124 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.Group.GroupEntities.GroupKnowledge;
+
+import communicate.Friend.Config.RoleProperties;
+import communicate.Friend.FriendEntities.Analytics;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The replay end to end against in-memory H2 (PostgreSQL mode): the history
+ * stream only carries active friends' rows up to today, the batch UPDATE's
+ * raw column names land on the entity while the cursor is still open, and a
+ * dry run leaves every row as it was.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:fsrsreplay;MODE=PostgreSQL")
+class FsrsReplayQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Friend.class, GroupKnowledge.class})
+    @EnableJpaRepositories(basePackageClasses = FriendRepository.class)
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired FriendRepository friendRepository;
+    @Autowired AnalyticsRepository analyticsRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final LocalDate today = LocalDate.now();
+    private final FsrsService fsrs = new FsrsService();
+
+    private FsrsReplayService service() {
+        GradeComputationService grades = mock(GradeComputationService.class);
+        when(grades.computeGrade(anyDouble(), any(), any())).thenReturn(FsrsService.GRADE_GOOD);
+        RoleProperties roles = mock(RoleProperties.class);
+        when(roles.getDesiredRetention(any())).thenReturn(0.9);
+        when(roles.getMaxIntervalDays(any())).thenReturn(365);
+        ExplanationService explanations = mock(ExplanationService.class);
+        when(explanations.explainTemplate(any(), any(), anyInt(), anyDouble(), any())).thenReturn("replayed");
+        return new FsrsReplayService(friendRepository, analyticsRepository, grades, fsrs,
+                new BanditService(null), roles, explanations, jdbcTemplate, mock(ApplicationEventPublisher.class), 2);
+    }
+
+    private Friend persist(String name, boolean deleted, int... daysAgo) {
+        Friend friend = new Friend(name, today.plusDays(30), "**", LocalDate.of(1990, 5, 5));
+        friend.setFsrsStability(50.0);
+        friend.setFsrsDifficulty(3.0);
+        friend.setLastInteractionDate(today.minusDays(90));
+        friend.setPendingBanditArm(2.0);
+        if (deleted) friend.setDeletedAt(LocalDateTime.now());
+        friend.setAnalytics(Arrays.stream(daysAgo).mapToObj(d ->
+                Analytics.builder().friend(friend).date(today.minusDays(d)).experience("**").hours(1.0).build())
+                .toList());
+        return entityManager.persist(friend);
+    }
+
+    @Test
+    void replay_rewritesActiveFriendsFromTheirHistory_andSkipsTheBinAndFutureRows() {
+        Friend ann = persist("Ann", false, 40, 10, -5); // the future row isn't history yet
+        Friend binned = persist("Binned", true, 20);
+        Friend silent = persist("Silent", false);
+        entityManager.flush();
+        entityManager.clear();
+
+        FsrsReplayService.ReplayReport report = service().replay(false);
+
+        assertThat(report.replayed()).isEqualTo(1);
+        FsrsService.FsrsState expected = fsrs.review(fsrs.initialState(FsrsService.GRADE_GOOD), FsrsService.GRADE_GOOD, 30);
+        entityManager.clear();
+        Friend replayed = entityManager.find(Friend.class, ann.getId());
+        assertThat(replayed.getFsrsStability()).isEqualTo(expected.stability());
+        assertThat(replayed.getFsrsDifficulty()).isEqualTo(expected.difficulty());
+        assertThat(replayed.getLastInteractionDate()).isEqualTo(today.minusDays(10));
+        assertThat(replayed.getPlannedSpeakingTime())
+                .isEqualTo(today.minusDays(10).plusDays(fsrs.intervalDays(expected.stability(), 0.9)));
+        assertThat(replayed.getPendingBanditArm()).isEqualTo(1.0);
+        assertThat(replayed.getSchedulingExplanation()).isEqualTo("replayed");
+        assertThat(replayed.getSchedulingExplanationPending()).isTrue();
+        for (Friend untouched : List.of(binned, silent)) {
+            assertThat(entityManager.find(Friend.class, untouched.getId()).getFsrsStability()).isEqualTo(50.0);
+        }
+    }
+
+    @Test
+    void dryRun_reportsTheDiff_andLeavesTheRowAlone() {
+        Friend ann = persist("Ann", false, 40, 10);
+        entityManager.flush();
+        entityManager.clear();
+
+        FsrsReplayService.ReplayReport report = service().replay(true);
+
+        assertThat(report.diffs()).singleElement().satisfies(diff -> {
+            assertThat(diff.friendId()).isEqualTo(ann.getId());
+            assertThat(diff.oldStability()).isEqualTo(50.0);
+            assertThat(diff.oldPlannedSpeakingTime()).isEqualTo(today.plusDays(30));
+        });
+        entityManager.clear();
+        assertThat(entityManager.find(Friend.class, ann.getId()).getFsrsStability()).isEqualTo(50.0);
+    }
+}
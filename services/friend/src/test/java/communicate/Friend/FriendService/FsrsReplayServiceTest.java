@@ -0,0 +1,207 @@
+package communicate.Friend.FriendService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import communicate.Friend.Config.RoleProperties;
+import communicate.Friend.DTOs.AnalyticsPointDTO;
+import communicate.Friend.DTOs.ReplayFriendDTO;
+import communicate.Friend.FriendRepositories.AnalyticsRepository;
+import communicate.Friend.FriendRepositories.FriendRepository;
+
+import static communicate.Friend.FriendService.FsrsService.GRADE_EASY;
+import static communicate.Friend.FriendService.FsrsService.GRADE_GOOD;
+import static communicate.Friend.FriendService.FsrsService.GRADE_HARD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The replay must land every friend exactly where ReviewService's chain
+ * would have, interaction by interaction, however the friends are split
+ * across chunks and pool threads — and a dry run must report the same
+ * diff without writing or publishing anything.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FsrsReplayServiceTest {
+
+    @Mock FriendRepository friendRepository;
+    @Mock AnalyticsRepository analyticsRepository;
+    @Mock GradeComputationService gradeComputation;
+    @Mock BanditService bandit;
+    @Mock RoleProperties roleProperties;
+    @Mock ExplanationService explanationService;
+    @Mock JdbcTemplate jdbcTemplate;
+    @Mock ApplicationEventPublisher eventPublisher;
+
+    private final FsrsService fsrs = new FsrsService();
+    private final LocalDate today = LocalDate.now();
+    private final List<ReplayFriendDTO> friends = new ArrayList<>();
+    private final List<AnalyticsPointDTO> points = new ArrayList<>();
+    private FsrsReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        when(gradeComputation.computeGrade(anyDouble(), any(), any())).thenAnswer(inv -> switch ((String) inv.getArgument(1)) {
+            case "*" -> GRADE_HARD;
+            case "***" -> GRADE_EASY;
+            default -> GRADE_GOOD;
+        });
+        when(bandit.bucket(anyDouble(), anyDouble())).thenReturn("dEasy:sShort");
+        when(roleProperties.getDesiredRetention(any())).thenReturn(0.9);
+        when(roleProperties.getMaxIntervalDays(any())).thenReturn(Integer.MAX_VALUE);
+        when(explanationService.explainTemplate(any(), any(), anyInt(), anyDouble(), any())).thenReturn("template");
+        when(friendRepository.findReplayFriends()).thenReturn(friends);
+        when(analyticsRepository.streamReplayPoints(today)).thenAnswer(inv -> points.stream());
+        service = service(2);
+    }
+
+    private FsrsReplayService service(int parallelism) {
+        return new FsrsReplayService(friendRepository, analyticsRepository, gradeComputation, fsrs, bandit,
+                roleProperties, explanationService, jdbcTemplate, eventPublisher, parallelism);
+    }
+
+    private void friend(int id, String role, Double stability, Double difficulty, LocalDate last, LocalDate planned) {
+        friends.add(new ReplayFriendDTO(id, "Friend " + id, role, stability, difficulty, last, planned));
+    }
+
+    private void point(int friendId, int daysAgo, String experience) {
+        points.add(new AnalyticsPointDTO(friendId, today.minusDays(daysAgo), 1.0, experience, null));
+    }
+
+    /** ReviewService's chain, sequentially, for a history of (daysAgo, grade) pairs. */
+    private Object[] expectedRow(int friendId, int maxIntervalDays, int[] daysAgo, int[] grades) {
+        FsrsService.FsrsState state = fsrs.initialState(grades[0]);
+        for (int i = 1; i < grades.length; i++) {
+            state = fsrs.review(state, grades[i], daysAgo[i - 1] - daysAgo[i]);
+        }
+        LocalDate last = today.minusDays(daysAgo[daysAgo.length - 1]);
+        long days = Math.min(Math.max(1, fsrs.intervalDays(state.stability(), 0.9)), maxIntervalDays);
+        return new Object[] {state.stability(), state.difficulty(), last, last.plusDays(days),
+                1.0, "dEasy:sShort", "template", friendId};
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> writtenRows(int batches) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(batches)).batchUpdate(anyString(), captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    @Test
+    void replaysReviewServicesChain_andWritesTheChangedFriendsInOneBatch() {
+        friend(1, "Casual", 3.0, 5.0, today.minusDays(100), today.minusDays(60));
+        friend(2, "Casual", null, null, null, null);
+        point(1, 60, "**");
+        point(1, 50, "***");
+        point(1, 10, "*");
+        point(2, 5, "***");
+
+        FsrsReplayService.ReplayReport report = service.replay(false);
+
+        Object[] first = expectedRow(1, Integer.MAX_VALUE, new int[] {60, 50, 10}, new int[] {GRADE_GOOD, GRADE_EASY, GRADE_HARD});
+        Object[] second = expectedRow(2, Integer.MAX_VALUE, new int[] {5}, new int[] {GRADE_EASY});
+        assertThat(report.replayed()).isEqualTo(2);
+        assertThat(report.changed()).isEqualTo(2);
+        assertThat(writtenRows(1)).containsExactly(first, second);
+        verify(eventPublisher).publishEvent(new FriendRescheduledEvent(1, (LocalDate) first[3]));
+        verify(eventPublisher).publishEvent(new FriendRescheduledEvent(2, (LocalDate) second[3]));
+    }
+
+    @Test
+    void rolesMaxInterval_capsTheReplayedDueDate() {
+        when(roleProperties.getMaxIntervalDays("Acquaintance")).thenReturn(3);
+        friend(1, "Acquaintance", null, null, null, null);
+        point(1, 40, "***");
+        point(1, 20, "***");
+
+        service.replay(false);
+
+        assertThat(writtenRows(1)).singleElement()
+                .satisfies(row -> assertThat(row[3]).isEqualTo(today.minusDays(20).plusDays(3)));
+    }
+
+    @Test
+    void dryRun_reportsOnlyFriendsThatWouldChange_andWritesNothing() {
+        Object[] settled = expectedRow(1, Integer.MAX_VALUE, new int[] {30, 2}, new int[] {GRADE_GOOD, GRADE_GOOD});
+        friend(1, "Casual", (Double) settled[0], (Double) settled[1], (LocalDate) settled[2], (LocalDate) settled[3]);
+        friend(2, "Casual", 9.0, 2.0, today.minusDays(3), today.plusDays(9));
+        friend(3, "Casual", null, null, null, today); // no analytics: nothing to replay
+        point(1, 30, "**");
+        point(1, 2, "**");
+        point(2, 3, "*");
+
+        FsrsReplayService.ReplayReport report = service.replay(true);
+
+        assertThat(report.dryRun()).isTrue();
+        assertThat(report.replayed()).isEqualTo(2);
+        assertThat(report.diffs()).singleElement().satisfies(diff -> {
+            assertThat(diff.friendId()).isEqualTo(2);
+            assertThat(diff.oldStability()).isEqualTo(9.0);
+            assertThat(diff.newStability()).isEqualTo(fsrs.initialState(GRADE_HARD).stability());
+            assertThat(diff.oldPlannedSpeakingTime()).isEqualTo(today.plusDays(9));
+        });
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void manyFriendsAcrossChunksAndThreads_matchTheSequentialChain() {
+        service = service(4);
+        int count = 2 * FsrsReplayService.CHUNK_FRIENDS + 100;
+        String[] ratings = {"*", "**", "***"};
+        int[] ratingGrades = {GRADE_HARD, GRADE_GOOD, GRADE_EASY};
+        List<Object[]> expected = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            friend(id, "Casual", null, null, null, null);
+            int length = 1 + id % 7;
+            int[] daysAgo = new int[length];
+            int[] grades = new int[length];
+            for (int i = 0; i < length; i++) {
+                daysAgo[i] = 400 - i * (3 + id % 11);
+                grades[i] = ratingGrades[(id + i) % 3];
+                point(id, daysAgo[i], ratings[(id + i) % 3]);
+            }
+            expected.add(expectedRow(id, Integer.MAX_VALUE, daysAgo, grades));
+        }
+
+        FsrsReplayService.ReplayReport report = service.replay(false);
+
+        assertThat(report.replayed()).isEqualTo(count);
+        assertThat(writtenRows(3)).containsExactlyElementsOf(expected);
+        verify(eventPublisher, times(count)).publishEvent(any(FriendRescheduledEvent.class));
+    }
+
+    @Test
+    void aFailedReplay_propagates_soTheRunRollsBack() {
+        when(explanationService.explainTemplate(any(), any(), anyInt(), anyDouble(), any()))
+                .thenThrow(new IllegalStateException("boom"));
+        friend(1, "Casual", null, null, null, null);
+        point(1, 3, "**");
+
+        assertThatThrownBy(() -> service.replay(false)).hasMessageContaining("boom");
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
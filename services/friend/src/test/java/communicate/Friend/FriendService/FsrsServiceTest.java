@@ -4,6 +4,8 @@ import communicate.Friend.FriendService.FsrsService.FsrsState;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.SplittableRandom;
+
 import static communicate.Friend.FriendService.FsrsService.GRADE_EASY;
 import static communicate.Friend.FriendService.FsrsService.GRADE_GOOD;
 import static communicate.Friend.FriendService.FsrsService.GRADE_HARD;
@@ -198,4 +200,117 @@ class FsrsServiceTest {
         int strict = fsrs.intervalDays(s.stability(), 0.97);
         assertThat(strict).isLessThan(loose);
     }
+
+    // ── Struct-of-arrays batch path ───────────────────────────────────────────
+
+    /**
+     * Every py-fsrs case above as one batch row: input state, grade, elapsed
+     * days, then the reference review stability/difficulty, interval, and
+     * Rating.Again (forget) stability/difficulty for the same input. The
+     * expectations are fixed numbers, not the scalar path's output, so a
+     * regression in the shared kernels fails here too. NaN = no reference
+     * value pinned for that column.
+     */
+    private double[][] pyFsrsBatchCases() {
+        FsrsState good = fsrs.initialState(GRADE_GOOD), easy = fsrs.initialState(GRADE_EASY),
+            hard = fsrs.initialState(GRADE_HARD), good3 = fsrs.review(good, GRADE_GOOD, 3);
+        double none = Double.NaN;
+        return new double[][] {
+            {good.stability(), good.difficulty(), GRADE_GOOD, 3, 13.826904, 2.111214, 14, 0.636851, 7.394503},
+            {good.stability(), good.difficulty(), GRADE_EASY, 3, 23.883064, 1.0, 24, 0.636851, 7.394503},
+            {good.stability(), good.difficulty(), GRADE_HARD, 3, 9.234871, 4.752858, 9, 0.636851, 7.394503},
+            {good.stability(), good.difficulty(), GRADE_GOOD, 10, 25.108720, none, 25, 0.759160, 7.394503},
+            {good.stability(), good.difficulty(), GRADE_GOOD, 1, 7.315301, none, 7, none, none},
+            {easy.stability(), easy.difficulty(), GRADE_GOOD, 15, 54.860918, none, 55, 1.502927, 7.026990},
+            {hard.stability(), hard.difficulty(), GRADE_HARD, 2, 4.469455, 6.740460, 4, 0.407175, 8.378632},
+            {good3.stability(), good3.difficulty(), GRADE_GOOD, 7, 39.174976, 2.104331, 39, 1.614598, 7.392238},
+            {good.stability(), good.difficulty(), GRADE_GOOD, 0, 2.306500, none, 2, none, none},
+        };
+    }
+
+    @Test
+    void batch_matchesThePyFsrsReferenceValues() {
+        double[][] cases = pyFsrsBatchCases();
+        int n = cases.length;
+        double[] s = new double[n], d = new double[n], t = new double[n];
+        int[] g = new int[n];
+        for (int i = 0; i < n; i++) {
+            s[i] = cases[i][0];
+            d[i] = cases[i][1];
+            g[i] = (int) cases[i][2];
+            t[i] = cases[i][3];
+        }
+
+        double[] rs = new double[n], rd = new double[n], fs = new double[n], fd = new double[n];
+        int[] days = new int[n];
+        fsrs.review(s, d, t, g, rs, rd, n);
+        fsrs.forget(s, d, t, fs, fd, n);
+        fsrs.intervalDays(rs, DR, days, n);
+
+        for (int i = 0; i < n; i++) {
+            double[] c = cases[i];
+            assertThat(rs[i]).as("review stability %d", i).isCloseTo(c[4], within(TOL));
+            if (!Double.isNaN(c[5])) assertThat(rd[i]).as("review difficulty %d", i).isCloseTo(c[5], within(TOL));
+            assertThat(days[i]).as("interval %d", i).isEqualTo((int) c[6]);
+            if (!Double.isNaN(c[7])) assertThat(fs[i]).as("forget stability %d", i).isCloseTo(c[7], within(TOL));
+            if (!Double.isNaN(c[8])) assertThat(fd[i]).as("forget difficulty %d", i).isCloseTo(c[8], within(TOL));
+        }
+    }
+
+    @Test
+    void batchRetrievability_isNinetyPercentAtStabilityDays_andOneOnTheSameDay() {
+        double[] r = new double[3];
+        fsrs.retrievability(new double[]{10, 42, 0}, new double[]{10, 42, 5}, r, 3);
+        assertThat(r).containsExactly(new double[]{0.9, 0.9, 1.0}, within(1e-9));
+    }
+
+    @Test
+    void batch_staysInRange_onRandomRows() {
+        SplittableRandom random = new SplittableRandom(17);
+        int n = 5000;
+        double[] s = new double[n], d = new double[n], t = new double[n];
+        int[] g = new int[n];
+        for (int i = 0; i < n; i++) {
+            s[i] = Math.exp(random.nextDouble(-7, 10));
+            d[i] = random.nextDouble(1, 10);
+            g[i] = random.nextInt(GRADE_HARD, GRADE_EASY + 1);
+            t[i] = random.nextDouble(-1, 400);
+        }
+
+        double[] rs = new double[n], rd = new double[n], fs = new double[n], fd = new double[n], r = new double[n];
+        int[] days = new int[n];
+        fsrs.review(s, d, t, g, rs, rd, n);
+        fsrs.forget(s, d, t, fs, fd, n);
+        fsrs.retrievability(t, s, r, n);
+        fsrs.intervalDays(rs, DR, days, n);
+
+        for (int i = 0; i < n; i++) {
+            assertThat(rs[i]).as("review stability %d", i).isPositive().isFinite();
+            assertThat(rd[i]).as("review difficulty %d", i).isBetween(1.0, 10.0);
+            assertThat(fs[i]).as("forget stability %d", i).isPositive().isFinite();
+            assertThat(fd[i]).as("forget difficulty %d", i).isBetween(1.0, 10.0);
+            assertThat(days[i]).as("interval %d", i).isGreaterThanOrEqualTo(1);
+            assertThat(r[i]).as("retrievability %d", i).isBetween(0.0, 1.0 + 1e-12);
+        }
+    }
+
+    @Test
+    void batch_canUpdateInPlace() {
+        FsrsState good = fsrs.initialState(GRADE_GOOD);
+        double[] s = {good.stability()}, d = {good.difficulty()};
+
+        fsrs.review(s, d, new double[]{3}, new int[]{GRADE_GOOD}, s, d, 1);
+
+        assertThat(s[0]).isCloseTo(13.826904, within(TOL));
+        assertThat(d[0]).isCloseTo(2.111214, within(TOL));
+    }
+
+    @Test
+    void batch_rejectsAnAgainGrade_beforeWritingAnything() {
+        double[] out = {-1, -1};
+        assertThatThrownBy(() -> fsrs.review(new double[]{2, 2}, new double[]{5, 5}, new double[]{1, 1},
+                new int[]{GRADE_GOOD, 1}, out, out, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(out).containsExactly(-1, -1);
+    }
 }
@@ -1,5 +1,6 @@
 package communicate.Friend.FriendService;
 
+import communicate.Friend.DTOs.DurationCountDTO;
 import communicate.Friend.FriendRepositories.AnalyticsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static communicate.Friend.FriendService.FsrsService.GRADE_EASY;
 import static communicate.Friend.FriendService.FsrsService.GRADE_GOOD;
 import static communicate.Friend.FriendService.FsrsService.GRADE_HARD;
@@ -16,8 +19,9 @@ import static org.mockito.Mockito.lenient;
 /**
  * The design doc's "State Translation Design" — collapsing duration,
  * intensity (experience), and proximity into one FSRS grade. Duration's
- * minmax bounds come from AnalyticsRepository (mocked here); intensity's
- * bounds are the fixed 1.0-3.0 star scale.
+ * minmax bounds come from DurationStatsService, seeded here from a mocked
+ * AnalyticsRepository histogram; intensity's bounds are the fixed 1.0-3.0
+ * star scale.
  */
 @ExtendWith(MockitoExtension.class)
 class GradeComputationServiceTest {
@@ -30,9 +34,13 @@ class GradeComputationServiceTest {
     @BeforeEach
     void setUp() {
         // Duration range observed across all logged interactions: 0-4 hours.
-        lenient().when(analyticsRepository.findMinHours()).thenReturn(0.0);
-        lenient().when(analyticsRepository.findMaxHours()).thenReturn(4.0);
-        service = new GradeComputationService(analyticsRepository, emaMath);
+        lenient().when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(0.0, 1L), new DurationCountDTO(4.0, 1L)));
+        service = new GradeComputationService(minmaxStats(), emaMath);
+    }
+
+    private DurationStatsService minmaxStats() {
+        return new DurationStatsService(analyticsRepository, "minmax", 0.05, 0.95);
     }
 
     @Test
@@ -78,9 +86,8 @@ class GradeComputationServiceTest {
 
     @Test
     void noHistoryYet_fallsBackToNeutralNormalization() {
-        lenient().when(analyticsRepository.findMinHours()).thenReturn(null);
-        lenient().when(analyticsRepository.findMaxHours()).thenReturn(null);
-        GradeComputationService noHistoryService = new GradeComputationService(analyticsRepository, emaMath);
+        lenient().when(analyticsRepository.findHoursHistogram()).thenReturn(List.of());
+        GradeComputationService noHistoryService = new GradeComputationService(minmaxStats(), emaMath);
 
         // duration_norm defaults to 0.5 (degenerate range), intensity_norm for "**" = 0.5
         // base = 0.5, x1.0 remote = 0.5 -> Good
@@ -90,9 +97,9 @@ class GradeComputationServiceTest {
 
     @Test
     void degenerateRange_singleDistinctValue_fallsBackToNeutral() {
-        lenient().when(analyticsRepository.findMinHours()).thenReturn(2.0);
-        lenient().when(analyticsRepository.findMaxHours()).thenReturn(2.0); // max <= min
-        GradeComputationService degenerateService = new GradeComputationService(analyticsRepository, emaMath);
+        lenient().when(analyticsRepository.findHoursHistogram()).thenReturn(List.of(
+            new DurationCountDTO(2.0, 3L))); // max <= min
+        GradeComputationService degenerateService = new GradeComputationService(minmaxStats(), emaMath);
 
         int grade = degenerateService.computeGrade(2.0, "**", false);
         assertThat(grade).isEqualTo(GRADE_GOOD); // 0.5 duration_norm x 0.5 intensity_norm avg = 0.5
@@ -0,0 +1,181 @@
+package communicate.Friend.FriendService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import communicate.Friend.Config.HostWrapperProperties;
+import communicate.Friend.FriendService.HostWrapperClient.CircuitState;
+import communicate.Friend.FriendService.HostWrapperClient.LatencyBucket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Breaker, bulkhead, single-flight and the latency histogram against a real
+ * HTTP round trip to HostWrapperStub. Breaker timing runs on a settable
+ * clock; the slow/concurrent cases use real time with generous margins.
+ */
+class HostWrapperClientTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private HostWrapperStub stub;
+    private HostWrapperProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new HostWrapperStub();
+        properties = stub.properties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+        stub.close();
+    }
+
+    private HostWrapperClient client() {
+        return new HostWrapperClient(WebClient.builder().build(), properties, clock::get);
+    }
+
+    private HostWrapperClient realTimeClient() {
+        return new HostWrapperClient(WebClient.builder().build(), properties);
+    }
+
+    private static long total(List<LatencyBucket> histogram) {
+        return histogram.stream().mapToLong(LatencyBucket::count).sum();
+    }
+
+    @Test
+    void reply_isReturnedTrimmed_andLandsInTheSuccessHistogram() {
+        stub.reply("  Hello there.  ");
+        HostWrapperClient client = client();
+
+        assertThat(client.complete("system", "prompt")).contains("Hello there.");
+        assertThat(stub.requests()).singleElement()
+            .satisfies(body -> assertThat(body).containsEntry("system", "system").containsEntry("prompt", "prompt"));
+        HostWrapperClient.HostWrapperStats stats = client.stats();
+        assertThat(stats.succeeded()).isEqualTo(1);
+        assertThat(stats.successLatencyMillis().get(0)).isEqualTo(new LatencyBucket("50", 1)); // fake clock: 0 ms
+        assertThat(stats.successLatencyMillis()).last().extracting(LatencyBucket::le).isEqualTo("+Inf");
+    }
+
+    @Test
+    void consecutiveFailures_openTheCircuit_andLaterCallsFailFast() {
+        properties.setFailureThreshold(3);
+        stub.outage(true);
+        HostWrapperClient client = client();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(client.complete("s", "p" + i)).isEmpty();
+        }
+        assertThat(client.complete("s", "p3")).isEmpty();
+
+        assertThat(stub.requestCount()).isEqualTo(3);
+        assertThat(client.stats().circuit()).isEqualTo(CircuitState.OPEN);
+        assertThat(client.stats().shortCircuited()).isEqualTo(1);
+        assertThat(total(client.stats().failureLatencyMillis())).isEqualTo(3);
+    }
+
+    @Test
+    void afterTheOpenDuration_oneProbeGoesThrough_andASuccessClosesTheCircuit() {
+        properties.setFailureThreshold(1);
+        stub.outage(true);
+        HostWrapperClient client = client();
+        client.complete("s", "down");
+
+        clock.addAndGet(properties.getOpenDuration().toNanos() - 1);
+        assertThat(client.complete("s", "still open")).isEmpty();
+        stub.outage(false).reply("back");
+        clock.addAndGet(1);
+
+        assertThat(client.complete("s", "probe")).contains("back");
+        assertThat(client.stats().circuit()).isEqualTo(CircuitState.CLOSED);
+        assertThat(client.complete("s", "normal")).contains("normal");
+        assertThat(stub.requestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void aFailedProbe_reopensForAnotherFullOpenDuration() {
+        properties.setFailureThreshold(1);
+        stub.outage(true);
+        HostWrapperClient client = client();
+        client.complete("s", "down");
+        clock.addAndGet(properties.getOpenDuration().toNanos());
+
+        assertThat(client.complete("s", "probe")).isEmpty();
+        clock.addAndGet(properties.getOpenDuration().toNanos() - 1);
+        assertThat(client.complete("s", "too soon")).isEmpty();
+
+        assertThat(stub.requestCount()).isEqualTo(2);
+        assertThat(client.stats().circuit()).isEqualTo(CircuitState.OPEN);
+    }
+
+    @Test
+    void slowHostWrapper_timesOut_andCountsAsAFailure() {
+        properties.setTimeout(Duration.ofMillis(200));
+        stub.delay(Duration.ofSeconds(1));
+        HostWrapperClient client = realTimeClient();
+
+        long start = System.nanoTime();
+        Optional<String> result = client.complete("s", "slow");
+
+        assertThat(result).isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(900));
+        assertThat(client.stats().failed()).isEqualTo(1);
+        assertThat(total(client.stats().failureLatencyMillis())).isEqualTo(1);
+    }
+
+    @Test
+    void fullBulkhead_rejectsInsteadOfQueueingBehindTheSlowCall() throws Exception {
+        properties.setMaxConcurrent(1);
+        properties.setBulkheadWait(Duration.ZERO);
+        stub.delay(Duration.ofMillis(500));
+        HostWrapperClient client = realTimeClient();
+
+        Future<Optional<String>> slow = threads.submit(() -> client.complete("s", "first"));
+        while (stub.requestCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThat(client.complete("s", "second")).isEmpty();
+        assertThat(client.stats().rejected()).isEqualTo(1);
+        assertThat(slow.get(5, TimeUnit.SECONDS)).contains("first");
+        assertThat(stub.requestCount()).isEqualTo(1);
+        assertThat(client.stats().circuit()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void identicalPromptsInFlight_shareOneRequest() throws Exception {
+        stub.delay(Duration.ofMillis(300)).reply("shared");
+        HostWrapperClient client = realTimeClient();
+        CountDownLatch go = new CountDownLatch(1);
+
+        List<Future<Optional<String>>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(threads.submit(() -> {
+                go.await();
+                return client.complete("s", "same prompt");
+            }));
+        }
+        go.countDown();
+
+        for (Future<Optional<String>> caller : callers) {
+            assertThat(caller.get(5, TimeUnit.SECONDS)).contains("shared");
+        }
+        assertThat(stub.requestCount()).isEqualTo(1);
+        assertThat(client.stats().coalesced()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,105 @@
+package communicate.Friend.FriendService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import communicate.Friend.Config.HostWrapperProperties;
+
+/**
+ * Embedded stand-in for host-wrapper's POST /complete on an ephemeral local
+ * port (JDK HttpServer, no extra test dependency). Replies with the queued
+ * texts in order (then echoes the prompt), and can be made slow or down:
+ * {@link #delay} holds every reply, {@link #outage} answers 503 until
+ * lifted. Every request body that arrived is kept for assertions.
+ */
+final class HostWrapperStub implements AutoCloseable {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final Deque<String> replies = new ArrayDeque<>();
+    private final List<Map<String, Object>> requests = new CopyOnWriteArrayList<>();
+    private volatile Duration delay = Duration.ZERO;
+    private volatile boolean outage;
+
+    HostWrapperStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/complete", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Client settings pointed at this stub: short timeout, otherwise the defaults. */
+    HostWrapperProperties properties() {
+        HostWrapperProperties properties = new HostWrapperProperties();
+        properties.setUrl(url());
+        properties.setTimeout(Duration.ofSeconds(2));
+        return properties;
+    }
+
+    synchronized HostWrapperStub reply(String text) {
+        replies.add(text);
+        return this;
+    }
+
+    HostWrapperStub delay(Duration delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    HostWrapperStub outage(boolean outage) {
+        this.outage = outage;
+        return this;
+    }
+
+    int requestCount() {
+        return requests.size();
+    }
+
+    List<Map<String, Object>> requests() {
+        return requests;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> body = mapper.readValue(exchange.getRequestBody(), Map.class);
+            requests.add(body);
+            Thread.sleep(delay.toMillis());
+            if (outage) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            String text;
+            synchronized (this) {
+                text = replies.isEmpty() ? String.valueOf(body.get("prompt")) : replies.poll();
+            }
+            byte[] json = mapper.writeValueAsString(Map.of("text", text)).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -21,6 +21,7 @@ import jakarta.persistence.EntityNotFoundException;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -199,10 +200,17 @@ class OutboxWriteServiceTest {
         when(friendService.getFriendById(1)).thenReturn(starredFriend);
         FriendKnowledge fact = new FriendKnowledge();
         fact.setText("likes chess");
+        when(knowledgeService.saveAll(anyList())).thenAnswer(inv -> {
+            List<FriendKnowledge> saved = inv.getArgument(0);
+            saved.forEach(k -> k.setId(42));
+            return saved;
+        });
 
         service().applyAddKnowledge(1, List.of(fact), requestId);
 
-        verify(flashcardEnrollmentService).enrollFriend(1);
+        // Fast path: just the fact this call saved, not a whole-deck re-sync.
+        verify(flashcardEnrollmentService).enrollNewKnowledge(1, List.of(42));
+        verify(flashcardEnrollmentService, never()).enrollFriend(any());
     }
 
     @Test
@@ -0,0 +1,168 @@
+package communicate.Friend.FriendService;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import communicate.Friend.Config.RoleProperties;
+import communicate.Friend.FriendEntities.Friend;
+import communicate.Friend.FriendRepositories.BanditArmRepository;
+
+/**
+ * Completing a group meeting the old way (reviewInteraction + its bandit
+ * write + a friend save, per attendee) vs the batch path GroupMeetingService
+ * now takes (reviewInteractions: bandit rewards folded per cell, one FSRS
+ * batch call, then one JDBC-batched friend flush). Every database call is
+ * a simulated round trip — the bandit repository is a proxy that parks for
+ * {@code roundTripMicros} per call (bucket load, UPDATE or seed), and a
+ * friend save (or the one batched flush) parks the same — so the numbers
+ * show where the request time goes at realistic attendee counts, not raw CPU.
+ *
+ * What to expect: the per-attendee loop costs two round trips per attendee.
+ * The batch path costs one friend flush plus one UPDATE per distinct
+ * (bucket, arm) cell the attendees' rewards land on — O(distinct cells),
+ * capped at 4 buckets x 5 arms = 20, not flat. It only looks flat once the
+ * attendee count is well past the number of cells actually hit. Buckets are
+ * loaded once per trial, so loads only show up in warmup.
+ *
+ * Not part of the surefire run. From the repo root:
+ *   mvn -q -pl services/friend -am test-compile dependency:build-classpath -Dmdep.outputFile=/tmp/cp.txt
+ *   java -cp "services/friend/target/test-classes:services/friend/target/classes:$(cat /tmp/cp.txt)" \
+ *        org.openjdk.jmh.Main ReviewBatchBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReviewBatchBenchmark {
+
+    private static final String[] RATINGS = {"*", "**", "***"};
+
+    @Param({"1", "5", "10", "20"})
+    int attendees;
+
+    @Param({"200"})
+    long roundTripMicros;
+
+    private final LocalDate today = LocalDate.now();
+    private ReviewService service;
+    private List<Friend> friends;
+    private List<String> experiences;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FsrsService fsrs = new FsrsService();
+        BanditService bandit = new BanditService(simulatedBanditRepository());
+        GradeComputationService grades = new GradeComputationService(null, null) {
+            @Override
+            public int computeGrade(double durationHours, String experience, Boolean inPerson) {
+                return FsrsService.GRADE_HARD + experience.length() - 1;
+            }
+        };
+        RoleProperties roles = new RoleProperties(null) {
+            @Override
+            public double getDesiredRetention(String friendRole) {
+                return 0.9;
+            }
+
+            @Override
+            public int getMaxIntervalDays(String friendRole) {
+                return 365;
+            }
+        };
+        service = new ReviewService(fsrs, bandit, grades, roles, new ExplanationService(null, null), new LeechService());
+    }
+
+    // A fresh set of attendees per call: both paths mutate the friends they review.
+    @Setup(Level.Invocation)
+    public void seedAttendees() {
+        SplittableRandom random = new SplittableRandom(42);
+        friends = new ArrayList<>(attendees);
+        experiences = new ArrayList<>(attendees);
+        for (int i = 0; i < attendees; i++) {
+            int sinceLast = random.nextInt(2, 60);
+            friends.add(Friend.builder().id(i).name("Friend " + i)
+                    .fsrsStability(Math.exp(random.nextDouble(0, 5)))
+                    .fsrsDifficulty(random.nextDouble(1, 10))
+                    .lastInteractionDate(today.minusDays(sinceLast))
+                    .plannedSpeakingTime(today.minusDays(sinceLast).plusDays(random.nextInt(1, 2 * sinceLast)))
+                    .pendingBanditArm(BanditService.ARMS[random.nextInt(BanditService.ARMS.length)])
+                    .pendingBanditBucket(BanditService.BUCKETS[random.nextInt(BanditService.BUCKETS.length)])
+                    .build());
+            experiences.add(RATINGS[random.nextInt(RATINGS.length)]);
+        }
+    }
+
+    @Benchmark
+    public void perAttendee(Blackhole bh) {
+        for (int i = 0; i < attendees; i++) {
+            Friend friend = friends.get(i);
+            friend.setPlannedSpeakingTime(service.reviewInteraction(friend, 1.5, experiences.get(i), true, today));
+            roundTrip(); // friendService.save(friend)
+            bh.consume(friend);
+        }
+    }
+
+    @Benchmark
+    public void batch(Blackhole bh) {
+        List<ReviewService.Interaction> interactions = new ArrayList<>(attendees);
+        for (int i = 0; i < attendees; i++) {
+            interactions.add(new ReviewService.Interaction(friends.get(i), 1.5, experiences.get(i), true, today));
+        }
+        List<LocalDate> due = service.reviewInteractions(interactions);
+        for (int i = 0; i < attendees; i++) {
+            friends.get(i).setPlannedSpeakingTime(due.get(i));
+        }
+        roundTrip(); // friendService.saveAll(friends), one JDBC batch
+        bh.consume(friends);
+    }
+
+    private BanditArmRepository simulatedBanditRepository() {
+        return (BanditArmRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {BanditArmRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByIdContextBucket" -> {
+                        roundTrip();
+                        yield List.of();
+                    }
+                    case "discountAndReward", "discountAndAdd", "seedPrior" -> {
+                        roundTrip();
+                        yield 1;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "SimulatedBanditArmRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private void roundTrip() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReviewBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
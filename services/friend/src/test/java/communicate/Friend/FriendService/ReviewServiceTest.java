@@ -11,18 +11,22 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static communicate.Friend.FriendService.FsrsService.GRADE_GOOD;
 import static communicate.Friend.FriendService.FsrsService.GRADE_HARD;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Offset.offset;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.doubleThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -55,7 +59,6 @@ class ReviewServiceTest {
         when(roleProperties.getDesiredRetention(any())).thenReturn(0.9);
         when(roleProperties.getMaxIntervalDays(any())).thenReturn(Integer.MAX_VALUE); // no cap unless a test overrides it
         when(explanationService.explainTemplate(any(), any(), anyInt(), anyDouble(), any())).thenReturn("template");
-        when(explanationService.explainViaLlm(anyString())).thenReturn("polished");
         service = new ReviewService(fsrs, bandit, gradeComputation, roleProperties, explanationService, leechService);
     }
 
@@ -66,11 +69,21 @@ class ReviewServiceTest {
 
         LocalDate due = service.reviewInteraction(friend, 2.0, "***", true, today);
 
-        assertThat(friend.getFsrsStability()).isCloseTo(2.3065, org.assertj.core.data.Offset.offset(1e-4));
+        assertThat(friend.getFsrsStability()).isCloseTo(2.3065, offset(1e-4));
         assertThat(due).isEqualTo(today.plusDays(2)); // baseInterval 2d x arm 1.0
         verify(bandit, never()).reward(anyString(), anyDouble(), anyBoolean());
         verifyNoInteractions(leechService);
-        assertThat(friend.getSchedulingExplanation()).isEqualTo("polished");
+        assertThat(friend.getSchedulingExplanation()).isEqualTo("template");
+        assertThat(friend.getSchedulingExplanationPending()).isTrue();
+    }
+
+    @Test
+    void neverCallsTheLlmInline_polishIsLeftToTheAsyncPipeline() {
+        when(gradeComputation.computeGrade(anyDouble(), any(), any())).thenReturn(GRADE_GOOD);
+
+        service.reviewInteraction(Friend.builder().build(), 1.0, "**", false, today);
+
+        verify(explanationService, never()).explainViaLlm(anyString());
     }
 
     @Test
@@ -135,7 +148,7 @@ class ReviewServiceTest {
         // Base FSRS interval for first Easy is 8 days; the arm stretches the
         // due date to 12 days but stability stays pure FSRS (8.2956).
         assertThat(due).isEqualTo(today.plusDays(12));
-        assertThat(friend.getFsrsStability()).isCloseTo(8.2956, org.assertj.core.data.Offset.offset(1e-4));
+        assertThat(friend.getFsrsStability()).isCloseTo(8.2956, offset(1e-4));
         assertThat(friend.getPendingBanditArm()).isEqualTo(1.5);
     }
 
@@ -153,7 +166,7 @@ class ReviewServiceTest {
 
         assertThat(due).isEqualTo(today.plusDays(10));
         // Stored FSRS stability is untouched by the cap -- only the scheduled date is clamped.
-        assertThat(friend.getFsrsStability()).isCloseTo(8.2956, org.assertj.core.data.Offset.offset(1e-4));
+        assertThat(friend.getFsrsStability()).isCloseTo(8.2956, offset(1e-4));
     }
 
     @Test
@@ -171,4 +184,45 @@ class ReviewServiceTest {
         verify(bandit, never()).reward(anyString(), anyDouble(), anyBoolean());
         verifyNoInteractions(leechService);
     }
+
+    @Test
+    void reviewInteractions_matchesThePerFriendPath_withOneBanditWrite() {
+        when(gradeComputation.computeGrade(anyDouble(), any(), any())).thenAnswer(inv ->
+            "*".equals(inv.getArgument(1)) ? GRADE_HARD : GRADE_GOOD);
+        List<Friend> batched = meetingAttendees();
+        List<Friend> single = meetingAttendees();
+
+        List<LocalDate> due = service.reviewInteractions(batched.stream()
+            .map(f -> new ReviewService.Interaction(f, 1.5, f.getFsrsStability() == null ? "*" : "**", true, today))
+            .toList());
+        List<LocalDate> singleDue = single.stream()
+            .map(f -> service.reviewInteraction(f, 1.5, f.getFsrsStability() == null ? "*" : "**", true, today))
+            .toList();
+
+        verify(bandit).rewardAll(argThat(rewards -> rewards.size() == 2));
+        verify(bandit, times(2)).reward(anyString(), anyDouble(), anyBoolean()); // the per-friend run only
+        for (int i = 0; i < batched.size(); i++) {
+            Friend b = batched.get(i), s = single.get(i);
+            assertThat(due.get(i)).isEqualTo(singleDue.get(i));
+            assertThat(b.getFsrsStability()).isCloseTo(s.getFsrsStability(), offset(1e-9));
+            assertThat(b.getFsrsDifficulty()).isCloseTo(s.getFsrsDifficulty(), offset(1e-9));
+            assertThat(b.getLastInteractionDate()).isEqualTo(s.getLastInteractionDate());
+            assertThat(b.getPendingBanditArm()).isEqualTo(s.getPendingBanditArm());
+        }
+    }
+
+    private List<Friend> meetingAttendees() {
+        return List.of(
+            Friend.builder().build(), // first interaction: initial state, no reward
+            Friend.builder()
+                .fsrsStability(2.3065).fsrsDifficulty(2.118104)
+                .lastInteractionDate(today.minusDays(3)).plannedSpeakingTime(today)
+                .pendingBanditArm(1.0).pendingBanditBucket("dEasy:sShort")
+                .build(),
+            Friend.builder()
+                .fsrsStability(12.0).fsrsDifficulty(6.0)
+                .lastInteractionDate(today.minusDays(20)).plannedSpeakingTime(today.minusDays(4))
+                .pendingBanditArm(1.5).pendingBanditBucket("dHard:sShort")
+                .build());
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.demo.Group.GroupServices;
+
+import java.util.List;
+
+/**
+ * Published by GroupKnowledgeService once per save/saveAll with the ids of
+ * the facts it just stored for one group. The group module can't call
+ * friend (friend depends on group, so that would be a module cycle) — this
+ * is how friend's FlashcardEnrollmentService finds out a starred member's
+ * deck just grew. Plain ids, not entities, so the AFTER_COMMIT listener has
+ * nothing to lazy-load.
+ */
+public record GroupKnowledgeAddedEvent(Integer groupId, List<Integer> knowledgeIds) {
+}
@@ -37,11 +37,14 @@ public class GroupKnowledgeService extends AbstractFactService<GroupKnowledge, I
 
     // Same choke-point pattern as FriendKnowledgeService — see its comment. Every
     // add/update path here (addKnowledgeToGroup, addSingleKnowledgeToGroup,
-    // updateKnowledge) funnels through save/saveAll/update.
+    // updateKnowledge) funnels through save/saveAll/update. Adds also publish
+    // one GroupKnowledgeAddedEvent per group, for flashcard enrollment of the
+    // group's starred members; an edit doesn't change who should have the card.
     @Override
     public GroupKnowledge save(GroupKnowledge item) {
         GroupKnowledge saved = super.save(item);
         publishChunkTrigger(saved);
+        publishAdded(List.of(saved));
         return saved;
     }
 
@@ -49,6 +52,7 @@ public class GroupKnowledgeService extends AbstractFactService<GroupKnowledge, I
     public List<GroupKnowledge> saveAll(List<GroupKnowledge> items) {
         List<GroupKnowledge> saved = super.saveAll(items);
         saved.forEach(this::publishChunkTrigger);
+        publishAdded(saved);
         return saved;
     }
 
@@ -65,6 +69,14 @@ public class GroupKnowledgeService extends AbstractFactService<GroupKnowledge, I
                 knowledge.getId(), "GROUP", null, groupId, null, null, knowledge.getText()));
     }
 
+    private void publishAdded(List<GroupKnowledge> saved) {
+        saved.stream()
+                .filter(knowledge -> knowledge.getGroup() != null && knowledge.getId() != null)
+                .collect(Collectors.groupingBy(knowledge -> knowledge.getGroup().getId(),
+                        Collectors.mapping(GroupKnowledge::getId, Collectors.toList())))
+                .forEach((groupId, ids) -> eventPublisher.publishEvent(new GroupKnowledgeAddedEvent(groupId, ids)));
+    }
+
     @Transactional
     public List<GroupKnowledge> addKnowledgeToGroup(Integer groupId, List<GroupKnowledge> knowledgeList) {
         SocialGroup group = socialGroupRepository.findById(groupId)
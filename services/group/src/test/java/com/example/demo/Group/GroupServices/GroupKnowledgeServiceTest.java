@@ -67,6 +67,27 @@ class GroupKnowledgeServiceTest {
         assertThat(event.connectionFriend1Id()).isNull();
     }
 
+    @Test
+    void addKnowledgeToGroup_publishesOneAddedEventForTheWholeBatch() {
+        GroupKnowledgeService service = newService();
+        SocialGroup group = new SocialGroup();
+        group.setId(4);
+        when(socialGroupRepository.findById(4)).thenReturn(Optional.of(group));
+
+        GroupKnowledge k1 = new GroupKnowledge();
+        k1.setId(10);
+        GroupKnowledge k2 = new GroupKnowledge();
+        k2.setId(11);
+        List<GroupKnowledge> items = List.of(k1, k2);
+        when(groupKnowledgeRepository.saveAll(items)).thenReturn(items);
+
+        service.addKnowledgeToGroup(4, items);
+
+        ArgumentCaptor<GroupKnowledgeAddedEvent> captor = ArgumentCaptor.forClass(GroupKnowledgeAddedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue()).isEqualTo(new GroupKnowledgeAddedEvent(4, List.of(10, 11)));
+    }
+
     @Test
     void updateKnowledge_publishesGroupChunkTriggerEvent() {
         GroupKnowledgeService service = newService();
@@ -0,0 +1,13 @@
+package com.communicator.meeting.dtos;
+
+/**
+ * One attendee of one meeting, flattened for MeetingQueryService's batched
+ * read: the attendees of every listed meeting come back from a single query
+ * and are grouped by {@code meetingId} in memory.
+ */
+public record MeetingAttendeeRow(Long meetingId, Long id, Integer friendId, String friendName, boolean present) {
+
+    public AttendeeDTO toDto() {
+        return new AttendeeDTO(id, friendId, friendName, present);
+    }
+}
@@ -38,6 +38,11 @@ public record MeetingDTO(
     ConnectionOutcome outcome
 ) {
     public static MeetingDTO from(Meeting m, List<MeetingAttendee> attendees) {
+        return of(m, attendees.stream().map(AttendeeDTO::from).toList());
+    }
+
+    /** Same, from attendees already in DTO form (MeetingQueryService's batched read). */
+    public static MeetingDTO of(Meeting m, List<AttendeeDTO> attendees) {
         MeetingType type = MeetingTypeDeriver.derive(m.isSelfAttending(), attendees.size());
         return new MeetingDTO(
             m.getId(),
@@ -52,7 +57,7 @@ public record MeetingDTO(
             m.getTime(),
             m.getLocation(),
             m.isSelfAttending(),
-            attendees.stream().map(AttendeeDTO::from).toList(),
+            attendees,
             m.getSource(),
             m.getStatus(),
             m.getNote(),
@@ -1,12 +1,33 @@
 package com.communicator.meeting.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.communicator.meeting.dtos.MeetingAttendeeRow;
 import com.communicator.meeting.entities.MeetingAttendee;
 
 public interface MeetingAttendeeRepository extends JpaRepository<MeetingAttendee, Long> {
 
     List<MeetingAttendee> findByMeetingId(Long meetingId);
+
+    // GroupMeetingService.completeGroupMeeting: the attendee rows with their
+    // friends in one statement, instead of a friend load per row.
+    @Query("SELECT a FROM MeetingAttendee a JOIN FETCH a.friend WHERE a.meeting.id = :meetingId")
+    List<MeetingAttendee> findByMeetingIdWithFriends(@Param("meetingId") Long meetingId);
+
+    // MeetingQueryService: the attendees of a whole page of meetings in one
+    // statement, grouped by meeting in memory. Also GroupMeetingService's
+    // connectionCandidates, which needs only the friend ids and names.
+    @Query("SELECT new com.communicator.meeting.dtos.MeetingAttendeeRow(a.meeting.id, a.id, f.id, f.name, a.present) "
+        + "FROM MeetingAttendee a JOIN a.friend f WHERE a.meeting.id IN :meetingIds ORDER BY a.id")
+    List<MeetingAttendeeRow> findRowsByMeetingIdIn(@Param("meetingIds") Collection<Long> meetingIds);
+
+    // The offline-bundle export: every attendee row, no IN list to grow with history.
+    @Query("SELECT new com.communicator.meeting.dtos.MeetingAttendeeRow(a.meeting.id, a.id, f.id, f.name, a.present) "
+        + "FROM MeetingAttendee a JOIN a.friend f ORDER BY a.id")
+    List<MeetingAttendeeRow> findAllRows();
 }
@@ -4,7 +4,9 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.communicator.meeting.entities.Meeting;
@@ -13,6 +15,11 @@ import com.communicator.meeting.entities.MeetingStatus;
 
 import coommunicator.connections.Connections.ConnectionsEntities.Connection;
 
+/**
+ * The list reads MeetingQueryService turns into MeetingDTOs carry an entity
+ * graph over the three subject FKs, so the friend/group/connection come back
+ * joined in the same statement instead of one select per distinct subject.
+ */
 public interface MeetingRepository extends JpaRepository<Meeting, Long> {
 
     /** The friend's single open (not DONE/CANCELLED) FSRS_PROPOSED row, if any — upsert target. */
@@ -24,17 +31,25 @@ public interface MeetingRepository extends JpaRepository<Meeting, Long> {
     List<Meeting> findByFriendIdAndSourceAndStatusNot(
         Integer friendId, MeetingSource source, MeetingStatus excludedStatus);
 
+    @EntityGraph(attributePaths = {"friend", "group", "connection"})
     List<Meeting> findByDateBetweenAndStatusNot(
         @Param("start") LocalDate start, @Param("end") LocalDate end, MeetingStatus excludedStatus);
 
     List<Meeting> findByFriendIdAndStatusNot(Integer friendId, MeetingStatus excludedStatus);
 
     /** ProfilePage's "Upcoming meetings" list, most recent history + upcoming for one friend. */
+    @EntityGraph(attributePaths = {"friend", "group", "connection"})
     List<Meeting> findByFriendIdOrderByDateDesc(Integer friendId);
 
     /** GroupDetailsPage's meeting list. */
+    @EntityGraph(attributePaths = {"friend", "group", "connection"})
     List<Meeting> findByGroupIdOrderByDateDesc(Integer groupId);
 
+    /** Every meeting with its subjects, for the offline-bundle export. */
+    @EntityGraph(attributePaths = {"friend", "group", "connection"})
+    @Query("SELECT m FROM Meeting m")
+    List<Meeting> findAllWithSubjects();
+
     /**
      * The connection pair's open scheduled-ahead row, if one exists — ConnectionMeetingService's
      * PROPOSED->DONE transition target. Ordered/first-of in case more than one PROPOSED row was
@@ -2,7 +2,12 @@ package com.communicator.meeting.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
@@ -11,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.communicator.meeting.dtos.CompleteGroupMeetingRequest;
 import com.communicator.meeting.dtos.ConnectionCandidateDTO;
 import com.communicator.meeting.dtos.ManualMeetingRequest;
+import com.communicator.meeting.dtos.MeetingAttendeeRow;
 import com.communicator.meeting.entities.Meeting;
 import com.communicator.meeting.entities.MeetingAttendee;
 import com.communicator.meeting.entities.MeetingSource;
@@ -104,11 +110,15 @@ public class GroupMeetingService {
     }
 
     /**
-     * Presence + duration/quality per attendee, iterated the same way applyTalkedToFriend grades a
-     * single 1:1 log: reviewInteraction() mutates the friend in-memory, we persist plannedSpeakingTime
-     * and publish FriendRescheduledEvent so MeetingService.onFriendRescheduled upserts each attendee's
-     * FSRS_PROPOSED row. Absent attendees are left entirely untouched (no reviewInteraction call, no
-     * attendee-row deletion — just excluded from this pass, per the plan's presence-toggle semantics).
+     * Presence + duration/quality per attendee, graded the same way applyTalkedToFriend grades a
+     * single 1:1 log, but as one batch: ReviewService.reviewInteractions() mutates every present
+     * friend in-memory (bandit rewards folded per cell, FSRS as one batch call), the friends are
+     * written in one JDBC-batched flush, and a FriendRescheduledEvent per friend lets
+     * MeetingService.onFriendRescheduled upsert each attendee's FSRS_PROPOSED row and
+     * ExplanationPolishService polish the explanations concurrently after commit. Absent attendees
+     * are left entirely untouched (no review, no attendee-row deletion — just excluded from this
+     * pass, per the plan's presence-toggle semantics). Every log is checked before anything is
+     * written.
      */
     @Transactional
     public Meeting completeGroupMeeting(Long meetingId, CompleteGroupMeetingRequest request) {
@@ -118,27 +128,52 @@ public class GroupMeetingService {
             throw new IllegalArgumentException("Meeting " + meetingId + " is not a group meeting");
         }
 
-        List<MeetingAttendee> attendeeRows = attendeeRepository.findByMeetingId(meetingId);
+        Map<Integer, MeetingAttendee> attendeeRows = new HashMap<>();
+        for (MeetingAttendee row : attendeeRepository.findByMeetingIdWithFriends(meetingId)) {
+            attendeeRows.put(row.getFriend().getId(), row);
+        }
 
+        List<MeetingAttendee> logged = new ArrayList<>(request.attendees().size());
+        Set<Integer> seen = new HashSet<>();
         for (CompleteGroupMeetingRequest.AttendeeLog log : request.attendees()) {
-            MeetingAttendee row = attendeeRows.stream()
-                .filter(a -> a.getFriend().getId().equals(log.friendId()))
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException(
-                    "Friend " + log.friendId() + " is not an attendee of meeting " + meetingId));
-            row.setPresent(log.present());
-            attendeeRepository.save(row);
+            MeetingAttendee row = attendeeRows.get(log.friendId());
+            if (row == null) {
+                throw new EntityNotFoundException(
+                    "Friend " + log.friendId() + " is not an attendee of meeting " + meetingId);
+            }
+            if (!seen.add(log.friendId())) {
+                throw new IllegalArgumentException(
+                    "Friend " + log.friendId() + " is listed twice for meeting " + meetingId);
+            }
+            logged.add(row);
+        }
 
-            if (!log.present()) {
-                continue;
+        LocalDate today = LocalDate.now();
+        List<ReviewService.Interaction> interactions = new ArrayList<>();
+        for (int i = 0; i < logged.size(); i++) {
+            CompleteGroupMeetingRequest.AttendeeLog log = request.attendees().get(i);
+            MeetingAttendee row = logged.get(i);
+            row.setPresent(log.present());
+            if (log.present()) {
+                interactions.add(new ReviewService.Interaction(row.getFriend(),
+                    log.durationHours() != null ? log.durationHours() : 0.0,
+                    log.experience(), log.inPerson(), today));
+            }
+        }
+        attendeeRepository.saveAll(logged);
+
+        if (!interactions.isEmpty()) {
+            List<LocalDate> due = reviewService.reviewInteractions(interactions);
+            List<Friend> friends = new ArrayList<>(interactions.size());
+            for (int i = 0; i < interactions.size(); i++) {
+                Friend friend = interactions.get(i).friend();
+                friend.setPlannedSpeakingTime(due.get(i));
+                friends.add(friend);
+            }
+            friendService.saveAll(friends);
+            for (int i = 0; i < friends.size(); i++) {
+                eventPublisher.publishEvent(new FriendRescheduledEvent(friends.get(i).getId(), due.get(i)));
             }
-            Friend friend = row.getFriend();
-            LocalDate plannedTime = reviewService.reviewInteraction(friend,
-                log.durationHours() != null ? log.durationHours() : 0.0,
-                log.experience(), log.inPerson(), LocalDate.now());
-            friend.setPlannedSpeakingTime(plannedTime);
-            friendService.save(friend);
-            eventPublisher.publishEvent(new FriendRescheduledEvent(friend.getId(), plannedTime));
         }
 
         meeting.setStatus(MeetingStatus.DONE);
@@ -148,32 +183,43 @@ public class GroupMeetingService {
     /**
      * Present-attendee pairs (post-complete) that already have a tracked Connection — the
      * low-friction Group-to-Connections nudge, scoped to existing rows only (no new Connections
-     * created here).
+     * created here). Two statements however big the meeting: the attendee rows (friend id and
+     * name only, no entities), then every tracked pair among them
+     * (ConnectionRepository.findIdsAmong); the n² pair walk is in memory against a set of
+     * packed pair keys.
      */
     @Transactional(readOnly = true)
     public List<ConnectionCandidateDTO> connectionCandidates(Long meetingId) {
-        List<Friend> present = attendeeRepository.findByMeetingId(meetingId).stream()
-            .filter(MeetingAttendee::isPresent)
-            .map(MeetingAttendee::getFriend)
+        List<MeetingAttendeeRow> present = attendeeRepository.findRowsByMeetingIdIn(List.of(meetingId)).stream()
+            .filter(MeetingAttendeeRow::present)
+            .sorted(Comparator.comparing(MeetingAttendeeRow::friendId))
             .toList();
+        if (present.size() < 2) {
+            return List.of();
+        }
+
+        Set<Long> tracked = new HashSet<>();
+        for (ConnectionId id : connectionRepository.findIdsAmong(
+                present.stream().map(row -> row.friendId().longValue()).toList())) {
+            tracked.add(pairKey(id.getFriend1Id(), id.getFriend2Id()));
+        }
 
         List<ConnectionCandidateDTO> candidates = new ArrayList<>();
         for (int i = 0; i < present.size(); i++) {
+            MeetingAttendeeRow first = present.get(i);
             for (int j = i + 1; j < present.size(); j++) {
-                Friend a = present.get(i);
-                Friend b = present.get(j);
-                long id1 = Math.min(a.getId(), b.getId());
-                long id2 = Math.max(a.getId(), b.getId());
-                boolean tracked = connectionRepository.findByFriendId(id1).stream()
-                    .map(Connection::getId)
-                    .anyMatch(cid -> cid.getFriend1Id() == id1 && cid.getFriend2Id() == id2);
-                if (tracked) {
-                    Friend first = a.getId() == id1 ? a : b;
-                    Friend second = a.getId() == id1 ? b : a;
-                    candidates.add(new ConnectionCandidateDTO(id1, first.getName(), id2, second.getName()));
+                MeetingAttendeeRow second = present.get(j);
+                if (tracked.contains(pairKey(first.friendId(), second.friendId()))) {
+                    candidates.add(new ConnectionCandidateDTO(first.friendId().longValue(), first.friendName(),
+                        second.friendId().longValue(), second.friendName()));
                 }
             }
         }
         return candidates;
     }
+
+    /** Friend ids are ints, so a normalized (lower, higher) pair packs losslessly into one long. */
+    private static long pairKey(long lowerId, long higherId) {
+        return lowerId << 32 | higherId;
+    }
 }
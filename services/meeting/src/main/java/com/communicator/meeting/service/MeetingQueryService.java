@@ -1,11 +1,16 @@
 package com.communicator.meeting.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.communicator.meeting.dtos.AttendeeDTO;
+import com.communicator.meeting.dtos.MeetingAttendeeRow;
 import com.communicator.meeting.dtos.MeetingDTO;
 import com.communicator.meeting.dtos.MeetingExportRow;
 import com.communicator.meeting.entities.Meeting;
@@ -15,7 +20,12 @@ import com.communicator.meeting.repositories.MeetingRepository;
 
 import lombok.RequiredArgsConstructor;
 
-/** Read-side queries backing HomePage's week board and ProfilePage's upcoming-meetings list. */
+/**
+ * Read-side queries backing HomePage's week board and ProfilePage's upcoming-meetings list.
+ * Every list is two statements whatever its length: the meetings with their subjects (entity
+ * graph, see MeetingRepository), then all of their attendees at once
+ * (MeetingAttendeeRepository.findRowsByMeetingIdIn), grouped by meeting in memory.
+ */
 @Service
 @RequiredArgsConstructor
 public class MeetingQueryService {
@@ -48,24 +58,39 @@ public class MeetingQueryService {
 
     /** Every meeting, DTO + updatedAt, for the offline-bundle export (BundleExportService in
      * bootstrap) — the only caller that needs updatedAt, so it gets its own shape
-     * (MeetingExportRow) rather than adding that field to MeetingDTO for every caller. */
+     * (MeetingExportRow) rather than adding that field to MeetingDTO for every caller. Reads
+     * every attendee row in one go rather than an IN list as long as the meeting history. */
     @Transactional(readOnly = true)
     public List<MeetingExportRow> allForExport() {
-        return meetingRepository.findAll().stream()
+        List<Meeting> meetings = meetingRepository.findAllWithSubjects();
+        Map<Long, List<AttendeeDTO>> attendees = byMeeting(attendeeRepository.findAllRows());
+        return meetings.stream()
             .map(m -> new MeetingExportRow(
-                MeetingDTO.from(m, attendeeRepository.findByMeetingId(m.getId())),
+                MeetingDTO.of(m, attendees.getOrDefault(m.getId(), List.of())),
                 m.getUpdatedAt()))
             .toList();
     }
 
     /**
-     * Loads each meeting's attendees to compute its derived type (MeetingTypeDeriver needs the
-     * attendee count) — one extra query per meeting, acceptable at this app's scale (dozens of
-     * meetings, not thousands), same tradeoff already made elsewhere for "no cache, live query."
+     * Each meeting's attendees are needed for its derived type (MeetingTypeDeriver needs the
+     * attendee count) — loaded for the whole list in one query, not one per meeting.
      */
     private List<MeetingDTO> toDtos(List<Meeting> meetings) {
+        if (meetings.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<AttendeeDTO>> attendees = byMeeting(
+            attendeeRepository.findRowsByMeetingIdIn(meetings.stream().map(Meeting::getId).toList()));
         return meetings.stream()
-            .map(m -> MeetingDTO.from(m, attendeeRepository.findByMeetingId(m.getId())))
+            .map(m -> MeetingDTO.of(m, attendees.getOrDefault(m.getId(), List.of())))
             .toList();
     }
+
+    private static Map<Long, List<AttendeeDTO>> byMeeting(List<MeetingAttendeeRow> rows) {
+        Map<Long, List<AttendeeDTO>> byMeeting = new HashMap<>();
+        for (MeetingAttendeeRow row : rows) {
+            byMeeting.computeIfAbsent(row.meetingId(), id -> new ArrayList<>()).add(row.toDto());
+        }
+        return byMeeting;
+    }
 }
@@ -0,0 +1,241 @@
+package com.communicator.meeting.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.communicator.meeting.dtos.AttendeeDTO;
+import com.communicator.meeting.dtos.ConnectionCandidateDTO;
+import com.communicator.meeting.dtos.MeetingDTO;
+import com.communicator.meeting.dtos.MeetingExportRow;
+import com.communicator.meeting.entities.Meeting;
+import com.communicator.meeting.entities.MeetingAttendee;
+import com.communicator.meeting.entities.MeetingSource;
+import com.communicator.meeting.entities.MeetingStatus;
+import com.communicator.meeting.entities.MeetingType;
+import com.communicator.meeting.service.GroupMeetingService;
+import com.communicator.meeting.service.MeetingQueryService;
+
+import com.example.demo.Group.GroupEntities.SocialGroup;
+
+import coommunicator.connections.Connections.ConnectionsEntities.Connection;
+import coommunicator.connections.Connections.ConnectionsRepositories.ConnectionRepository;
+
+import communicate.Friend.FriendEntities.Friend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every MeetingQueryService list — the week board, a friend's or a group's
+ * meetings, the bundle export — is two statements however many meetings and
+ * attendees it returns: meetings with their subjects joined, then every
+ * attendee of those meetings at once. GroupMeetingService.connectionCandidates is the same
+ * shape: the attendees, then every tracked pair among them. Runs the real JPQL through Hibernate
+ * against in-memory H2 (PostgreSQL mode), counting prepared statements with
+ * Hibernate's statistics — same harness as the friend module's query tests.
+ *
+ * Connection's generated DDL names its unique constraint's columns friend1_id/friend2_id while
+ * the physical columns are friend1id/friend2id, which H2 rejects — so the connections table is
+ * created up front by the URL's INIT and Hibernate only adds what's missing.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.datasource.url=jdbc:h2:mem:meetinglist;MODE=PostgreSQL;INIT=CREATE TABLE IF NOT EXISTS connections"
+                + "(friend1id BIGINT NOT NULL, friend2id BIGINT NOT NULL, description VARCHAR(255),"
+                + " type VARCHAR(255), PRIMARY KEY (friend1id, friend2id))"
+})
+class MeetingListQueryTest {
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = {Meeting.class, Friend.class, SocialGroup.class, Connection.class})
+    @EnableJpaRepositories(basePackageClasses = {MeetingRepository.class, ConnectionRepository.class})
+    static class Config {
+    }
+
+    @Autowired TestEntityManager entityManager;
+    @Autowired MeetingRepository meetingRepository;
+    @Autowired MeetingAttendeeRepository attendeeRepository;
+    @Autowired ConnectionRepository connectionRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private MeetingQueryService service;
+    private Statistics statistics;
+    private SocialGroup club;
+    private Friend regular;
+
+    @BeforeEach
+    void setUp() {
+        service = new MeetingQueryService(meetingRepository, attendeeRepository);
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        club = entityManager.persist(SocialGroup.builder().name("Club").build());
+        regular = friend("Regular");
+    }
+
+    private Friend friend(String name) {
+        return entityManager.persist(new Friend(name, today, "**", LocalDate.of(1990, 1, 1)));
+    }
+
+    /** A 1:1 with a fresh friend, a group meeting with three fresh attendees, and a connection meeting. */
+    private void seedWeek(int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            Friend solo = friend("Solo " + i);
+            Meeting oneOnOne = meeting(today, MeetingSource.FSRS_PROPOSED);
+            oneOnOne.setFriend(solo);
+            attend(oneOnOne, solo);
+
+            Meeting group = meeting(today, MeetingSource.MANUAL);
+            group.setGroup(club);
+            attend(group, regular);
+            attend(group, friend("Member " + i + "a"));
+            attend(group, friend("Member " + i + "b"));
+
+            Friend a = friend("Pair " + i + "a"), b = friend("Pair " + i + "b");
+            Connection pair = entityManager.persist(new Connection(a.getId().longValue(), b.getId().longValue()));
+            Meeting connection = meeting(today, MeetingSource.MANUAL);
+            connection.setConnection(pair);
+            connection.setSelfAttending(false);
+            attend(connection, a);
+            attend(connection, b);
+        }
+        entityManager.flush();
+    }
+
+    private Meeting meeting(LocalDate date, MeetingSource source) {
+        Meeting meeting = new Meeting();
+        meeting.setDate(date);
+        meeting.setSource(source);
+        return entityManager.persist(meeting);
+    }
+
+    private void attend(Meeting meeting, Friend friend) {
+        entityManager.persist(new MeetingAttendee(meeting, friend));
+    }
+
+    private <T> long statementsFor(Supplier<List<T>> read) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        assertThat(read.get()).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private <T> void assertTwoStatementsAtAnySize(Supplier<List<T>> read) {
+        seedWeek(1);
+        long small = statementsFor(read);
+        seedWeek(10);
+        long large = statementsFor(read);
+
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void thisWeek_isTwoStatements() {
+        assertTwoStatementsAtAnySize(() -> service.thisWeek(0));
+    }
+
+    @Test
+    void forGroup_isTwoStatements() {
+        assertTwoStatementsAtAnySize(() -> service.forGroup(club.getId()));
+    }
+
+    @Test
+    void allForExport_isTwoStatements() {
+        assertTwoStatementsAtAnySize(service::allForExport);
+    }
+
+    @Test
+    void upcomingForFriend_isTwoStatements() {
+        seedWeek(3);
+        for (int i = 0; i < 5; i++) {
+            meeting(today.plusDays(i), MeetingSource.MANUAL).setFriend(regular);
+        }
+        long statements = statementsFor(() -> service.upcomingForFriend(regular.getId()));
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void eachMeetingGetsExactlyItsOwnAttendees_andItsDerivedType() {
+        seedWeek(2);
+        Meeting empty = meeting(today, MeetingSource.MANUAL);
+        empty.setGroup(club);
+        Meeting cancelled = meeting(today, MeetingSource.MANUAL);
+        cancelled.setStatus(MeetingStatus.CANCELLED);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<MeetingDTO> week = service.thisWeek(0);
+
+        assertThat(week).hasSize(7).noneMatch(dto -> dto.id().equals(cancelled.getId()));
+        assertThat(week).filteredOn(dto -> dto.id().equals(empty.getId())).singleElement()
+                .satisfies(dto -> assertThat(dto.attendees()).isEmpty());
+        assertThat(week).filteredOn(dto -> dto.groupId() != null && !dto.attendees().isEmpty())
+                .hasSize(2)
+                .allSatisfy(dto -> {
+                    assertThat(dto.type()).isEqualTo(MeetingType.GROUP);
+                    assertThat(dto.groupName()).isEqualTo("Club");
+                    assertThat(dto.attendees()).extracting(AttendeeDTO::friendName).contains("Regular").hasSize(3);
+                });
+        assertThat(week).filteredOn(dto -> dto.connectionFriend1Id() != null).hasSize(2)
+                .allSatisfy(dto -> assertThat(dto.type()).isEqualTo(MeetingType.CONNECTION));
+        assertThat(week).filteredOn(dto -> dto.friendId() != null).hasSize(2)
+                .allSatisfy(dto -> assertThat(dto.attendees()).singleElement()
+                        .satisfies(a -> assertThat(a.friendName()).isEqualTo(dto.friendName())));
+
+        List<MeetingExportRow> export = service.allForExport();
+        assertThat(export).extracting(MeetingExportRow::dto).hasSize(8)
+                .filteredOn(dto -> !dto.attendees().isEmpty())
+                .allSatisfy(dto -> assertThat(week).contains(dto));
+    }
+
+    @Test
+    void connectionCandidates_twentyPersonMeeting_isTwoStatements() {
+        GroupMeetingService groupMeetingService = new GroupMeetingService(meetingRepository, attendeeRepository,
+                null, null, null, connectionRepository, null, null);
+        Meeting party = meeting(today, MeetingSource.MANUAL);
+        List<Friend> guests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Friend guest = friend("Guest " + i);
+            guests.add(guest);
+            attend(party, guest);
+        }
+        Friend outsider = friend("Outsider");
+        MeetingAttendee absent = new MeetingAttendee(party, outsider);
+        absent.setPresent(false);
+        entityManager.persist(absent);
+        connect(guests.get(4), guests.get(0));
+        connect(guests.get(7), guests.get(19));
+        connect(guests.get(0), outsider);
+        connect(guests.get(0), friend("Not invited"));
+
+        long statements = statementsFor(() -> groupMeetingService.connectionCandidates(party.getId()));
+
+        assertThat(statements).isEqualTo(2);
+        assertThat(groupMeetingService.connectionCandidates(party.getId())).containsExactly(
+                candidate(guests.get(0), guests.get(4)), candidate(guests.get(7), guests.get(19)));
+    }
+
+    private void connect(Friend a, Friend b) {
+        entityManager.persist(new Connection(a.getId().longValue(), b.getId().longValue()));
+    }
+
+    private static ConnectionCandidateDTO candidate(Friend lower, Friend higher) {
+        return new ConnectionCandidateDTO(lower.getId().longValue(), lower.getName(),
+                higher.getId().longValue(), higher.getName());
+    }
+}
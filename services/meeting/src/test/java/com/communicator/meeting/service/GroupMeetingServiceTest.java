@@ -1,6 +1,7 @@
 package com.communicator.meeting.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +13,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import com.communicator.meeting.dtos.CompleteGroupMeetingRequest;
+import com.communicator.meeting.dtos.ConnectionCandidateDTO;
 import com.communicator.meeting.dtos.ManualMeetingRequest;
+import com.communicator.meeting.dtos.MeetingAttendeeRow;
 import com.communicator.meeting.entities.Meeting;
 import com.communicator.meeting.entities.MeetingAttendee;
 import com.communicator.meeting.entities.MeetingSource;
@@ -20,6 +24,7 @@ import com.communicator.meeting.entities.MeetingStatus;
 import com.communicator.meeting.repositories.MeetingAttendeeRepository;
 import com.communicator.meeting.repositories.MeetingRepository;
 
+import com.example.demo.Group.GroupEntities.SocialGroup;
 import com.example.demo.Group.GroupRepositories.SocialGroupRepository;
 
 import coommunicator.connections.Connections.ConnectionsEntities.Connection;
@@ -28,6 +33,7 @@ import coommunicator.connections.Connections.ConnectionsRepositories.ConnectionR
 
 import communicate.Friend.FriendEntities.Friend;
 import communicate.Friend.FriendRepositories.GroupMemberRepository;
+import communicate.Friend.FriendService.FriendRescheduledEvent;
 import communicate.Friend.FriendService.FriendService;
 import communicate.Friend.FriendService.ReviewService;
 
@@ -37,10 +43,14 @@ import org.springframework.context.ApplicationEventPublisher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -162,4 +172,116 @@ class GroupMeetingServiceTest {
         assertThat(result.getStatus()).isEqualTo(MeetingStatus.PROPOSED);
         verify(attendeeRepository, times(0)).save(any());
     }
+
+    private Meeting groupMeetingWith(long meetingId, Friend... attendees) {
+        Meeting meeting = new Meeting();
+        meeting.setId(meetingId);
+        meeting.setGroup(SocialGroup.builder().id(9).name("Club").build());
+        meeting.setStatus(MeetingStatus.PROPOSED);
+        when(meetingRepository.findById(meetingId)).thenReturn(Optional.of(meeting));
+        when(meetingRepository.save(any(Meeting.class))).thenAnswer(inv -> inv.getArgument(0));
+        List<MeetingAttendee> rows = new ArrayList<>();
+        for (Friend friend : attendees) {
+            rows.add(new MeetingAttendee(meeting, friend));
+        }
+        when(attendeeRepository.findByMeetingIdWithFriends(meetingId)).thenReturn(rows);
+        return meeting;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void completeGroupMeeting_reviewsPresentAttendeesInOneBatch_andSavesThemOnce() {
+        GroupMeetingService service = newService();
+        Friend ann = friendOf(1), bob = friendOf(2), cat = friendOf(3);
+        groupMeetingWith(5L, ann, bob, cat);
+        LocalDate annDue = LocalDate.now().plusDays(4), catDue = LocalDate.now().plusDays(9);
+        when(reviewService.reviewInteractions(any())).thenReturn(List.of(annDue, catDue));
+
+        Meeting result = service.completeGroupMeeting(5L, new CompleteGroupMeetingRequest(List.of(
+            new CompleteGroupMeetingRequest.AttendeeLog(1, true, 2.0, "***", true),
+            new CompleteGroupMeetingRequest.AttendeeLog(2, false, null, null, null),
+            new CompleteGroupMeetingRequest.AttendeeLog(3, true, null, "**", true))));
+
+        ArgumentCaptor<List<ReviewService.Interaction>> interactions = ArgumentCaptor.forClass(List.class);
+        verify(reviewService, times(1)).reviewInteractions(interactions.capture());
+        assertThat(interactions.getValue())
+            .extracting(ReviewService.Interaction::friend, ReviewService.Interaction::durationHours,
+                ReviewService.Interaction::experience)
+            .containsExactly(tuple(ann, 2.0, "***"), tuple(cat, 0.0, "**"));
+        verify(reviewService, never()).reviewInteraction(any(), anyDouble(), any(), any(), any());
+        verify(friendService, times(1)).saveAll(List.of(ann, cat));
+        verify(friendService, never()).save(any());
+        verify(eventPublisher).publishEvent(new FriendRescheduledEvent(1, annDue));
+        verify(eventPublisher).publishEvent(new FriendRescheduledEvent(3, catDue));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        assertThat(ann.getPlannedSpeakingTime()).isEqualTo(annDue);
+        assertThat(bob.getPlannedSpeakingTime()).isNull();
+        assertThat(result.getStatus()).isEqualTo(MeetingStatus.DONE);
+    }
+
+    @Test
+    void completeGroupMeeting_nonAttendee_rejectedBeforeAnyWrite() {
+        GroupMeetingService service = newService();
+        groupMeetingWith(5L, friendOf(1));
+
+        assertThatThrownBy(() -> service.completeGroupMeeting(5L, new CompleteGroupMeetingRequest(List.of(
+            new CompleteGroupMeetingRequest.AttendeeLog(1, true, 1.0, "**", true),
+            new CompleteGroupMeetingRequest.AttendeeLog(7, true, 1.0, "**", true)))))
+            .isInstanceOf(EntityNotFoundException.class);
+
+        verifyNoInteractions(reviewService, friendService, eventPublisher);
+        verify(attendeeRepository, never()).saveAll(any());
+        verify(meetingRepository, never()).save(any());
+    }
+
+    @Test
+    void completeGroupMeeting_friendListedTwice_rejected() {
+        GroupMeetingService service = newService();
+        groupMeetingWith(5L, friendOf(1));
+
+        assertThatThrownBy(() -> service.completeGroupMeeting(5L, new CompleteGroupMeetingRequest(List.of(
+            new CompleteGroupMeetingRequest.AttendeeLog(1, true, 1.0, "**", true),
+            new CompleteGroupMeetingRequest.AttendeeLog(1, false, null, null, null)))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("listed twice");
+
+        verifyNoInteractions(reviewService, friendService, eventPublisher);
+    }
+
+    private void completedMeetingWith(long meetingId, List<Friend> present, List<Friend> absent) {
+        List<MeetingAttendeeRow> rows = new ArrayList<>();
+        for (Friend friend : present) {
+            rows.add(new MeetingAttendeeRow(meetingId, (long) rows.size(), friend.getId(), friend.getName(), true));
+        }
+        for (Friend friend : absent) {
+            rows.add(new MeetingAttendeeRow(meetingId, (long) rows.size(), friend.getId(), friend.getName(), false));
+        }
+        when(attendeeRepository.findRowsByMeetingIdIn(List.of(meetingId))).thenReturn(rows);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void connectionCandidates_lookUpEveryPairInOneQuery_overPresentAttendeesOnly() {
+        GroupMeetingService service = newService();
+        completedMeetingWith(5L, List.of(friendOf(3), friendOf(1), friendOf(2)), List.of(friendOf(4)));
+        when(connectionRepository.findIdsAmong(any())).thenReturn(List.of(new ConnectionId(1L, 3L)));
+
+        assertThat(service.connectionCandidates(5L))
+            .containsExactly(new ConnectionCandidateDTO(1L, "Friend 1", 3L, "Friend 3"));
+
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(connectionRepository, times(1)).findIdsAmong(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        verify(connectionRepository, never()).findByFriendId(any());
+        verify(connectionRepository, never()).findById(any());
+    }
+
+    @Test
+    void connectionCandidates_fewerThanTwoPresent_skipsTheConnectionQuery() {
+        GroupMeetingService service = newService();
+        completedMeetingWith(5L, List.of(friendOf(1)), List.of(friendOf(2)));
+
+        assertThat(service.connectionCandidates(5L)).isEmpty();
+        verifyNoInteractions(connectionRepository);
+    }
 }